@@ -0,0 +1,87 @@
+package com.globalsearch.benchmark;
+
+import com.globalsearch.entity.Sensor;
+import com.globalsearch.service.ProductionDataSeeder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Names, descriptions and queries shaped like the data of ProductionDataSeeder.
+ * The vocabularies are read from the seeder itself so both stay in sync.
+ */
+public final class BenchmarkCorpus {
+
+    public static final String[] INDUSTRIES = vocabulary("INDUSTRIES");
+    public static final String[] CITIES = vocabulary("CITIES");
+    public static final String[] COUNTRIES = vocabulary("COUNTRIES");
+    public static final String[] LOCATION_TYPES = vocabulary("LOCATION_TYPES");
+    public static final String[] ZONE_TYPES = vocabulary("ZONE_TYPES");
+    public static final String[] SENSOR_MANUFACTURERS = vocabulary("SENSOR_MANUFACTURERS");
+
+    /** Queries users type: exact terms, typos, multi-word and synonym-expandable queries */
+    public static final String[] QUERIES = {
+            "sensor", "temperature", "Copenhagen", "warehouse", "Siemens",
+            "temprature", "warehuse", "Honeywel",
+            "temperature sensor", "Company_42", "active zone"
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * A sensor name and description per entry, built like the seeder builds them:
+     * "Sensor_Zone_Location_Company_12_7_1_2" and "TEMPERATURE sensor in Zone_Location_Company_12_7_1"
+     */
+    public static List<String[]> sensorTexts(int count, long seed) {
+        Random random = new Random(seed);
+        Sensor.SensorType[] types = Sensor.SensorType.values();
+        List<String[]> texts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String zone = zoneName(random);
+            String type = types[random.nextInt(types.length)].name();
+            texts.add(new String[]{
+                    "Sensor_" + zone + "_" + (1 + random.nextInt(3)),
+                    type + " sensor in " + zone
+            });
+        }
+        return texts;
+    }
+
+    /**
+     * Free-text descriptions mixing the vocabularies, for highlighting and term matching
+     */
+    public static List<String> descriptions(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> descriptions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            descriptions.add(pick(random, INDUSTRIES) + " " + pick(random, LOCATION_TYPES) + " in "
+                    + pick(random, CITIES) + ", " + pick(random, COUNTRIES) + " with "
+                    + pick(random, SENSOR_MANUFACTURERS) + " temperature and humidity sensors in the "
+                    + pick(random, ZONE_TYPES) + " zone");
+        }
+        return descriptions;
+    }
+
+    public static String companyName(Random random) {
+        return "Company_" + (1 + random.nextInt(100));
+    }
+
+    public static String locationName(Random random) {
+        return "Location_" + companyName(random) + "_" + (1 + random.nextInt(50));
+    }
+
+    public static String zoneName(Random random) {
+        return "Zone_" + locationName(random) + "_" + (1 + random.nextInt(2));
+    }
+
+    public static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String[] vocabulary(String field) {
+        return (String[]) ReflectionTestUtils.getField(ProductionDataSeeder.class, field);
+    }
+}
@@ -0,0 +1,88 @@
+package com.globalsearch.benchmark;
+
+import com.globalsearch.util.SearchUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchUtils methods that run once per result item of every search.
+ *
+ * Each invocation handles the next name/description of the corpus, so results cover the
+ * whole vocabulary instead of one constant-folded input. The search terms are built like
+ * SearchService builds them: the query plus its synonyms. Run with -prof gc (the default
+ * of the benchmark profile) for gc.alloc.rate.norm, the bytes allocated per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class SearchUtilsBenchmark {
+
+    private static final int CORPUS_SIZE = 1024;
+
+    /** A term, a typo, a multi-word query and one with synonyms */
+    @Param({"temperature", "temprature", "Copenhagen warehouse", "sensor"})
+    public String query;
+
+    private String[] names;
+    private String[] descriptions;
+    private List<String> searchTerms;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String[]> sensors = BenchmarkCorpus.sensorTexts(CORPUS_SIZE, 42);
+        List<String> freeText = BenchmarkCorpus.descriptions(CORPUS_SIZE, 43);
+        names = new String[CORPUS_SIZE];
+        descriptions = new String[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            names[i] = sensors.get(i)[0];
+            // Alternate seeder descriptions and longer free text
+            descriptions[i] = i % 2 == 0 ? sensors.get(i)[1] : freeText.get(i);
+        }
+
+        searchTerms = new ArrayList<>();
+        searchTerms.add(query);
+        searchTerms.addAll(SearchUtils.expandWithSynonyms(query));
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (CORPUS_SIZE - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int levenshteinDistance() {
+        return SearchUtils.levenshteinDistance(names[nextIndex()], query);
+    }
+
+    @Benchmark
+    public boolean isFuzzyMatch() {
+        return SearchUtils.isFuzzyMatch(names[nextIndex()], query, 2);
+    }
+
+    @Benchmark
+    public String highlight() {
+        return SearchUtils.highlight(descriptions[nextIndex()], query);
+    }
+
+    @Benchmark
+    public String highlightMultiple() {
+        return SearchUtils.highlightMultiple(descriptions[nextIndex()], searchTerms);
+    }
+
+    @Benchmark
+    public List<String> getMatchedTerms() {
+        return SearchUtils.getMatchedTerms(descriptions[nextIndex()], searchTerms);
+    }
+
+    @Benchmark
+    public List<String> expandWithSynonyms() {
+        return SearchUtils.expandWithSynonyms(query);
+    }
+}
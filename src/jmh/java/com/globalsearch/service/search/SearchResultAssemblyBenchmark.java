@@ -0,0 +1,224 @@
+package com.globalsearch.service.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalsearch.benchmark.BenchmarkCorpus;
+import com.globalsearch.document.*;
+import com.globalsearch.dto.request.GlobalSearchRequest;
+import com.globalsearch.dto.response.GlobalSearchResponse;
+import com.globalsearch.entity.Sensor;
+import com.globalsearch.util.SearchUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-side cost of a search once the documents are back from Elasticsearch: the
+ * toSearchResultItem overloads, the relevance sort and Jackson serialization of the
+ * GlobalSearchResponse, for 100, 10k and 100k hits spread evenly over the six entity types.
+ *
+ * Run through main to get every number per result: it sets operationsPerInvocation to
+ * the number of hits, so gc.alloc.rate.norm is bytes allocated per result item. Through
+ * org.openjdk.jmh.Main the numbers are per search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SearchResultAssemblyBenchmark {
+
+    private static final Comparator<GlobalSearchResponse.SearchResultItem> BY_RELEVANCE =
+            Comparator.comparing(GlobalSearchResponse.SearchResultItem::getRelevanceScore).reversed();
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private SearchService searchService;
+    private ObjectMapper objectMapper;
+    private GlobalSearchRequest request;
+    private List<String> searchTerms;
+
+    private List<CompanyDocument> companies;
+    private List<LocationDocument> locations;
+    private List<ZoneDocument> zones;
+    private List<SensorDocument> sensors;
+    private List<ReportDocument> reports;
+    private List<DashboardDocument> dashboards;
+
+    private List<GlobalSearchResponse.SearchResultItem> assembled;
+    private GlobalSearchResponse response;
+
+    @Setup
+    public void setUp() {
+        // The overloads use none of the service's dependencies
+        searchService = new SearchService(null, null, null, null, null, null, null, null, null, null, null);
+        // Same defaults as the ObjectMapper Spring Boot configures for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        request = GlobalSearchRequest.builder()
+                .query("temperature")
+                .enableFuzzySearch(true)
+                .enableSynonyms(true)
+                .build();
+        searchTerms = new ArrayList<>();
+        searchTerms.add(request.getQuery());
+        searchTerms.addAll(SearchUtils.expandWithSynonyms(request.getQuery()));
+
+        Random random = new Random(42);
+        int perType = Math.max(1, size / 6);
+        companies = new ArrayList<>(perType);
+        locations = new ArrayList<>(perType);
+        zones = new ArrayList<>(perType);
+        sensors = new ArrayList<>(perType);
+        reports = new ArrayList<>(perType);
+        dashboards = new ArrayList<>(perType);
+        Sensor.SensorType[] sensorTypes = Sensor.SensorType.values();
+
+        for (long id = 1; id <= perType; id++) {
+            String tenantId = "TENANT_" + (1 + random.nextInt(100));
+            String company = BenchmarkCorpus.companyName(random);
+            String location = BenchmarkCorpus.locationName(random);
+            String zone = BenchmarkCorpus.zoneName(random);
+            String sensorType = sensorTypes[random.nextInt(sensorTypes.length)].name();
+
+            companies.add(CompanyDocument.builder()
+                    .id(id).tenantId(tenantId).name(company)
+                    .description("Production-scale test company " + id)
+                    .industry(BenchmarkCorpus.pick(random, BenchmarkCorpus.INDUSTRIES))
+                    .city(BenchmarkCorpus.pick(random, BenchmarkCorpus.CITIES))
+                    .status("ACTIVE")
+                    .build());
+            locations.add(LocationDocument.builder()
+                    .id(id).tenantId(tenantId).companyId(id).name(location)
+                    .description("Production location for " + company)
+                    .city(BenchmarkCorpus.pick(random, BenchmarkCorpus.CITIES))
+                    .country(BenchmarkCorpus.pick(random, BenchmarkCorpus.COUNTRIES))
+                    .status("ACTIVE")
+                    .build());
+            zones.add(ZoneDocument.builder()
+                    .id(id).tenantId(tenantId).locationId(id).name(zone)
+                    .description("Zone " + id + " in " + location)
+                    .type(BenchmarkCorpus.pick(random, BenchmarkCorpus.ZONE_TYPES))
+                    .status("ACTIVE")
+                    .build());
+            sensors.add(SensorDocument.builder()
+                    .id(id).tenantId(tenantId).zoneId(id).name("Sensor_" + zone + "_" + (1 + random.nextInt(3)))
+                    .description(sensorType + " sensor in " + zone)
+                    .serialNumber("SN-" + Long.toHexString(random.nextLong()).toUpperCase())
+                    .sensorType(sensorType)
+                    .status("ACTIVE")
+                    .build());
+            reports.add(ReportDocument.builder()
+                    .id(id).tenantId(tenantId).name("Report_" + company + "_" + id)
+                    .description("Report " + id + " for " + company)
+                    .reportType("SENSOR_HEALTH")
+                    .createdBy((long) random.nextInt(100))
+                    .build());
+            dashboards.add(DashboardDocument.builder()
+                    .id(id).tenantId(tenantId).name("Dashboard_" + company + "_" + id)
+                    .description("Dashboard " + id + " for " + company)
+                    .dashboardType("OPERATIONAL")
+                    .isShared(random.nextBoolean())
+                    .build());
+        }
+
+        // Kept in merge order: sort() must not start from already sorted input
+        assembled = assemble();
+        List<GlobalSearchResponse.SearchResultItem> sorted = new ArrayList<>(assembled);
+        sorted.sort(BY_RELEVANCE);
+        response = toResponse(sorted);
+    }
+
+    /**
+     * Mapping every hit to a result item, like SearchService.convert does per entity type
+     */
+    @Benchmark
+    public List<GlobalSearchResponse.SearchResultItem> assemble() {
+        List<GlobalSearchResponse.SearchResultItem> results = new ArrayList<>();
+        for (CompanyDocument doc : companies) {
+            results.add(searchService.toSearchResultItem(doc, request, searchTerms));
+        }
+        for (LocationDocument doc : locations) {
+            results.add(searchService.toSearchResultItem(doc, request, searchTerms));
+        }
+        for (ZoneDocument doc : zones) {
+            results.add(searchService.toSearchResultItem(doc, request, searchTerms));
+        }
+        for (SensorDocument doc : sensors) {
+            results.add(searchService.toSearchResultItem(doc, request, searchTerms));
+        }
+        for (ReportDocument doc : reports) {
+            results.add(searchService.toSearchResultItem(doc, request, searchTerms));
+        }
+        for (DashboardDocument doc : dashboards) {
+            results.add(searchService.toSearchResultItem(doc, request, searchTerms));
+        }
+        return results;
+    }
+
+    /**
+     * The relevance sort over all hits, on a copy in the order the entity types are merged
+     */
+    @Benchmark
+    public List<GlobalSearchResponse.SearchResultItem> sort() {
+        List<GlobalSearchResponse.SearchResultItem> results = new ArrayList<>(assembled);
+        results.sort(BY_RELEVANCE);
+        return results;
+    }
+
+    /**
+     * Serializing a response holding every hit
+     */
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * Assembly, sort and serialization together
+     */
+    @Benchmark
+    public byte[] assembleSortSerialize() throws Exception {
+        List<GlobalSearchResponse.SearchResultItem> results = assemble();
+        results.sort(BY_RELEVANCE);
+        return objectMapper.writeValueAsBytes(toResponse(results));
+    }
+
+    private GlobalSearchResponse toResponse(List<GlobalSearchResponse.SearchResultItem> results) {
+        return GlobalSearchResponse.builder()
+                .results(results)
+                .totalResults((long) results.size())
+                .currentPage(0)
+                .totalPages(1)
+                .pageSize(results.size())
+                .searchDurationMs(42L)
+                .build();
+    }
+
+    /**
+     * Runs every size with the numbers normalized per result item
+     */
+    public static void main(String[] args) throws RunnerException {
+        for (String size : new String[]{"100", "10000", "100000"}) {
+            int hits = (Integer.parseInt(size) / 6) * 6;
+            Options options = new OptionsBuilder()
+                    .include(SearchResultAssemblyBenchmark.class.getSimpleName())
+                    .param("size", size)
+                    .operationsPerInvocation(hits)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
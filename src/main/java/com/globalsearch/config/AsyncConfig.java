@@ -1,18 +1,39 @@
 package com.globalsearch.config;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * Executors for @Async work, each instrumented by ExecutorMonitor
+ * (wait/execution timers, queue depth, rejections, saturation warnings)
+ */
 @Configuration
 @EnableAsync
+@RequiredArgsConstructor
 @Slf4j
 public class AsyncConfig {
 
+    private final ExecutorMonitor executorMonitor;
+
+    @Value("${auth.executor.enabled:true}")
+    private boolean authExecutorEnabled;
+
+    // 0: half the available processors, leaving the rest to request threads
+    @Value("${auth.executor.threads:0}")
+    private int authExecutorThreads;
+
+    @Value("${auth.executor.queue-capacity:50}")
+    private int authExecutorQueueCapacity;
+
     /**
      * Thread pool for async audit logging
      * This ensures audit logs don't slow down main request processing
@@ -26,12 +47,97 @@ public class AsyncConfig {
         executor.setThreadNamePrefix("audit-log-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
+        executor.setRejectedExecutionHandler(executorMonitor.countRejections(
+                "auditLogExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.setTaskDecorator(executorMonitor.taskDecorator("auditLogExecutor"));
         executor.initialize();
+        executorMonitor.register("auditLogExecutor", executor.getThreadPoolExecutor());
 
         log.info("Audit log executor initialized with core pool size: 2, max pool size: 5");
         return executor;
     }
 
+    /**
+     * Thread pool for WebSocket notifications
+     * Kept apart from the default pool so search notifications never queue behind other work.
+     * Notifications are best-effort: when saturated the oldest queued one is discarded.
+     */
+    @Bean(name = "notificationExecutor")
+    public Executor notificationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("notification-");
+        executor.setRejectedExecutionHandler(executorMonitor.countRejections(
+                "notificationExecutor", new ThreadPoolExecutor.DiscardOldestPolicy()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.setTaskDecorator(executorMonitor.taskDecorator("notificationExecutor"));
+        executor.initialize();
+        executorMonitor.register("notificationExecutor", executor.getThreadPoolExecutor());
+
+        log.info("Notification executor initialized with core pool size: 2, max pool size: 4");
+        return executor;
+    }
+
+    /**
+     * Thread pool for re-running slow queries with the Elasticsearch profile API
+     * A single thread keeps profiling load on the cluster low; when the queue is full the
+     * request is rejected and the slow query is marked as failed to profile.
+     */
+    @Bean(name = "searchProfileExecutor")
+    public Executor searchProfileExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("search-profile-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setRejectedExecutionHandler(executorMonitor.countRejections(
+                "searchProfileExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.setTaskDecorator(executorMonitor.taskDecorator("searchProfileExecutor"));
+        executor.initialize();
+        executorMonitor.register("searchProfileExecutor", executor.getThreadPoolExecutor());
+
+        log.info("Search profile executor initialized with pool size: 1, queue capacity: 20");
+        return executor;
+    }
+
+    /**
+     * Thread pool for password verification on login
+     * BCrypt is CPU-bound, so a login storm on the request threads would take CPU and
+     * threads from searches. Here at most the pool size of hashes run at once, and when
+     * the queue is full the login is rejected at once and answered with 503 and Retry-After.
+     * Disabled, logins run on the request thread (tests that share a transaction with it).
+     */
+    @Bean(name = "authExecutor")
+    public Executor authExecutor() {
+        if (!authExecutorEnabled) {
+            log.info("Auth executor disabled, logins run on the request thread");
+            return new SyncTaskExecutor();
+        }
+        int threads = authExecutorThreads > 0
+                ? authExecutorThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(authExecutorQueueCapacity);
+        executor.setThreadNamePrefix("auth-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.setRejectedExecutionHandler(executorMonitor.countRejections(
+                "authExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.setTaskDecorator(executorMonitor.taskDecorator("authExecutor"));
+        executor.initialize();
+        executorMonitor.register("authExecutor", executor.getThreadPoolExecutor());
+
+        log.info("Auth executor initialized with pool size: {}, queue capacity: {}",
+                threads, authExecutorQueueCapacity);
+        return executor;
+    }
+
     /**
      * Default executor for other async tasks
      */
@@ -44,7 +150,11 @@ public class AsyncConfig {
         executor.setThreadNamePrefix("async-task-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
+        executor.setRejectedExecutionHandler(executorMonitor.countRejections(
+                "taskExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.setTaskDecorator(executorMonitor.taskDecorator("taskExecutor"));
         executor.initialize();
+        executorMonitor.register("taskExecutor", executor.getThreadPoolExecutor());
 
         log.info("Task executor initialized with core pool size: 5, max pool size: 10");
         return executor;
@@ -0,0 +1,322 @@
+package com.globalsearch.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Instrumentation for the application's thread pools and Tomcat's request threads.
+ *
+ * Executors from AsyncConfig get a TaskDecorator and a counting RejectedExecutionHandler:
+ * - executor.active, executor.queued, executor.pool.size, ... (Micrometer ExecutorServiceMetrics), tag name
+ * - executor.task.wait (timer): time from submission until a thread picks the task up, tag name
+ * - executor.task.execution (timer): run time, tag name
+ * - executor.rejected (counter): tag name
+ *
+ * The task type is the first application frame that submitted the task, for @Async
+ * methods the proxied method, e.g. "AuditLogService.logSearchEvent". Finding it walks the
+ * stack, so it is only done for tasks that have to wait for a thread: the ones the queue
+ * snapshots of warnings and stats can show. Tomcat's request threads are covered by the
+ * tomcat.threads.* meters (server.tomcat.mbeanregistry.enabled) and by the saturation check.
+ *
+ * A pool is saturated when all threads are busy or its queue is filled beyond
+ * saturation-threshold. Saturation and rejections are logged at most once per
+ * warn-interval-ms per pool, with the most frequent task types in the queue.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutorMonitor {
+
+    static final String TOMCAT = "tomcat";
+    private static final String APP_PACKAGE = "com.globalsearch.";
+    private static final String UNKNOWN_TASK = "unknown";
+    private static final int TOP_TASK_TYPES = 5;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${executor.metrics.saturation-threshold:0.8}")
+    private double saturationThreshold;
+
+    @Value("${executor.metrics.warn-interval-ms:60000}")
+    private long warnIntervalMs;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastWarning = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> runningTasks = new ConcurrentHashMap<>();
+
+    /**
+     * Decorator measuring wait and execution time of the tasks of one executor
+     */
+    public TaskDecorator taskDecorator(String name) {
+        Timer waitTimer = Timer.builder("executor.task.wait")
+                .description("Time tasks spend queued before a thread runs them")
+                .tag("name", name)
+                .register(meterRegistry);
+        Timer executionTimer = Timer.builder("executor.task.execution")
+                .description("Time tasks take to run")
+                .tag("name", name)
+                .register(meterRegistry);
+        AtomicInteger running = runningTasks(name);
+
+        return runnable -> new InstrumentedTask(runnable, mustWait(name, running) ? taskType() : UNKNOWN_TASK,
+                running, waitTimer, executionTimer);
+    }
+
+    /**
+     * Whether a task submitted now is queued behind others or finds every core thread busy.
+     * The pool only starts a task right away otherwise, so its type would never be reported.
+     */
+    private boolean mustWait(String name, AtomicInteger running) {
+        Pool pool = pools.get(name);
+        return pool == null || !pool.queue().isEmpty() || running.get() >= pool.corePoolSize();
+    }
+
+    private AtomicInteger runningTasks(String name) {
+        return runningTasks.computeIfAbsent(name, key -> new AtomicInteger());
+    }
+
+    /**
+     * Wrap a rejection policy so rejections are counted and logged before it applies
+     */
+    public RejectedExecutionHandler countRejections(String name, RejectedExecutionHandler policy) {
+        Counter rejected = rejectionCounter(name);
+        return (task, executor) -> {
+            rejected.increment();
+            warnIfDue(name, "rejected a " + typeOf(task) + " task", pools.get(name));
+            policy.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * Register an initialized pool for gauges and the saturation check
+     */
+    public void register(String name, ThreadPoolExecutor executor) {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+        rejectionCounter(name);
+        pools.put(name, new Pool(
+                executor::getActiveCount,
+                executor::getPoolSize,
+                executor::getCorePoolSize,
+                executor::getMaximumPoolSize,
+                executor::getQueue));
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (!(event.getWebServer() instanceof TomcatWebServer)) {
+            return;
+        }
+        Executor executor = ((TomcatWebServer) event.getWebServer())
+                .getTomcat().getConnector().getProtocolHandler().getExecutor();
+        // Tomcat ships its own ThreadPoolExecutor, it does not extend the JDK one
+        if (executor instanceof org.apache.tomcat.util.threads.ThreadPoolExecutor) {
+            org.apache.tomcat.util.threads.ThreadPoolExecutor tomcatPool =
+                    (org.apache.tomcat.util.threads.ThreadPoolExecutor) executor;
+            pools.put(TOMCAT, new Pool(
+                    tomcatPool::getActiveCount,
+                    tomcatPool::getPoolSize,
+                    tomcatPool::getCorePoolSize,
+                    tomcatPool::getMaximumPoolSize,
+                    tomcatPool::getQueue));
+            log.info("Monitoring Tomcat request threads for saturation (max {})", tomcatPool.getMaximumPoolSize());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${executor.metrics.check-interval-ms:5000}")
+    public void checkSaturation() {
+        pools.forEach((name, pool) -> {
+            if (pool.isSaturated(saturationThreshold)) {
+                warnIfDue(name, "is saturated", pool);
+            }
+        });
+    }
+
+    /**
+     * Current state of every monitored pool
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        pools.forEach((name, pool) -> {
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("activeThreads", pool.active());
+            poolStats.put("poolSize", pool.poolSize());
+            poolStats.put("maxPoolSize", pool.maxPoolSize());
+            poolStats.put("queued", pool.queue().size());
+            poolStats.put("queueRemainingCapacity", pool.queue().remainingCapacity());
+            Counter rejected = rejections.get(name);
+            poolStats.put("rejected", rejected != null ? (long) rejected.count() : 0L);
+            poolStats.put("saturated", pool.isSaturated(saturationThreshold));
+            poolStats.put("topQueuedTaskTypes", topQueuedTaskTypes(pool));
+            stats.put(name, poolStats);
+        });
+        return stats;
+    }
+
+    private void warnIfDue(String name, String reason, Pool pool) {
+        long now = System.currentTimeMillis();
+        AtomicLong last = lastWarning.computeIfAbsent(name, key -> new AtomicLong());
+        long previous = last.get();
+        if (now - previous < warnIntervalMs || !last.compareAndSet(previous, now)) {
+            return;
+        }
+
+        if (pool == null) {
+            log.warn("Executor '{}' {}", name, reason);
+            return;
+        }
+        log.warn("Executor '{}' {}: {}/{} threads active, {} queued, top queued task types: {}",
+                name, reason, pool.active(), pool.maxPoolSize(), pool.queue().size(), topQueuedTaskTypes(pool));
+    }
+
+    private Map<String, Long> topQueuedTaskTypes(Pool pool) {
+        // Only runs for warnings and stats, iterating the queue is weakly consistent but safe
+        Map<String, Long> counts = new HashMap<>();
+        for (Runnable task : pool.queue()) {
+            counts.merge(typeOf(task), 1L, Long::sum);
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_TASK_TYPES)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private Counter rejectionCounter(String name) {
+        return rejections.computeIfAbsent(name, key -> Counter.builder("executor.rejected")
+                .description("Tasks rejected because the executor was full")
+                .tag("name", key)
+                .register(meterRegistry));
+    }
+
+    private static String typeOf(Runnable task) {
+        return task instanceof InstrumentedTask
+                ? ((InstrumentedTask) task).taskType
+                : task.getClass().getSimpleName();
+    }
+
+    /**
+     * First application frame below the executor call, with CGLIB proxy suffixes removed
+     */
+    static String taskType() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE) && !isMonitorFrame(frame.getClassName()))
+                .findFirst()
+                .map(frame -> simpleClassName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElse(UNKNOWN_TASK));
+    }
+
+    private static boolean isMonitorFrame(String className) {
+        String monitor = ExecutorMonitor.class.getName();
+        return className.equals(monitor) || className.startsWith(monitor + "$");
+    }
+
+    static String simpleClassName(String className) {
+        int proxySuffix = className.indexOf("$$");
+        String name = proxySuffix > 0 ? className.substring(0, proxySuffix) : className;
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Read-only view of a JDK or Tomcat thread pool
+     */
+    private static class Pool {
+
+        private final IntSupplier active;
+        private final IntSupplier poolSize;
+        private final IntSupplier corePoolSize;
+        private final IntSupplier maxPoolSize;
+        private final Supplier<BlockingQueue<Runnable>> queue;
+
+        Pool(IntSupplier active, IntSupplier poolSize, IntSupplier corePoolSize, IntSupplier maxPoolSize,
+             Supplier<BlockingQueue<Runnable>> queue) {
+            this.active = active;
+            this.poolSize = poolSize;
+            this.corePoolSize = corePoolSize;
+            this.maxPoolSize = maxPoolSize;
+            this.queue = queue;
+        }
+
+        int active() {
+            return active.getAsInt();
+        }
+
+        int poolSize() {
+            return poolSize.getAsInt();
+        }
+
+        int corePoolSize() {
+            return corePoolSize.getAsInt();
+        }
+
+        int maxPoolSize() {
+            return maxPoolSize.getAsInt();
+        }
+
+        BlockingQueue<Runnable> queue() {
+            return queue.get();
+        }
+
+        boolean isSaturated(double threshold) {
+            if (active() >= maxPoolSize()) {
+                return true;
+            }
+            BlockingQueue<Runnable> tasks = queue();
+            int queued = tasks.size();
+            long capacity = (long) queued + tasks.remainingCapacity();
+            // Unbounded queues (Tomcat's) and hand-off queues only saturate through the threads
+            return capacity > 0 && capacity < Integer.MAX_VALUE && queued >= threshold * capacity;
+        }
+    }
+
+    private static class InstrumentedTask implements Runnable {
+
+        private final Runnable delegate;
+        private final String taskType;
+        private final AtomicInteger running;
+        private final Timer waitTimer;
+        private final Timer executionTimer;
+        private final long submittedNanos = System.nanoTime();
+
+        InstrumentedTask(Runnable delegate, String taskType, AtomicInteger running, Timer waitTimer, Timer executionTimer) {
+            this.delegate = delegate;
+            this.taskType = taskType;
+            this.running = running;
+            this.waitTimer = waitTimer;
+            this.executionTimer = executionTimer;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            waitTimer.record(startNanos - submittedNanos, TimeUnit.NANOSECONDS);
+            running.incrementAndGet();
+            try {
+                delegate.run();
+            } finally {
+                running.decrementAndGet();
+                executionTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
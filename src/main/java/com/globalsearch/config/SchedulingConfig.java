@@ -0,0 +1,30 @@
+package com.globalsearch.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+@Slf4j
+public class SchedulingConfig {
+
+    /**
+     * Scheduler for background maintenance jobs (consistency checks, retries, metric rollups)
+     * Several threads so a long-running job does not delay the others
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        scheduler.initialize();
+
+        log.info("Task scheduler initialized with pool size: 4");
+        return scheduler;
+    }
+}
@@ -2,6 +2,8 @@ package com.globalsearch.config;
 
 import com.globalsearch.security.JwtAuthenticationEntryPoint;
 import com.globalsearch.security.JwtAuthenticationFilter;
+import com.globalsearch.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,6 +36,7 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -87,6 +90,8 @@ public class SecurityConfig {
 
                         // Admin only endpoints
                         .requestMatchers("/api/admin/**").hasRole("SUPER_ADMIN")
+                        // Metrics carry tenant ids; Prometheus scrapes with a SUPER_ADMIN bearer token
+                        .requestMatchers("/actuator/**").hasRole("SUPER_ADMIN")
 
                         // Tenant admin endpoints
                         .requestMatchers("/api/users/**").hasAnyRole("SUPER_ADMIN", "TENANT_ADMIN")
@@ -117,7 +122,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -139,6 +144,8 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*")); // Allow all origins for development
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Lets browser tooling on other origins read search stage timings
+        configuration.setExposedHeaders(Arrays.asList("Server-Timing"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -2,9 +2,14 @@ package com.globalsearch.controller;
 
 import com.globalsearch.entity.*;
 import com.globalsearch.repository.*;
+import com.globalsearch.service.seed.SyntheticDataGenerator;
+import com.globalsearch.service.seed.SyntheticDataOptions;
+import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +31,7 @@ public class DataSeedController {
     private final ReportRepository reportRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SyntheticDataGenerator syntheticDataGenerator;
 
     private final Random random = new Random(42);
 
@@ -91,6 +97,32 @@ public class DataSeedController {
         }
     }
 
+    /**
+     * Generate a large synthetic data set with JDBC batch inserts, in the background
+     */
+    @PostMapping("/synthetic")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Generate synthetic data",
+        description = "Deterministic companies, locations, zones, sensors and sensor readings with skewed tenant sizes; poll /synthetic/status. "
+            + "Id ranges are reserved by advancing each table's AUTO_INCREMENT (MySQL); rows inserted with explicit ids by other tools during the run can still collide")
+    public ResponseEntity<?> generateSyntheticData(@RequestBody(required = false) SyntheticDataOptions options) {
+        try {
+            SyntheticDataOptions effective = options != null ? options : SyntheticDataOptions.builder().build();
+            return ResponseEntity.accepted().body(syntheticDataGenerator.start(effective));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/synthetic/status")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get synthetic data generation progress")
+    public ResponseEntity<Map<String, Object>> getSyntheticDataStatus() {
+        return ResponseEntity.ok(syntheticDataGenerator.getStatus());
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Long>> getStats() {
         Map<String, Long> stats = new HashMap<>();
@@ -1,10 +1,18 @@
 package com.globalsearch.controller;
 
+import com.globalsearch.entity.IndexingDeadLetter;
 import com.globalsearch.service.ElasticsearchSyncService;
+import com.globalsearch.service.sync.DeadLetterService;
+import com.globalsearch.service.sync.IndexConsistencyService;
+import com.globalsearch.service.sync.IndexManagementService;
+import com.globalsearch.service.sync.IndexingPipeline;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +32,10 @@ import java.util.Map;
 public class ElasticsearchSyncController {
 
     private final ElasticsearchSyncService syncService;
+    private final IndexConsistencyService consistencyService;
+    private final IndexManagementService indexManagementService;
+    private final IndexingPipeline indexingPipeline;
+    private final DeadLetterService deadLetterService;
 
     /**
      * Manually trigger a full synchronization of all data from MySQL to Elasticsearch.
@@ -138,4 +150,114 @@ public class ElasticsearchSyncController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Compare MySQL and Elasticsearch by id-range checksums and repair drifted rows.
+     */
+    @PostMapping("/consistency/check")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Run consistency check", description = "Detect and repair rows that are missing, stale or orphaned in Elasticsearch")
+    public ResponseEntity<?> runConsistencyCheck() {
+        try {
+            return ResponseEntity.ok(consistencyService.runCheck());
+        } catch (IllegalStateException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            response.put("status", "CONFLICT");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * Get the result of the last consistency check and cumulative drift metrics.
+     */
+    @GetMapping("/consistency/report")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get consistency report", description = "Get the last consistency check report and drift metrics")
+    public ResponseEntity<Map<String, Object>> getConsistencyReport() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("lastReport", consistencyService.getLastReport());
+        response.put("metrics", consistencyService.getDriftMetrics());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get document and segment counts of the search indices.
+     */
+    @GetMapping("/indices")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get index status", description = "Document and segment counts per index, and whether a bulk load is running")
+    public ResponseEntity<Map<String, Object>> getIndexStatus() {
+        return ResponseEntity.ok(indexManagementService.getIndexStatus());
+    }
+
+    /**
+     * Get indexing pipeline queue depth and throughput counters.
+     */
+    @GetMapping("/pipeline")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get indexing pipeline stats", description = "Queue size, dropped, coalesced and failed change counts")
+    public ResponseEntity<Map<String, Object>> getPipelineStats() {
+        return ResponseEntity.ok(indexingPipeline.getStats());
+    }
+
+    /**
+     * List failed index operations waiting for retry (PENDING) or replay (PARKED).
+     */
+    @GetMapping("/dead-letters")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "List dead letters", description = "Index and delete operations that failed, with their last error and retry schedule")
+    public ResponseEntity<Page<IndexingDeadLetter>> getDeadLetters(
+            @RequestParam(required = false) IndexingDeadLetter.Status status,
+            Pageable pageable) {
+        return ResponseEntity.ok(deadLetterService.getDeadLetters(status, pageable));
+    }
+
+    /**
+     * Count dead letters by status.
+     */
+    @GetMapping("/dead-letters/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get dead letter counts", description = "Number of pending and parked dead letters")
+    public ResponseEntity<Map<String, Long>> getDeadLetterStats() {
+        return ResponseEntity.ok(deadLetterService.getCounts());
+    }
+
+    /**
+     * Retry every dead letter now, including parked ones.
+     */
+    @PostMapping("/dead-letters/replay")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Replay all dead letters", description = "Reset attempts and retry every dead letter immediately")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters() {
+        int replayed = deadLetterService.replayAll();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Dead letters replayed");
+        response.put("replayed", replayed);
+        response.put("remaining", deadLetterService.getCounts());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retry a single dead letter now.
+     */
+    @PostMapping("/dead-letters/{id}/replay")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Replay a dead letter", description = "Retry a single dead letter immediately")
+    public ResponseEntity<Map<String, String>> replayDeadLetter(@PathVariable Long id) {
+        Map<String, String> response = new HashMap<>();
+
+        if (!deadLetterService.replay(id)) {
+            response.put("message", "Dead letter not found: " + id);
+            response.put("status", "NOT_FOUND");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        response.put("message", "Dead letter " + id + " replayed");
+        response.put("status", "SUCCESS");
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,89 @@
+package com.globalsearch.controller;
+
+import com.globalsearch.service.fault.FaultInjector;
+import com.globalsearch.service.fault.FaultSpec;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST API for switching injected latency and failures on and off at runtime.
+ * Only available in the test and staging profiles.
+ */
+@RestController
+@RequestMapping("/api/admin/faults")
+@RequiredArgsConstructor
+@Profile({"test", "staging"})
+@Tag(name = "Fault Injection", description = "Latency and failure injection for search and sync dependencies")
+public class FaultInjectionController {
+
+    private final FaultInjector faultInjector;
+
+    /**
+     * Get the active faults and what they injected so far
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get active faults",
+        description = "Returns the faults per layer:entityType with their call, delay, error, hang and drop counts")
+    public ResponseEntity<Map<String, Object>> getFaults() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("faults", faultInjector.getFaults());
+        response.put("stats", faultInjector.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Set the fault of a layer and entity type
+     */
+    @PutMapping("/{layer}/{entityType}")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Set a fault",
+        description = "Layer is search, client or jpa; entity type is e.g. sensor, or * for the whole layer")
+    public ResponseEntity<?> setFault(@PathVariable String layer, @PathVariable String entityType,
+                                      @RequestBody FaultSpec spec) {
+        try {
+            faultInjector.setFault(layer, entityType, spec);
+            return ResponseEntity.ok(faultInjector.getFaults());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove the fault of a layer and entity type
+     */
+    @DeleteMapping("/{layer}/{entityType}")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Remove a fault")
+    public ResponseEntity<?> clearFault(@PathVariable String layer, @PathVariable String entityType) {
+        try {
+            if (!faultInjector.clearFault(layer, entityType)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No fault set for " + layer + ":" + entityType));
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove every fault
+     */
+    @DeleteMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Remove all faults")
+    public ResponseEntity<Void> clearAll() {
+        faultInjector.clearAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,16 +1,33 @@
 package com.globalsearch.controller;
 
+import com.globalsearch.config.ExecutorMonitor;
 import com.globalsearch.service.PerformanceMetricsService;
 import com.globalsearch.service.PerformanceMetricsService.PerformanceStats;
 import com.globalsearch.service.PerformanceMetricsService.QueryMetric;
 import com.globalsearch.service.PerformanceMetricsService.SLAComplianceReport;
+import com.globalsearch.service.SloEvaluator;
+import com.globalsearch.service.SloEvaluator.SloStatus;
+import com.globalsearch.service.profiling.FlightRecorderService;
+import com.globalsearch.service.search.SlowQueryLog;
+import com.globalsearch.service.search.SlowQueryLog.ShapeStats;
+import com.globalsearch.service.search.SlowQueryLog.SlowQuery;
+import com.globalsearch.service.sync.IndexingLagMonitor;
+import com.globalsearch.util.RollingLatencySeries;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +42,17 @@ import java.util.Map;
 public class PerformanceController {
 
     private final PerformanceMetricsService metricsService;
+    private final SlowQueryLog slowQueryLog;
+    private final ExecutorMonitor executorMonitor;
+    private final SloEvaluator sloEvaluator;
+    private final FlightRecorderService flightRecorderService;
+
+    private IndexingLagMonitor indexingLagMonitor;
+
+    @Autowired(required = false)
+    public void setIndexingLagMonitor(IndexingLagMonitor indexingLagMonitor) {
+        this.indexingLagMonitor = indexingLagMonitor;
+    }
 
     /**
      * Get overall performance statistics
@@ -48,6 +76,17 @@ public class PerformanceController {
         return ResponseEntity.ok(metricsService.getTenantStats(tenantId));
     }
 
+    /**
+     * Get performance statistics per query type
+     */
+    @GetMapping("/stats/query-type")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get performance statistics per query type",
+        description = "Returns performance metrics for each query type within the retention window")
+    public ResponseEntity<Map<String, PerformanceStats>> getQueryTypeStats() {
+        return ResponseEntity.ok(metricsService.getQueryTypeStats());
+    }
+
     /**
      * Get recent slow queries
      */
@@ -60,6 +99,62 @@ public class PerformanceController {
         return ResponseEntity.ok(metricsService.getSlowQueries(limit));
     }
 
+    /**
+     * Get captured slow queries with their request shape and stage timings
+     */
+    @GetMapping("/slow-queries/log")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get the slow query log",
+        description = "Returns recent slow queries with request shape, stage timings and hits per index (plus timings per index for debug=timings searches), optionally for one shape key")
+    public ResponseEntity<List<SlowQuery>> getSlowQueryLog(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String shape) {
+        return ResponseEntity.ok(slowQueryLog.getRecent(limit, shape));
+    }
+
+    /**
+     * Get one captured slow query, including its profile once available
+     */
+    @GetMapping("/slow-queries/log/{id}")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get a slow query",
+        description = "Returns one slow query, including the Elasticsearch profile if it was profiled")
+    public ResponseEntity<?> getSlowQuery(@PathVariable long id) {
+        return slowQueryLog.get(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Slow query not found: " + id)));
+    }
+
+    /**
+     * Re-run a slow query with the Elasticsearch profile API
+     */
+    @PostMapping("/slow-queries/log/{id}/profile")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Profile a slow query",
+        description = "Re-runs the query with the Elasticsearch profile API in the background; poll the slow query for the result")
+    public ResponseEntity<?> profileSlowQuery(@PathVariable long id) {
+        try {
+            return ResponseEntity.accepted().body(slowQueryLog.requestProfile(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get slow query counts per request shape
+     */
+    @GetMapping("/slow-queries/shapes")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get slow queries per request shape",
+        description = "Returns request shapes ordered by the total time of their slow queries")
+    public ResponseEntity<List<ShapeStats>> getSlowQueryShapes(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowQueryLog.getShapes(limit));
+    }
+
     /**
      * Get latency distribution
      */
@@ -82,6 +177,151 @@ public class PerformanceController {
         return ResponseEntity.ok(metricsService.checkSLACompliance());
     }
 
+    /**
+     * Get error budgets and burn rates of the latency SLOs
+     */
+    @GetMapping("/slo")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get SLO error budgets and burn rates",
+        description = "Returns the latest background evaluation of the p99 < 1s and avg < 500ms SLOs, globally and per tenant")
+    public ResponseEntity<Map<String, SloStatus>> getSloStatus() {
+        return ResponseEntity.ok(sloEvaluator.getStatuses());
+    }
+
+    /**
+     * Get performance statistics over a rolling window
+     */
+    @GetMapping("/rolling/stats")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get performance statistics over a time window",
+        description = "Window up to 24h (e.g. 30s, 15m, 6h), optionally for one tenant and/or query type")
+    public ResponseEntity<?> getRollingStats(
+            @RequestParam(defaultValue = "15m") String window,
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String queryType) {
+        try {
+            return ResponseEntity.ok(metricsService.getStats(parseWindow(window), tenantId, queryType));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get latency distribution over a rolling window
+     */
+    @GetMapping("/rolling/distribution")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get latency distribution over a time window",
+        description = "Window up to 24h (e.g. 30s, 15m, 6h), optionally for one tenant and/or query type")
+    public ResponseEntity<?> getRollingDistribution(
+            @RequestParam(defaultValue = "15m") String window,
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String queryType) {
+        try {
+            return ResponseEntity.ok(metricsService.getLatencyDistribution(parseWindow(window), tenantId, queryType));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Check SLA compliance over a rolling window
+     */
+    @GetMapping("/rolling/sla-compliance")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Check SLA compliance over a time window",
+        description = "Window up to 24h (e.g. 30s, 15m, 6h), optionally for one tenant and/or query type")
+    public ResponseEntity<?> getRollingSLACompliance(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String queryType) {
+        try {
+            return ResponseEntity.ok(metricsService.checkSLACompliance(parseWindow(window), tenantId, queryType));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get commit-to-search-visibility lag of the indexing pipeline
+     */
+    @GetMapping("/indexing-lag")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get indexing lag",
+        description = "Returns p50/p95/p99 of the time from database commit until a change is searchable, per entity type, and the current backlog")
+    public ResponseEntity<?> getIndexingLag(@RequestParam(defaultValue = "15m") String window) {
+        if (indexingLagMonitor == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Indexing lag is only measured when Elasticsearch is enabled"));
+        }
+        try {
+            return ResponseEntity.ok(indexingLagMonitor.getLagStats(parseWindow(window)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get thread pool utilization
+     */
+    @GetMapping("/executors")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get thread pool utilization",
+        description = "Returns active threads, queue depth, rejections, saturation and the top queued task types per executor and for Tomcat")
+    public ResponseEntity<Map<String, Object>> getExecutorStats() {
+        return ResponseEntity.ok(executorMonitor.getStats());
+    }
+
+    /**
+     * Get the state of the JFR recording
+     */
+    @GetMapping("/jfr")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Get JFR recording status",
+        description = "Returns the limits and the active Java Flight Recorder recording, if any")
+    public ResponseEntity<Map<String, Object>> getRecordingStatus() {
+        return ResponseEntity.ok(flightRecorderService.getStatus());
+    }
+
+    /**
+     * Start a bounded JFR recording
+     */
+    @PostMapping("/jfr/start")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Start a JFR recording",
+        description = "Starts a Java Flight Recorder recording with the 'default' or 'profile' settings. It stops on its own after the duration, capped by profiling.jfr.max-duration-seconds")
+    public ResponseEntity<?> startRecording(
+            @RequestParam(defaultValue = "60s") String duration,
+            @RequestParam(defaultValue = "profile") String settings) {
+        try {
+            return ResponseEntity.ok(flightRecorderService.start(DurationStyle.detectAndParse(duration), settings));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stop the JFR recording and download it
+     */
+    @PostMapping("/jfr/stop")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Stop the JFR recording",
+        description = "Stops the recording, or collects one that reached its duration, and returns the .jfr file for JDK Mission Control or the jfr tool")
+    public ResponseEntity<?> stopRecording() {
+        Path file;
+        try {
+            file = flightRecorderService.stop();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
     /**
      * Clear metrics (admin only, for testing)
      */
@@ -91,6 +331,16 @@ public class PerformanceController {
         description = "Clears all stored performance metrics (admin only)")
     public ResponseEntity<Map<String, String>> clearMetrics() {
         metricsService.clearMetrics();
+        slowQueryLog.clear();
         return ResponseEntity.ok(Map.of("message", "Performance metrics cleared successfully"));
     }
+
+    private Duration parseWindow(String window) {
+        Duration duration = DurationStyle.detectAndParse(window);
+        if (duration.isNegative() || duration.isZero()
+                || duration.getSeconds() > RollingLatencySeries.MAX_WINDOW_SECONDS) {
+            throw new IllegalArgumentException("Window must be between 1s and 24h");
+        }
+        return duration;
+    }
 }
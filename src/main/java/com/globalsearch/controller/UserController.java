@@ -3,7 +3,9 @@ package com.globalsearch.controller;
 import com.globalsearch.dto.request.CreateUserRequest;
 import com.globalsearch.dto.request.UpdateUserRequest;
 import com.globalsearch.dto.response.UserResponse;
+import com.globalsearch.entity.User;
 import com.globalsearch.service.UserService;
+import com.globalsearch.service.auth.TokenRevocationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +13,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,6 +27,7 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
 
     // Create
     @PostMapping
@@ -132,4 +136,31 @@ public class UserController {
                     .body(Map.of("error", "Failed to delete user"));
         }
     }
+
+    // Forced sign-out: revoke every token issued to the user so far.
+    // A tenant admin can only sign out the users of its own tenant, and never a super admin.
+    @PostMapping("/{id}/sign-out")
+    public ResponseEntity<?> signOutUser(@PathVariable Long id, @AuthenticationPrincipal User caller) {
+        try {
+            UserResponse user = userService.getUserById(id);
+            if (!caller.hasRole(User.Role.SUPER_ADMIN)
+                    && (!caller.getTenantId().equals(user.getTenantId())
+                        || user.getRoles().contains(User.Role.SUPER_ADMIN))) {
+                log.warn("User {} denied sign-out of user {} in tenant {}",
+                        caller.getUsername(), id, user.getTenantId());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Access denied"));
+            }
+            tokenRevocationService.revokeUser(user.getUsername());
+            return ResponseEntity.ok(Map.of("message", "User signed out from all sessions"));
+        } catch (IllegalArgumentException e) {
+            log.error("User not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error signing out user: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to sign out user"));
+        }
+    }
 }
@@ -8,17 +8,21 @@ import com.globalsearch.entity.User;
 import com.globalsearch.repository.CompanyRepository;
 import com.globalsearch.security.JwtTokenProvider;
 import com.globalsearch.service.AuditLogService;
+import com.globalsearch.service.LoginAttemptService;
 import com.globalsearch.service.auth.CustomUserDetailsService;
+import com.globalsearch.service.auth.PasswordAuthenticationService;
+import com.globalsearch.service.auth.TokenRevocationService;
+import com.globalsearch.util.ClientIp;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,6 +31,9 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -36,44 +43,81 @@ import java.util.stream.Collectors;
 @CrossOrigin
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
     private final CompanyRepository companyRepository;
     private final AuditLogService auditLogService;
-    private final com.globalsearch.service.LoginAttemptService loginAttemptService;
+    private final LoginAttemptService loginAttemptService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PasswordAuthenticationService passwordAuthenticationService;
 
     @Value("${jwt.expiration:86400000}")
     private long jwtExpiration;
 
+    @Value("${auth.executor.retry-after-seconds:1}")
+    private long loginRetryAfterSeconds;
+
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest,
-                                   HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                      HttpServletRequest request) {
         log.info("Login attempt for user: {}", loginRequest.getUsername());
 
-        // Login attempt tracking disabled for development
-        // if (loginAttemptService.isBlocked(loginRequest.getUsername())) {
-        //     long minutesRemaining = loginAttemptService.getMinutesUntilUnlock(loginRequest.getUsername());
-        //     log.warn("Login attempt for locked account: {}", loginRequest.getUsername());
-        //
-        //     Map<String, Object> error = new HashMap<>();
-        //     error.put("error", "Account locked");
-        //     error.put("message", String.format("Account is temporarily locked due to too many failed login attempts. Try again in %d minutes.", minutesRemaining));
-        //     error.put("minutesUntilUnlock", minutesRemaining);
-        //     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
-        // }
+        // Lockout checks come before the password check, so blocked attempts cost no hashing
+        String clientIp = ClientIp.of(request);
+        if (loginAttemptService.isBlocked(loginRequest.getUsername())) {
+            long minutesRemaining = loginAttemptService.getMinutesUntilUnlock(loginRequest.getUsername());
+            log.warn("Login attempt for locked account: {}", loginRequest.getUsername());
 
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Account locked");
+            error.put("message", String.format("Account is temporarily locked due to too many failed login attempts. Try again in %d minutes.", minutesRemaining));
+            error.put("minutesUntilUnlock", minutesRemaining);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body(error));
+        }
+        if (loginAttemptService.isIpBlocked(clientIp)) {
+            log.warn("Login attempt from blocked client IP: {}", clientIp);
+
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Too many failed logins");
+            error.put("message", "Too many failed login attempts from this address. Please try again later.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginAttemptService.getIpBlockSeconds()))
+                    .body(error));
+        }
+
+        // The password check runs on the bounded auth executor; the request thread is
+        // released until it completes (async servlet processing)
+        CompletableFuture<Authentication> authentication;
         try {
-            // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getUsername(),
-                            loginRequest.getPassword()
-                    )
-            );
+            authentication = passwordAuthenticationService.authenticate(
+                    loginRequest.getUsername(), loginRequest.getPassword());
+        } catch (RejectedExecutionException e) {
+            log.warn("Login for user {} rejected: authentication executor saturated", loginRequest.getUsername());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Too many login requests");
+            error.put("message", "The server is busy. Please retry shortly.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRetryAfterSeconds))
+                    .body(error));
+        }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        return authentication.handle((result, failure) -> {
+            if (failure == null) {
+                return loginSucceeded(loginRequest, result, request);
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            if (cause instanceof BadCredentialsException) {
+                return loginFailed(loginRequest, clientIp, request);
+            }
+            return loginError(cause);
+        });
+    }
 
+    private ResponseEntity<?> loginSucceeded(LoginRequest loginRequest, Authentication authentication,
+                                             HttpServletRequest request) {
+        try {
             // Load user details
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             User user = userDetailsService.loadUserEntityByUsername(loginRequest.getUsername());
@@ -86,6 +130,7 @@ public class AuthController {
             claims.put("userId", user.getId());
             claims.put("tenantId", user.getTenantId());
             claims.put("email", user.getEmail());
+            claims.put("companyId", user.getCompanyId());
 
             String accessToken = jwtTokenProvider.generateToken(userDetails, claims);
             String refreshToken = jwtTokenProvider.generateRefreshToken(userDetails);
@@ -126,32 +171,37 @@ public class AuthController {
             log.info("User {} logged in successfully", loginRequest.getUsername());
             return ResponseEntity.ok(response);
 
-        } catch (BadCredentialsException e) {
-            log.error("Invalid credentials for user: {}", loginRequest.getUsername());
+        } catch (Exception e) {
+            return loginError(e);
+        }
+    }
 
-            // Record failed login attempt - DISABLED FOR DEVELOPMENT
-            // loginAttemptService.loginFailed(loginRequest.getUsername());
+    private ResponseEntity<?> loginFailed(LoginRequest loginRequest, String clientIp, HttpServletRequest request) {
+        log.error("Invalid credentials for user: {}", loginRequest.getUsername());
 
-            // Audit log - failed login
-            try {
-                User user = userDetailsService.loadUserEntityByUsername(loginRequest.getUsername());
-                auditLogService.logAuthEvent(AuditLog.AuditAction.LOGIN_FAILED, user.getId(),
-                        user.getUsername(), user.getTenantId(), request, 401, "Invalid credentials");
-            } catch (Exception ignored) {}
+        // Record failed login attempt
+        loginAttemptService.loginFailed(loginRequest.getUsername(), clientIp);
 
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", "Invalid credentials");
-            error.put("message", "Username or password is incorrect.");
+        // Audit log - failed login
+        try {
+            User user = userDetailsService.loadUserEntityByUsername(loginRequest.getUsername());
+            auditLogService.logAuthEvent(AuditLog.AuditAction.LOGIN_FAILED, user.getId(),
+                    user.getUsername(), user.getTenantId(), request, 401, "Invalid credentials");
+        } catch (Exception ignored) {}
 
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Invalid credentials");
+        error.put("message", "Username or password is incorrect.");
 
-        } catch (Exception e) {
-            log.error("Login error: ", e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Authentication failed");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
-        }
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
+    private ResponseEntity<?> loginError(Throwable e) {
+        log.error("Login error: ", e);
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Authentication failed");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
     @PostMapping("/refresh")
@@ -161,12 +211,13 @@ public class AuthController {
                 refreshToken = refreshToken.substring(7);
             }
 
-            if (!jwtTokenProvider.validateToken(refreshToken)) {
+            Claims refreshClaims = jwtTokenProvider.verify(refreshToken);
+            if (refreshClaims == null || tokenRevocationService.isRevoked(refreshClaims)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("error", "Invalid refresh token"));
             }
 
-            String username = jwtTokenProvider.extractUsername(refreshToken);
+            String username = refreshClaims.getSubject();
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
             User user = userDetailsService.loadUserEntityByUsername(username);
 
@@ -174,6 +225,7 @@ public class AuthController {
             claims.put("userId", user.getId());
             claims.put("tenantId", user.getTenantId());
             claims.put("email", user.getEmail());
+            claims.put("companyId", user.getCompanyId());
 
             String newAccessToken = jwtTokenProvider.generateToken(userDetails, claims);
 
@@ -192,7 +244,14 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request) {
+    public ResponseEntity<?> logout(@RequestBody(required = false) Map<String, String> body,
+                                    HttpServletRequest request) {
+        // Revoke the access token and, when given, the refresh token of the session
+        revokeIfValid(bearerToken(request.getHeader("Authorization")));
+        if (body != null) {
+            revokeIfValid(body.get("refreshToken"));
+        }
+
         // Get user from security context
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getName() != null) {
@@ -210,6 +269,17 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    private void revokeIfValid(String token) {
+        Claims claims = token != null ? jwtTokenProvider.verify(token) : null;
+        if (claims != null) {
+            tokenRevocationService.revoke(claims);
+        }
+    }
+
+    private static String bearerToken(String header) {
+        return header != null && header.startsWith("Bearer ") ? header.substring(7) : null;
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -7,6 +7,7 @@ import com.globalsearch.entity.User;
 import com.globalsearch.repository.AuditLogRepository;
 import com.globalsearch.service.auth.CustomUserDetailsService;
 import com.globalsearch.service.search.SearchService;
+import com.globalsearch.service.search.SearchTrace;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,13 +35,20 @@ public class GlobalSearchController {
     private final CustomUserDetailsService userDetailsService;
     private final AuditLogRepository auditLogRepository;
 
+    private static final String DEBUG_TIMINGS = "timings";
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+
     /**
      * Global search endpoint for regular users
      * Users can only search within their tenant
      * Supports filtering, pagination, and sorting
+     * With debug=timings the response includes a stage timing breakdown
      */
     @PostMapping
-    public ResponseEntity<?> search(@RequestBody GlobalSearchRequest request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> search(@RequestBody GlobalSearchRequest request,
+                                    @RequestParam(required = false) String debug,
+                                    HttpServletRequest httpRequest) {
+        SearchTrace trace = SearchTrace.start(DEBUG_TIMINGS.equals(debug));
         try {
             User currentUser = getCurrentUser();
 
@@ -49,7 +57,7 @@ public class GlobalSearchController {
 
             GlobalSearchResponse response = searchService.globalSearch(request, currentUser, httpRequest);
 
-            return ResponseEntity.ok(response);
+            return withTimings(response, trace);
 
         } catch (SecurityException e) {
             log.error("Security error during search: {}", e.getMessage());
@@ -59,6 +67,8 @@ public class GlobalSearchController {
             log.error("Error during search: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Search failed", "message", e.getMessage()));
+        } finally {
+            SearchTrace.end();
         }
     }
 
@@ -67,6 +77,7 @@ public class GlobalSearchController {
      */
     @GetMapping("/quick")
     public ResponseEntity<?> quickSearch(@RequestParam String query, HttpServletRequest httpRequest) {
+        SearchTrace trace = SearchTrace.start(false);
         try {
             User currentUser = getCurrentUser();
 
@@ -78,12 +89,14 @@ public class GlobalSearchController {
 
             GlobalSearchResponse response = searchService.globalSearch(request, currentUser, httpRequest);
 
-            return ResponseEntity.ok(response);
+            return withTimings(response, trace);
 
         } catch (Exception e) {
             log.error("Error during quick search: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Search failed"));
+        } finally {
+            SearchTrace.end();
         }
     }
 
@@ -98,6 +111,7 @@ public class GlobalSearchController {
             @RequestParam(defaultValue = "20") Integer size,
             HttpServletRequest httpRequest) {
 
+        SearchTrace trace = SearchTrace.start(false);
         try {
             User currentUser = getCurrentUser();
 
@@ -110,12 +124,14 @@ public class GlobalSearchController {
 
             GlobalSearchResponse response = searchService.globalSearch(request, currentUser, httpRequest);
 
-            return ResponseEntity.ok(response);
+            return withTimings(response, trace);
 
         } catch (Exception e) {
             log.error("Error during entity type search: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Search failed"));
+        } finally {
+            SearchTrace.end();
         }
     }
 
@@ -123,7 +139,10 @@ public class GlobalSearchController {
      * Admin-only endpoint - search across all tenants
      */
     @PostMapping("/admin")
-    public ResponseEntity<?> adminSearch(@RequestBody GlobalSearchRequest request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> adminSearch(@RequestBody GlobalSearchRequest request,
+                                         @RequestParam(required = false) String debug,
+                                         HttpServletRequest httpRequest) {
+        SearchTrace trace = SearchTrace.start(DEBUG_TIMINGS.equals(debug));
         try {
             User currentUser = getCurrentUser();
 
@@ -137,7 +156,7 @@ public class GlobalSearchController {
 
             GlobalSearchResponse response = searchService.adminGlobalSearch(request, currentUser, httpRequest);
 
-            return ResponseEntity.ok(response);
+            return withTimings(response, trace);
 
         } catch (SecurityException e) {
             log.error("Security error during admin search: {}", e.getMessage());
@@ -147,6 +166,8 @@ public class GlobalSearchController {
             log.error("Error during admin search: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Search failed", "message", e.getMessage()));
+        } finally {
+            SearchTrace.end();
         }
     }
 
@@ -216,6 +237,18 @@ public class GlobalSearchController {
         }
     }
 
+    // Adds the Server-Timing header, and the timing breakdown for debug=timings
+    private ResponseEntity<GlobalSearchResponse> withTimings(GlobalSearchResponse response, SearchTrace trace) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .header(SERVER_TIMING_HEADER, trace.toServerTiming());
+
+        if (trace.isDetailed()) {
+            // The response may be the cached instance, so the timings go on a copy
+            return ok.body(response.toBuilder().timings(trace.toTimingMap()).build());
+        }
+        return ok.body(response);
+    }
+
     // Helper method to get current authenticated user
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -14,14 +14,15 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Document(indexName = "companies")
+@Document(indexName = "companies", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class    CompanyDocument {
+public class CompanyDocument implements VersionedDocument {
 
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
     @Field(type = FieldType.Text)
@@ -77,6 +78,10 @@ public class    CompanyDocument {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate updatedAt;
 
+    // Source row updatedAt (epoch millis), used for MySQL/Elasticsearch consistency checks
+    @Field(type = FieldType.Long)
+    private Long syncVersion;
+
     public static CompanyDocument fromEntity(Company company) {
         return CompanyDocument.builder()
                 .id(company.getId())
@@ -97,6 +102,7 @@ public class    CompanyDocument {
                 .maxSensors(company.getMaxSensors())
                 .createdAt(company.getCreatedAt() != null ? company.getCreatedAt().toLocalDate() : null)
                 .updatedAt(company.getUpdatedAt() != null ? company.getUpdatedAt().toLocalDate() : null)
+                .syncVersion(VersionedDocument.versionOf(company.getUpdatedAt()))
                 .build();
     }
 }
@@ -13,14 +13,15 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Document(indexName = "dashboards")
+@Document(indexName = "dashboards", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class DashboardDocument {
+public class DashboardDocument implements VersionedDocument {
 
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
     @Field(type = FieldType.Text)
@@ -68,6 +69,10 @@ public class DashboardDocument {
     @Field(type = FieldType.Date)
     private LocalDate updatedAt;
 
+    // Source row updatedAt (epoch millis), used for MySQL/Elasticsearch consistency checks
+    @Field(type = FieldType.Long)
+    private Long syncVersion;
+
     public static DashboardDocument fromEntity(Dashboard dashboard) {
         return DashboardDocument.builder()
                 .id(dashboard.getId())
@@ -86,6 +91,7 @@ public class DashboardDocument {
                 .lastAccessedAt(dashboard.getLastAccessedAt())
                 .createdAt(dashboard.getCreatedAt() != null ? dashboard.getCreatedAt().toLocalDate() : null)
                 .updatedAt(dashboard.getUpdatedAt() != null ? dashboard.getUpdatedAt().toLocalDate() : null)
+                .syncVersion(VersionedDocument.versionOf(dashboard.getUpdatedAt()))
                 .build();
     }
 }
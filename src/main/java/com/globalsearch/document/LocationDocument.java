@@ -15,14 +15,15 @@ import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Document(indexName = "locations")
+@Document(indexName = "locations", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class LocationDocument {
+public class LocationDocument implements VersionedDocument {
 
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
     @Field(type = FieldType.Text)
@@ -83,6 +84,10 @@ public class LocationDocument {
     @Field(type = FieldType.Date)
     private LocalDate updatedAt;
 
+    // Source row updatedAt (epoch millis), used for MySQL/Elasticsearch consistency checks
+    @Field(type = FieldType.Long)
+    private Long syncVersion;
+
     public static LocationDocument fromEntity(Location location) {
         GeoPoint geoPoint = null;
         if (location.getLatitude() != null && location.getLongitude() != null) {
@@ -110,6 +115,7 @@ public class LocationDocument {
                 .tenantId(location.getCompany() != null ? location.getCompany().getTenantId() : null)
                 .createdAt(location.getCreatedAt() != null ? location.getCreatedAt().toLocalDate() : null)
                 .updatedAt(location.getUpdatedAt() != null ? location.getUpdatedAt().toLocalDate() : null)
+                .syncVersion(VersionedDocument.versionOf(location.getUpdatedAt()))
                 .build();
     }
 }
@@ -13,14 +13,15 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Document(indexName = "reports")
+@Document(indexName = "reports", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ReportDocument {
+public class ReportDocument implements VersionedDocument {
 
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
     @Field(type = FieldType.Text)
@@ -53,6 +54,10 @@ public class ReportDocument {
     @Field(type = FieldType.Date)
     private LocalDate updatedAt;
 
+    // Source row updatedAt (epoch millis), used for MySQL/Elasticsearch consistency checks
+    @Field(type = FieldType.Long)
+    private Long syncVersion;
+
     @Field(type = FieldType.Text)
     private String tags;
 
@@ -84,6 +89,7 @@ public class ReportDocument {
                 .createdBy(report.getCreatedBy())
                 .createdAt(report.getCreatedAt() != null ? report.getCreatedAt().toLocalDate() : null)
                 .updatedAt(report.getUpdatedAt() != null ? report.getUpdatedAt().toLocalDate() : null)
+                .syncVersion(VersionedDocument.versionOf(report.getUpdatedAt()))
                 .tags(report.getTags())
                 .isPublic(report.getIsPublic())
                 .executionTimeMs(report.getExecutionTimeMs())
@@ -14,14 +14,15 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Document(indexName = "sensors")
+@Document(indexName = "sensors", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class SensorDocument {
+public class SensorDocument implements VersionedDocument {
 
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
     @Field(type = FieldType.Text)
@@ -91,6 +92,10 @@ public class SensorDocument {
     @Field(type = FieldType.Date, format = DateFormat.date)
     private LocalDate updatedAt;
 
+    // Source row updatedAt (epoch millis), used for MySQL/Elasticsearch consistency checks
+    @Field(type = FieldType.Long)
+    private Long syncVersion;
+
     public static SensorDocument fromEntity(Sensor sensor) {
         Long locationId = null;
         Long companyId = null;
@@ -130,6 +135,7 @@ public class SensorDocument {
                 .tenantId(tenantId)
                 .createdAt(sensor.getCreatedAt() != null ? sensor.getCreatedAt().toLocalDate() : null)
                 .updatedAt(sensor.getUpdatedAt() != null ? sensor.getUpdatedAt().toLocalDate() : null)
+                .syncVersion(VersionedDocument.versionOf(sensor.getUpdatedAt()))
                 .build();
     }
 }
@@ -0,0 +1,27 @@
+package com.globalsearch.document;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Common view over the search documents used by the sync and consistency tooling.
+ *
+ * syncVersion is the source row's updatedAt as epoch millis, so MySQL and
+ * Elasticsearch can be compared without loading full documents.
+ */
+public interface VersionedDocument {
+
+    Long getId();
+
+    Long getSyncVersion();
+
+    /**
+     * Converts an entity's updatedAt into the sync version stored in the index
+     */
+    static Long versionOf(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return null;
+        }
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
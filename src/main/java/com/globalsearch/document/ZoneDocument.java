@@ -13,14 +13,15 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Document(indexName = "zones")
+@Document(indexName = "zones", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ZoneDocument {
+public class ZoneDocument implements VersionedDocument {
 
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
     @Field(type = FieldType.Text)
@@ -72,6 +73,10 @@ public class ZoneDocument {
     @Field(type = FieldType.Date)
     private LocalDate updatedAt;
 
+    // Source row updatedAt (epoch millis), used for MySQL/Elasticsearch consistency checks
+    @Field(type = FieldType.Long)
+    private Long syncVersion;
+
     public static ZoneDocument fromEntity(Zone zone) {
         Long companyId = null;
         String tenantId = null;
@@ -98,6 +103,7 @@ public class ZoneDocument {
                 .tenantId(tenantId)
                 .createdAt(zone.getCreatedAt() != null ? zone.getCreatedAt().toLocalDate() : null)
                 .updatedAt(zone.getUpdatedAt() != null ? zone.getUpdatedAt().toLocalDate() : null)
+                .syncVersion(VersionedDocument.versionOf(zone.getUpdatedAt()))
                 .build();
     }
 }
@@ -1,14 +1,16 @@
 package com.globalsearch.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class GlobalSearchResponse {
@@ -25,6 +27,10 @@ public class GlobalSearchResponse {
 
     private Long searchDurationMs;
 
+    // Stage timing breakdown, only present for debug=timings requests
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> timings;
+
     @Data
     @Builder
     @NoArgsConstructor
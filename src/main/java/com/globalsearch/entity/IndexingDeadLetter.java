@@ -0,0 +1,81 @@
+package com.globalsearch.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * An index or delete operation that could not be applied to Elasticsearch.
+ * Only the entity reference is stored; retries reload the current row.
+ * There is at most one letter per entity, and the version guards it against concurrent
+ * changes by the retry worker and new failures.
+ */
+@Entity
+@Table(name = "indexing_dead_letters",
+        uniqueConstraints = @UniqueConstraint(name = "uk_dead_letter_entity", columnNames = {"document_type", "entity_id"}),
+        indexes = @Index(name = "idx_dead_letter_due", columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class IndexingDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "document_type", nullable = false, length = 50)
+    private String documentType; // e.g. SensorDocument
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 20)
+    private Operation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum Operation {
+        INDEX,
+        DELETE
+    }
+
+    public enum Status {
+        PENDING,   // Waiting for the next retry
+        PARKED     // Retries exhausted, replayed only by an admin
+    }
+}
@@ -1,112 +1,258 @@
 package com.globalsearch.interceptor;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globalsearch.entity.User;
+import com.globalsearch.util.ClientIp;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Token bucket rate limiting of the API.
+ *
+ * Authenticated requests draw from a bucket of their user and one of their tenant, so users
+ * behind one NAT no longer share a limit and a tenant cannot starve the others. A request
+ * only counts against both when both allow it. Anonymous requests draw from a bucket of
+ * their client IP. Each request costs tokens by endpoint:
+ * a search costs more than a metadata call. Limits can be overridden per tenant and per user.
+ *
+ * Each bucket is a single AtomicLong updated by compare-and-set (see TokenBucketPolicy).
+ * Buckets live in a size-bounded map and are dropped after a period without requests; a
+ * dropped bucket comes back full, which is also the state it would have refilled to.
+ */
 @Component
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    // Simple in-memory rate limiting (for production, use Redis or similar)
-    private final Map<String, RateLimitInfo> requestCounts = new ConcurrentHashMap<>();
+    private static final String RATE_LIMIT_BODY =
+            "{\"error\":\"Rate limit exceeded\",\"message\":\"Too many requests. Please try again later.\"}";
 
-    // Rate limit: 100 requests per minute per IP
-    private static final int MAX_REQUESTS_PER_MINUTE = 100;
-    private static final long TIME_WINDOW_MS = 60_000; // 1 minute
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
 
-    @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        String clientIp = getClientIp(request);
-        String endpoint = request.getRequestURI();
+    @Value("${rate-limit.ip.capacity:100}")
+    private int ipCapacity;
 
-        log.debug("Rate limit check for IP: {} on endpoint: {}", clientIp, endpoint);
+    @Value("${rate-limit.ip.refill-per-minute:100}")
+    private int ipRefillPerMinute;
 
-        RateLimitInfo limitInfo = requestCounts.computeIfAbsent(clientIp, k -> new RateLimitInfo());
+    @Value("${rate-limit.user.capacity:200}")
+    private int userCapacity;
 
-        long currentTime = System.currentTimeMillis();
+    @Value("${rate-limit.user.refill-per-minute:120}")
+    private int userRefillPerMinute;
 
-        // Reset counter if time window has passed
-        if (currentTime - limitInfo.getWindowStart() > TIME_WINDOW_MS) {
-            limitInfo.reset(currentTime);
-        }
+    @Value("${rate-limit.tenant.capacity:2000}")
+    private int tenantCapacity;
+
+    @Value("${rate-limit.tenant.refill-per-minute:1200}")
+    private int tenantRefillPerMinute;
+
+    /** tenantId=capacity/refillPerMinute, comma separated */
+    @Value("${rate-limit.tenant.overrides:}")
+    private String tenantOverrides;
+
+    /** username=capacity/refillPerMinute, comma separated */
+    @Value("${rate-limit.user.overrides:}")
+    private String userOverrides;
+
+    /** pathPrefix=cost, comma separated; the longest matching prefix applies, otherwise 1 */
+    @Value("${rate-limit.endpoint-costs:/api/search=5}")
+    private String endpointCosts;
+
+    @Value("${rate-limit.max-keys:100000}")
+    private long maxKeys;
 
-        int currentCount = limitInfo.incrementAndGet();
+    @Value("${rate-limit.idle-expiry-minutes:10}")
+    private long idleExpiryMinutes;
 
-        // Add rate limit headers
-        response.setHeader("X-RateLimit-Limit", String.valueOf(MAX_REQUESTS_PER_MINUTE));
-        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, MAX_REQUESTS_PER_MINUTE - currentCount)));
-        response.setHeader("X-RateLimit-Reset", String.valueOf(limitInfo.getWindowStart() + TIME_WINDOW_MS));
+    private TokenBucketPolicy ipPolicy;
+    private TokenBucketPolicy userPolicy;
+    private TokenBucketPolicy tenantPolicy;
+    private Map<String, TokenBucketPolicy> tenantPolicies;
+    private Map<String, TokenBucketPolicy> userPolicies;
+    private List<Map.Entry<String, Integer>> costs;
 
-        if (currentCount > MAX_REQUESTS_PER_MINUTE) {
-            log.warn("Rate limit exceeded for IP: {} ({}  requests)", clientIp, currentCount);
-            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.setContentType("application/json");
-            response.getWriter().write("{\"error\":\"Rate limit exceeded\",\"message\":\"Too many requests. Please try again later.\"}");
-            return false;
+    private Cache<String, AtomicLong> buckets;
+
+    @PostConstruct
+    public void init() {
+        ipPolicy = new TokenBucketPolicy(ipCapacity, ipRefillPerMinute);
+        userPolicy = new TokenBucketPolicy(userCapacity, userRefillPerMinute);
+        tenantPolicy = new TokenBucketPolicy(tenantCapacity, tenantRefillPerMinute);
+        tenantPolicies = parsePolicies(tenantOverrides);
+        userPolicies = parsePolicies(userOverrides);
+        costs = parseCosts(endpointCosts);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiryMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled) {
+            return true;
+        }
+        String endpoint = request.getRequestURI();
+        int cost = costOf(endpoint);
+        long now = System.currentTimeMillis();
+
+        User user = currentUser();
+        if (user != null) {
+            // The user's bucket first: a user over its limit does not use up the tenant's,
+            // and a tenant over its limit gives the user its tokens back
+            TokenBucketPolicy policy = userPolicies.getOrDefault(user.getUsername(), userPolicy);
+            String userKey = "user:" + user.getUsername();
+            long remaining = consume(userKey, policy, cost, now);
+            if (remaining < 0) {
+                log.warn("Rate limit exceeded for user: {} on endpoint: {}", user.getUsername(), endpoint);
+                return reject(response, policy, remaining);
+            }
+            String tenantId = user.getTenantId();
+            if (tenantId != null) {
+                TokenBucketPolicy tenant = tenantPolicies.getOrDefault(tenantId, tenantPolicy);
+                long tenantRemaining = consume("tenant:" + tenantId, tenant, cost, now);
+                if (tenantRemaining < 0) {
+                    refund(userKey, policy, cost);
+                    log.warn("Rate limit exceeded for tenant: {} on endpoint: {}", tenantId, endpoint);
+                    return reject(response, tenant, tenantRemaining);
+                }
+            }
+            setHeaders(response, policy, remaining);
+            return true;
         }
 
+        String clientIp = ClientIp.of(request);
+        long remaining = consume("ip:" + clientIp, ipPolicy, cost, now);
+        if (remaining < 0) {
+            log.warn("Rate limit exceeded for IP: {} on endpoint: {}", clientIp, endpoint);
+            return reject(response, ipPolicy, remaining);
+        }
+        setHeaders(response, ipPolicy, remaining);
         return true;
     }
 
-    /**
-     * Get client IP address from request
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
+    private long consume(String key, TokenBucketPolicy policy, int cost, long now) {
+        AtomicLong state = buckets.get(key, k -> new AtomicLong(policy.initialState(now)));
+        return policy.tryConsume(state, cost, now);
+    }
 
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+    private void refund(String key, TokenBucketPolicy policy, int cost) {
+        AtomicLong state = buckets.getIfPresent(key);
+        if (state != null) {
+            policy.refund(state, cost);
         }
+    }
 
-        return request.getRemoteAddr();
+    private static User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            return (User) authentication.getPrincipal();
+        }
+        return null;
     }
 
     /**
-     * Rate limit tracking info
+     * Tokens a request to the endpoint costs
      */
-    private static class RateLimitInfo {
-        private final AtomicInteger count;
-        private long windowStart;
+    int costOf(String endpoint) {
+        for (Map.Entry<String, Integer> cost : costs) {
+            if (endpoint.startsWith(cost.getKey())) {
+                return cost.getValue();
+            }
+        }
+        return 1;
+    }
 
-        public RateLimitInfo() {
-            this.count = new AtomicInteger(0);
-            this.windowStart = System.currentTimeMillis();
+    private static void setHeaders(HttpServletResponse response, TokenBucketPolicy policy, long remaining) {
+        response.setHeader("X-RateLimit-Limit", String.valueOf(policy.getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(TokenBucketPolicy.tokens(remaining)));
+    }
+
+    private static boolean reject(HttpServletResponse response, TokenBucketPolicy policy, long remaining)
+            throws Exception {
+        long retryAfterSeconds = Math.max(1, (policy.millisUntilRefilled(-remaining) + 999) / 1000);
+        setHeaders(response, policy, 0);
+        response.setHeader("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() + retryAfterSeconds * 1000));
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType("application/json");
+        response.getWriter().write(RATE_LIMIT_BODY);
+        return false;
+    }
+
+    private static Map<String, TokenBucketPolicy> parsePolicies(String overrides) {
+        Map<String, TokenBucketPolicy> policies = new HashMap<>();
+        for (String override : split(overrides)) {
+            String[] keyAndLimit = override.split("=");
+            String[] limit = keyAndLimit.length == 2 ? keyAndLimit[1].split("/") : new String[0];
+            if (limit.length != 2) {
+                throw new IllegalArgumentException(
+                        "Rate limit override must be key=capacity/refillPerMinute: " + override);
+            }
+            policies.put(keyAndLimit[0].trim(),
+                    new TokenBucketPolicy(parseInt(limit[0], override), parseInt(limit[1], override)));
         }
+        return policies;
+    }
 
-        public int incrementAndGet() {
-            return count.incrementAndGet();
+    private static List<Map.Entry<String, Integer>> parseCosts(String endpointCosts) {
+        List<Map.Entry<String, Integer>> costs = new ArrayList<>();
+        for (String endpointCost : split(endpointCosts)) {
+            String[] prefixAndCost = endpointCost.split("=");
+            if (prefixAndCost.length != 2) {
+                throw new IllegalArgumentException("Endpoint cost must be pathPrefix=cost: " + endpointCost);
+            }
+            int cost = parseInt(prefixAndCost[1], endpointCost);
+            if (cost < 1) {
+                throw new IllegalArgumentException("Endpoint cost must be at least 1: " + endpointCost);
+            }
+            costs.add(Map.entry(prefixAndCost[0].trim(), cost));
         }
+        // Longest prefix first, so the most specific one matches
+        costs.sort((a, b) -> Integer.compare(b.getKey().length(), a.getKey().length()));
+        return Collections.unmodifiableList(costs);
+    }
 
-        public void reset(long newWindowStart) {
-            count.set(0);
-            windowStart = newWindowStart;
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        if (value != null) {
+            for (String part : value.split(",")) {
+                if (!part.isBlank()) {
+                    parts.add(part.trim());
+                }
+            }
         }
+        return parts;
+    }
 
-        public long getWindowStart() {
-            return windowStart;
+    private static int parseInt(String value, String setting) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in rate limit setting: " + setting);
         }
     }
 
-    /**
-     * Cleanup old entries periodically
-     * In production, this should be scheduled
-     */
-    public void cleanup() {
-        long currentTime = System.currentTimeMillis();
-        requestCounts.entrySet().removeIf(entry ->
-            currentTime - entry.getValue().getWindowStart() > TIME_WINDOW_MS * 2);
-        log.debug("Cleaned up rate limit cache. Remaining entries: {}", requestCounts.size());
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
     }
 }
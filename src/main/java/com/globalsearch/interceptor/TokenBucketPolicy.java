@@ -0,0 +1,113 @@
+package com.globalsearch.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limits, and the lock-free update of a bucket's state.
+ *
+ * A bucket's whole state is one long: the time of its last update in milliseconds (the low
+ * 36 bits of the clock, compared with wrap-around) and the tokens it holds, in units of
+ * 1/60000 of a token. In these units a refill of N tokens per minute adds exactly N units
+ * per millisecond, so no fraction of a token is lost between updates. Consuming is a
+ * compare-and-set on that long; a denied request writes nothing.
+ */
+public final class TokenBucketPolicy {
+
+    static final long UNITS_PER_TOKEN = 60_000;
+    private static final int TOKEN_BITS = 28;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TIME_MASK = (1L << (Long.SIZE - TOKEN_BITS)) - 1;
+
+    static final int MAX_CAPACITY = (int) (TOKEN_MASK / UNITS_PER_TOKEN);
+    static final int MAX_REFILL_PER_MINUTE = 1_000_000;
+
+    private final int capacity;
+    private final int refillPerMinute;
+    private final long capacityUnits;
+
+    public TokenBucketPolicy(int capacity, int refillPerMinute) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        if (refillPerMinute < 1 || refillPerMinute > MAX_REFILL_PER_MINUTE) {
+            throw new IllegalArgumentException(
+                    "Refill per minute must be between 1 and " + MAX_REFILL_PER_MINUTE + ": " + refillPerMinute);
+        }
+        this.capacity = capacity;
+        this.refillPerMinute = refillPerMinute;
+        this.capacityUnits = capacity * UNITS_PER_TOKEN;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getRefillPerMinute() {
+        return refillPerMinute;
+    }
+
+    /**
+     * State of a full bucket
+     */
+    public long initialState(long nowMillis) {
+        return ((nowMillis & TIME_MASK) << TOKEN_BITS) | capacityUnits;
+    }
+
+    /**
+     * Take cost tokens from the bucket if it holds them
+     *
+     * @return the units left after taking them, or when denied, minus the units missing
+     */
+    public long tryConsume(AtomicLong state, int cost, long nowMillis) {
+        // A cost above the capacity could never be paid
+        long costUnits = Math.min(cost, capacity) * UNITS_PER_TOKEN;
+        while (true) {
+            long current = state.get();
+            long stamp = current >>> TOKEN_BITS;
+            long elapsed = (nowMillis - stamp) & TIME_MASK;
+            if (elapsed > TIME_MASK >>> 1) {
+                // Another thread already updated with a later clock reading
+                elapsed = 0;
+            } else {
+                stamp = nowMillis & TIME_MASK;
+            }
+            long available = Math.min(capacityUnits, (current & TOKEN_MASK) + elapsed * refillPerMinute);
+            long remaining = available - costUnits;
+            if (remaining < 0) {
+                return remaining;
+            }
+            if (state.compareAndSet(current, (stamp << TOKEN_BITS) | remaining)) {
+                return remaining;
+            }
+        }
+    }
+
+    /**
+     * Give back cost tokens taken by tryConsume, up to the capacity. The timestamp is kept,
+     * so the refill since the last update is still counted by the next consume.
+     */
+    public void refund(AtomicLong state, int cost) {
+        long costUnits = Math.min(cost, capacity) * UNITS_PER_TOKEN;
+        while (true) {
+            long current = state.get();
+            long tokens = Math.min(capacityUnits, (current & TOKEN_MASK) + costUnits);
+            if (state.compareAndSet(current, (current & ~TOKEN_MASK) | tokens)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whole tokens in a number of units
+     */
+    public static long tokens(long units) {
+        return Math.max(0, units) / UNITS_PER_TOKEN;
+    }
+
+    /**
+     * Milliseconds until the missing units have been refilled
+     */
+    public long millisUntilRefilled(long missingUnits) {
+        return (missingUnits + refillPerMinute - 1) / refillPerMinute;
+    }
+}
@@ -37,4 +37,11 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     List<Company> findAllByTenantId(String tenantId);
 
     Optional<Company> findFirstByTenantId(String tenantId);
+
+    // Consistency check projections (id range scans on the primary key)
+    @Query("SELECT MAX(c.id) FROM Company c")
+    Long findMaxId();
+
+    @Query("SELECT c.id, c.updatedAt FROM Company c WHERE c.id BETWEEN :fromId AND :toId")
+    List<Object[]> findIdAndUpdatedAtByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
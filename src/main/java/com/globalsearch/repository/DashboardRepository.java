@@ -39,4 +39,11 @@ public interface DashboardRepository extends JpaRepository<Dashboard, Long> {
 
     @Query("SELECT COUNT(d) FROM Dashboard d WHERE d.ownerId = :ownerId")
     Long countByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Consistency check projections (id range scans on the primary key)
+    @Query("SELECT MAX(d.id) FROM Dashboard d")
+    Long findMaxId();
+
+    @Query("SELECT d.id, d.updatedAt FROM Dashboard d WHERE d.id BETWEEN :fromId AND :toId")
+    List<Object[]> findIdAndUpdatedAtByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
@@ -0,0 +1,47 @@
+package com.globalsearch.repository;
+
+import com.globalsearch.entity.IndexingDeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface IndexingDeadLetterRepository extends JpaRepository<IndexingDeadLetter, Long> {
+
+    Optional<IndexingDeadLetter> findFirstByDocumentTypeAndEntityId(String documentType, Long entityId);
+
+    // Due retries, oldest first
+    List<IndexingDeadLetter> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            IndexingDeadLetter.Status status, LocalDateTime now, Pageable pageable);
+
+    Page<IndexingDeadLetter> findByStatus(IndexingDeadLetter.Status status, Pageable pageable);
+
+    long countByStatus(IndexingDeadLetter.Status status);
+
+    @Modifying
+    @Query("UPDATE IndexingDeadLetter d SET d.status = :status, d.attempts = 0, d.nextAttemptAt = :now, d.updatedAt = :now, " +
+            "d.version = d.version + 1")
+    int rescheduleAll(@Param("status") IndexingDeadLetter.Status status, @Param("now") LocalDateTime now);
+
+    // Retry outcomes apply only to a letter not changed since it was read; 0 means it was
+    @Modifying
+    @Query("DELETE FROM IndexingDeadLetter d WHERE d.id = :id AND d.version = :version")
+    int deleteIfUnchanged(@Param("id") Long id, @Param("version") long version);
+
+    @Modifying
+    @Query("UPDATE IndexingDeadLetter d SET d.status = :status, d.attempts = :attempts, d.lastError = :lastError, " +
+            "d.nextAttemptAt = :nextAttemptAt, d.updatedAt = :now, d.version = d.version + 1 " +
+            "WHERE d.id = :id AND d.version = :version")
+    int rescheduleIfUnchanged(@Param("id") Long id, @Param("version") long version,
+                              @Param("status") IndexingDeadLetter.Status status, @Param("attempts") int attempts,
+                              @Param("lastError") String lastError, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                              @Param("now") LocalDateTime now);
+}
@@ -37,4 +37,11 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
 
     @Query("SELECT COUNT(l) FROM Location l WHERE l.company.tenantId = :tenantId")
     Long countByTenantId(@Param("tenantId") String tenantId);
-}
\ No newline at end of file
+
+    // Consistency check projections (id range scans on the primary key)
+    @Query("SELECT MAX(l.id) FROM Location l")
+    Long findMaxId();
+
+    @Query("SELECT l.id, l.updatedAt FROM Location l WHERE l.id BETWEEN :fromId AND :toId")
+    List<Object[]> findIdAndUpdatedAtByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
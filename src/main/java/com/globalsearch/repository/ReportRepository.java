@@ -42,4 +42,11 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
 
     // Delete expired reports
     void deleteByExpiresAtBefore(LocalDateTime date);
+
+    // Consistency check projections (id range scans on the primary key)
+    @Query("SELECT MAX(r.id) FROM Report r")
+    Long findMaxId();
+
+    @Query("SELECT r.id, r.updatedAt FROM Report r WHERE r.id BETWEEN :fromId AND :toId")
+    List<Object[]> findIdAndUpdatedAtByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
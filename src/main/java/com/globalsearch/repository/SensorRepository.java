@@ -52,4 +52,11 @@ public interface SensorRepository extends JpaRepository<Sensor, Long> {
 
     @Query("SELECT COUNT(s) FROM Sensor s WHERE s.zone.id = :zoneId")
     long countByZoneId(@Param("zoneId") Long zoneId);
-}
\ No newline at end of file
+
+    // Consistency check projections (id range scans on the primary key)
+    @Query("SELECT MAX(s.id) FROM Sensor s")
+    Long findMaxId();
+
+    @Query("SELECT s.id, s.updatedAt FROM Sensor s WHERE s.id BETWEEN :fromId AND :toId")
+    List<Object[]> findIdAndUpdatedAtByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -33,4 +33,11 @@ public interface ZoneRepository extends JpaRepository<Zone, Long> {
 
     @Query("SELECT COUNT(z) FROM Zone z WHERE z.location.id = :locationId")
     long countByLocationId(@Param("locationId") Long locationId);
-}
\ No newline at end of file
+
+    // Consistency check projections (id range scans on the primary key)
+    @Query("SELECT MAX(z.id) FROM Zone z")
+    Long findMaxId();
+
+    @Query("SELECT z.id, z.updatedAt FROM Zone z WHERE z.id BETWEEN :fromId AND :toId")
+    List<Object[]> findIdAndUpdatedAtByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
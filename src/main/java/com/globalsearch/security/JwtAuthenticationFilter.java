@@ -1,6 +1,11 @@
 package com.globalsearch.security;
 
+import com.globalsearch.entity.User;
 import com.globalsearch.service.auth.CustomUserDetailsService;
+import com.globalsearch.service.auth.TokenRevocationService;
+import com.globalsearch.service.auth.UserAuthStateCache;
+import com.globalsearch.service.auth.UserAuthStateCache.AuthState;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +13,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,15 +24,32 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
+/**
+ * Authenticates requests from the bearer token.
+ *
+ * Access tokens carry userId, tenantId and roles as signed claims, so the principal is
+ * built from the claims without a database query. UserAuthStateCache overrides the claims
+ * of tokens issued before a change to the user's roles or enabled flag. Tokens without
+ * these claims (refresh tokens, tokens from older versions) fall back to loading the user.
+ * Tokens revoked by logout or forced sign-out are rejected before either path.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
     private final CustomUserDetailsService customUserDetailsService;
+    private final UserAuthStateCache userAuthStateCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,28 +57,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String token = extractTokenFromRequest(request);
+        // Verified once, the claims serve every check below
+        Claims claims = token != null ? jwtTokenProvider.verify(token) : null;
+
+        if (claims != null && tokenRevocationService.isRevoked(claims)) {
+            log.debug("Revoked token rejected for user: {}", claims.getSubject());
+            claims = null;
+        }
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
+        if (claims != null) {
             try {
-                String username = jwtTokenProvider.extractUsername(token);
+                String username = claims.getSubject();
 
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    UsernamePasswordAuthenticationToken authToken = hasIdentityClaims(claims)
+                            ? authenticateFromClaims(claims)
+                            : authenticateFromDatabase(username);
 
-                    if (jwtTokenProvider.validateToken(token, userDetails)) {
-                        // Load the actual User entity to use as principal
-                        com.globalsearch.entity.User userEntity = customUserDetailsService.loadUserEntityByUsername(username);
-
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userEntity,  // Use User entity instead of UserDetails
-                                null,
-                                userDetails.getAuthorities()
-                        );
+                    if (authToken != null) {
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
 
                         // Set tenant context
-                        String tenantId = jwtTokenProvider.extractTenantId(token);
+                        String tenantId = ((User) authToken.getPrincipal()).getTenantId();
                         if (tenantId != null) {
                             request.setAttribute("tenantId", tenantId);
                         }
@@ -70,6 +95,73 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private static boolean hasIdentityClaims(Claims claims) {
+        // tenantId is absent for users without a tenant
+        return claims.get("userId") != null && claims.get("roles") != null;
+    }
+
+    /**
+     * Principal from the signed claims, unless the user changed after the token was issued
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+        Long userId = claims.get("userId", Long.class);
+        String tenantId = claims.get("tenantId", String.class);
+        Set<User.Role> roles = rolesOf(claims.get("roles", List.class));
+
+        AuthState state = userAuthStateCache.getIfChangedSince(userId, claims.getIssuedAt());
+        if (state != null) {
+            if (!state.isEnabled()) {
+                log.debug("Token of disabled or deleted user {} rejected", claims.getSubject());
+                return null;
+            }
+            roles = state.getRoles();
+            tenantId = state.getTenantId();
+        }
+
+        // Detached User with the token's identity, the same principal type as before
+        User principal = User.builder()
+                .id(userId)
+                .username(claims.getSubject())
+                .email(claims.get("email", String.class))
+                .tenantId(tenantId)
+                .companyId(claims.get("companyId", Long.class))
+                .roles(roles)
+                .enabled(true)
+                .build();
+
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (User.Role role : roles) {
+            authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role.name()));
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromDatabase(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!userDetails.isEnabled()) {
+            return null;
+        }
+        // Load the actual User entity to use as principal
+        User userEntity = customUserDetailsService.loadUserEntityByUsername(username);
+        return new UsernamePasswordAuthenticationToken(userEntity, null, userDetails.getAuthorities());
+    }
+
+    private static Set<User.Role> rolesOf(List<?> authorities) {
+        Set<User.Role> roles = EnumSet.noneOf(User.Role.class);
+        for (Object authority : authorities) {
+            String name = String.valueOf(authority);
+            if (name.startsWith(ROLE_PREFIX)) {
+                name = name.substring(ROLE_PREFIX.length());
+            }
+            try {
+                roles.add(User.Role.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring unknown role in token: {}", authority);
+            }
+        }
+        return roles;
+    }
+
     private String extractTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -77,4 +169,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
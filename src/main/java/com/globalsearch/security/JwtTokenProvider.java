@@ -1,5 +1,8 @@
 package com.globalsearch.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -9,13 +12,27 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * The signing key and the parser are built once. Verified claims are cached under the
+ * SHA-256 of the token until the token expires, so repeat requests with the same token skip
+ * the HMAC check and the JSON parsing; a token is only ever cached after its signature was
+ * verified.
+ */
 @Component
 @Slf4j
 public class JwtTokenProvider {
@@ -29,6 +46,14 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh.expiration:604800000}") // 7 days in milliseconds
     private long refreshTokenExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    // Built on first use, the @Value fields are set by then
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+    private volatile Cache<String, Claims> verifiedTokens;
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", userDetails.getAuthorities().stream()
@@ -54,6 +79,7 @@ public class JwtTokenProvider {
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
@@ -64,6 +90,7 @@ public class JwtTokenProvider {
     private String createRefreshToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiration))
@@ -84,12 +111,54 @@ public class JwtTokenProvider {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verify a token once and return its claims, or null when it is invalid or expired
+     */
+    public Claims verify(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (MalformedJwtException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            log.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.error("JWT token is invalid: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Claims of a verified token, from the cache when the token was verified before
+     *
+     * @throws JwtException when the token is invalid or expired
+     */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        Cache<String, Claims> cache = getVerifiedTokens();
+        String key = hash(token);
+        Claims cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            cache.invalidate(key);
+        }
+
+        Claims claims = getParser().parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            cache.put(key, claims);
+        }
+        return claims;
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().getTime() <= System.currentTimeMillis();
     }
 
     public Boolean isTokenExpired(String token) {
@@ -106,27 +175,72 @@ public class JwtTokenProvider {
     }
 
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+        return verify(token) != null;
+    }
+
+    private SecretKey getSigningKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            // Thread-safe and immutable once built
+            parser = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            jwtParser = parser;
         }
-        return false;
+        return parser;
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Cache<String, Claims> getVerifiedTokens() {
+        Cache<String, Claims> cache = verifiedTokens;
+        if (cache == null) {
+            synchronized (this) {
+                cache = verifiedTokens;
+                if (cache == null) {
+                    cache = Caffeine.newBuilder()
+                            .maximumSize(verifiedCacheMaxSize)
+                            .expireAfter(new Expiry<String, Claims>() {
+                                @Override
+                                public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                                    long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                                }
+
+                                @Override
+                                public long expireAfterUpdate(String key, Claims claims, long currentTime,
+                                                              long currentDuration) {
+                                    return expireAfterCreate(key, claims, currentTime);
+                                }
+
+                                @Override
+                                public long expireAfterRead(String key, Claims claims, long currentTime,
+                                                            long currentDuration) {
+                                    return currentDuration;
+                                }
+                            })
+                            .build();
+                    verifiedTokens = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public String extractTenantId(String token) {
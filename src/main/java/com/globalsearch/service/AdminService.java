@@ -7,8 +7,10 @@ import com.globalsearch.entity.AuditLog;
 import com.globalsearch.entity.Company;
 import com.globalsearch.entity.User;
 import com.globalsearch.repository.*;
+import com.globalsearch.service.auth.UserAuthChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -36,6 +38,7 @@ public class AdminService {
     private final AuditLogRepository auditLogRepository;
     private final ReportRepository reportRepository;
     private final DashboardRepository dashboardRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get system overview with comprehensive statistics
@@ -216,8 +219,12 @@ public class AdminService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
 
+        // Losing a role revokes the user's tokens on every node, gaining one does not
+        boolean lostRoles = !roles.containsAll(user.getRoles());
         user.setRoles(roles);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAuthChangedEvent(userId, user.getUsername(), lostRoles));
+        return saved;
     }
 
     /**
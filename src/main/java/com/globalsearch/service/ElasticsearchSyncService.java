@@ -3,22 +3,32 @@ package com.globalsearch.service;
 import com.globalsearch.document.*;
 import com.globalsearch.entity.*;
 import com.globalsearch.repository.*;
-import com.globalsearch.repository.search.*;
+import com.globalsearch.service.profiling.IndexBatchEvent;
+import com.globalsearch.service.sync.BulkIndexWriter;
+import com.globalsearch.service.sync.DeadLetterService;
+import com.globalsearch.service.sync.IndexChange;
+import com.globalsearch.service.sync.IndexManagementService;
+import com.globalsearch.service.sync.IndexingPipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
 
 /**
  * Service responsible for synchronizing data from MySQL to Elasticsearch.
  * This ensures that all search indices are up-to-date with the relational database.
+ * Full syncs and single changes are both written with the source row's external version,
+ * so whichever write is older is rejected by Elasticsearch.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,6 +36,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 @ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
 public class ElasticsearchSyncService {
 
+    private static final int FULL_SYNC_BATCH_SIZE = 500;
+
     // MySQL Repositories
     private final CompanyRepository companyRepository;
     private final LocationRepository locationRepository;
@@ -34,13 +46,10 @@ public class ElasticsearchSyncService {
     private final ReportRepository reportRepository;
     private final DashboardRepository dashboardRepository;
 
-    // Elasticsearch Repositories
-    private final CompanySearchRepository companySearchRepository;
-    private final LocationSearchRepository locationSearchRepository;
-    private final ZoneSearchRepository zoneSearchRepository;
-    private final SensorSearchRepository sensorSearchRepository;
-    private final ReportSearchRepository reportSearchRepository;
-    private final DashboardSearchRepository dashboardSearchRepository;
+    private final BulkIndexWriter bulkIndexWriter;
+    private final IndexManagementService indexManagementService;
+    private final IndexingPipeline indexingPipeline;
+    private final DeadLetterService deadLetterService;
 
     /**
      * Synchronizes all data from MySQL to Elasticsearch on application startup.
@@ -54,14 +63,17 @@ public class ElasticsearchSyncService {
         log.info("=================================================================");
 
         long startTime = System.currentTimeMillis();
+        long documentsIndexed = 0;
 
+        // Full rebuild: no refresh or replication until all indices are loaded
+        indexManagementService.beginBulkLoad();
         try {
-            syncAllCompanies();
-            syncAllLocations();
-            syncAllZones();
-            syncAllSensors();
-            syncAllReports();
-            syncAllDashboards();
+            documentsIndexed += recordBatch("companies", this::syncAllCompanies);
+            documentsIndexed += recordBatch("locations", this::syncAllLocations);
+            documentsIndexed += recordBatch("zones", this::syncAllZones);
+            documentsIndexed += recordBatch("sensors", this::syncAllSensors);
+            documentsIndexed += recordBatch("reports", this::syncAllReports);
+            documentsIndexed += recordBatch("dashboards", this::syncAllDashboards);
 
             long duration = System.currentTimeMillis() - startTime;
             log.info("=================================================================");
@@ -70,308 +82,300 @@ public class ElasticsearchSyncService {
         } catch (Exception e) {
             log.error("Error during Elasticsearch synchronization", e);
             log.error("Search functionality may be limited until sync is completed");
+        } finally {
+            indexManagementService.endBulkLoad(documentsIndexed);
         }
     }
 
+    /**
+     * Run the full sync of one entity type, emitted as an IndexBatchEvent while a JFR recording is running
+     */
+    private int recordBatch(String entityType, IntSupplier sync) {
+        IndexBatchEvent event = new IndexBatchEvent();
+        event.begin();
+        int indexed = sync.getAsInt();
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = IndexBatchEvent.FULL_SYNC;
+            event.entityType = entityType;
+            event.batchSize = indexed;
+            event.sent = indexed;
+            event.commit();
+        }
+        return indexed;
+    }
+
     /**
      * Synchronizes all companies from MySQL to Elasticsearch.
      */
     @Transactional(readOnly = true)
-    public void syncAllCompanies() {
+    public int syncAllCompanies() {
         log.info("Syncing companies to Elasticsearch...");
 
-        List<Company> companies = companyRepository.findAll();
-        AtomicInteger count = new AtomicInteger(0);
+        int count = indexAll("companies", companyRepository.findAll(), CompanyDocument.class, CompanyDocument::fromEntity, Company::getId);
 
-        companies.forEach(company -> {
-            try {
-                CompanyDocument document = CompanyDocument.fromEntity(company);
-                companySearchRepository.save(document);
-                count.incrementAndGet();
-            } catch (Exception e) {
-                log.error("Failed to index company: {} (ID: {})", company.getName(), company.getId(), e);
-            }
-        });
-
-        log.info("✓ Synced {} companies to Elasticsearch", count.get());
+        log.info("✓ Synced {} companies to Elasticsearch", count);
+        return count;
     }
 
     /**
      * Synchronizes all locations from MySQL to Elasticsearch.
      */
     @Transactional(readOnly = true)
-    public void syncAllLocations() {
+    public int syncAllLocations() {
         log.info("Syncing locations to Elasticsearch...");
 
-        List<Location> locations = locationRepository.findAll();
-        AtomicInteger count = new AtomicInteger(0);
-
-        locations.forEach(location -> {
-            try {
-                LocationDocument document = LocationDocument.fromEntity(location);
-                locationSearchRepository.save(document);
-                count.incrementAndGet();
-            } catch (Exception e) {
-                log.error("Failed to index location: {} (ID: {})", location.getName(), location.getId(), e);
-            }
-        });
+        int count = indexAll("locations", locationRepository.findAll(), LocationDocument.class, LocationDocument::fromEntity, Location::getId);
 
-        log.info("✓ Synced {} locations to Elasticsearch", count.get());
+        log.info("✓ Synced {} locations to Elasticsearch", count);
+        return count;
     }
 
     /**
      * Synchronizes all zones from MySQL to Elasticsearch.
      */
     @Transactional(readOnly = true)
-    public void syncAllZones() {
+    public int syncAllZones() {
         log.info("Syncing zones to Elasticsearch...");
 
-        List<Zone> zones = zoneRepository.findAll();
-        AtomicInteger count = new AtomicInteger(0);
-
-        zones.forEach(zone -> {
-            try {
-                ZoneDocument document = ZoneDocument.fromEntity(zone);
-                zoneSearchRepository.save(document);
-                count.incrementAndGet();
-            } catch (Exception e) {
-                log.error("Failed to index zone: {} (ID: {})", zone.getName(), zone.getId(), e);
-            }
-        });
+        int count = indexAll("zones", zoneRepository.findAll(), ZoneDocument.class, ZoneDocument::fromEntity, Zone::getId);
 
-        log.info("✓ Synced {} zones to Elasticsearch", count.get());
+        log.info("✓ Synced {} zones to Elasticsearch", count);
+        return count;
     }
 
     /**
      * Synchronizes all sensors from MySQL to Elasticsearch.
      */
     @Transactional(readOnly = true)
-    public void syncAllSensors() {
+    public int syncAllSensors() {
         log.info("Syncing sensors to Elasticsearch...");
 
-        List<Sensor> sensors = sensorRepository.findAll();
-        AtomicInteger count = new AtomicInteger(0);
-
-        sensors.forEach(sensor -> {
-            try {
-                SensorDocument document = SensorDocument.fromEntity(sensor);
-                sensorSearchRepository.save(document);
-                count.incrementAndGet();
-            } catch (Exception e) {
-                log.error("Failed to index sensor: {} (ID: {})", sensor.getName(), sensor.getId(), e);
-            }
-        });
+        int count = indexAll("sensors", sensorRepository.findAll(), SensorDocument.class, SensorDocument::fromEntity, Sensor::getId);
 
-        log.info("✓ Synced {} sensors to Elasticsearch", count.get());
+        log.info("✓ Synced {} sensors to Elasticsearch", count);
+        return count;
     }
 
     /**
      * Synchronizes all reports from MySQL to Elasticsearch.
      */
     @Transactional(readOnly = true)
-    public void syncAllReports() {
+    public int syncAllReports() {
         log.info("Syncing reports to Elasticsearch...");
 
-        List<Report> reports = reportRepository.findAll();
-        AtomicInteger count = new AtomicInteger(0);
+        int count = indexAll("reports", reportRepository.findAll(), ReportDocument.class, ReportDocument::fromEntity, Report::getId);
 
-        reports.forEach(report -> {
-            try {
-                ReportDocument document = ReportDocument.fromEntity(report);
-                reportSearchRepository.save(document);
-                count.incrementAndGet();
-            } catch (Exception e) {
-                log.error("Failed to index report: {} (ID: {})", report.getName(), report.getId(), e);
-            }
-        });
-
-        log.info("✓ Synced {} reports to Elasticsearch", count.get());
+        log.info("✓ Synced {} reports to Elasticsearch", count);
+        return count;
     }
 
     /**
      * Synchronizes all dashboards from MySQL to Elasticsearch.
      */
     @Transactional(readOnly = true)
-    public void syncAllDashboards() {
+    public int syncAllDashboards() {
         log.info("Syncing dashboards to Elasticsearch...");
 
-        List<Dashboard> dashboards = dashboardRepository.findAll();
-        AtomicInteger count = new AtomicInteger(0);
+        int count = indexAll("dashboards", dashboardRepository.findAll(), DashboardDocument.class, DashboardDocument::fromEntity, Dashboard::getId);
+
+        log.info("✓ Synced {} dashboards to Elasticsearch", count);
+        return count;
+    }
 
-        dashboards.forEach(dashboard -> {
+    /**
+     * Index the documents of all entities in bulk requests of FULL_SYNC_BATCH_SIZE, with the
+     * same external versions as the pipeline, so a full sync that read a row before a
+     * concurrent update cannot overwrite the newer document
+     *
+     * @return number of documents indexed or already up to date
+     */
+    private <E> int indexAll(String entityType, List<E> entities, Class<? extends VersionedDocument> documentClass,
+                             Function<E, ? extends VersionedDocument> toDocument, Function<E, Long> idOf) {
+        int indexed = 0;
+        List<IndexChange> batch = new ArrayList<>(Math.min(entities.size(), FULL_SYNC_BATCH_SIZE));
+        for (E entity : entities) {
             try {
-                DashboardDocument document = DashboardDocument.fromEntity(dashboard);
-                dashboardSearchRepository.save(document);
-                count.incrementAndGet();
+                batch.add(IndexChange.index(toDocument.apply(entity)));
             } catch (Exception e) {
-                log.error("Failed to index dashboard: {} (ID: {})", dashboard.getName(), dashboard.getId(), e);
+                log.error("Failed to build {} document (ID: {})", entityType, idOf.apply(entity), e);
+                deadLetterService.record(documentClass, idOf.apply(entity), e.getMessage());
             }
-        });
+            if (batch.size() == FULL_SYNC_BATCH_SIZE) {
+                indexed += writeBatch(entityType, batch);
+                batch = new ArrayList<>(FULL_SYNC_BATCH_SIZE);
+            }
+        }
+        return indexed + writeBatch(entityType, batch);
+    }
 
-        log.info("✓ Synced {} dashboards to Elasticsearch", count.get());
+    private int writeBatch(String entityType, List<IndexChange> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int indexed = 0;
+        try {
+            List<BulkIndexWriter.Outcome> outcomes = bulkIndexWriter.write(batch);
+            for (int i = 0; i < outcomes.size(); i++) {
+                BulkIndexWriter.Outcome outcome = outcomes.get(i);
+                if (outcome.isSuccess()) {
+                    indexed++;
+                } else {
+                    log.error("Failed to index {} {}: {}", entityType, batch.get(i).getDocumentId(), outcome.getError());
+                    deadLetterService.record(batch.get(i), outcome.getError());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to index a batch of {} {}", batch.size(), entityType, e);
+            deadLetterService.recordAll(batch, e.getMessage());
+        }
+        return indexed;
     }
 
     /**
      * Synchronizes a single company to Elasticsearch.
      * Use this when a company is created or updated.
+     * The document is built here, inside the caller's session, and indexed by the pipeline.
      */
-    @Async
     public void syncCompany(Company company) {
         try {
-            CompanyDocument document = CompanyDocument.fromEntity(company);
-            companySearchRepository.save(document);
-            log.debug("Synced company {} to Elasticsearch", company.getId());
+            submitAfterCommit(IndexChange.index(CompanyDocument.fromEntity(company)));
+            log.debug("Queued company {} for Elasticsearch", company.getId());
         } catch (Exception e) {
             log.error("Failed to sync company {} to Elasticsearch", company.getId(), e);
+            deadLetterService.record(CompanyDocument.class, company.getId(), e.getMessage());
         }
     }
 
     /**
      * Synchronizes a single location to Elasticsearch.
      */
-    @Async
     public void syncLocation(Location location) {
         try {
-            LocationDocument document = LocationDocument.fromEntity(location);
-            locationSearchRepository.save(document);
-            log.debug("Synced location {} to Elasticsearch", location.getId());
+            submitAfterCommit(IndexChange.index(LocationDocument.fromEntity(location)));
+            log.debug("Queued location {} for Elasticsearch", location.getId());
         } catch (Exception e) {
             log.error("Failed to sync location {} to Elasticsearch", location.getId(), e);
+            deadLetterService.record(LocationDocument.class, location.getId(), e.getMessage());
         }
     }
 
     /**
      * Synchronizes a single zone to Elasticsearch.
      */
-    @Async
     public void syncZone(Zone zone) {
         try {
-            ZoneDocument document = ZoneDocument.fromEntity(zone);
-            zoneSearchRepository.save(document);
-            log.debug("Synced zone {} to Elasticsearch", zone.getId());
+            submitAfterCommit(IndexChange.index(ZoneDocument.fromEntity(zone)));
+            log.debug("Queued zone {} for Elasticsearch", zone.getId());
         } catch (Exception e) {
             log.error("Failed to sync zone {} to Elasticsearch", zone.getId(), e);
+            deadLetterService.record(ZoneDocument.class, zone.getId(), e.getMessage());
         }
     }
 
     /**
      * Synchronizes a single sensor to Elasticsearch.
      */
-    @Async
     public void syncSensor(Sensor sensor) {
         try {
-            SensorDocument document = SensorDocument.fromEntity(sensor);
-            sensorSearchRepository.save(document);
-            log.debug("Synced sensor {} to Elasticsearch", sensor.getId());
+            submitAfterCommit(IndexChange.index(SensorDocument.fromEntity(sensor)));
+            log.debug("Queued sensor {} for Elasticsearch", sensor.getId());
         } catch (Exception e) {
             log.error("Failed to sync sensor {} to Elasticsearch", sensor.getId(), e);
+            deadLetterService.record(SensorDocument.class, sensor.getId(), e.getMessage());
         }
     }
 
     /**
      * Synchronizes a single report to Elasticsearch.
      */
-    @Async
     public void syncReport(Report report) {
         try {
-            ReportDocument document = ReportDocument.fromEntity(report);
-            reportSearchRepository.save(document);
-            log.debug("Synced report {} to Elasticsearch", report.getId());
+            submitAfterCommit(IndexChange.index(ReportDocument.fromEntity(report)));
+            log.debug("Queued report {} for Elasticsearch", report.getId());
         } catch (Exception e) {
             log.error("Failed to sync report {} to Elasticsearch", report.getId(), e);
+            deadLetterService.record(ReportDocument.class, report.getId(), e.getMessage());
         }
     }
 
     /**
      * Synchronizes a single dashboard to Elasticsearch.
      */
-    @Async
     public void syncDashboard(Dashboard dashboard) {
         try {
-            DashboardDocument document = DashboardDocument.fromEntity(dashboard);
-            dashboardSearchRepository.save(document);
-            log.debug("Synced dashboard {} to Elasticsearch", dashboard.getId());
+            submitAfterCommit(IndexChange.index(DashboardDocument.fromEntity(dashboard)));
+            log.debug("Queued dashboard {} for Elasticsearch", dashboard.getId());
         } catch (Exception e) {
             log.error("Failed to sync dashboard {} to Elasticsearch", dashboard.getId(), e);
+            deadLetterService.record(DashboardDocument.class, dashboard.getId(), e.getMessage());
         }
     }
 
     /**
      * Deletes a company from Elasticsearch.
      */
-    @Async
     public void deleteCompany(Long companyId) {
-        try {
-            companySearchRepository.deleteById(companyId);
-            log.debug("Deleted company {} from Elasticsearch", companyId);
-        } catch (Exception e) {
-            log.error("Failed to delete company {} from Elasticsearch", companyId, e);
-        }
+        submitAfterCommit(IndexChange.delete(CompanyDocument.class, companyId));
+        log.debug("Queued deletion of company {} from Elasticsearch", companyId);
     }
 
     /**
      * Deletes a location from Elasticsearch.
      */
-    @Async
     public void deleteLocation(Long locationId) {
-        try {
-            locationSearchRepository.deleteById(locationId);
-            log.debug("Deleted location {} from Elasticsearch", locationId);
-        } catch (Exception e) {
-            log.error("Failed to delete location {} from Elasticsearch", locationId, e);
-        }
+        submitAfterCommit(IndexChange.delete(LocationDocument.class, locationId));
+        log.debug("Queued deletion of location {} from Elasticsearch", locationId);
     }
 
     /**
      * Deletes a zone from Elasticsearch.
      */
-    @Async
     public void deleteZone(Long zoneId) {
-        try {
-            zoneSearchRepository.deleteById(zoneId);
-            log.debug("Deleted zone {} from Elasticsearch", zoneId);
-        } catch (Exception e) {
-            log.error("Failed to delete zone {} from Elasticsearch", zoneId, e);
-        }
+        submitAfterCommit(IndexChange.delete(ZoneDocument.class, zoneId));
+        log.debug("Queued deletion of zone {} from Elasticsearch", zoneId);
     }
 
     /**
      * Deletes a sensor from Elasticsearch.
      */
-    @Async
     public void deleteSensor(Long sensorId) {
-        try {
-            sensorSearchRepository.deleteById(sensorId);
-            log.debug("Deleted sensor {} from Elasticsearch", sensorId);
-        } catch (Exception e) {
-            log.error("Failed to delete sensor {} from Elasticsearch", sensorId, e);
-        }
+        submitAfterCommit(IndexChange.delete(SensorDocument.class, sensorId));
+        log.debug("Queued deletion of sensor {} from Elasticsearch", sensorId);
     }
 
     /**
      * Deletes a report from Elasticsearch.
      */
-    @Async
     public void deleteReport(Long reportId) {
-        try {
-            reportSearchRepository.deleteById(reportId);
-            log.debug("Deleted report {} from Elasticsearch", reportId);
-        } catch (Exception e) {
-            log.error("Failed to delete report {} from Elasticsearch", reportId, e);
-        }
+        submitAfterCommit(IndexChange.delete(ReportDocument.class, reportId));
+        log.debug("Queued deletion of report {} from Elasticsearch", reportId);
     }
 
     /**
      * Deletes a dashboard from Elasticsearch.
      */
-    @Async
     public void deleteDashboard(Long dashboardId) {
-        try {
-            dashboardSearchRepository.deleteById(dashboardId);
-            log.debug("Deleted dashboard {} from Elasticsearch", dashboardId);
-        } catch (Exception e) {
-            log.error("Failed to delete dashboard {} from Elasticsearch", dashboardId, e);
+        submitAfterCommit(IndexChange.delete(DashboardDocument.class, dashboardId));
+        log.debug("Queued deletion of dashboard {} from Elasticsearch", dashboardId);
+    }
+
+    /**
+     * Queue a change once the caller's transaction has committed, so rolled back changes are
+     * never indexed and the indexing lag is measured from the commit.
+     * Without a transaction the change is queued right away.
+     */
+    private void submitAfterCommit(IndexChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexingPipeline.submit(change.markCommitted());
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexingPipeline.submit(change.markCommitted());
+            }
+        });
     }
 
     /**
@@ -2,15 +2,25 @@ package com.globalsearch.service;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globalsearch.service.auth.CountMinSketch;
+import com.globalsearch.service.auth.SlidingWindowCounter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service to track and manage login attempts
- * Implements account lockout after multiple failed attempts
+ * Implements account lockout after multiple failed attempts, and blocks client IPs that
+ * fail too often across any usernames (password spraying).
+ *
+ * Failures per username are counted in a lock-free sliding window. Failures per IP go to a
+ * count-min sketch of fixed size, so a spray from many addresses cannot grow memory; its
+ * estimates may overcount, never undercount. The lockout checks on the login path do not
+ * allocate.
  */
 @Service
 @Slf4j
@@ -19,16 +29,25 @@ public class LoginAttemptService {
     private static final int MAX_ATTEMPTS = 5;
     private static final int LOCKOUT_DURATION_MINUTES = 30;
     private static final int ATTEMPT_CACHE_DURATION_MINUTES = 60;
+    private static final int ATTEMPT_WINDOW_BUCKETS = 6;
 
-    // Cache for tracking failed login attempts by username
-    private final Cache<String, Integer> attemptsCache;
+    private static final int MAX_ATTEMPTS_PER_IP = 50;
+    private static final int IP_WINDOW_MINUTES = 10;
+    private static final int IP_SKETCH_DEPTH = 4;
+    private static final int IP_SKETCH_WIDTH = 16384;
 
-    // Cache for tracking lockout end time by username
-    private final Cache<String, LocalDateTime> lockoutCache;
+    // Failed login attempts by username, over the last ATTEMPT_CACHE_DURATION_MINUTES
+    private final Cache<String, SlidingWindowCounter> attemptsCache;
+
+    // Lockout end time by username, in epoch millis
+    private final Cache<String, Long> lockoutCache;
+
+    // Failed login attempts by client IP
+    private final CountMinSketch ipAttempts;
 
     public LoginAttemptService() {
         this.attemptsCache = Caffeine.newBuilder()
-                .expireAfterWrite(ATTEMPT_CACHE_DURATION_MINUTES, TimeUnit.MINUTES)
+                .expireAfterAccess(ATTEMPT_CACHE_DURATION_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(10000)
                 .build();
 
@@ -36,6 +55,9 @@ public class LoginAttemptService {
                 .expireAfterWrite(LOCKOUT_DURATION_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(10000)
                 .build();
+
+        this.ipAttempts = new CountMinSketch(IP_SKETCH_DEPTH, IP_SKETCH_WIDTH,
+                TimeUnit.MINUTES.toMillis(IP_WINDOW_MINUTES));
     }
 
     /**
@@ -57,19 +79,37 @@ public class LoginAttemptService {
      * Locks account after MAX_ATTEMPTS failures
      */
     public void loginFailed(String username) {
-        if (username == null || username.isEmpty()) {
-            return;
-        }
-
-        int attempts = attemptsCache.get(username, key -> 0) + 1;
-        attemptsCache.put(username, attempts);
+        loginFailed(username, null);
+    }
 
-        log.warn("Login failed for user: {}, attempt {} of {}", username, attempts, MAX_ATTEMPTS);
+    /**
+     * Record a failed login attempt from a client IP
+     * Locks the account after MAX_ATTEMPTS failures; the IP is blocked after
+     * MAX_ATTEMPTS_PER_IP failures for any usernames
+     */
+    public void loginFailed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+
+        if (username != null && !username.isEmpty()) {
+            // The counter is updated atomically, concurrent failures are all counted
+            long attempts = attemptsCache.get(username, key -> new SlidingWindowCounter(ATTEMPT_WINDOW_BUCKETS,
+                    TimeUnit.MINUTES.toMillis(ATTEMPT_CACHE_DURATION_MINUTES) / ATTEMPT_WINDOW_BUCKETS))
+                    .increment(now);
+
+            log.warn("Login failed for user: {}, attempt {} of {}", username, attempts, MAX_ATTEMPTS);
+
+            if (attempts >= MAX_ATTEMPTS) {
+                long lockoutEndTime = now + TimeUnit.MINUTES.toMillis(LOCKOUT_DURATION_MINUTES);
+                lockoutCache.put(username, lockoutEndTime);
+                log.warn("Account locked for user: {} until {}", username, toLocalDateTime(lockoutEndTime));
+            }
+        }
 
-        if (attempts >= MAX_ATTEMPTS) {
-            LocalDateTime lockoutEndTime = LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES);
-            lockoutCache.put(username, lockoutEndTime);
-            log.warn("Account locked for user: {} until {}", username, lockoutEndTime);
+        if (clientIp != null && !clientIp.isEmpty()) {
+            long attempts = ipAttempts.add(clientIp, now);
+            if (attempts == MAX_ATTEMPTS_PER_IP) {
+                log.warn("Client IP {} blocked after {} failed logins", clientIp, attempts);
+            }
         }
     }
 
@@ -81,13 +121,13 @@ public class LoginAttemptService {
             return false;
         }
 
-        LocalDateTime lockoutEndTime = lockoutCache.getIfPresent(username);
+        Long lockoutEndTime = lockoutCache.getIfPresent(username);
         if (lockoutEndTime == null) {
             return false;
         }
 
         // Check if lockout period has expired
-        if (LocalDateTime.now().isAfter(lockoutEndTime)) {
+        if (System.currentTimeMillis() >= lockoutEndTime) {
             lockoutCache.invalidate(username);
             attemptsCache.invalidate(username);
             log.info("Lockout period expired for user: {}", username);
@@ -97,6 +137,36 @@ public class LoginAttemptService {
         return true;
     }
 
+    /**
+     * Check if a client IP has too many recent failed logins
+     */
+    public boolean isIpBlocked(String clientIp) {
+        if (clientIp == null || clientIp.isEmpty()) {
+            return false;
+        }
+
+        return ipAttempts.estimate(clientIp, System.currentTimeMillis()) >= MAX_ATTEMPTS_PER_IP;
+    }
+
+    /**
+     * Get the estimated number of recent failed logins from a client IP
+     */
+    public long getIpFailedAttempts(String clientIp) {
+        if (clientIp == null || clientIp.isEmpty()) {
+            return 0;
+        }
+
+        return ipAttempts.estimate(clientIp, System.currentTimeMillis());
+    }
+
+    /**
+     * Longest time a blocked IP has to wait, in seconds
+     * Failures count for up to two IP windows
+     */
+    public long getIpBlockSeconds() {
+        return TimeUnit.MINUTES.toSeconds(IP_WINDOW_MINUTES * 2L);
+    }
+
     /**
      * Get the number of failed login attempts for a user
      */
@@ -105,8 +175,8 @@ public class LoginAttemptService {
             return 0;
         }
 
-        Integer attempts = attemptsCache.getIfPresent(username);
-        return attempts != null ? attempts : 0;
+        SlidingWindowCounter attempts = attemptsCache.getIfPresent(username);
+        return attempts != null ? (int) attempts.sum(System.currentTimeMillis()) : 0;
     }
 
     /**
@@ -126,7 +196,8 @@ public class LoginAttemptService {
             return null;
         }
 
-        return lockoutCache.getIfPresent(username);
+        Long lockoutEndTime = lockoutCache.getIfPresent(username);
+        return lockoutEndTime != null ? toLocalDateTime(lockoutEndTime) : null;
     }
 
     /**
@@ -134,17 +205,20 @@ public class LoginAttemptService {
      * Returns 0 if not locked
      */
     public long getMinutesUntilUnlock(String username) {
-        LocalDateTime lockoutEndTime = getLockoutEndTime(username);
-        if (lockoutEndTime == null) {
+        if (username == null || username.isEmpty()) {
             return 0;
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        if (now.isAfter(lockoutEndTime)) {
+        Long lockoutEndTime = lockoutCache.getIfPresent(username);
+        if (lockoutEndTime == null) {
             return 0;
         }
 
-        return java.time.Duration.between(now, lockoutEndTime).toMinutes();
+        return Math.max(0, TimeUnit.MILLISECONDS.toMinutes(lockoutEndTime - System.currentTimeMillis()));
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
     }
 
     /**
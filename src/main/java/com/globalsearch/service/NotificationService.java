@@ -26,7 +26,7 @@ public class NotificationService {
     /**
      * Send notification to a specific user
      */
-    @Async
+    @Async("notificationExecutor")
     public void notifyUser(Long userId, WebSocketMessage message) {
         try {
             log.debug("Sending notification to user {}: {}", userId, message.getMessage());
@@ -39,7 +39,7 @@ public class NotificationService {
     /**
      * Send notification to all users in a tenant
      */
-    @Async
+    @Async("notificationExecutor")
     public void notifyTenant(String tenantId, WebSocketMessage message) {
         try {
             log.debug("Sending notification to tenant {}: {}", tenantId, message.getMessage());
@@ -52,7 +52,7 @@ public class NotificationService {
     /**
      * Send system-wide notification to all connected users
      */
-    @Async
+    @Async("notificationExecutor")
     public void notifySystem(WebSocketMessage message) {
         try {
             log.debug("Sending system notification: {}", message.getMessage());
@@ -65,7 +65,7 @@ public class NotificationService {
     /**
      * Notify about search result updates for a tenant
      */
-    @Async
+    @Async("notificationExecutor")
     public void notifySearchUpdate(String tenantId, WebSocketMessage message) {
         try {
             log.debug("Sending search update to tenant {}: {}", tenantId, message.getMessage());
@@ -78,7 +78,7 @@ public class NotificationService {
     /**
      * Notify about data changes (create/update/delete)
      */
-    @Async
+    @Async("notificationExecutor")
     public void notifyDataChange(String tenantId, String entityType, String action, Object payload) {
         WebSocketMessage message = WebSocketMessage.dataChange(tenantId, entityType, action, payload);
         notifyTenant(tenantId, message);
@@ -87,7 +87,7 @@ public class NotificationService {
     /**
      * Notify user about their activity result
      */
-    @Async
+    @Async("notificationExecutor")
     public void notifyUserActivity(Long userId, String tenantId, String activityMessage) {
         WebSocketMessage message = WebSocketMessage.userActivity(tenantId, userId, activityMessage);
         notifyUser(userId, message);
@@ -96,7 +96,7 @@ public class NotificationService {
     /**
      * Send alert to tenant users
      */
-    @Async
+    @Async("notificationExecutor")
     public void sendAlert(String tenantId, String alertMessage, String severity) {
         WebSocketMessage message = WebSocketMessage.alert(tenantId, alertMessage, severity);
         notifyTenant(tenantId, message);
@@ -105,7 +105,7 @@ public class NotificationService {
     /**
      * Send system-wide alert
      */
-    @Async
+    @Async("notificationExecutor")
     public void sendSystemAlert(String alertMessage, String severity) {
         WebSocketMessage message = WebSocketMessage.systemUpdate(alertMessage, severity);
         notifySystem(message);
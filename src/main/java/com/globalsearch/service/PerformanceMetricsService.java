@@ -1,54 +1,83 @@
 package com.globalsearch.service;
 
+import com.globalsearch.util.LatencyHistogram;
+import com.globalsearch.util.RollingLatencySeries;
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Service to track and report performance metrics for search operations
  * Requirements: F3, F7.1-7.4 - Performance validation and monitoring
+ *
+ * Latencies go into rolling time series (overall, per tenant, per query type and per
+ * tenant and query type) that keep the last 24 hours in second, minute and hour buckets,
+ * so recording is O(1) and stats can be queried for any window up to a day. The existing
+ * endpoints report the last default-window-minutes. The most recent raw samples are kept
+ * in a fixed-size lock-free ring buffer for the slow query list.
  */
 @Service
 @Slf4j
 public class PerformanceMetricsService {
 
-    // Store query execution times (last 1000 queries)
-    private final List<QueryMetric> queryMetrics = new CopyOnWriteArrayList<>();
-    private static final int MAX_METRICS_STORED = 1000;
+    private static final long SLOW_QUERY_THRESHOLD_MS = 1000;
 
-    // Track metrics by tenant
-    private final Map<String, TenantMetrics> tenantMetricsMap = new ConcurrentHashMap<>();
+    @Value("${performance.metrics.ring-size:4096}")
+    private int ringSize;
+
+    @Value("${performance.metrics.default-window-minutes:15}")
+    private int defaultWindowMinutes;
+
+    // Recent raw samples, the slot for a sample is its sequence number masked to the capacity
+    private AtomicReferenceArray<QueryMetric> recentQueries;
+    private int ringMask;
+    private final AtomicLong recentSequence = new AtomicLong();
+
+    private RollingLatencySeries overallLatency;
+    private final Map<String, RollingLatencySeries> tenantLatency = new ConcurrentHashMap<>();
+    private final Map<String, RollingLatencySeries> queryTypeLatency = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, RollingLatencySeries>> tenantQueryTypeLatency = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // Round up to a power of two so the ring index is a mask instead of a modulo
+        int capacity = Integer.highestOneBit(Math.max(2, ringSize) * 2 - 1);
+        recentQueries = new AtomicReferenceArray<>(capacity);
+        ringMask = capacity - 1;
+        overallLatency = newSeries();
+
+        log.info("Performance metrics keep the last {} samples, stats default to the last {} minutes",
+            capacity, defaultWindowMinutes);
+    }
 
     /**
      * Record a query execution time
      */
     public void recordQueryExecution(String tenantId, String queryType, long executionTimeMs) {
-        // Create metric
         QueryMetric metric = new QueryMetric(
             Instant.now(),
             tenantId,
             queryType,
             executionTimeMs
         );
+        recentQueries.set((int) (recentSequence.getAndIncrement() & ringMask), metric);
 
-        // Store in list (with size limit)
-        queryMetrics.add(metric);
-        if (queryMetrics.size() > MAX_METRICS_STORED) {
-            queryMetrics.remove(0); // Remove oldest
-        }
-
-        // Update tenant metrics
-        tenantMetricsMap.computeIfAbsent(tenantId, k -> new TenantMetrics(tenantId))
-            .recordQuery(executionTimeMs);
+        overallLatency.record(executionTimeMs);
+        seriesFor(tenantLatency, tenantId).record(executionTimeMs);
+        seriesFor(queryTypeLatency, queryType).record(executionTimeMs);
+        seriesFor(tenantQueryTypeMap(tenantId), queryType).record(executionTimeMs);
 
         // Log slow queries (>1000ms violates requirement)
-        if (executionTimeMs > 1000) {
+        if (executionTimeMs > SLOW_QUERY_THRESHOLD_MS) {
             log.warn("SLOW QUERY DETECTED: Type={}, TenantId={}, ExecutionTime={}ms",
                 queryType, tenantId, executionTimeMs);
         }
@@ -58,72 +87,82 @@ public class PerformanceMetricsService {
      * Get overall performance statistics
      */
     public PerformanceStats getOverallStats() {
-        if (queryMetrics.isEmpty()) {
-            return new PerformanceStats();
-        }
-
-        List<Long> executionTimes = queryMetrics.stream()
-            .map(QueryMetric::getExecutionTimeMs)
-            .sorted()
-            .toList();
-
-        return calculateStats(executionTimes, queryMetrics.size());
+        return getStats(defaultWindow(), null, null);
     }
 
     /**
      * Get performance statistics for specific tenant
      */
     public PerformanceStats getTenantStats(String tenantId) {
-        List<Long> executionTimes = queryMetrics.stream()
-            .filter(m -> m.getTenantId().equals(tenantId))
-            .map(QueryMetric::getExecutionTimeMs)
-            .sorted()
-            .toList();
-
-        if (executionTimes.isEmpty()) {
-            return new PerformanceStats();
-        }
+        return getStats(defaultWindow(), keyOf(tenantId), null);
+    }
 
-        return calculateStats(executionTimes, executionTimes.size());
+    /**
+     * Get performance statistics per query type
+     */
+    public Map<String, PerformanceStats> getQueryTypeStats() {
+        Map<String, PerformanceStats> stats = new TreeMap<>();
+        queryTypeLatency.forEach((queryType, series) -> {
+            LatencyHistogram snapshot = series.snapshot(defaultWindow().getSeconds());
+            if (snapshot.getCount() > 0) {
+                stats.put(queryType, calculateStats(snapshot));
+            }
+        });
+        return stats;
     }
 
     /**
-     * Get recent slow queries (>1000ms)
+     * Get performance statistics over a window of up to 24 hours
+     *
+     * @param tenantId  optional, restricts to one tenant
+     * @param queryType optional, restricts to one query type
+     */
+    public PerformanceStats getStats(Duration window, String tenantId, String queryType) {
+        return calculateStats(snapshot(window, tenantId, queryType));
+    }
+
+    /**
+     * Get recent slow queries (>1000ms), newest first
      */
     public List<QueryMetric> getSlowQueries(int limit) {
-        return queryMetrics.stream()
-            .filter(m -> m.getExecutionTimeMs() > 1000)
-            .sorted(Comparator.comparing(QueryMetric::getTimestamp).reversed())
-            .limit(limit)
-            .toList();
+        Instant cutoff = Instant.now().minus(defaultWindow());
+        List<QueryMetric> slowQueries = new ArrayList<>();
+
+        long newest = recentSequence.get() - 1;
+        long oldest = Math.max(0, newest - ringMask);
+        for (long sequence = newest; sequence >= oldest && slowQueries.size() < limit; sequence--) {
+            QueryMetric metric = recentQueries.get((int) (sequence & ringMask));
+            if (metric != null && metric.getExecutionTimeMs() > SLOW_QUERY_THRESHOLD_MS
+                    && metric.getTimestamp().isAfter(cutoff)) {
+                slowQueries.add(metric);
+            }
+        }
+        return slowQueries;
     }
 
     /**
      * Get query distribution by latency buckets
      */
     public Map<String, Integer> getLatencyDistribution() {
-        Map<String, Integer> distribution = new LinkedHashMap<>();
-        distribution.put("< 100ms", 0);
-        distribution.put("100-500ms", 0);
-        distribution.put("500-1000ms", 0);
-        distribution.put("1000-2000ms", 0);
-        distribution.put("> 2000ms", 0);
-
-        for (QueryMetric metric : queryMetrics) {
-            long time = metric.getExecutionTimeMs();
-            if (time < 100) {
-                distribution.merge("< 100ms", 1, Integer::sum);
-            } else if (time < 500) {
-                distribution.merge("100-500ms", 1, Integer::sum);
-            } else if (time < 1000) {
-                distribution.merge("500-1000ms", 1, Integer::sum);
-            } else if (time < 2000) {
-                distribution.merge("1000-2000ms", 1, Integer::sum);
-            } else {
-                distribution.merge("> 2000ms", 1, Integer::sum);
-            }
-        }
+        return getLatencyDistribution(defaultWindow(), null, null);
+    }
+
+    /**
+     * Get query distribution by latency buckets over a window of up to 24 hours
+     */
+    public Map<String, Integer> getLatencyDistribution(Duration window, String tenantId, String queryType) {
+        LatencyHistogram snapshot = snapshot(window, tenantId, queryType);
+        long below100 = snapshot.countBelow(100);
+        long below500 = snapshot.countBelow(500);
+        long below1000 = snapshot.countBelow(1000);
+        long below2000 = snapshot.countBelow(2000);
 
+        Map<String, Integer> distribution = new LinkedHashMap<>();
+        distribution.put("< 100ms", (int) below100);
+        distribution.put("100-500ms", (int) (below500 - below100));
+        distribution.put("500-1000ms", (int) (below1000 - below500));
+        distribution.put("1000-2000ms", (int) (below2000 - below1000));
+        distribution.put("> 2000ms", (int) (snapshot.getCount() - below2000));
         return distribution;
     }
 
@@ -131,17 +170,24 @@ public class PerformanceMetricsService {
      * Check if performance meets SLA requirements
      */
     public SLAComplianceReport checkSLACompliance() {
-        PerformanceStats stats = getOverallStats();
+        return checkSLACompliance(defaultWindow(), null, null);
+    }
+
+    /**
+     * Check SLA requirements over a window of up to 24 hours
+     */
+    public SLAComplianceReport checkSLACompliance(Duration window, String tenantId, String queryType) {
+        LatencyHistogram snapshot = snapshot(window, tenantId, queryType);
+        PerformanceStats stats = calculateStats(snapshot);
 
         boolean meetsAvgLatency = stats.getAverageDurationMs() < 500; // Should-have: < 500ms avg
         boolean meetsMaxLatency = stats.getP99DurationMs() < 1000;   // Must-have: < 1s under normal load
 
-        long queriesOver1s = queryMetrics.stream()
-            .filter(m -> m.getExecutionTimeMs() > 1000)
-            .count();
+        long total = snapshot.getCount();
+        long queriesOver1s = total - snapshot.countBelow(SLOW_QUERY_THRESHOLD_MS);
 
-        double violationRate = queryMetrics.isEmpty() ? 0 :
-            (double) queriesOver1s / queryMetrics.size() * 100;
+        double violationRate = total == 0 ? 0 :
+            (double) queriesOver1s / total * 100;
 
         return new SLAComplianceReport(
             meetsAvgLatency,
@@ -153,52 +199,95 @@ public class PerformanceMetricsService {
         );
     }
 
+    /**
+     * Count, sum and number of queries below thresholdMs over a window, overall or for one
+     * tenant. Cheaper than the stats methods, no histogram is built.
+     */
+    public RollingLatencySeries.WindowSummary summarize(Duration window, String tenantId, long thresholdMs) {
+        RollingLatencySeries series = tenantId == null ? overallLatency : tenantLatency.get(tenantId);
+        return series == null
+            ? new RollingLatencySeries.WindowSummary()
+            : series.summarize(window.getSeconds(), thresholdMs);
+    }
+
+    /**
+     * Tenants that recorded queries since startup or the last clear
+     */
+    public Set<String> getTenantIds() {
+        return Collections.unmodifiableSet(tenantLatency.keySet());
+    }
+
     /**
      * Clear all metrics (for testing)
      */
     public void clearMetrics() {
-        queryMetrics.clear();
-        tenantMetricsMap.clear();
+        for (int i = 0; i < recentQueries.length(); i++) {
+            recentQueries.set(i, null);
+        }
+        overallLatency.reset();
+        tenantLatency.clear();
+        queryTypeLatency.clear();
+        tenantQueryTypeLatency.clear();
     }
 
     /**
-     * Calculate statistics from execution times
+     * Calculate statistics from a histogram snapshot
      */
-    private PerformanceStats calculateStats(List<Long> executionTimes, int totalQueries) {
+    private PerformanceStats calculateStats(LatencyHistogram histogram) {
         PerformanceStats stats = new PerformanceStats();
-        stats.setTotalQueries(totalQueries);
-
-        if (executionTimes.isEmpty()) {
+        long count = histogram.getCount();
+        if (count == 0) {
             return stats;
         }
 
-        // Average
-        double avg = executionTimes.stream()
-            .mapToLong(Long::longValue)
-            .average()
-            .orElse(0);
-        stats.setAverageDurationMs((long) avg);
+        stats.setTotalQueries((int) Math.min(count, Integer.MAX_VALUE));
+        stats.setAverageDurationMs(histogram.getMean());
+        stats.setMinDurationMs(histogram.getMin());
+        stats.setMaxDurationMs(histogram.getMax());
+        stats.setP50DurationMs(histogram.getPercentile(50));
+        stats.setP95DurationMs(histogram.getPercentile(95));
+        stats.setP99DurationMs(histogram.getPercentile(99));
+        return stats;
+    }
+
+    private LatencyHistogram snapshot(Duration window, String tenantId, String queryType) {
+        RollingLatencySeries series;
+        if (tenantId == null && queryType == null) {
+            series = overallLatency;
+        } else if (queryType == null) {
+            series = tenantLatency.get(tenantId);
+        } else if (tenantId == null) {
+            series = queryTypeLatency.get(queryType);
+        } else {
+            series = tenantQueryTypeLatency.getOrDefault(tenantId, Map.of()).get(queryType);
+        }
+        return series == null ? new LatencyHistogram() : series.snapshot(window.getSeconds());
+    }
+
+    private Map<String, RollingLatencySeries> tenantQueryTypeMap(String tenantId) {
+        String key = keyOf(tenantId);
+        Map<String, RollingLatencySeries> byQueryType = tenantQueryTypeLatency.get(key);
+        return byQueryType != null ? byQueryType
+            : tenantQueryTypeLatency.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
 
-        // Min/Max
-        stats.setMinDurationMs(executionTimes.get(0));
-        stats.setMaxDurationMs(executionTimes.get(executionTimes.size() - 1));
+    private RollingLatencySeries seriesFor(Map<String, RollingLatencySeries> seriesByKey, String key) {
+        String safeKey = keyOf(key);
+        // Plain get first, computeIfAbsent would allocate a capturing lambda on every call
+        RollingLatencySeries series = seriesByKey.get(safeKey);
+        return series != null ? series : seriesByKey.computeIfAbsent(safeKey, k -> newSeries());
+    }
 
-        // Percentiles
-        stats.setP50DurationMs(getPercentile(executionTimes, 50));
-        stats.setP95DurationMs(getPercentile(executionTimes, 95));
-        stats.setP99DurationMs(getPercentile(executionTimes, 99));
+    private RollingLatencySeries newSeries() {
+        return new RollingLatencySeries(System::currentTimeMillis);
+    }
 
-        return stats;
+    private Duration defaultWindow() {
+        return Duration.ofMinutes(defaultWindowMinutes);
     }
 
-    /**
-     * Get percentile value from sorted list
-     */
-    private long getPercentile(List<Long> sortedValues, int percentile) {
-        if (sortedValues.isEmpty()) return 0;
-        int index = (int) Math.ceil(percentile / 100.0 * sortedValues.size()) - 1;
-        index = Math.max(0, Math.min(index, sortedValues.size() - 1));
-        return sortedValues.get(index);
+    private static String keyOf(String value) {
+        return value != null ? value : "unknown";
     }
 
     // Inner classes for metrics
@@ -222,22 +311,6 @@ public class PerformanceMetricsService {
         private long p99DurationMs;
     }
 
-    @Data
-    public static class TenantMetrics {
-        private final String tenantId;
-        private int queryCount = 0;
-        private long totalExecutionTime = 0;
-
-        public void recordQuery(long executionTime) {
-            queryCount++;
-            totalExecutionTime += executionTime;
-        }
-
-        public double getAverageExecutionTime() {
-            return queryCount == 0 ? 0 : (double) totalExecutionTime / queryCount;
-        }
-    }
-
     @Data
     public static class SLAComplianceReport {
         private final boolean meetsAverageLatencySLA;
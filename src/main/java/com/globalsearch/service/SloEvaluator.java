@@ -0,0 +1,251 @@
+package com.globalsearch.service;
+
+import com.globalsearch.util.RollingLatencySeries.WindowSummary;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background evaluation of the search latency SLOs, globally and per tenant.
+ * Requirements: F3 (p99 < 1s), F3.1 (avg < 500ms)
+ *
+ * Objectives:
+ * - LATENCY: at least latency-objective (99%) of queries below latency-threshold-ms (1s),
+ *   i.e. p99 < 1s. The error budget is the 1% of queries allowed to be slower.
+ * - AVERAGE: mean latency below average-target-ms (500ms). The budget is the total
+ *   latency allowed, average-target-ms per query.
+ *
+ * Burn rate is how fast the budget is spent compared to spending it evenly: the share of
+ * slow queries divided by 1%, or the mean latency divided by the target. Alerts use two
+ * windows per rule so they fire quickly but only while the problem is still going on:
+ * FAST (5 minutes and 1 hour) and SLOW (30 minutes and 6 hours). The remaining budget
+ * covers the last 24 hours, the longest window the rolling metrics keep.
+ *
+ * An evaluation only sums pre-aggregated buckets (RollingLatencySeries.summarize), so it is
+ * cheap enough to run every few seconds. Alerts are sent when a rule starts and stops
+ * firing: system-wide for the global scope, to the tenant's users for a tenant.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SloEvaluator {
+
+    public static final String GLOBAL_SCOPE = "global";
+    private static final String UNKNOWN_TENANT = "unknown";
+
+    private static final Duration BUDGET_WINDOW = Duration.ofHours(24);
+
+    public enum Objective {
+        LATENCY, AVERAGE
+    }
+
+    public enum BurnRule {
+        FAST(Duration.ofMinutes(5), Duration.ofHours(1), "ERROR"),
+        SLOW(Duration.ofMinutes(30), Duration.ofHours(6), "WARNING");
+
+        private final Duration shortWindow;
+        private final Duration longWindow;
+        private final String severity;
+
+        BurnRule(Duration shortWindow, Duration longWindow, String severity) {
+            this.shortWindow = shortWindow;
+            this.longWindow = longWindow;
+            this.severity = severity;
+        }
+    }
+
+    private final PerformanceMetricsService metricsService;
+    private final NotificationService notificationService;
+
+    @Value("${slo.enabled:true}")
+    private boolean enabled;
+
+    @Value("${slo.latency-threshold-ms:1000}")
+    private long latencyThresholdMs;
+
+    @Value("${slo.latency-objective:0.99}")
+    private double latencyObjective;
+
+    @Value("${slo.average-target-ms:500}")
+    private long averageTargetMs;
+
+    @Value("${slo.latency.fast-burn-rate:14.4}")
+    private double latencyFastBurnRate;
+
+    @Value("${slo.latency.slow-burn-rate:6}")
+    private double latencySlowBurnRate;
+
+    @Value("${slo.average.fast-burn-rate:2}")
+    private double averageFastBurnRate;
+
+    @Value("${slo.average.slow-burn-rate:1.2}")
+    private double averageSlowBurnRate;
+
+    // Rules do not fire on fewer queries than this in their long window
+    @Value("${slo.min-requests:20}")
+    private long minRequests;
+
+    private final Map<String, SloStatus> statuses = new ConcurrentHashMap<>();
+    private final Set<String> firing = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(initialDelayString = "${slo.evaluation-interval-ms:5000}",
+               fixedDelayString = "${slo.evaluation-interval-ms:5000}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        evaluateScope(GLOBAL_SCOPE, null);
+
+        // Previously evaluated tenants are included so their alerts resolve once the metrics are gone
+        Set<String> tenantIds = new HashSet<>(metricsService.getTenantIds());
+        tenantIds.addAll(statuses.keySet());
+        tenantIds.remove(GLOBAL_SCOPE);
+        tenantIds.remove(UNKNOWN_TENANT);
+        for (String tenantId : tenantIds) {
+            evaluateScope(tenantId, tenantId);
+        }
+    }
+
+    /**
+     * Latest evaluation per scope ("global" and tenant ids)
+     */
+    public Map<String, SloStatus> getStatuses() {
+        return new TreeMap<>(statuses);
+    }
+
+    void evaluateScope(String scope, String tenantId) {
+        WindowSummary budgetWindow = metricsService.summarize(BUDGET_WINDOW, tenantId, latencyThresholdMs);
+        if (budgetWindow.getCount() == 0) {
+            // Nothing in the last day, resolve whatever was firing
+            statuses.remove(scope);
+            for (Objective objective : Objective.values()) {
+                for (BurnRule rule : BurnRule.values()) {
+                    updateAlert(scope, tenantId, objective, rule, false, 0);
+                }
+            }
+            return;
+        }
+
+        Map<Duration, WindowSummary> windows = new HashMap<>();
+        for (BurnRule rule : BurnRule.values()) {
+            windows.computeIfAbsent(rule.shortWindow, window -> metricsService.summarize(window, tenantId, latencyThresholdMs));
+            windows.computeIfAbsent(rule.longWindow, window -> metricsService.summarize(window, tenantId, latencyThresholdMs));
+        }
+
+        SloStatus status = new SloStatus(scope, Instant.now(), budgetWindow.getCount());
+        for (Objective objective : Objective.values()) {
+            ObjectiveStatus objectiveStatus = new ObjectiveStatus(round(1 - burnRate(objective, budgetWindow)));
+
+            for (BurnRule rule : BurnRule.values()) {
+                WindowSummary shortWindow = windows.get(rule.shortWindow);
+                WindowSummary longWindow = windows.get(rule.longWindow);
+                double shortBurn = burnRate(objective, shortWindow);
+                double longBurn = burnRate(objective, longWindow);
+                objectiveStatus.getBurnRates().put(label(rule.shortWindow), round(shortBurn));
+                objectiveStatus.getBurnRates().put(label(rule.longWindow), round(longBurn));
+
+                double limit = burnRateLimit(objective, rule);
+                boolean fires = longWindow.getCount() >= minRequests && shortBurn >= limit && longBurn >= limit;
+                if (fires) {
+                    objectiveStatus.getFiring().add(rule);
+                }
+                updateAlert(scope, tenantId, objective, rule, fires, longBurn);
+            }
+            status.getObjectives().put(objective, objectiveStatus);
+        }
+        statuses.put(scope, status);
+    }
+
+    /**
+     * 1.0 spends the budget exactly over the window, 0 when there were no queries
+     */
+    double burnRate(Objective objective, WindowSummary window) {
+        if (window.getCount() == 0) {
+            return 0;
+        }
+        if (objective == Objective.LATENCY) {
+            double slowShare = (double) (window.getCount() - window.getBelow()) / window.getCount();
+            return slowShare / (1 - latencyObjective);
+        }
+        return (double) window.getSum() / window.getCount() / averageTargetMs;
+    }
+
+    private double burnRateLimit(Objective objective, BurnRule rule) {
+        if (objective == Objective.LATENCY) {
+            return rule == BurnRule.FAST ? latencyFastBurnRate : latencySlowBurnRate;
+        }
+        return rule == BurnRule.FAST ? averageFastBurnRate : averageSlowBurnRate;
+    }
+
+    private void updateAlert(String scope, String tenantId, Objective objective, BurnRule rule,
+                             boolean fires, double burnRate) {
+        String key = scope + "|" + objective + "|" + rule;
+        if (fires && firing.add(key)) {
+            String message = String.format("SLO %s (%s) is burning its error budget %.1fx too fast over the last %s",
+                    describe(objective), scopeName(scope), burnRate, label(rule.longWindow));
+            log.warn("{} [{} burn]", message, rule);
+            send(tenantId, message, rule.severity);
+        } else if (!fires && firing.remove(key)) {
+            String message = String.format("SLO %s (%s): %s burn rate back to normal",
+                    describe(objective), scopeName(scope), rule.name().toLowerCase());
+            log.info(message);
+            send(tenantId, message, "SUCCESS");
+        }
+    }
+
+    private void send(String tenantId, String message, String severity) {
+        if (tenantId == null) {
+            notificationService.sendSystemAlert(message, severity);
+        } else {
+            notificationService.sendAlert(tenantId, message, severity);
+        }
+    }
+
+    private String describe(Objective objective) {
+        return objective == Objective.LATENCY
+                ? String.format("p%s < %dms", formatPercent(latencyObjective), latencyThresholdMs)
+                : String.format("avg < %dms", averageTargetMs);
+    }
+
+    private static String formatPercent(double objective) {
+        double percent = objective * 100;
+        return percent == Math.rint(percent) ? String.valueOf((long) percent) : String.valueOf(percent);
+    }
+
+    private static String scopeName(String scope) {
+        return GLOBAL_SCOPE.equals(scope) ? "all tenants" : "tenant " + scope;
+    }
+
+    private static String label(Duration window) {
+        return window.toHours() > 0 ? window.toHours() + "h" : window.toMinutes() + "m";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    @Data
+    public static class SloStatus {
+        private final String scope;
+        private final Instant evaluatedAt;
+        private final long queriesLast24h;
+        private final Map<Objective, ObjectiveStatus> objectives = new EnumMap<>(Objective.class);
+    }
+
+    @Data
+    public static class ObjectiveStatus {
+        /** Share of the 24 hour budget left, negative when overspent */
+        private final double budgetRemaining;
+        /** Burn rate per window, e.g. "5m" -> 3.2 */
+        private final Map<String, Double> burnRates = new LinkedHashMap<>();
+        private final Set<BurnRule> firing = EnumSet.noneOf(BurnRule.class);
+    }
+}
@@ -5,8 +5,10 @@ import com.globalsearch.dto.request.UpdateUserRequest;
 import com.globalsearch.dto.response.UserResponse;
 import com.globalsearch.entity.User;
 import com.globalsearch.repository.UserRepository;
+import com.globalsearch.service.auth.UserAuthChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -25,6 +27,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserResponse createUser(CreateUserRequest request) {
         log.info("Creating user: {}", request.getUsername());
@@ -91,12 +94,19 @@ public class UserService {
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + id));
+        // Tokens issued before a change of identity, credentials or access are overridden,
+        // and revoked on every node when the change takes access away
+        boolean authChanged = false;
+        boolean revokeTokens = false;
+        String previousUsername = user.getUsername();
 
         if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
             if (userRepository.existsByUsername(request.getUsername())) {
                 throw new IllegalArgumentException("Username already exists");
             }
             user.setUsername(request.getUsername());
+            authChanged = true;
+            revokeTokens = true;
         }
 
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
@@ -116,30 +126,40 @@ public class UserService {
 
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
+            authChanged = true;
+            revokeTokens = true;
         }
 
         if (request.getRoles() != null) {
+            revokeTokens |= !request.getRoles().containsAll(user.getRoles());
             user.setRoles(request.getRoles());
+            authChanged = true;
         }
 
         if (request.getEnabled() != null) {
+            revokeTokens |= !request.getEnabled();
             user.setEnabled(request.getEnabled());
+            authChanged = true;
         }
 
         User updatedUser = userRepository.save(user);
         log.info("User updated successfully: {}", updatedUser.getUsername());
 
+        if (authChanged) {
+            eventPublisher.publishEvent(new UserAuthChangedEvent(id, previousUsername, revokeTokens));
+        }
+
         return UserResponse.fromEntity(updatedUser);
     }
 
     public void deleteUser(Long id) {
         log.info("Deleting user: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("User not found with ID: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + id));
 
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserAuthChangedEvent(id, user.getUsername(), true));
         log.info("User deleted successfully: {}", id);
     }
 }
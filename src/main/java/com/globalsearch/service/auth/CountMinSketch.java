@@ -0,0 +1,126 @@
+package com.globalsearch.service.auth;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Approximate per-key event counts in constant memory, over a sliding time window.
+ *
+ * Counts are kept per window in depth rows of width counters; a key's estimate is the
+ * smallest of its counters, which can overcount (when keys share counters) but never
+ * undercounts. The estimate adds the current and the previous window, so an event counts
+ * for between one and two window lengths.
+ *
+ * Memory is fixed however many keys are counted. Counting is lock-free; only the switch to
+ * a new window, once per window length, takes a lock.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final long windowMillis;
+
+    // Created by the first event of each window
+    private volatile Window current;
+    private volatile Window previous;
+
+    public CountMinSketch(int depth, int width, long windowMillis) {
+        if (depth < 1 || width < 1 || windowMillis < 1) {
+            throw new IllegalArgumentException("depth, width and windowMillis must be positive");
+        }
+        this.depth = depth;
+        // Power of two, so a column is a mask instead of a division
+        int rounded = Integer.highestOneBit(width);
+        this.width = rounded == width ? width : rounded << 1;
+        this.mask = this.width - 1;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Count one event for the key and return its estimate including it
+     */
+    public long add(String key, long nowMillis) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        long number = nowMillis / windowMillis;
+        Window window = window(number);
+
+        // Every row is incremented, so concurrent events for one key are all counted
+        for (int row = 0; row < depth; row++) {
+            window.cells.incrementAndGet(index(row, hash1, hash2));
+        }
+        return estimate(hash1, hash2, number);
+    }
+
+    /**
+     * Estimated events for the key in the sliding window ending at the given time
+     */
+    public long estimate(String key, long nowMillis) {
+        long hash1 = hash(key);
+        return estimate(hash1, mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1, nowMillis / windowMillis);
+    }
+
+    private long estimate(long hash1, long hash2, long number) {
+        return estimate(current, hash1, hash2, number) + estimate(previous, hash1, hash2, number);
+    }
+
+    private long estimate(Window window, long hash1, long hash2, long number) {
+        if (window == null || number - window.number < 0 || number - window.number > 1) {
+            return 0;
+        }
+        int minimum = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            minimum = Math.min(minimum, window.cells.get(index(row, hash1, hash2)));
+        }
+        return minimum;
+    }
+
+    private Window window(long number) {
+        Window window = current;
+        if (window != null && window.number >= number) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (window == null || window.number < number) {
+                previous = window != null && window.number == number - 1 ? window : null;
+                window = new Window(number, depth * width);
+                current = window;
+            }
+            return window;
+        }
+    }
+
+    private int index(int row, long hash1, long hash2) {
+        return row * width + (int) ((hash1 + row * hash2) & mask);
+    }
+
+    // FNV-1a over the characters, then a 64-bit finalizer to spread the bits
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85EC9L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static final class Window {
+        private final long number;
+        private final AtomicIntegerArray cells;
+
+        Window(long number, int size) {
+            this.number = number;
+            this.cells = new AtomicIntegerArray(size);
+        }
+    }
+}
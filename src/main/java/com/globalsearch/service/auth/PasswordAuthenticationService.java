@@ -0,0 +1,32 @@
+package com.globalsearch.service.auth;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Username/password authentication on the bounded authExecutor (see AsyncConfig), keeping
+ * the password hashing off the request threads that serve searches.
+ */
+@Service
+@RequiredArgsConstructor
+public class PasswordAuthenticationService {
+
+    private final AuthenticationManager authenticationManager;
+
+    /**
+     * Authenticate on the auth executor
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when the executor's queue is full
+     */
+    @Async("authExecutor")
+    public CompletableFuture<Authentication> authenticate(String username, String password) {
+        return CompletableFuture.completedFuture(authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password)));
+    }
+}
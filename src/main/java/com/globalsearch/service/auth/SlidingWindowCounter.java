@@ -0,0 +1,66 @@
+package com.globalsearch.service.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Event count over a sliding window of fixed-length buckets, updated without locks.
+ *
+ * Each bucket is one long holding the bucket's number (time / bucket length) in the high
+ * bits and its count in the low bits, so claiming a bucket for a new period and counting in
+ * it is a single compare-and-set. Buckets older than the window are ignored by the sum and
+ * overwritten when their slot comes round again; nothing is allocated after construction.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray buckets;
+    private final long bucketMillis;
+
+    public SlidingWindowCounter(int bucketCount, long bucketMillis) {
+        if (bucketCount < 1 || bucketMillis < 1) {
+            throw new IllegalArgumentException("bucketCount and bucketMillis must be positive");
+        }
+        this.buckets = new AtomicLongArray(bucketCount);
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Count one event and return the window's total including it
+     */
+    public long increment(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        int slot = (int) (bucket % buckets.length());
+        while (true) {
+            long current = buckets.get(slot);
+            long next;
+            if ((current >>> COUNT_BITS) == bucket) {
+                // Saturates instead of overflowing into the bucket number
+                next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+            } else {
+                next = (bucket << COUNT_BITS) | 1;
+            }
+            if (buckets.compareAndSet(slot, current, next)) {
+                break;
+            }
+        }
+        return sum(nowMillis);
+    }
+
+    /**
+     * Events counted in the buckets of the window ending at the given time
+     */
+    public long sum(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long value = buckets.get(i);
+            long age = bucket - (value >>> COUNT_BITS);
+            if (age >= 0 && age < buckets.length()) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
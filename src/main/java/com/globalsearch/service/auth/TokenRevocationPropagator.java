@@ -0,0 +1,23 @@
+package com.globalsearch.service.auth;
+
+/**
+ * Carries revocations made on this node to the other nodes.
+ *
+ * Revocations are held in memory, so without a propagator a logout only takes effect on
+ * the node that handled it. An implementation publishes to a shared channel (a message
+ * broker, Redis pub/sub) and applies what it receives with
+ * {@link TokenRevocationService#applyRevokedToken} and
+ * {@link TokenRevocationService#applyUserNotBefore}, which do not propagate again.
+ */
+public interface TokenRevocationPropagator {
+
+    /**
+     * A token was revoked; it stays revoked until its expiry
+     */
+    void tokenRevoked(String tokenId, long expiresAtMillis);
+
+    /**
+     * Tokens of the user issued before the given time were revoked
+     */
+    void userSignedOut(String username, long notBeforeMillis);
+}
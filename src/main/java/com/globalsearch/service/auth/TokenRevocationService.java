@@ -0,0 +1,206 @@
+package com.globalsearch.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory revocation of access and refresh tokens.
+ *
+ * Holds two kinds of entries: revoked token ids (the jti claim), each kept until the
+ * token's own expiry, and per-user "not before" times that revoke every token of the user
+ * issued earlier, kept for the longest token lifetime. A Bloom filter in front of each map
+ * answers the common case, a token that was never revoked, without touching the map.
+ *
+ * Revocations are local to the node. A {@link TokenRevocationPropagator} bean, when present,
+ * is told about each one so that it can reach the other nodes. User changes that take access
+ * away (UserAuthChangedEvent with revokeTokens) are turned into a sign-out of the user, so
+ * they reach the other nodes the same way; UserAuthStateCache only covers this node.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    @Value("${jwt.refresh.expiration:604800000}")
+    private long refreshTokenExpiration;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private List<TokenRevocationPropagator> propagators = Collections.emptyList();
+
+    private Cache<String, Long> revokedTokens;
+    private Cache<String, Long> notBefore;
+
+    // Replaced as a whole on rebuild; writers hold the monitor, readers do not
+    private volatile RevocationBloomFilter tokenFilter;
+    private volatile RevocationBloomFilter userFilter;
+
+    @Autowired(required = false)
+    public void setPropagators(List<TokenRevocationPropagator> propagators) {
+        this.propagators = propagators;
+    }
+
+    @PostConstruct
+    public void init() {
+        // Value is the token's expiry in epoch millis
+        revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long expiresAt, long currentTime) {
+                        long remainingMs = expiresAt - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long expiresAt, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long expiresAt, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        // Every token issued before the entry has expired after the longest token lifetime
+        notBefore = Caffeine.newBuilder()
+                .expireAfterWrite(refreshTokenExpiration, TimeUnit.MILLISECONDS)
+                .build();
+        tokenFilter = new RevocationBloomFilter(expectedRevocations, falsePositiveRate);
+        userFilter = new RevocationBloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Whether verified claims belong to a revoked token
+     */
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && tokenFilter.mightContain(tokenId)
+                && revokedTokens.getIfPresent(tokenId) != null) {
+            return true;
+        }
+        String username = claims.getSubject();
+        if (username != null && userFilter.mightContain(username)) {
+            Long userNotBefore = notBefore.getIfPresent(username);
+            Date issuedAt = claims.getIssuedAt();
+            // iat has second precision: a token from the second of the sign-out counts as older
+            return userNotBefore != null && (issuedAt == null || issuedAt.getTime() < userNotBefore);
+        }
+        return false;
+    }
+
+    /**
+     * Revoke one token, on logout
+     */
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            // Tokens issued before ids were added can only be revoked with their user
+            revokeUser(claims.getSubject());
+            return;
+        }
+        long expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : System.currentTimeMillis() + refreshTokenExpiration;
+        applyRevokedToken(claims.getId(), expiresAt);
+        for (TokenRevocationPropagator propagator : propagators) {
+            try {
+                propagator.tokenRevoked(claims.getId(), expiresAt);
+            } catch (Exception e) {
+                log.warn("Failed to propagate revocation of token {}: {}", claims.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Revoke every token of a user issued until now, on forced sign-out
+     */
+    public void revokeUser(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("Username is required");
+        }
+        long now = System.currentTimeMillis();
+        applyUserNotBefore(username, now);
+        for (TokenRevocationPropagator propagator : propagators) {
+            try {
+                propagator.userSignedOut(username, now);
+            } catch (Exception e) {
+                log.warn("Failed to propagate sign-out of user {}: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sign out a user who was disabled, deleted, lost roles or got new credentials, after the
+     * change is committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthChanged(UserAuthChangedEvent event) {
+        if (event.isRevokeTokens() && event.getUsername() != null) {
+            revokeUser(event.getUsername());
+        }
+    }
+
+    /**
+     * Record a revoked token without propagating it, for revocations from other nodes
+     */
+    public synchronized void applyRevokedToken(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        // Map first, so a filter hit always finds the entry
+        revokedTokens.put(tokenId, expiresAtMillis);
+        tokenFilter.put(tokenId);
+        log.debug("Token {} revoked until {}", tokenId, new Date(expiresAtMillis));
+    }
+
+    /**
+     * Record a user's sign-out without propagating it, for revocations from other nodes
+     */
+    public synchronized void applyUserNotBefore(String username, long notBeforeMillis) {
+        notBefore.asMap().merge(username, notBeforeMillis, Math::max);
+        userFilter.put(username);
+        log.info("Tokens of user {} issued before {} revoked", username, new Date(notBeforeMillis));
+    }
+
+    /**
+     * Rebuild the Bloom filters from the live entries, dropping the keys of expired ones
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation.rebuild-interval-ms:600000}",
+            fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuildFilters() {
+        revokedTokens.cleanUp();
+        notBefore.cleanUp();
+        tokenFilter = rebuild(new ArrayList<>(revokedTokens.asMap().keySet()));
+        userFilter = rebuild(new ArrayList<>(notBefore.asMap().keySet()));
+    }
+
+    private RevocationBloomFilter rebuild(List<String> keys) {
+        // Room to grow until the next rebuild
+        RevocationBloomFilter filter = new RevocationBloomFilter(
+                Math.max(expectedRevocations, keys.size() * 2), falsePositiveRate);
+        for (String key : keys) {
+            filter.put(key);
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,29 @@
+package com.globalsearch.service.auth;
+
+import lombok.Getter;
+
+/**
+ * Published when a change to a user affects its authentication: roles, enabled flag,
+ * password or deletion. Tokens issued before the change stop carrying the user's state.
+ *
+ * Changes that take access away (disabling, deletion, lost roles, new credentials) also
+ * revoke the user's tokens, which reaches the other nodes through the revocation propagators.
+ */
+@Getter
+public class UserAuthChangedEvent {
+
+    private final Long userId;
+    /** Username the existing tokens were issued to, before any rename */
+    private final String username;
+    private final boolean revokeTokens;
+
+    public UserAuthChangedEvent(Long userId) {
+        this(userId, null, false);
+    }
+
+    public UserAuthChangedEvent(Long userId, String username, boolean revokeTokens) {
+        this.userId = userId;
+        this.username = username;
+        this.revokeTokens = revokeTokens;
+    }
+}
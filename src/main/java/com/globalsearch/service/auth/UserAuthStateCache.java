@@ -0,0 +1,112 @@
+package com.globalsearch.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globalsearch.entity.User;
+import com.globalsearch.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current authentication state of the users whose roles, enabled flag or password changed
+ * while tokens issued before the change may still be valid.
+ *
+ * Requests are authenticated from the token's signed claims alone; this cache is the only
+ * check against newer state. Each entry is stamped with the time of the change, and only
+ * tokens issued before that stamp are affected, so a token issued after the change is
+ * trusted again. Entries live as long as an access token, after which every affected token
+ * has expired. Most users never have an entry, and the lookup of those is a map miss.
+ *
+ * Changes are reported by UserAuthChangedEvent and applied after the commit, with one user
+ * query per change. The cache is local to the node; changes that take access away also
+ * revoke the user's tokens in TokenRevocationService, which propagates to the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserAuthStateCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpiration;
+
+    private Cache<Long, AuthState> states;
+
+    @PostConstruct
+    public void init() {
+        // No size bound: evicting an entry would make a disabled user's old tokens valid again
+        states = Caffeine.newBuilder()
+                .expireAfterWrite(jwtExpiration, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthChanged(UserAuthChangedEvent event) {
+        refresh(event.getUserId());
+    }
+
+    /**
+     * Reload a user's state and stamp it with the current time
+     */
+    public AuthState refresh(Long userId) {
+        Optional<User> user = userRepository.findById(userId);
+        AuthState state = user
+                .map(u -> new AuthState(System.currentTimeMillis(), Boolean.TRUE.equals(u.getEnabled()),
+                        u.getRoles().isEmpty() ? Collections.emptySet() : EnumSet.copyOf(u.getRoles()),
+                        u.getTenantId()))
+                .orElseGet(() -> new AuthState(System.currentTimeMillis(), false, Collections.emptySet(), null));
+        states.put(userId, state);
+        log.info("Authentication state of user {} changed: enabled={}, roles={}",
+                userId, state.isEnabled(), state.getRoles());
+        return state;
+    }
+
+    /**
+     * The state that overrides a token's claims, or null when the token is newer than the
+     * user's last change
+     */
+    public AuthState getIfChangedSince(Long userId, Date issuedAt) {
+        AuthState state = states.getIfPresent(userId);
+        if (state == null) {
+            return null;
+        }
+        // iat has second precision: a token from the same second counts as older
+        if (issuedAt != null && issuedAt.getTime() >= state.getVersion()) {
+            return null;
+        }
+        return state;
+    }
+
+    public long size() {
+        return states.estimatedSize();
+    }
+
+    @Getter
+    public static class AuthState {
+        /** Time of the change, in epoch millis */
+        private final long version;
+        private final boolean enabled;
+        private final Set<User.Role> roles;
+        private final String tenantId;
+
+        AuthState(long version, boolean enabled, Set<User.Role> roles, String tenantId) {
+            this.version = version;
+            this.enabled = enabled;
+            this.roles = roles;
+            this.tenantId = tenantId;
+        }
+    }
+}
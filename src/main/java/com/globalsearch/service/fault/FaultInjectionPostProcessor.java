@@ -0,0 +1,136 @@
+package com.globalsearch.service.fault;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Routes the calls of the application's repositories and of the Elasticsearch client beans
+ * through FaultInjector.
+ *
+ * Repository proxies get the interceptor added as their first advice, so they keep their
+ * type. ElasticsearchOperations and ElasticsearchClient are injected by class in places, so
+ * they are wrapped in a class proxy; their entity type is taken per call from a document
+ * class or IndexCoordinates argument, and is "*" for raw client requests.
+ */
+@Component
+@Profile({"test", "staging"})
+@RequiredArgsConstructor
+@Slf4j
+public class FaultInjectionPostProcessor implements BeanPostProcessor {
+
+    private static final String REPOSITORY_PACKAGE = "com.globalsearch.repository";
+
+    private final FaultInjector faultInjector;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository) {
+            Class<?> repositoryInterface = repositoryInterface(bean);
+            if (repositoryInterface == null) {
+                return bean;
+            }
+            String layer = ElasticsearchRepository.class.isAssignableFrom(repositoryInterface)
+                    ? FaultInjector.SEARCH : FaultInjector.JPA;
+            String entityType = FaultInjector.entityTypeOf(repositoryInterface.getSimpleName());
+            return advise(bean, new RepositoryInterceptor(faultInjector, layer, entityType), beanName);
+        }
+        if (bean instanceof ElasticsearchOperations || bean instanceof ElasticsearchClient) {
+            return advise(bean, new ClientInterceptor(faultInjector), beanName);
+        }
+        return bean;
+    }
+
+    private Object advise(Object bean, MethodInterceptor interceptor, String beanName) {
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            log.debug("Fault injection added to {}", beanName);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(!(bean instanceof Repository));
+        proxyFactory.addAdvice(interceptor);
+        log.debug("Fault injection proxy created for {}", beanName);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static Class<?> repositoryInterface(Object bean) {
+        Class<?>[] interfaces = bean instanceof Advised
+                ? ((Advised) bean).getProxiedInterfaces()
+                : bean.getClass().getInterfaces();
+        for (Class<?> candidate : interfaces) {
+            if (candidate.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    static class RepositoryInterceptor implements MethodInterceptor {
+
+        private final FaultInjector faultInjector;
+        private final String layer;
+        private final String entityType;
+
+        RepositoryInterceptor(FaultInjector faultInjector, String layer, String entityType) {
+            this.faultInjector = faultInjector;
+            this.layer = layer;
+            this.entityType = entityType;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (ReflectionUtils.isObjectMethod(invocation.getMethod())) {
+                return invocation.proceed();
+            }
+            return faultInjector.invoke(layer, entityType, invocation::proceed);
+        }
+    }
+
+    static class ClientInterceptor implements MethodInterceptor {
+
+        private final FaultInjector faultInjector;
+
+        ClientInterceptor(FaultInjector faultInjector) {
+            this.faultInjector = faultInjector;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            // Accessors such as indices(), _transport() and withTransportOptions() are not round trips
+            if (ReflectionUtils.isObjectMethod(method) || method.getParameterCount() == 0
+                    || method.getName().startsWith("_") || method.getName().startsWith("with")) {
+                return invocation.proceed();
+            }
+            return faultInjector.invoke(FaultInjector.CLIENT, entityType(invocation.getArguments()),
+                    invocation::proceed);
+        }
+
+        private static String entityType(Object[] arguments) {
+            for (Object argument : arguments) {
+                if (argument instanceof IndexCoordinates) {
+                    return FaultInjector.entityTypeOf(((IndexCoordinates) argument).getIndexName());
+                }
+                if (argument instanceof Class) {
+                    return FaultInjector.entityTypeOf(((Class<?>) argument).getSimpleName());
+                }
+            }
+            return FaultInjector.ANY;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.globalsearch.service.fault;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime-switchable faults for the Elasticsearch repositories, the Elasticsearch client
+ * and the JPA repositories, so timeouts, partial results and fallbacks of SearchService and
+ * ElasticsearchSyncService can be checked under controlled latency and failures.
+ *
+ * Faults are set per layer (search, client, jpa) and entity type (company, sensor, ...),
+ * with "*" as the entity type for the whole layer. FaultInjectionPostProcessor routes the
+ * calls through this class; only the test and staging profiles have it.
+ */
+@Component
+@Profile({"test", "staging"})
+@Slf4j
+public class FaultInjector {
+
+    public static final String SEARCH = "search";
+    public static final String CLIENT = "client";
+    public static final String JPA = "jpa";
+    public static final String ANY = "*";
+
+    private static final Set<String> LAYERS = Set.of(SEARCH, CLIENT, JPA);
+
+    /**
+     * The intercepted call
+     */
+    @FunctionalInterface
+    public interface Call {
+        Object proceed() throws Throwable;
+    }
+
+    private final Map<String, FaultSpec> faults = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalArgumentException for an unknown layer or out-of-range settings
+     */
+    public void setFault(String layer, String entityType, FaultSpec spec) {
+        validate(spec);
+        String key = key(layer, entityType);
+        faults.put(key, spec);
+        counters.put(key, new Counters());
+        log.warn("Fault injection enabled for {}: {}", key, spec);
+    }
+
+    public boolean clearFault(String layer, String entityType) {
+        String key = key(layer, entityType);
+        counters.remove(key);
+        boolean removed = faults.remove(key) != null;
+        if (removed) {
+            log.warn("Fault injection disabled for {}", key);
+        }
+        return removed;
+    }
+
+    public void clearAll() {
+        faults.clear();
+        counters.clear();
+        log.warn("Fault injection disabled for all layers");
+    }
+
+    public Map<String, FaultSpec> getFaults() {
+        return new TreeMap<>(faults);
+    }
+
+    /**
+     * Calls, delays, errors, hangs and dropped elements per configured fault
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        counters.forEach((key, value) -> stats.put(key, value.toMap()));
+        return stats;
+    }
+
+    /**
+     * Run a call with the fault configured for its layer and entity type, if any
+     */
+    public Object invoke(String layer, String entityType, Call call) throws Throwable {
+        String key = resolve(layer, entityType);
+        FaultSpec spec = key != null ? faults.get(key) : null;
+        if (spec == null) {
+            return call.proceed();
+        }
+        Counters stats = counters.computeIfAbsent(key, k -> new Counters());
+        stats.calls.incrementAndGet();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (spec.getHangRate() > 0 && random.nextDouble() < spec.getHangRate()) {
+            stats.hangs.incrementAndGet();
+            sleep(spec.getHangMs());
+            throw new QueryTimeoutException("Injected hang on " + layer + ":" + entityType
+                    + " timed out after " + spec.getHangMs() + "ms");
+        }
+
+        long latencyMs = sampleLatencyMs(spec);
+        if (latencyMs > 0) {
+            stats.delayed.incrementAndGet();
+            sleep(latencyMs);
+        }
+
+        if (spec.getErrorRate() > 0 && random.nextDouble() < spec.getErrorRate()) {
+            stats.errors.incrementAndGet();
+            throw new DataAccessResourceFailureException("Injected failure on " + layer + ":" + entityType);
+        }
+
+        Object result = call.proceed();
+        return spec.getDropRate() > 0 ? drop(result, spec.getDropRate(), stats) : result;
+    }
+
+    /**
+     * The configured key that applies: the entity type's own, else the layer-wide one
+     */
+    String resolve(String layer, String entityType) {
+        if (faults.isEmpty()) {
+            return null;
+        }
+        String exact = layer + ":" + entityType;
+        if (faults.containsKey(exact)) {
+            return exact;
+        }
+        String layerWide = layer + ":" + ANY;
+        return faults.containsKey(layerWide) ? layerWide : null;
+    }
+
+    static long sampleLatencyMs(FaultSpec spec) {
+        switch (spec.getDistribution()) {
+            case FIXED:
+                return spec.getLatencyMs();
+            case PARETO:
+                // Inverse transform, u in (0, 1]
+                double u = 1.0 - ThreadLocalRandom.current().nextDouble();
+                double sample = spec.getLatencyMs() / Math.pow(u, 1.0 / spec.getParetoShape());
+                return (long) Math.min(sample, spec.getMaxLatencyMs());
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Entity type of a repository interface, document class or index name:
+     * SensorSearchRepository, SensorRepository, SensorDocument and sensors give "sensor"
+     */
+    static String entityTypeOf(String name) {
+        String type = name;
+        for (String suffix : new String[]{"SearchRepository", "Repository", "Document"}) {
+            if (type.endsWith(suffix) && type.length() > suffix.length()) {
+                type = type.substring(0, type.length() - suffix.length());
+                break;
+            }
+        }
+        type = type.toLowerCase(Locale.ROOT);
+        if (type.endsWith("ies")) {
+            return type.substring(0, type.length() - 3) + "y";
+        }
+        if (type.endsWith("s") && !type.endsWith("ss")) {
+            return type.substring(0, type.length() - 1);
+        }
+        return type;
+    }
+
+    private Object drop(Object result, double dropRate, Counters stats) {
+        if (result instanceof Page) {
+            Page<?> page = (Page<?>) result;
+            List<Object> kept = dropElements(page.getContent(), dropRate, stats);
+            return new PageImpl<>(kept, page.getPageable(), page.getTotalElements());
+        }
+        if (result instanceof List) {
+            return dropElements((List<?>) result, dropRate, stats);
+        }
+        return result;
+    }
+
+    private List<Object> dropElements(List<?> elements, double dropRate, Counters stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object> kept = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            if (random.nextDouble() < dropRate) {
+                stats.dropped.incrementAndGet();
+            } else {
+                kept.add(element);
+            }
+        }
+        return kept;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted during injected latency", e);
+        }
+    }
+
+    private static String key(String layer, String entityType) {
+        if (layer == null || !LAYERS.contains(layer)) {
+            throw new IllegalArgumentException("Layer must be one of " + LAYERS);
+        }
+        if (entityType == null || entityType.isBlank()) {
+            throw new IllegalArgumentException("Entity type is required, use * for the whole layer");
+        }
+        return layer + ":" + (ANY.equals(entityType) ? ANY : entityTypeOf(entityType));
+    }
+
+    private static void validate(FaultSpec spec) {
+        if (spec == null || spec.getDistribution() == null) {
+            throw new IllegalArgumentException("A fault with a latency distribution is required");
+        }
+        checkRate("errorRate", spec.getErrorRate());
+        checkRate("hangRate", spec.getHangRate());
+        checkRate("dropRate", spec.getDropRate());
+        if (spec.getLatencyMs() < 0 || spec.getMaxLatencyMs() < 0 || spec.getHangMs() < 0) {
+            throw new IllegalArgumentException("Latencies must not be negative");
+        }
+        if (spec.getParetoShape() <= 0) {
+            throw new IllegalArgumentException("paretoShape must be positive");
+        }
+    }
+
+    private static void checkRate(String name, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+    }
+
+    private static class Counters {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong delayed = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong hangs = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+
+        Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put("calls", calls.get());
+            map.put("delayed", delayed.get());
+            map.put("errors", errors.get());
+            map.put("hangs", hangs.get());
+            map.put("dropped", dropped.get());
+            return map;
+        }
+    }
+}
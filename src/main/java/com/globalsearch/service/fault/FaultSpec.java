@@ -0,0 +1,55 @@
+package com.globalsearch.service.fault;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Faults injected into the calls of one layer and entity type: a latency distribution,
+ * an error rate, a hang rate and a share of collection results that is dropped.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaultSpec {
+
+    public enum LatencyDistribution {
+        /** No added latency */
+        NONE,
+        /** Every call waits latencyMs */
+        FIXED,
+        /** Pareto with minimum latencyMs and shape paretoShape: most calls near the minimum, a heavy tail */
+        PARETO
+    }
+
+    @Builder.Default
+    private LatencyDistribution distribution = LatencyDistribution.NONE;
+
+    @Builder.Default
+    private long latencyMs = 0;
+
+    /** Lower is heavier; at or below 1 the mean is unbounded, so maxLatencyMs caps the tail */
+    @Builder.Default
+    private double paretoShape = 1.5;
+
+    @Builder.Default
+    private long maxLatencyMs = 30000;
+
+    /** Share of calls failing with DataAccessResourceFailureException */
+    @Builder.Default
+    private double errorRate = 0;
+
+    /** Share of calls blocking for hangMs and then failing with QueryTimeoutException */
+    @Builder.Default
+    private double hangRate = 0;
+
+    /** Defaults to the Elasticsearch socket timeout */
+    @Builder.Default
+    private long hangMs = 30000;
+
+    /** Share of the elements removed from List results, like hits missing from failed shards */
+    @Builder.Default
+    private double dropRate = 0;
+}
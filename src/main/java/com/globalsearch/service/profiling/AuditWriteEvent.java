@@ -0,0 +1,27 @@
+package com.globalsearch.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the database write of one audit log entry
+ */
+@Name("com.globalsearch.AuditWrite")
+@Label("Audit Write")
+@Category({"Global Search", "Audit"})
+@Description("Saving an audit log entry")
+@StackTrace(false)
+public class AuditWriteEvent extends jdk.jfr.Event {
+
+    @Label("Action")
+    public String action;
+
+    @Label("Tenant")
+    public String tenantId;
+
+    @Label("Success")
+    public boolean success;
+}
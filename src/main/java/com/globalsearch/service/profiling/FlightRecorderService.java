@@ -0,0 +1,180 @@
+package com.globalsearch.service.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Starts and stops Java Flight Recorder recordings of the running application, for CPU,
+ * allocation, GC and lock profiles of production traffic without an external agent.
+ *
+ * Only one recording runs at a time. Recordings are bounded: they stop on their own after
+ * the requested duration (at most max-duration-seconds) and keep at most max-size-mb on
+ * disk. The file of the last recording is kept in the configured directory until the next
+ * recording starts or the application shuts down.
+ *
+ * Next to the JDK events, recordings contain the application's own events:
+ * SearchStageEvent, IndexBatchEvent and AuditWriteEvent.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Value("${profiling.jfr.enabled:true}")
+    private boolean enabled;
+
+    @Value("${profiling.jfr.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${profiling.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${profiling.jfr.directory:${java.io.tmpdir}}")
+    private String directory;
+
+    private Recording recording;
+    private Path lastFile;
+
+    /**
+     * Start a recording with the "default" (about 1% overhead) or "profile" JFR settings
+     *
+     * @throws IllegalArgumentException for unknown settings or a non-positive duration
+     * @throws IllegalStateException when profiling is disabled or a recording is already active
+     */
+    public synchronized Map<String, Object> start(Duration duration, String settings) {
+        if (!enabled) {
+            throw new IllegalStateException("JFR profiling is disabled");
+        }
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("Settings must be one of " + SETTINGS);
+        }
+        if (recording != null) {
+            throw new IllegalStateException("A recording is already active, stop it first");
+        }
+
+        Duration maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        Duration bounded = duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        deleteLastFile();
+
+        Recording newRecording;
+        try {
+            newRecording = new Recording(Configuration.getConfiguration(settings));
+            Path file = Paths.get(directory, "globalsearch-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+            newRecording.setName("globalsearch-" + settings);
+            newRecording.setToDisk(true);
+            newRecording.setDestination(file);
+            newRecording.setDuration(bounded);
+            newRecording.setMaxSize(maxSizeMb * 1024 * 1024);
+            lastFile = file;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not create JFR recording: " + e.getMessage(), e);
+        }
+
+        newRecording.start();
+        recording = newRecording;
+        log.info("Started JFR recording '{}' for {} (max {} MB), writing to {}",
+                newRecording.getName(), bounded, maxSizeMb, lastFile);
+        return describe(newRecording);
+    }
+
+    /**
+     * Stop the active recording, or collect one that already reached its duration
+     *
+     * @return the .jfr file
+     * @throws IllegalStateException when no recording was started
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            throw new IllegalStateException("No recording is active");
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            log.info("Stopped JFR recording '{}', {} bytes written to {}",
+                    recording.getName(), sizeOf(lastFile), lastFile);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        if (!Files.exists(lastFile)) {
+            throw new IllegalStateException("The recording did not produce a file");
+        }
+        return lastFile;
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("maxDurationSeconds", maxDurationSeconds);
+        status.put("maxSizeMb", maxSizeMb);
+        if (recording != null) {
+            status.put("recording", describe(recording));
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteLastFile();
+    }
+
+    private Map<String, Object> describe(Recording current) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", current.getName());
+        info.put("state", current.getState().name());
+        info.put("startTime", current.getStartTime());
+        info.put("duration", current.getDuration() != null ? current.getDuration().toString() : null);
+        info.put("maxSizeBytes", current.getMaxSize());
+        info.put("file", lastFile != null ? lastFile.getFileName().toString() : null);
+        return info;
+    }
+
+    private void deleteLastFile() {
+        if (lastFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(lastFile);
+        } catch (IOException e) {
+            log.warn("Could not delete previous JFR file {}", lastFile, e);
+        }
+        lastFile = null;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.globalsearch.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one batch of index writes: a bulk request of the indexing pipeline,
+ * or one entity type of a full synchronization
+ */
+@Name("com.globalsearch.IndexBatch")
+@Label("Index Batch")
+@Category({"Global Search", "Sync"})
+@Description("Batch of database changes written to Elasticsearch")
+@StackTrace(false)
+public class IndexBatchEvent extends jdk.jfr.Event {
+
+    public static final String PIPELINE = "pipeline";
+    public static final String FULL_SYNC = "full_sync";
+
+    @Label("Source")
+    public String source;
+
+    @Label("Entity Type")
+    @Description("Set for full synchronizations, pipeline batches mix entity types")
+    public String entityType;
+
+    @Label("Changes Taken")
+    @Description("Changes taken from the queue, before coalescing")
+    public int batchSize;
+
+    @Label("Changes Sent")
+    public int sent;
+
+    @Label("Failed")
+    public int failed;
+
+    @Label("Wait For Refresh")
+    public boolean waitForRefresh;
+}
@@ -0,0 +1,33 @@
+package com.globalsearch.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one stage of a search request, emitted next to the search.stage.duration timer.
+ * The stage was already timed, so the duration is a field instead of the event's own span.
+ */
+@Name("com.globalsearch.SearchStage")
+@Label("Search Stage")
+@Category({"Global Search", "Search"})
+@Description("Time spent in one stage of a search request")
+@StackTrace(false)
+public class SearchStageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Tenant")
+    public String tenantId;
+
+    @Label("Entity Type")
+    public String entityType;
+
+    @Label("Stage Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long stageDuration;
+}
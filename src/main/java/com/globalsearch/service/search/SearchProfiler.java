@@ -0,0 +1,197 @@
+package com.globalsearch.service.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Collector;
+import co.elastic.clients.elasticsearch.core.search.QueryProfile;
+import co.elastic.clients.elasticsearch.core.search.SearchProfile;
+import co.elastic.clients.elasticsearch.core.search.ShardProfile;
+import com.globalsearch.document.*;
+import com.globalsearch.service.search.SlowQueryLog.SlowQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-runs a slow query with the Elasticsearch profile API and stores a summary of the
+ * result on the slow query.
+ *
+ * One profiled request is sent per index the search touched, with the same query the
+ * repositories build: a case-insensitive "contains" query_string on name, filtered by
+ * tenantId unless the search was cross-tenant. When fuzzy search was enabled, the fuzzy
+ * query is profiled as well (reported as "[entity type]:fuzzy"). Profiles run on their own
+ * single-threaded executor so they never compete with user searches for threads.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class SearchProfiler {
+
+    static final Map<String, Class<?>> DOCUMENT_CLASSES = Map.of(
+            "companies", CompanyDocument.class,
+            "locations", LocationDocument.class,
+            "zones", ZoneDocument.class,
+            "sensors", SensorDocument.class,
+            "reports", ReportDocument.class,
+            "dashboards", DashboardDocument.class
+    );
+
+    // Keep stored profiles small, query descriptions can be very long
+    private static final int MAX_DESCRIPTION_LENGTH = 300;
+    private static final int MAX_DEPTH = 4;
+    private static final String QUERY_STRING_RESERVED = "+-=&|><!(){}[]^\"~*?:\\/";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    @Async("searchProfileExecutor")
+    public void profile(SlowQuery slowQuery) {
+        try {
+            Map<String, Object> profiles = new LinkedHashMap<>();
+            for (String entityType : entityTypes(slowQuery)) {
+                String index = elasticsearchOperations.getIndexCoordinatesFor(DOCUMENT_CLASSES.get(entityType)).getIndexName();
+                profiles.put(entityType, run(index, containsQuery(slowQuery), slowQuery.getShape().getSize()));
+
+                if (slowQuery.getShape().isFuzzy() && hasQuery(slowQuery)) {
+                    profiles.put(entityType + ":fuzzy", run(index, fuzzyQuery(slowQuery), slowQuery.getShape().getSize()));
+                }
+            }
+            slowQuery.profileCompleted(profiles);
+            log.info("Profiled slow query #{} on {} indexes", slowQuery.getId(), profiles.size());
+
+        } catch (Exception e) {
+            log.warn("Failed to profile slow query #{}: {}", slowQuery.getId(), e.getMessage());
+            slowQuery.profileFailed(e.getMessage());
+        }
+    }
+
+    private Map<String, Object> run(String index, Query query, int size) throws Exception {
+        SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                .index(index)
+                .query(query)
+                .size(Math.max(size, 1))
+                .source(src -> src.fetch(false))
+                .profile(true), Void.class);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("index", index);
+        summary.put("tookMs", response.took());
+        summary.put("hits", response.hits().total() != null ? response.hits().total().value() : response.hits().hits().size());
+
+        List<Map<String, Object>> shards = new ArrayList<>();
+        if (response.profile() != null) {
+            for (ShardProfile shard : response.profile().shards()) {
+                shards.add(summarize(shard));
+            }
+        }
+        summary.put("shards", shards);
+        return summary;
+    }
+
+    private List<String> entityTypes(SlowQuery slowQuery) {
+        List<String> requested = slowQuery.getShape().getEntityTypes();
+        if (requested.contains(SearchStageMetrics.ALL_ENTITY_TYPES)) {
+            return List.of("companies", "locations", "zones", "sensors", "reports", "dashboards");
+        }
+        return requested.stream().filter(DOCUMENT_CLASSES::containsKey).toList();
+    }
+
+    // ==================== QUERIES ====================
+
+    // Same query Spring Data builds for findByTenantIdAndNameContainingIgnoreCase / findByNameContainingIgnoreCase
+    private Query containsQuery(SlowQuery slowQuery) {
+        Query name = hasQuery(slowQuery)
+                ? Query.of(q -> q.queryString(qs -> qs
+                        .fields("name")
+                        .query("*" + escape(slowQuery.getQuery()) + "*")
+                        .analyzeWildcard(true)))
+                : Query.of(q -> q.matchAll(m -> m));
+        return withTenantFilter(name, slowQuery);
+    }
+
+    private Query fuzzyQuery(SlowQuery slowQuery) {
+        Query fuzzy = Query.of(q -> q.fuzzy(f -> f.field("name").value(slowQuery.getQuery()).fuzziness("AUTO")));
+        return withTenantFilter(fuzzy, slowQuery);
+    }
+
+    private Query withTenantFilter(Query query, SlowQuery slowQuery) {
+        if (slowQuery.isCrossTenant()) {
+            return query;
+        }
+        return Query.of(q -> q.bool(b -> b
+                .must(query)
+                .filter(f -> f.term(t -> t.field("tenantId").value(slowQuery.getTenantId())))));
+    }
+
+    private boolean hasQuery(SlowQuery slowQuery) {
+        return slowQuery.getQuery() != null && !slowQuery.getQuery().isEmpty();
+    }
+
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (char c : text.toCharArray()) {
+            if (QUERY_STRING_RESERVED.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    // ==================== PROFILE SUMMARY ====================
+
+    private Map<String, Object> summarize(ShardProfile shard) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("shard", shard.id());
+
+        List<Map<String, Object>> searches = new ArrayList<>();
+        for (SearchProfile search : shard.searches()) {
+            Map<String, Object> searchSummary = new LinkedHashMap<>();
+            searchSummary.put("rewriteMs", toMillis(search.rewriteTime()));
+            searchSummary.put("queries", search.query().stream().map(query -> summarize(query, 0)).toList());
+            searchSummary.put("collectors", search.collector().stream().map(this::summarize).toList());
+            searches.add(searchSummary);
+        }
+        summary.put("searches", searches);
+        return summary;
+    }
+
+    private Map<String, Object> summarize(QueryProfile query, int depth) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", query.type());
+        summary.put("description", truncate(query.description()));
+        summary.put("timeMs", toMillis(query.timeInNanos()));
+        if (depth < MAX_DEPTH && !query.children().isEmpty()) {
+            summary.put("children", query.children().stream().map(child -> summarize(child, depth + 1)).toList());
+        }
+        return summary;
+    }
+
+    private Map<String, Object> summarize(Collector collector) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", collector.name());
+        summary.put("reason", collector.reason());
+        summary.put("timeMs", toMillis(collector.timeInNanos()));
+        return summary;
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > MAX_DESCRIPTION_LENGTH
+                ? text.substring(0, MAX_DESCRIPTION_LENGTH) + "..."
+                : text;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
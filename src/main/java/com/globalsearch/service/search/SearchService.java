@@ -9,6 +9,7 @@ import com.globalsearch.dto.WebSocketMessage;
 import com.globalsearch.service.AuditLogService;
 import com.globalsearch.service.NotificationService;
 import com.globalsearch.service.PerformanceMetricsService;
+import com.globalsearch.service.search.SearchStageMetrics.Stage;
 import com.globalsearch.util.SearchUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,6 +41,11 @@ public class SearchService {
     private final AuditLogService auditLogService;
     private final NotificationService notificationService;
     private final PerformanceMetricsService performanceMetricsService;
+    private final SearchStageMetrics stageMetrics;
+    private final SlowQueryLog slowQueryLog;
+
+    // Tenant used for audit entries and metrics of cross-tenant admin searches
+    private static final String ADMIN_TENANT = "ADMIN_CROSS_TENANT";
 
     /**
      * Global search with document-level security enforcement
@@ -115,6 +122,7 @@ public class SearchService {
         }
 
         // Sort by relevance or specified field
+        long sortStart = System.nanoTime();
         allResults.sort(Comparator.comparing(GlobalSearchResponse.SearchResultItem::getRelevanceScore).reversed());
 
         // Apply pagination
@@ -122,6 +130,9 @@ public class SearchService {
         int end = Math.min(start + request.getSize(), allResults.size());
         List<GlobalSearchResponse.SearchResultItem> paginatedResults =
                 allResults.subList(Math.min(start, allResults.size()), end);
+        stageMetrics.recordSince(Stage.SORT_MERGE, currentUser.getTenantId(), SearchStageMetrics.ALL_ENTITY_TYPES, sortStart);
+
+        applyHighlighting(paginatedResults, request, searchTerms, currentUser.getTenantId());
 
         long duration = System.currentTimeMillis() - startTime;
 
@@ -133,6 +144,7 @@ public class SearchService {
         );
 
         // Log search event for audit trail
+        long auditStart = System.nanoTime();
         auditLogService.logSearchEvent(
                 currentUser.getId(),
                 currentUser.getUsername(),
@@ -141,6 +153,7 @@ public class SearchService {
                 allResults.size(),
                 httpRequest
         );
+        stageMetrics.recordSince(Stage.AUDIT, currentUser.getTenantId(), SearchStageMetrics.ALL_ENTITY_TYPES, auditStart);
 
         // Send real-time notification to user about search completion
         GlobalSearchResponse response = GlobalSearchResponse.builder()
@@ -153,6 +166,7 @@ public class SearchService {
                 .build();
 
         // Notify user about search results
+        long notificationStart = System.nanoTime();
         WebSocketMessage notification = WebSocketMessage.searchResult(
                 currentUser.getTenantId(),
                 String.format("Search completed: Found %d results for '%s' in %dms",
@@ -160,6 +174,10 @@ public class SearchService {
                 Map.of("totalResults", allResults.size(), "duration", duration)
         );
         notificationService.notifyUser(currentUser.getId(), notification);
+        stageMetrics.recordSince(Stage.NOTIFICATION, currentUser.getTenantId(), SearchStageMetrics.ALL_ENTITY_TYPES, notificationStart);
+
+        // Captured last so the trace holds every stage
+        slowQueryLog.capture(request, currentUser.getTenantId(), "global_search", duration);
 
         return response;
     }
@@ -221,12 +239,16 @@ public class SearchService {
         }
 
         // Sort and paginate
+        long sortStart = System.nanoTime();
         allResults.sort(Comparator.comparing(GlobalSearchResponse.SearchResultItem::getRelevanceScore).reversed());
 
         int start = request.getPage() * request.getSize();
         int end = Math.min(start + request.getSize(), allResults.size());
         List<GlobalSearchResponse.SearchResultItem> paginatedResults =
                 allResults.subList(Math.min(start, allResults.size()), end);
+        stageMetrics.recordSince(Stage.SORT_MERGE, ADMIN_TENANT, SearchStageMetrics.ALL_ENTITY_TYPES, sortStart);
+
+        applyHighlighting(paginatedResults, request, searchTerms, ADMIN_TENANT);
 
         long duration = System.currentTimeMillis() - startTime;
 
@@ -238,14 +260,18 @@ public class SearchService {
         );
 
         // Log admin search event for audit trail
+        long auditStart = System.nanoTime();
         auditLogService.logSearchEvent(
                 admin.getId(),
                 admin.getUsername(),
-                "ADMIN_CROSS_TENANT",
+                ADMIN_TENANT,
                 request.getQuery(),
                 allResults.size(),
                 httpRequest
         );
+        stageMetrics.recordSince(Stage.AUDIT, ADMIN_TENANT, SearchStageMetrics.ALL_ENTITY_TYPES, auditStart);
+
+        slowQueryLog.capture(request, null, "admin_cross_tenant_search", duration);
 
         return GlobalSearchResponse.builder()
                 .results(paginatedResults)
@@ -261,6 +287,7 @@ public class SearchService {
 
     private List<GlobalSearchResponse.SearchResultItem> searchCompanies(
             GlobalSearchRequest request, User user, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<CompanyDocument> companies;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -282,13 +309,15 @@ public class SearchService {
             companies = companySearchRepository.findByTenantId(user.getTenantId());
         }
 
-        return companies.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, user.getTenantId(), "companies", startNanos);
+        stageMetrics.recordHits(user.getTenantId(), "companies", companies.size());
+
+        return convert(companies, user.getTenantId(), "companies", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> searchLocations(
             GlobalSearchRequest request, User user, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<LocationDocument> locations;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -323,13 +352,15 @@ public class SearchService {
                     .collect(Collectors.toList());
         }
 
-        return locations.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, user.getTenantId(), "locations", startNanos);
+        stageMetrics.recordHits(user.getTenantId(), "locations", locations.size());
+
+        return convert(locations, user.getTenantId(), "locations", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> searchZones(
             GlobalSearchRequest request, User user, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<ZoneDocument> zones;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -358,13 +389,15 @@ public class SearchService {
                     .collect(Collectors.toList());
         }
 
-        return zones.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, user.getTenantId(), "zones", startNanos);
+        stageMetrics.recordHits(user.getTenantId(), "zones", zones.size());
+
+        return convert(zones, user.getTenantId(), "zones", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> searchSensors(
             GlobalSearchRequest request, User user, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<SensorDocument> sensors;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -399,13 +432,15 @@ public class SearchService {
                     .collect(Collectors.toList());
         }
 
-        return sensors.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, user.getTenantId(), "sensors", startNanos);
+        stageMetrics.recordHits(user.getTenantId(), "sensors", sensors.size());
+
+        return convert(sensors, user.getTenantId(), "sensors", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> searchReports(
             GlobalSearchRequest request, User user, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<ReportDocument> reports;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -427,13 +462,15 @@ public class SearchService {
             reports = reportSearchRepository.findByTenantId(user.getTenantId());
         }
 
-        return reports.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, user.getTenantId(), "reports", startNanos);
+        stageMetrics.recordHits(user.getTenantId(), "reports", reports.size());
+
+        return convert(reports, user.getTenantId(), "reports", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> searchDashboards(
             GlobalSearchRequest request, User user, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<DashboardDocument> dashboards;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -455,15 +492,17 @@ public class SearchService {
             dashboards = dashboardSearchRepository.findByTenantId(user.getTenantId());
         }
 
-        return dashboards.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, user.getTenantId(), "dashboards", startNanos);
+        stageMetrics.recordHits(user.getTenantId(), "dashboards", dashboards.size());
+
+        return convert(dashboards, user.getTenantId(), "dashboards", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     // ==================== ADMIN SEARCH METHODS (NO TENANT RESTRICTION) ====================
 
     private List<GlobalSearchResponse.SearchResultItem> adminSearchCompanies(
             GlobalSearchRequest request, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<CompanyDocument> companies;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -478,13 +517,15 @@ public class SearchService {
             companies = page.getContent();
         }
 
-        return companies.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, ADMIN_TENANT, "companies", startNanos);
+        stageMetrics.recordHits(ADMIN_TENANT, "companies", companies.size());
+
+        return convert(companies, ADMIN_TENANT, "companies", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> adminSearchLocations(
             GlobalSearchRequest request, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<LocationDocument> locations;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -499,13 +540,15 @@ public class SearchService {
             locations = page.getContent();
         }
 
-        return locations.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, ADMIN_TENANT, "locations", startNanos);
+        stageMetrics.recordHits(ADMIN_TENANT, "locations", locations.size());
+
+        return convert(locations, ADMIN_TENANT, "locations", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> adminSearchZones(
             GlobalSearchRequest request, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<ZoneDocument> zones;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -520,13 +563,15 @@ public class SearchService {
             zones = page.getContent();
         }
 
-        return zones.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, ADMIN_TENANT, "zones", startNanos);
+        stageMetrics.recordHits(ADMIN_TENANT, "zones", zones.size());
+
+        return convert(zones, ADMIN_TENANT, "zones", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> adminSearchSensors(
             GlobalSearchRequest request, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<SensorDocument> sensors;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -541,13 +586,15 @@ public class SearchService {
             sensors = page.getContent();
         }
 
-        return sensors.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, ADMIN_TENANT, "sensors", startNanos);
+        stageMetrics.recordHits(ADMIN_TENANT, "sensors", sensors.size());
+
+        return convert(sensors, ADMIN_TENANT, "sensors", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> adminSearchReports(
             GlobalSearchRequest request, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<ReportDocument> reports;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -562,13 +609,15 @@ public class SearchService {
             reports = page.getContent();
         }
 
-        return reports.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, ADMIN_TENANT, "reports", startNanos);
+        stageMetrics.recordHits(ADMIN_TENANT, "reports", reports.size());
+
+        return convert(reports, ADMIN_TENANT, "reports", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     private List<GlobalSearchResponse.SearchResultItem> adminSearchDashboards(
             GlobalSearchRequest request, List<String> searchTerms) {
+        long startNanos = System.nanoTime();
         List<DashboardDocument> dashboards;
 
         if (request.getQuery() != null && !request.getQuery().isEmpty()) {
@@ -583,9 +632,10 @@ public class SearchService {
             dashboards = page.getContent();
         }
 
-        return dashboards.stream()
-                .map(doc -> toSearchResultItem(doc, request, searchTerms))
-                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.ELASTICSEARCH, ADMIN_TENANT, "dashboards", startNanos);
+        stageMetrics.recordHits(ADMIN_TENANT, "dashboards", dashboards.size());
+
+        return convert(dashboards, ADMIN_TENANT, "dashboards", doc -> toSearchResultItem(doc, request, searchTerms));
     }
 
     // ==================== HELPER METHODS ====================
@@ -606,10 +656,37 @@ public class SearchService {
         return PageRequest.of(request.getPage(), request.getSize(), sort);
     }
 
-    private GlobalSearchResponse.SearchResultItem toSearchResultItem(
-            CompanyDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
-        boolean enableHighlighting = Boolean.TRUE.equals(request.getEnableHighlighting());
+    private <D> List<GlobalSearchResponse.SearchResultItem> convert(
+            List<D> documents, String tenantId, String entityType,
+            Function<D, GlobalSearchResponse.SearchResultItem> mapper) {
+        long startNanos = System.nanoTime();
+        List<GlobalSearchResponse.SearchResultItem> items = documents.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        stageMetrics.recordSince(Stage.CONVERSION, tenantId, entityType, startNanos);
+        return items;
+    }
+
+    /**
+     * Highlight only the items on the returned page, not every hit
+     */
+    private void applyHighlighting(List<GlobalSearchResponse.SearchResultItem> items,
+                                   GlobalSearchRequest request, List<String> searchTerms, String tenantId) {
+        if (!Boolean.TRUE.equals(request.getEnableHighlighting())) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        for (GlobalSearchResponse.SearchResultItem item : items) {
+            item.setHighlightedName(SearchUtils.highlightMultiple(item.getName(), searchTerms));
+            item.setHighlightedDescription(SearchUtils.highlightMultiple(item.getDescription(), searchTerms));
+        }
+        stageMetrics.recordSince(Stage.HIGHLIGHTING, tenantId, SearchStageMetrics.ALL_ENTITY_TYPES, startNanos);
+    }
 
+    // The toSearchResultItem overloads are package-private for SearchResultAssemblyBenchmark
+    GlobalSearchResponse.SearchResultItem toSearchResultItem(
+            CompanyDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
         return GlobalSearchResponse.SearchResultItem.builder()
                 .entityType("COMPANY")
                 .id(doc.getId())
@@ -617,8 +694,6 @@ public class SearchService {
                 .description(doc.getDescription())
                 .status(doc.getStatus())
                 .relevanceScore(1.0)
-                .highlightedName(enableHighlighting ? SearchUtils.highlightMultiple(doc.getName(), searchTerms) : null)
-                .highlightedDescription(enableHighlighting ? SearchUtils.highlightMultiple(doc.getDescription(), searchTerms) : null)
                 .matchedTerms(SearchUtils.getMatchedTerms(doc.getName() + " " + doc.getDescription(), searchTerms))
                 .isFuzzyMatch(Boolean.TRUE.equals(request.getEnableFuzzySearch()) &&
                         SearchUtils.isFuzzyMatch(doc.getName(), request.getQuery(), request.getFuzzyMaxEdits()))
@@ -630,10 +705,8 @@ public class SearchService {
                 .build();
     }
 
-    private GlobalSearchResponse.SearchResultItem toSearchResultItem(
+    GlobalSearchResponse.SearchResultItem toSearchResultItem(
             LocationDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
-        boolean enableHighlighting = Boolean.TRUE.equals(request.getEnableHighlighting());
-
         return GlobalSearchResponse.SearchResultItem.builder()
                 .entityType("LOCATION")
                 .id(doc.getId())
@@ -641,8 +714,6 @@ public class SearchService {
                 .description(doc.getDescription())
                 .status(doc.getStatus())
                 .relevanceScore(0.9)
-                .highlightedName(enableHighlighting ? SearchUtils.highlightMultiple(doc.getName(), searchTerms) : null)
-                .highlightedDescription(enableHighlighting ? SearchUtils.highlightMultiple(doc.getDescription(), searchTerms) : null)
                 .matchedTerms(SearchUtils.getMatchedTerms(doc.getName() + " " + doc.getDescription(), searchTerms))
                 .isFuzzyMatch(Boolean.TRUE.equals(request.getEnableFuzzySearch()) &&
                         SearchUtils.isFuzzyMatch(doc.getName(), request.getQuery(), request.getFuzzyMaxEdits()))
@@ -655,10 +726,8 @@ public class SearchService {
                 .build();
     }
 
-    private GlobalSearchResponse.SearchResultItem toSearchResultItem(
+    GlobalSearchResponse.SearchResultItem toSearchResultItem(
             ZoneDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
-        boolean enableHighlighting = Boolean.TRUE.equals(request.getEnableHighlighting());
-
         return GlobalSearchResponse.SearchResultItem.builder()
                 .entityType("ZONE")
                 .id(doc.getId())
@@ -666,8 +735,6 @@ public class SearchService {
                 .description(doc.getDescription())
                 .status(doc.getStatus())
                 .relevanceScore(0.8)
-                .highlightedName(enableHighlighting ? SearchUtils.highlightMultiple(doc.getName(), searchTerms) : null)
-                .highlightedDescription(enableHighlighting ? SearchUtils.highlightMultiple(doc.getDescription(), searchTerms) : null)
                 .matchedTerms(SearchUtils.getMatchedTerms(doc.getName() + " " + doc.getDescription(), searchTerms))
                 .isFuzzyMatch(Boolean.TRUE.equals(request.getEnableFuzzySearch()) &&
                         SearchUtils.isFuzzyMatch(doc.getName(), request.getQuery(), request.getFuzzyMaxEdits()))
@@ -679,10 +746,8 @@ public class SearchService {
                 .build();
     }
 
-    private GlobalSearchResponse.SearchResultItem toSearchResultItem(
+    GlobalSearchResponse.SearchResultItem toSearchResultItem(
             SensorDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
-        boolean enableHighlighting = Boolean.TRUE.equals(request.getEnableHighlighting());
-
         return GlobalSearchResponse.SearchResultItem.builder()
                 .entityType("SENSOR")
                 .id(doc.getId())
@@ -690,8 +755,6 @@ public class SearchService {
                 .description(doc.getDescription())
                 .status(doc.getStatus())
                 .relevanceScore(0.7)
-                .highlightedName(enableHighlighting ? SearchUtils.highlightMultiple(doc.getName(), searchTerms) : null)
-                .highlightedDescription(enableHighlighting ? SearchUtils.highlightMultiple(doc.getDescription(), searchTerms) : null)
                 .matchedTerms(SearchUtils.getMatchedTerms(doc.getName() + " " + doc.getDescription(), searchTerms))
                 .isFuzzyMatch(Boolean.TRUE.equals(request.getEnableFuzzySearch()) &&
                         SearchUtils.isFuzzyMatch(doc.getName(), request.getQuery(), request.getFuzzyMaxEdits()))
@@ -704,10 +767,8 @@ public class SearchService {
                 .build();
     }
 
-    private GlobalSearchResponse.SearchResultItem toSearchResultItem(
+    GlobalSearchResponse.SearchResultItem toSearchResultItem(
             ReportDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
-        boolean enableHighlighting = Boolean.TRUE.equals(request.getEnableHighlighting());
-
         return GlobalSearchResponse.SearchResultItem.builder()
                 .entityType("REPORT")
                 .id(doc.getId())
@@ -715,8 +776,6 @@ public class SearchService {
                 .description(doc.getDescription())
                 .status("ACTIVE")
                 .relevanceScore(0.6)
-                .highlightedName(enableHighlighting ? SearchUtils.highlightMultiple(doc.getName(), searchTerms) : null)
-                .highlightedDescription(enableHighlighting ? SearchUtils.highlightMultiple(doc.getDescription(), searchTerms) : null)
                 .matchedTerms(SearchUtils.getMatchedTerms(doc.getName() + " " + doc.getDescription(), searchTerms))
                 .isFuzzyMatch(Boolean.TRUE.equals(request.getEnableFuzzySearch()) &&
                         SearchUtils.isFuzzyMatch(doc.getName(), request.getQuery(), request.getFuzzyMaxEdits()))
@@ -728,10 +787,8 @@ public class SearchService {
                 .build();
     }
 
-    private GlobalSearchResponse.SearchResultItem toSearchResultItem(
+    GlobalSearchResponse.SearchResultItem toSearchResultItem(
             DashboardDocument doc, GlobalSearchRequest request, List<String> searchTerms) {
-        boolean enableHighlighting = Boolean.TRUE.equals(request.getEnableHighlighting());
-
         return GlobalSearchResponse.SearchResultItem.builder()
                 .entityType("DASHBOARD")
                 .id(doc.getId())
@@ -739,8 +796,6 @@ public class SearchService {
                 .description(doc.getDescription())
                 .status("ACTIVE")
                 .relevanceScore(0.6)
-                .highlightedName(enableHighlighting ? SearchUtils.highlightMultiple(doc.getName(), searchTerms) : null)
-                .highlightedDescription(enableHighlighting ? SearchUtils.highlightMultiple(doc.getDescription(), searchTerms) : null)
                 .matchedTerms(SearchUtils.getMatchedTerms(doc.getName() + " " + doc.getDescription(), searchTerms))
                 .isFuzzyMatch(Boolean.TRUE.equals(request.getEnableFuzzySearch()) &&
                         SearchUtils.isFuzzyMatch(doc.getName(), request.getQuery(), request.getFuzzyMaxEdits()))
@@ -0,0 +1,170 @@
+package com.globalsearch.service.search;
+
+import com.globalsearch.service.profiling.SearchStageEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer timers for the stages of a search request, exported on /actuator/prometheus.
+ *
+ * Meters:
+ * - search.stage.duration (timer): tags stage, tenant, entity_type
+ * - search.stage.hits (summary): documents returned by an index, tags tenant, entity_type
+ *
+ * Tag cardinality is bounded: entity types are a fixed set, and only the first
+ * max-tenant-tags tenants get their own tag value, later ones are reported as "other".
+ * Histogram buckets are configured with management.metrics.distribution.slo.* so every
+ * series has the same small set of buckets. Meters are registered once and then looked up
+ * by stage, tenant tag and entity type, without a builder or registry lookup per search.
+ *
+ * Every stage is also added to the current SearchTrace, if the request has one, and emitted
+ * as a SearchStageEvent while a JFR recording is running.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchStageMetrics {
+
+    public enum Stage {
+        /** Index round trips for one entity type, including in-memory filtering of the hits */
+        ELASTICSEARCH("elasticsearch"),
+        /** Mapping documents to result items */
+        CONVERSION("conversion"),
+        HIGHLIGHTING("highlighting"),
+        SORT_MERGE("sort_merge"),
+        AUDIT("audit"),
+        NOTIFICATION("notification");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String getTagValue() {
+            return tagValue;
+        }
+    }
+
+    public static final String ALL_ENTITY_TYPES = "all";
+    static final String OTHER_TENANT = "other";
+    static final String UNKNOWN_TENANT = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${search.metrics.max-tenant-tags:100}")
+    private int maxTenantTags;
+
+    private final Set<String> taggedTenants = ConcurrentHashMap.newKeySet();
+
+    // stage -> tenant tag -> entity type
+    private final Map<Stage, Map<String, Map<String, Timer>>> timers = new ConcurrentHashMap<>();
+    // tenant tag -> entity type
+    private final Map<String, Map<String, DistributionSummary>> hitSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * Record the time since startNanos (from System.nanoTime()) for a stage
+     */
+    public void recordSince(Stage stage, String tenantId, String entityType, long startNanos) {
+        record(stage, tenantId, entityType, System.nanoTime() - startNanos);
+    }
+
+    public void record(Stage stage, String tenantId, String entityType, long durationNanos) {
+        timer(stage, tenantTag(tenantId), entityType).record(durationNanos, TimeUnit.NANOSECONDS);
+
+        SearchTrace trace = SearchTrace.current();
+        if (trace != null) {
+            trace.record(stage, entityType, durationNanos);
+        }
+
+        SearchStageEvent event = new SearchStageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage.tagValue;
+            event.tenantId = tenantId;
+            event.entityType = entityType;
+            event.stageDuration = durationNanos;
+            event.commit();
+        }
+    }
+
+    public void recordHits(String tenantId, String entityType, int hits) {
+        hitSummary(tenantTag(tenantId), entityType).record(hits);
+
+        SearchTrace trace = SearchTrace.current();
+        if (trace != null) {
+            trace.recordHits(entityType, hits);
+        }
+    }
+
+    private Timer timer(Stage stage, String tenantTag, String entityType) {
+        Map<String, Timer> byEntityType = timers
+                .computeIfAbsent(stage, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(tenantTag, key -> new ConcurrentHashMap<>());
+        Timer timer = byEntityType.get(entityType);
+        if (timer == null) {
+            timer = byEntityType.computeIfAbsent(entityType, type -> Timer.builder("search.stage.duration")
+                    .description("Time spent in one stage of a search request")
+                    .tag("stage", stage.tagValue)
+                    .tag("tenant", tenantTag)
+                    .tag("entity_type", type)
+                    .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    private DistributionSummary hitSummary(String tenantTag, String entityType) {
+        Map<String, DistributionSummary> byEntityType =
+                hitSummaries.computeIfAbsent(tenantTag, key -> new ConcurrentHashMap<>());
+        DistributionSummary summary = byEntityType.get(entityType);
+        if (summary == null) {
+            summary = byEntityType.computeIfAbsent(entityType, type -> DistributionSummary.builder("search.stage.hits")
+                    .description("Documents returned by one index for a search request")
+                    .baseUnit("documents")
+                    .tag("tenant", tenantTag)
+                    .tag("entity_type", type)
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+
+    String tenantTag(String tenantId) {
+        if (tenantId == null) {
+            return UNKNOWN_TENANT;
+        }
+        if (taggedTenants.contains(tenantId)) {
+            return tenantId;
+        }
+        if (taggedTenants.size() >= maxTenantTags) {
+            return OTHER_TENANT;
+        }
+        return addTenantTag(tenantId);
+    }
+
+    /**
+     * Check and add under one lock, so concurrent new tenants cannot exceed the limit
+     */
+    private synchronized String addTenantTag(String tenantId) {
+        if (taggedTenants.contains(tenantId)) {
+            return tenantId;
+        }
+        if (taggedTenants.size() >= maxTenantTags) {
+            return OTHER_TENANT;
+        }
+        taggedTenants.add(tenantId);
+        if (taggedTenants.size() == maxTenantTags) {
+            log.warn("Search metrics reached {} tenant tags, further tenants are reported as '{}'",
+                    maxTenantTags, OTHER_TENANT);
+        }
+        return tenantId;
+    }
+}
@@ -0,0 +1,180 @@
+package com.globalsearch.service.search;
+
+import com.globalsearch.service.search.SearchStageMetrics.Stage;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stage timings of the search request running on the current thread.
+ *
+ * The controller opens a trace around the service call and SearchStageMetrics adds every
+ * stage it records. Every trace keeps one total per stage and the hit count per entity type,
+ * in fixed arrays, which is enough for the Server-Timing header and the slow query log.
+ * Per entity type timings are collected only for detailed traces (debug=timings), so a
+ * plain trace allocates nothing per stage.
+ *
+ * SearchService is @Cacheable, so when no stage was recorded the response came from the
+ * cache.
+ */
+public class SearchTrace {
+
+    private static final ThreadLocal<SearchTrace> CURRENT = new ThreadLocal<>();
+    private static final Stage[] STAGES = Stage.values();
+    private static final String[] ENTITY_TYPES = {"companies", "locations", "zones", "sensors", "reports", "dashboards"};
+
+    private final long startNanos = System.nanoTime();
+    private final boolean detailed;
+    private final long[] stageNanos = new long[STAGES.length];
+    /** Hits per entity type of ENTITY_TYPES, -1 for a type that was not searched */
+    private final int[] entityHits = new int[ENTITY_TYPES.length];
+    private boolean executed;
+    private Map<String, EntityTiming> entityTimings;
+
+    private SearchTrace(boolean detailed) {
+        this.detailed = detailed;
+        Arrays.fill(entityHits, -1);
+    }
+
+    public static SearchTrace start(boolean detailed) {
+        SearchTrace trace = new SearchTrace(detailed);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * @return the trace of the current request, or null outside a traced request
+     */
+    public static SearchTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void record(Stage stage, String entityType, long durationNanos) {
+        executed = true;
+        stageNanos[stage.ordinal()] += durationNanos;
+
+        if (detailed && !SearchStageMetrics.ALL_ENTITY_TYPES.equals(entityType)) {
+            EntityTiming timing = entityTiming(entityType);
+            if (stage == Stage.ELASTICSEARCH) {
+                timing.elasticsearchNanos += durationNanos;
+            } else if (stage == Stage.CONVERSION) {
+                timing.conversionNanos += durationNanos;
+            }
+        }
+    }
+
+    void recordHits(String entityType, int hits) {
+        int index = entityTypeIndex(entityType);
+        if (index >= 0) {
+            entityHits[index] = Math.max(0, entityHits[index]) + hits;
+        } else if (detailed) {
+            entityTiming(entityType).hits += hits;
+        }
+    }
+
+    private static int entityTypeIndex(String entityType) {
+        for (int i = 0; i < ENTITY_TYPES.length; i++) {
+            if (ENTITY_TYPES[i].equals(entityType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private EntityTiming entityTiming(String entityType) {
+        if (entityTimings == null) {
+            entityTimings = new LinkedHashMap<>();
+        }
+        return entityTimings.computeIfAbsent(entityType, k -> new EntityTiming());
+    }
+
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    public boolean isCacheHit() {
+        return !executed;
+    }
+
+    /**
+     * Server-Timing header value, e.g. {@code elasticsearch;dur=12.4, sort_merge;dur=0.3, cache;desc=miss, total;dur=14.1}
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(128);
+        for (Stage stage : STAGES) {
+            long nanos = stageNanos[stage.ordinal()];
+            if (nanos > 0) {
+                header.append(stage.getTagValue()).append(";dur=").append(toMillis(nanos)).append(", ");
+            }
+        }
+        header.append("cache;desc=").append(isCacheHit() ? "hit" : "miss");
+        header.append(", total;dur=").append(toMillis(System.nanoTime() - startNanos));
+        return header.toString();
+    }
+
+    /**
+     * Timing breakdown added to the response for debug=timings
+     */
+    public Map<String, Object> toTimingMap() {
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("cache", isCacheHit() ? "hit" : "miss");
+        timings.put("totalMs", toMillis(System.nanoTime() - startNanos));
+        timings.put("stagesMs", getStageMillis());
+        timings.put("entityTypes", getEntityBreakdown());
+        return timings;
+    }
+
+    /**
+     * Milliseconds per recorded stage, keyed by stage tag value
+     */
+    public Map<String, Double> getStageMillis() {
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (Stage stage : STAGES) {
+            long nanos = stageNanos[stage.ordinal()];
+            if (nanos > 0) {
+                stages.put(stage.getTagValue(), toMillis(nanos));
+            }
+        }
+        return stages;
+    }
+
+    /**
+     * Hits per searched entity type, with Elasticsearch and conversion time when detailed
+     */
+    public Map<String, Map<String, Object>> getEntityBreakdown() {
+        Map<String, Map<String, Object>> entities = new LinkedHashMap<>();
+        if (entityTimings != null) {
+            entityTimings.forEach((entityType, timing) -> {
+                int index = entityTypeIndex(entityType);
+                Map<String, Object> entity = new LinkedHashMap<>();
+                entity.put("elasticsearchMs", toMillis(timing.elasticsearchNanos));
+                entity.put("hits", index >= 0 ? Math.max(0, entityHits[index]) : timing.hits);
+                entity.put("conversionMs", toMillis(timing.conversionNanos));
+                entities.put(entityType, entity);
+            });
+        }
+        for (int i = 0; i < ENTITY_TYPES.length; i++) {
+            if (entityHits[i] >= 0 && !entities.containsKey(ENTITY_TYPES[i])) {
+                Map<String, Object> entity = new LinkedHashMap<>();
+                entity.put("hits", entityHits[i]);
+                entities.put(ENTITY_TYPES[i], entity);
+            }
+        }
+        return entities;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static class EntityTiming {
+        private long elasticsearchNanos;
+        private long conversionNanos;
+        private int hits;
+    }
+}
@@ -0,0 +1,368 @@
+package com.globalsearch.service.search;
+
+import com.globalsearch.dto.request.GlobalSearchRequest;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded log of searches slower than the threshold, with the normalized request shape and
+ * stage timings and hits per index taken from the SearchTrace of the request. Elasticsearch
+ * and conversion time per index are included for searches run with debug=timings, the only
+ * ones whose trace collects them.
+ *
+ * Memory is bounded twice: only the last capacity slow queries are kept, and per-shape
+ * aggregates are kept for at most max-shapes distinct shapes (later shapes are counted
+ * under "other"). The shape leaves out the query text, page number and tenant, so
+ * grouping by shape shows which kinds of request dominate the slow tail.
+ *
+ * A slow query can be re-run with the Elasticsearch profile API in the background,
+ * automatically (profile-enabled) or on request.
+ */
+@Service
+@Slf4j
+public class SlowQueryLog {
+
+    static final String OTHER_SHAPE = "other";
+    private static final int MAX_QUERY_TERMS = 5;
+
+    @Value("${performance.slow-query.threshold-ms:1000}")
+    private long thresholdMs;
+
+    @Value("${performance.slow-query.capacity:200}")
+    private int capacity;
+
+    @Value("${performance.slow-query.max-shapes:500}")
+    private int maxShapes;
+
+    @Value("${performance.slow-query.profile-enabled:false}")
+    private boolean profileEnabled;
+
+    private SearchProfiler searchProfiler;
+
+    private final Deque<SlowQuery> entries = new ArrayDeque<>();
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @Autowired(required = false)
+    public void setSearchProfiler(SearchProfiler searchProfiler) {
+        this.searchProfiler = searchProfiler;
+    }
+
+    /**
+     * Record a search if it took longer than the threshold
+     *
+     * @param tenantId    tenant the search was restricted to, or null for a cross-tenant search
+     * @param queryType   query type as reported to PerformanceMetricsService
+     */
+    public void capture(GlobalSearchRequest request, String tenantId, String queryType, long durationMs) {
+        if (durationMs <= thresholdMs) {
+            return;
+        }
+
+        QueryShape shape = QueryShape.of(request, queryType);
+        SearchTrace trace = SearchTrace.current();
+        SlowQuery slowQuery = new SlowQuery(
+                ids.incrementAndGet(),
+                Instant.now(),
+                tenantId,
+                durationMs,
+                request.getQuery(),
+                shape,
+                trace != null ? trace.getStageMillis() : Map.of(),
+                trace != null ? trace.getEntityBreakdown() : Map.of()
+        );
+
+        synchronized (entries) {
+            entries.addFirst(slowQuery);
+            while (entries.size() > capacity) {
+                entries.removeLast();
+            }
+        }
+        shapeStats(shape).add(durationMs);
+
+        log.warn("SLOW QUERY #{}: {}ms, tenant={}, shape={}", slowQuery.getId(), durationMs, tenantId, shape.getKey());
+
+        if (profileEnabled && searchProfiler != null) {
+            startProfile(slowQuery);
+        }
+    }
+
+    /**
+     * Most recent slow queries first, optionally only those with the given shape key
+     */
+    public List<SlowQuery> getRecent(int limit, String shapeKey) {
+        List<SlowQuery> recent = new ArrayList<>();
+        synchronized (entries) {
+            for (SlowQuery slowQuery : entries) {
+                if (recent.size() >= limit) {
+                    break;
+                }
+                if (shapeKey == null || shapeKey.equals(slowQuery.getShape().getKey())) {
+                    recent.add(slowQuery);
+                }
+            }
+        }
+        return recent;
+    }
+
+    public Optional<SlowQuery> get(long id) {
+        synchronized (entries) {
+            return entries.stream().filter(slowQuery -> slowQuery.getId() == id).findFirst();
+        }
+    }
+
+    /**
+     * Shapes ordered by the total time their slow queries took
+     */
+    public List<ShapeStats> getShapes(int limit) {
+        return shapes.values().stream()
+                .sorted(Comparator.comparingLong(ShapeStats::getTotalMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Re-run a captured slow query with the profile API in the background
+     *
+     * @throws IllegalArgumentException if the query is no longer in the log
+     * @throws IllegalStateException    if Elasticsearch is disabled
+     */
+    public SlowQuery requestProfile(long id) {
+        SlowQuery slowQuery = get(id)
+                .orElseThrow(() -> new IllegalArgumentException("Slow query not found: " + id));
+        if (searchProfiler == null) {
+            throw new IllegalStateException("Profiling requires Elasticsearch to be enabled");
+        }
+        startProfile(slowQuery);
+        return slowQuery;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        shapes.clear();
+    }
+
+    private void startProfile(SlowQuery slowQuery) {
+        if (slowQuery.getProfileStatus() == ProfileStatus.PENDING) {
+            return;
+        }
+        slowQuery.profilePending();
+        try {
+            searchProfiler.profile(slowQuery);
+        } catch (TaskRejectedException e) {
+            slowQuery.profileFailed("Profile queue is full");
+        }
+    }
+
+    private ShapeStats shapeStats(QueryShape shape) {
+        ShapeStats stats = shapes.get(shape.getKey());
+        if (stats != null) {
+            return stats;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER_SHAPE, key -> new ShapeStats(key, null));
+        }
+        return shapes.computeIfAbsent(shape.getKey(), key -> new ShapeStats(key, shape));
+    }
+
+    public enum ProfileStatus {
+        NOT_PROFILED,
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Normalized request shape: everything that changes how the search is executed,
+     * without the query text and page number
+     */
+    @Getter
+    public static class QueryShape {
+
+        private final String key;
+        private final String queryType;
+        private final List<String> entityTypes;
+        private final boolean fuzzy;
+        private final boolean synonyms;
+        private final boolean highlighting;
+        private final Integer fuzzyMaxEdits;
+        /** Number of whitespace separated terms, capped at 5 ("5" means 5 or more) */
+        private final int queryTerms;
+        private final List<String> filters;
+        private final String sortBy;
+        private final int size;
+
+        private QueryShape(String queryType, List<String> entityTypes, boolean fuzzy, boolean synonyms,
+                           boolean highlighting, Integer fuzzyMaxEdits, int queryTerms,
+                           List<String> filters, String sortBy, int size) {
+            this.queryType = queryType;
+            this.entityTypes = entityTypes;
+            this.fuzzy = fuzzy;
+            this.synonyms = synonyms;
+            this.highlighting = highlighting;
+            this.fuzzyMaxEdits = fuzzyMaxEdits;
+            this.queryTerms = queryTerms;
+            this.filters = filters;
+            this.sortBy = sortBy;
+            this.size = size;
+            this.key = buildKey();
+        }
+
+        static QueryShape of(GlobalSearchRequest request, String queryType) {
+            List<String> entityTypes = request.getEntityTypes() == null || request.getEntityTypes().isEmpty()
+                    ? List.of(SearchStageMetrics.ALL_ENTITY_TYPES)
+                    : request.getEntityTypes().stream().distinct().sorted().toList();
+
+            List<String> filters = new ArrayList<>();
+            addFilter(filters, "city", request.getCity());
+            addFilter(filters, "country", request.getCountry());
+            addFilter(filters, "status", request.getStatus());
+            addFilter(filters, "sensorType", request.getSensorType());
+            addFilter(filters, "companyId", request.getCompanyId());
+            addFilter(filters, "locationId", request.getLocationId());
+            addFilter(filters, "zoneId", request.getZoneId());
+
+            boolean fuzzy = Boolean.TRUE.equals(request.getEnableFuzzySearch());
+            return new QueryShape(
+                    queryType,
+                    entityTypes,
+                    fuzzy,
+                    Boolean.TRUE.equals(request.getEnableSynonyms()),
+                    Boolean.TRUE.equals(request.getEnableHighlighting()),
+                    fuzzy ? request.getFuzzyMaxEdits() : null,
+                    countTerms(request.getQuery()),
+                    filters,
+                    request.getSortBy(),
+                    request.getSize() != null ? request.getSize() : 0
+            );
+        }
+
+        private static void addFilter(List<String> filters, String name, Object value) {
+            if (value != null && !(value instanceof String && ((String) value).isBlank())) {
+                filters.add(name);
+            }
+        }
+
+        private static int countTerms(String query) {
+            if (query == null || query.isBlank()) {
+                return 0;
+            }
+            return Math.min(query.trim().split("\\s+").length, MAX_QUERY_TERMS);
+        }
+
+        private String buildKey() {
+            StringBuilder builder = new StringBuilder(queryType)
+                    .append('|').append(String.join(",", entityTypes))
+                    .append("|terms=").append(queryTerms);
+            if (fuzzy) {
+                builder.append("|fuzzy=").append(fuzzyMaxEdits);
+            }
+            if (synonyms) {
+                builder.append("|synonyms");
+            }
+            if (highlighting) {
+                builder.append("|highlighting");
+            }
+            if (!filters.isEmpty()) {
+                builder.append("|filters=").append(String.join(",", filters));
+            }
+            if (sortBy != null) {
+                builder.append("|sort=").append(sortBy);
+            }
+            return builder.append("|size=").append(size).toString();
+        }
+    }
+
+    /**
+     * One captured slow query
+     */
+    @Getter
+    public static class SlowQuery {
+
+        private final long id;
+        private final Instant timestamp;
+        private final String tenantId;
+        private final long durationMs;
+        private final String query;
+        private final QueryShape shape;
+        private final Map<String, Double> stageTimingsMs;
+        /** Hits per index, plus Elasticsearch and conversion time for debug=timings searches */
+        private final Map<String, Map<String, Object>> entityTypes;
+
+        private volatile ProfileStatus profileStatus = ProfileStatus.NOT_PROFILED;
+        private volatile Map<String, Object> profile;
+        private volatile String profileError;
+
+        SlowQuery(long id, Instant timestamp, String tenantId, long durationMs, String query, QueryShape shape,
+                  Map<String, Double> stageTimingsMs, Map<String, Map<String, Object>> entityTypes) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.tenantId = tenantId;
+            this.durationMs = durationMs;
+            this.query = query;
+            this.shape = shape;
+            this.stageTimingsMs = stageTimingsMs;
+            this.entityTypes = entityTypes;
+        }
+
+        public boolean isCrossTenant() {
+            return tenantId == null;
+        }
+
+        void profilePending() {
+            profileError = null;
+            profileStatus = ProfileStatus.PENDING;
+        }
+
+        void profileCompleted(Map<String, Object> profile) {
+            this.profile = profile;
+            profileStatus = ProfileStatus.COMPLETED;
+        }
+
+        void profileFailed(String error) {
+            profileError = error;
+            profileStatus = ProfileStatus.FAILED;
+        }
+    }
+
+    /**
+     * Slow query count and time for one shape
+     */
+    @Getter
+    public static class ShapeStats {
+
+        private final String key;
+        private final QueryShape shape;
+        private volatile long count;
+        private volatile long totalMs;
+        private volatile long maxMs;
+        private volatile Instant lastSeen;
+
+        ShapeStats(String key, QueryShape shape) {
+            this.key = key;
+            this.shape = shape;
+        }
+
+        synchronized void add(long durationMs) {
+            count++;
+            totalMs += durationMs;
+            maxMs = Math.max(maxMs, durationMs);
+            lastSeen = Instant.now();
+        }
+
+        public synchronized long getAverageMs() {
+            return count == 0 ? 0 : totalMs / count;
+        }
+    }
+}
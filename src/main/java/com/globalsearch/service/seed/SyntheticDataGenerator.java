@@ -0,0 +1,647 @@
+package com.globalsearch.service.seed;
+
+import com.globalsearch.document.CompanyDocument;
+import com.globalsearch.document.LocationDocument;
+import com.globalsearch.document.SensorDocument;
+import com.globalsearch.document.ZoneDocument;
+import com.globalsearch.entity.Company;
+import com.globalsearch.entity.Location;
+import com.globalsearch.entity.Sensor;
+import com.globalsearch.entity.Zone;
+import com.globalsearch.service.sync.BulkIndexWriter;
+import com.globalsearch.service.sync.IndexChange;
+import com.globalsearch.service.sync.IndexManagementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates millions of companies, locations, zones, sensors and sensor readings for
+ * production-scale load and search tests, in minutes instead of hours.
+ *
+ * Unlike ProductionDataSeeder it does not go through JPA: rows are written with JDBC batch
+ * inserts (one multi-row insert per batch with rewriteBatchedStatements) and explicit ids,
+ * so nothing is held in a persistence context and EntitySyncListener does not fire. The
+ * search documents are built from the same rows and sent separately through BulkIndexWriter,
+ * with the indices in bulk-load mode.
+ *
+ * Every tenant is generated by one worker thread from its own random seed, so the data only
+ * depends on the seed and the options, not on the thread count. Tenant sizes follow a Zipf
+ * distribution, so a few tenants hold most of the data, like in production. Batches are
+ * committed as they go; a failed run leaves the tenants written so far behind.
+ *
+ * The explicit id ranges are reserved before the run by moving each table's AUTO_INCREMENT
+ * past them (MySQL), so rows the application inserts meanwhile get ids above the ranges.
+ * Rows inserted with explicit ids by anything else are not covered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator {
+
+    static final String INSERT_COMPANY = "INSERT INTO companies (id, name, tenant_id, industry, description, "
+            + "contact_email, contact_phone, address, city, country, postal_code, status, max_users, max_locations, "
+            + "max_sensors, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_LOCATION = "INSERT INTO locations (id, name, type, address, city, country, "
+            + "postal_code, latitude, longitude, description, total_area, time_zone, company_id, status, created_at, "
+            + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_ZONE = "INSERT INTO zones (id, name, type, description, floor_number, area_size, "
+            + "location_id, status, temperature_min, temperature_max, humidity_min, humidity_max, alert_enabled, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_SENSOR = "INSERT INTO sensors (id, name, serial_number, sensor_type, manufacturer, "
+            + "model, description, zone_id, status, last_reading_time, last_reading_value, unit_of_measurement, "
+            + "reading_interval, alert_threshold_min, alert_threshold_max, battery_level, installation_date, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_SENSOR_DATA = "INSERT INTO sensor_data (sensor_id, tenant_id, value, timestamp, "
+            + "unit, quality_score, is_anomaly, location_id, zone_id, sensor_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] INDUSTRIES = {"Manufacturing", "Healthcare", "Retail", "Logistics", "Energy",
+        "Agriculture", "Technology", "Food & Beverage", "Pharmaceutical", "Automotive"};
+    private static final String[] CITIES = {"Copenhagen", "Aarhus", "Odense", "Aalborg", "Esbjerg",
+        "Randers", "Kolding", "Horsens", "Vejle", "Roskilde", "Herning", "Silkeborg"};
+    private static final String[] COUNTRIES = {"Denmark", "Germany", "Sweden", "Norway", "Netherlands"};
+    private static final String[] LOCATION_TYPES = {"warehouse", "factory", "office", "store", "distribution_center"};
+    private static final String[] ZONE_TYPES = {"storage", "production", "office", "parking", "loading_dock"};
+    private static final String[] MANUFACTURERS = {"Siemens", "Honeywell", "Schneider Electric",
+        "ABB", "Bosch", "Texas Instruments"};
+
+    private static final int MAX_RESERVE_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private BulkIndexWriter bulkIndexWriter;
+    private IndexManagementService indexManagementService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress;
+
+    @Autowired(required = false)
+    public void setBulkIndexWriter(BulkIndexWriter bulkIndexWriter) {
+        this.bulkIndexWriter = bulkIndexWriter;
+    }
+
+    @Autowired(required = false)
+    public void setIndexManagementService(IndexManagementService indexManagementService) {
+        this.indexManagementService = indexManagementService;
+    }
+
+    /**
+     * Generate in the background, poll getStatus for progress
+     *
+     * @throws IllegalArgumentException for invalid options
+     * @throws IllegalStateException when a run is active or the tenant prefix was already generated
+     */
+    public Map<String, Object> start(SyntheticDataOptions options) {
+        Progress started = begin(options);
+        Thread coordinator = new Thread(() -> execute(started), "synthetic-data-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return started.toMap();
+    }
+
+    /**
+     * Generate on the calling thread
+     *
+     * @return the final status
+     */
+    public Map<String, Object> generate(SyntheticDataOptions options) {
+        Progress started = begin(options);
+        execute(started);
+        return started.toMap();
+    }
+
+    public Map<String, Object> getStatus() {
+        Progress current = progress;
+        if (current == null) {
+            Map<String, Object> idle = new LinkedHashMap<>();
+            idle.put("running", false);
+            return idle;
+        }
+        return current.toMap();
+    }
+
+    private Progress begin(SyntheticDataOptions options) {
+        validate(options);
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Synthetic data generation is already running");
+        }
+        try {
+            String prefix = options.getTenantPrefix() + "_";
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM companies WHERE LEFT(tenant_id, ?) = ?", Integer.class, prefix.length(), prefix);
+            if (existing != null && existing > 0) {
+                throw new IllegalStateException("Tenants with prefix " + options.getTenantPrefix()
+                        + " already exist, choose another tenantPrefix");
+            }
+
+            long locations = 0;
+            for (int size : tenantSizes(options.getTenants(), options.getLocations(), options.getTenantSkew())) {
+                locations += size;
+            }
+            long zones = locations * options.getZonesPerLocation();
+            List<TenantPlan> plans = plan(options, reserveIds("companies", options.getTenants()),
+                    reserveIds("locations", locations), reserveIds("zones", zones),
+                    reserveIds("sensors", zones * options.getSensorsPerZone()));
+            Progress started = new Progress(options, plans);
+            progress = started;
+            log.info("Synthetic data generation planned: {} tenants, {} locations, {} zones, {} sensors, {} readings",
+                    plans.size(), started.plannedLocations, started.plannedLocations * options.getZonesPerLocation(),
+                    started.plannedSensors, started.plannedSensors * options.getReadingsPerSensor());
+            return started;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void execute(Progress run) {
+        SyntheticDataOptions options = run.options;
+        boolean indexing = options.isIndexToElasticsearch() && bulkIndexWriter != null;
+        if (indexing && indexManagementService != null) {
+            indexManagementService.beginBulkLoad();
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.getThreads(),
+                new CustomizableThreadFactory("synthetic-data-"));
+        try {
+            // Plans are ordered largest tenant first, which keeps the workers evenly busy
+            List<Future<?>> futures = new ArrayList<>(run.plans.size());
+            for (TenantPlan plan : run.plans) {
+                futures.add(workers.submit(() -> new TenantWriter(run, plan, indexing).write()));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            log.info("Synthetic data generation finished: {}", run.toMap());
+        } catch (ExecutionException e) {
+            run.error = e.getCause().getMessage();
+            log.error("Synthetic data generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.error = "Interrupted";
+        } finally {
+            workers.shutdownNow();
+            if (indexing && indexManagementService != null) {
+                indexManagementService.endBulkLoad(run.indexed.get());
+            }
+            run.finishedAtMillis = System.currentTimeMillis();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Tenant sizes and id ranges, largest tenant first
+     */
+    static List<TenantPlan> plan(SyntheticDataOptions options, long companyBase, long locationBase,
+                                 long zoneBase, long sensorBase) {
+        int[] sizes = tenantSizes(options.getTenants(), options.getLocations(), options.getTenantSkew());
+        List<TenantPlan> plans = new ArrayList<>(sizes.length);
+        long locationsBefore = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            long zonesBefore = locationsBefore * options.getZonesPerLocation();
+            TenantPlan plan = new TenantPlan();
+            plan.index = i;
+            plan.tenantId = String.format("%s_%05d", options.getTenantPrefix(), i + 1);
+            plan.locations = sizes[i];
+            plan.companyId = companyBase + i + 1;
+            plan.firstLocationId = locationBase + locationsBefore + 1;
+            plan.firstZoneId = zoneBase + zonesBefore + 1;
+            plan.firstSensorId = sensorBase + zonesBefore * options.getSensorsPerZone() + 1;
+            plans.add(plan);
+            locationsBefore += sizes[i];
+        }
+        return plans;
+    }
+
+    /**
+     * Locations per tenant: tenant k gets a share proportional to 1 / (k + 1)^skew, at least one
+     */
+    static int[] tenantSizes(int tenants, int locations, double skew) {
+        double[] weights = new double[tenants];
+        double total = 0;
+        for (int k = 0; k < tenants; k++) {
+            weights[k] = 1.0 / Math.pow(k + 1, skew);
+            total += weights[k];
+        }
+        int[] sizes = new int[tenants];
+        int assigned = 0;
+        for (int k = 0; k < tenants; k++) {
+            sizes[k] = Math.max(1, (int) Math.floor(locations * weights[k] / total));
+            assigned += sizes[k];
+        }
+        // Rounding leftovers go to the largest tenant
+        sizes[0] += Math.max(0, locations - assigned);
+        return sizes;
+    }
+
+    /**
+     * Reserve count ids above the current maximum by moving the table's AUTO_INCREMENT past
+     * them. The ALTER waits for open transactions on the table, so an id handed out before it
+     * is committed, and visible to the check below, once it returns; ids handed out after it
+     * lie above the range. A row that landed in the range in between means trying again higher.
+     *
+     * @return the id just before the reserved range
+     */
+    private long reserveIds(String table, long count) {
+        for (int attempt = 1; attempt <= MAX_RESERVE_ATTEMPTS; attempt++) {
+            long base = maxId(table);
+            jdbcTemplate.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + (base + count + 1));
+            Integer taken = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id > ? AND id <= ?",
+                    Integer.class, base, base + count);
+            if (taken == null || taken == 0) {
+                return base;
+            }
+            log.info("{} rows were inserted into {} while reserving ids, reserving again", taken, table);
+        }
+        throw new IllegalStateException("Could not reserve " + count + " ids in " + table
+                + ", it is taking too many writes; try again later");
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    private static void validate(SyntheticDataOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("Options are required");
+        }
+        if (options.getTenantPrefix() == null || !options.getTenantPrefix().matches("[A-Z0-9]{1,20}")) {
+            throw new IllegalArgumentException("tenantPrefix must be 1-20 upper-case letters or digits");
+        }
+        if (options.getTenants() <= 0 || options.getTenants() > 99999) {
+            throw new IllegalArgumentException("tenants must be between 1 and 99999");
+        }
+        if (options.getLocations() < options.getTenants()) {
+            throw new IllegalArgumentException("locations must be at least the number of tenants");
+        }
+        if (options.getZonesPerLocation() <= 0 || options.getSensorsPerZone() <= 0
+                || options.getReadingsPerSensor() < 0) {
+            throw new IllegalArgumentException("zonesPerLocation and sensorsPerZone must be positive, "
+                    + "readingsPerSensor must not be negative");
+        }
+        if (options.getTenantSkew() < 0) {
+            throw new IllegalArgumentException("tenantSkew must not be negative");
+        }
+        if (options.getBatchSize() <= 0 || options.getThreads() <= 0) {
+            throw new IllegalArgumentException("batchSize and threads must be positive");
+        }
+    }
+
+    static class TenantPlan {
+        int index;
+        String tenantId;
+        int locations;
+        long companyId;
+        long firstLocationId;
+        long firstZoneId;
+        long firstSensorId;
+    }
+
+    /**
+     * Writes one tenant. Parent rows are always flushed before the rows that reference
+     * them, and documents only after their rows are committed.
+     */
+    private class TenantWriter {
+
+        private final Progress run;
+        private final TenantPlan plan;
+        private final boolean indexing;
+        private final SyntheticDataOptions options;
+        private final SplittableRandom random;
+        private final Timestamp now;
+
+        private final List<Object[]> locationRows = new ArrayList<>();
+        private final List<Object[]> zoneRows = new ArrayList<>();
+        private final List<Object[]> sensorRows = new ArrayList<>();
+        private final List<Object[]> readingRows = new ArrayList<>();
+        private final List<IndexChange> changes = new ArrayList<>();
+
+        TenantWriter(Progress run, TenantPlan plan, boolean indexing) {
+            this.run = run;
+            this.plan = plan;
+            this.indexing = indexing;
+            this.options = run.options;
+            this.random = new SplittableRandom(options.getSeed() * 1_000_003L + plan.index);
+            this.now = Timestamp.valueOf(run.generatedAt);
+        }
+
+        void write() {
+            Company company = company();
+            jdbcTemplate.update(INSERT_COMPANY, company.getId(), company.getName(), company.getTenantId(),
+                    company.getIndustry(), company.getDescription(), company.getContactEmail(),
+                    company.getContactPhone(), company.getAddress(), company.getCity(), company.getCountry(),
+                    company.getPostalCode(), company.getStatus().name(), company.getMaxUsers(),
+                    company.getMaxLocations(), company.getMaxSensors(), now, now);
+            run.companies.incrementAndGet();
+            index(IndexChange.index(CompanyDocument.fromEntity(company)));
+
+            long zoneId = plan.firstZoneId;
+            long sensorId = plan.firstSensorId;
+            for (int l = 0; l < plan.locations; l++) {
+                Location location = location(company, plan.firstLocationId + l, l + 1);
+                locationRows.add(new Object[]{location.getId(), location.getName(), location.getType(),
+                        location.getAddress(), location.getCity(), location.getCountry(), location.getPostalCode(),
+                        location.getLatitude(), location.getLongitude(), location.getDescription(),
+                        location.getTotalArea(), location.getTimeZone(), company.getId(),
+                        location.getStatus().name(), now, now});
+                index(IndexChange.index(LocationDocument.fromEntity(location)));
+                flushIfFull(locationRows, INSERT_LOCATION, run.locations);
+
+                for (int z = 0; z < options.getZonesPerLocation(); z++) {
+                    Zone zone = zone(location, zoneId++, z + 1);
+                    zoneRows.add(new Object[]{zone.getId(), zone.getName(), zone.getType(), zone.getDescription(),
+                            zone.getFloorNumber(), zone.getAreaSize(), location.getId(), zone.getStatus().name(),
+                            zone.getTemperatureMin(), zone.getTemperatureMax(), zone.getHumidityMin(),
+                            zone.getHumidityMax(), zone.getAlertEnabled(), now, now});
+                    index(IndexChange.index(ZoneDocument.fromEntity(zone)));
+                    flushIfFull(zoneRows, INSERT_ZONE, run.zones);
+
+                    for (int s = 0; s < options.getSensorsPerZone(); s++) {
+                        Sensor sensor = sensor(zone, sensorId++);
+                        sensorRows.add(new Object[]{sensor.getId(), sensor.getName(), sensor.getSerialNumber(),
+                                sensor.getSensorType().name(), sensor.getManufacturer(), sensor.getModel(),
+                                sensor.getDescription(), zone.getId(), sensor.getStatus().name(),
+                                Timestamp.valueOf(sensor.getLastReadingTime()), sensor.getLastReadingValue(),
+                                sensor.getUnitOfMeasurement(), sensor.getReadingInterval(),
+                                sensor.getAlertThresholdMin(), sensor.getAlertThresholdMax(),
+                                sensor.getBatteryLevel(), Timestamp.valueOf(sensor.getInstallationDate()), now, now});
+                        index(IndexChange.index(SensorDocument.fromEntity(sensor)));
+                        flushIfFull(sensorRows, INSERT_SENSOR, run.sensors);
+
+                        addReadings(sensor, zone, location);
+                    }
+                }
+            }
+            flushAll();
+            flushIndex();
+            run.tenantsDone.incrementAndGet();
+        }
+
+        private Company company() {
+            String industry = pick(INDUSTRIES);
+            return Company.builder()
+                    .id(plan.companyId)
+                    .name(String.format("%s %s %s %05d", pick(CITIES), industry, options.getTenantPrefix(), plan.index + 1))
+                    .tenantId(plan.tenantId)
+                    .industry(industry)
+                    .description("Synthetic " + industry.toLowerCase() + " company with " + plan.locations + " locations")
+                    .contactEmail("contact@" + plan.tenantId.toLowerCase() + ".example.com")
+                    .contactPhone("+45 " + (20000000 + random.nextInt(80000000)))
+                    .address(random.nextInt(1, 200) + " Main Street")
+                    .city(pick(CITIES))
+                    .country(pick(COUNTRIES))
+                    .postalCode(String.format("%04d", random.nextInt(1000, 10000)))
+                    .status(Company.CompanyStatus.ACTIVE)
+                    .maxUsers(10 + random.nextInt(40))
+                    .maxLocations(plan.locations)
+                    .maxSensors(plan.locations * options.getZonesPerLocation() * options.getSensorsPerZone())
+                    .createdAt(run.generatedAt)
+                    .updatedAt(run.generatedAt)
+                    .build();
+        }
+
+        private Location location(Company company, long id, int number) {
+            String city = pick(CITIES);
+            String type = pick(LOCATION_TYPES);
+            return Location.builder()
+                    .id(id)
+                    .name(city + " " + type.replace('_', ' ') + " " + number)
+                    .type(type)
+                    .address(random.nextInt(1, 500) + " Industrial Road")
+                    .city(city)
+                    .country(company.getCountry())
+                    .postalCode(String.format("%04d", random.nextInt(1000, 10000)))
+                    .latitude(55.0 + random.nextDouble() * 2.0)
+                    .longitude(8.0 + random.nextDouble() * 6.0)
+                    .description(type.replace('_', ' ') + " of " + company.getName() + " in " + city)
+                    .totalArea(500.0 + random.nextDouble() * 4500.0)
+                    .timeZone("UTC")
+                    .status(Location.LocationStatus.ACTIVE)
+                    .company(company)
+                    .createdAt(run.generatedAt)
+                    .updatedAt(run.generatedAt)
+                    .build();
+        }
+
+        private Zone zone(Location location, long id, int number) {
+            String type = pick(ZONE_TYPES);
+            return Zone.builder()
+                    .id(id)
+                    .name(type.replace('_', ' ') + " zone " + number + " " + location.getName())
+                    .type(type)
+                    .description(type.replace('_', ' ') + " zone " + number + " in " + location.getName())
+                    .floorNumber(random.nextInt(5))
+                    .areaSize(50.0 + random.nextDouble() * 450.0)
+                    .location(location)
+                    .status(Zone.ZoneStatus.ACTIVE)
+                    .temperatureMin(15.0 + random.nextDouble() * 5.0)
+                    .temperatureMax(25.0 + random.nextDouble() * 5.0)
+                    .humidityMin(30.0 + random.nextDouble() * 10.0)
+                    .humidityMax(60.0 + random.nextDouble() * 20.0)
+                    .alertEnabled(true)
+                    .createdAt(run.generatedAt)
+                    .updatedAt(run.generatedAt)
+                    .build();
+        }
+
+        private Sensor sensor(Zone zone, long id) {
+            Sensor.SensorType[] types = Sensor.SensorType.values();
+            Sensor.SensorType type = types[random.nextInt(types.length)];
+            return Sensor.builder()
+                    .id(id)
+                    .name(type.name().toLowerCase().replace('_', ' ') + " sensor " + id)
+                    .serialNumber(options.getTenantPrefix() + "-" + Long.toHexString(id).toUpperCase())
+                    .sensorType(type)
+                    .manufacturer(pick(MANUFACTURERS))
+                    .model("Model-" + random.nextInt(1000, 10000))
+                    .description(type + " sensor in " + zone.getName())
+                    .zone(zone)
+                    .status(random.nextInt(100) < 95 ? Sensor.SensorStatus.ACTIVE : Sensor.SensorStatus.MAINTENANCE)
+                    .lastReadingTime(run.generatedAt.minusMinutes(random.nextInt(60)))
+                    .lastReadingValue(20.0 + random.nextDouble() * 10.0)
+                    .unitOfMeasurement(unitFor(type))
+                    .readingInterval(60 + random.nextInt(240))
+                    .alertThresholdMin(15.0)
+                    .alertThresholdMax(30.0)
+                    .batteryLevel(20 + random.nextInt(81))
+                    .installationDate(run.generatedAt.minusDays(random.nextInt(365)))
+                    .createdAt(run.generatedAt)
+                    .updatedAt(run.generatedAt)
+                    .build();
+        }
+
+        private void addReadings(Sensor sensor, Zone zone, Location location) {
+            for (int r = 0; r < options.getReadingsPerSensor(); r++) {
+                boolean anomaly = random.nextInt(100) == 0;
+                double value = anomaly
+                        ? sensor.getAlertThresholdMax() + random.nextDouble() * 10.0
+                        : 20.0 + random.nextDouble() * 8.0;
+                LocalDateTime timestamp = run.generatedAt.minusSeconds((long) r * sensor.getReadingInterval());
+                readingRows.add(new Object[]{sensor.getId(), plan.tenantId, value, Timestamp.valueOf(timestamp),
+                        sensor.getUnitOfMeasurement(), 80 + random.nextInt(21), anomaly, location.getId(),
+                        zone.getId(), sensor.getSensorType().name()});
+                if (readingRows.size() >= options.getBatchSize()) {
+                    // Readings reference sensors
+                    flush(locationRows, INSERT_LOCATION, run.locations);
+                    flush(zoneRows, INSERT_ZONE, run.zones);
+                    flush(sensorRows, INSERT_SENSOR, run.sensors);
+                    flush(readingRows, INSERT_SENSOR_DATA, run.readings);
+                }
+            }
+        }
+
+        private void flushIfFull(List<Object[]> rows, String sql, AtomicLong counter) {
+            if (rows.size() < options.getBatchSize()) {
+                return;
+            }
+            // Flush the parents of these rows first
+            if (rows != locationRows) {
+                flush(locationRows, INSERT_LOCATION, run.locations);
+            }
+            if (rows == sensorRows) {
+                flush(zoneRows, INSERT_ZONE, run.zones);
+            }
+            flush(rows, sql, counter);
+        }
+
+        private void flushAll() {
+            flush(locationRows, INSERT_LOCATION, run.locations);
+            flush(zoneRows, INSERT_ZONE, run.zones);
+            flush(sensorRows, INSERT_SENSOR, run.sensors);
+            flush(readingRows, INSERT_SENSOR_DATA, run.readings);
+        }
+
+        private void flush(List<Object[]> rows, String sql, AtomicLong counter) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+            counter.addAndGet(rows.size());
+            rows.clear();
+        }
+
+        private void index(IndexChange change) {
+            if (!indexing) {
+                return;
+            }
+            changes.add(change);
+            if (changes.size() >= options.getBatchSize()) {
+                // Only index rows that are committed
+                flushAll();
+                flushIndex();
+            }
+        }
+
+        private void flushIndex() {
+            if (changes.isEmpty()) {
+                return;
+            }
+            try {
+                for (BulkIndexWriter.Outcome outcome : bulkIndexWriter.write(changes)) {
+                    if (outcome.isSuccess()) {
+                        run.indexed.incrementAndGet();
+                    } else {
+                        run.indexFailures.incrementAndGet();
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Bulk request of {} synthetic documents failed: {}", changes.size(), e.getMessage());
+                run.indexFailures.addAndGet(changes.size());
+            }
+            changes.clear();
+        }
+
+        private String pick(String[] values) {
+            return values[random.nextInt(values.length)];
+        }
+    }
+
+    private static String unitFor(Sensor.SensorType type) {
+        return switch (type) {
+            case TEMPERATURE -> "°C";
+            case HUMIDITY -> "%";
+            case PRESSURE -> "Pa";
+            case LIGHT -> "lux";
+            case POWER_METER -> "kWh";
+            case AIR_QUALITY -> "ppm";
+            default -> "units";
+        };
+    }
+
+    private static class Progress {
+        final SyntheticDataOptions options;
+        final List<TenantPlan> plans;
+        final LocalDateTime generatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final long startedAtMillis = System.currentTimeMillis();
+        final long plannedLocations;
+        final long plannedSensors;
+
+        final AtomicLong tenantsDone = new AtomicLong();
+        final AtomicLong companies = new AtomicLong();
+        final AtomicLong locations = new AtomicLong();
+        final AtomicLong zones = new AtomicLong();
+        final AtomicLong sensors = new AtomicLong();
+        final AtomicLong readings = new AtomicLong();
+        final AtomicLong indexed = new AtomicLong();
+        final AtomicLong indexFailures = new AtomicLong();
+
+        volatile long finishedAtMillis;
+        volatile String error;
+
+        Progress(SyntheticDataOptions options, List<TenantPlan> plans) {
+            this.options = options;
+            this.plans = plans;
+            this.plannedLocations = plans.stream().mapToLong(plan -> plan.locations).sum();
+            this.plannedSensors = plannedLocations * options.getZonesPerLocation() * options.getSensorsPerZone();
+        }
+
+        Map<String, Object> toMap() {
+            long end = finishedAtMillis > 0 ? finishedAtMillis : System.currentTimeMillis();
+            long elapsedMs = Math.max(1, end - startedAtMillis);
+            long rows = companies.get() + locations.get() + zones.get() + sensors.get() + readings.get();
+
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("running", finishedAtMillis == 0);
+            status.put("options", options);
+            status.put("tenants", plans.size() + " planned, " + tenantsDone.get() + " done");
+            status.put("largestTenantLocations", plans.isEmpty() ? 0 : plans.get(0).locations);
+            status.put("companies", companies.get());
+            status.put("locations", locations.get() + " / " + plannedLocations);
+            status.put("zones", zones.get());
+            status.put("sensors", sensors.get() + " / " + plannedSensors);
+            status.put("sensorReadings", readings.get());
+            status.put("documentsIndexed", indexed.get());
+            status.put("indexFailures", indexFailures.get());
+            status.put("elapsedMs", elapsedMs);
+            status.put("rowsPerSecond", rows * 1000 / elapsedMs);
+            if (error != null) {
+                status.put("error", error);
+            }
+            return status;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.globalsearch.service.seed;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shape of a synthetic data set. The defaults give 100 tenants, 10k locations, 20k zones,
+ * 100k sensors and 1M sensor readings.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyntheticDataOptions {
+
+    /** Same seed and options, same data */
+    @Builder.Default
+    private long seed = 42;
+
+    /** Tenant ids are PREFIX_00001...; a prefix can only be generated once */
+    @Builder.Default
+    private String tenantPrefix = "SYN";
+
+    @Builder.Default
+    private int tenants = 100;
+
+    /** Spread over the tenants by tenantSkew */
+    @Builder.Default
+    private int locations = 10000;
+
+    @Builder.Default
+    private int zonesPerLocation = 2;
+
+    @Builder.Default
+    private int sensorsPerZone = 5;
+
+    @Builder.Default
+    private int readingsPerSensor = 10;
+
+    /** Zipf exponent of the tenant sizes: 0 gives equal tenants, 1 a few very large ones */
+    @Builder.Default
+    private double tenantSkew = 1.0;
+
+    /** Rows per JDBC batch and documents per _bulk request */
+    @Builder.Default
+    private int batchSize = 1000;
+
+    /** Worker threads, each writing whole tenants */
+    @Builder.Default
+    private int threads = 4;
+
+    /** Bulk-index companies, locations, zones and sensors when Elasticsearch is enabled */
+    @Builder.Default
+    private boolean indexToElasticsearch = true;
+}
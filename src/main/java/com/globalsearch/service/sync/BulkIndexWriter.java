@@ -0,0 +1,148 @@
+package com.globalsearch.service.sync;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.globalsearch.document.VersionedDocument;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends a list of index changes as one _bulk request and reports the outcome per change.
+ * Shared by the indexing pipeline, the dead-letter retry worker and consistency repairs.
+ *
+ * Writes use version_type=external_gte with the change's version, so a write that is
+ * older than the indexed document is rejected by Elasticsearch (reported as STALE)
+ * instead of overwriting newer data.
+ *
+ * With waitForRefresh the request uses refresh=wait_for and only returns once the
+ * changes are searchable, without forcing a refresh.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class BulkIndexWriter {
+
+    private static final String VERSION_CONFLICT = "version_conflict_engine_exception";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final Map<Class<?>, String> indexNames = new ConcurrentHashMap<>();
+
+    /**
+     * @return one outcome per change, in the same order
+     * @throws IOException if the request as a whole failed (connection, timeout)
+     */
+    public List<Outcome> write(List<IndexChange> changes) throws IOException {
+        return write(changes, false);
+    }
+
+    /**
+     * @param waitForRefresh return only after the next refresh made the changes visible;
+     *                       must not be used while refresh is disabled
+     * @return one outcome per change, in the same order
+     * @throws IOException if the request as a whole failed (connection, timeout)
+     */
+    public List<Outcome> write(List<IndexChange> changes, boolean waitForRefresh) throws IOException {
+        if (changes.isEmpty()) {
+            return List.of();
+        }
+
+        BulkRequest.Builder request = new BulkRequest.Builder();
+        if (waitForRefresh) {
+            request.refresh(Refresh.WaitFor);
+        }
+        for (IndexChange change : changes) {
+            request.operations(toOperation(change));
+        }
+
+        BulkResponse response = elasticsearchClient.bulk(request.build());
+
+        // Items come back in request order
+        List<Outcome> outcomes = new ArrayList<>(changes.size());
+        for (BulkResponseItem item : response.items()) {
+            if (item.error() == null) {
+                outcomes.add(Outcome.SUCCESS);
+            } else if (item.status() == 409 || VERSION_CONFLICT.equals(item.error().type())) {
+                outcomes.add(Outcome.STALE);
+            } else {
+                outcomes.add(Outcome.failed(item.error().type() + ": " + item.error().reason()));
+            }
+        }
+        return outcomes;
+    }
+
+    private BulkOperation toOperation(IndexChange change) {
+        String index = indexName(change.getDocumentClass());
+        String id = String.valueOf(change.getDocumentId());
+
+        Long version = change.getVersion();
+        VersionType versionType = version != null ? VersionType.ExternalGte : null;
+
+        if (change.getOperation() == IndexChange.Operation.DELETE) {
+            return BulkOperation.of(op -> op.delete(d -> d
+                    .index(index).id(id).version(version).versionType(versionType)));
+        }
+
+        // Same conversion the repositories use, so field names and date formats match
+        Map<String, Object> source = elasticsearchOperations.getElasticsearchConverter().mapObject(change.getDocument());
+        return BulkOperation.of(op -> op.index(i -> i
+                .index(index).id(id).version(version).versionType(versionType).document(source)));
+    }
+
+    String indexName(Class<? extends VersionedDocument> documentClass) {
+        return indexNames.computeIfAbsent(documentClass,
+                cls -> elasticsearchOperations.getIndexCoordinatesFor(cls).getIndexName());
+    }
+
+    @Getter
+    public static class Outcome {
+
+        public enum Status {
+            SUCCESS,
+            /** Rejected because the index already holds a newer version; nothing to retry */
+            STALE,
+            FAILED
+        }
+
+        static final Outcome SUCCESS = new Outcome(Status.SUCCESS, null);
+        static final Outcome STALE = new Outcome(Status.STALE, null);
+
+        private final Status status;
+        private final String error;
+
+        private Outcome(Status status, String error) {
+            this.status = status;
+            this.error = error;
+        }
+
+        static Outcome failed(String error) {
+            return new Outcome(Status.FAILED, error);
+        }
+
+        /**
+         * True unless the write has to be retried
+         */
+        public boolean isSuccess() {
+            return status != Status.FAILED;
+        }
+
+        public boolean isStale() {
+            return status == Status.STALE;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.document.*;
+import com.globalsearch.entity.IndexingDeadLetter;
+import com.globalsearch.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Durable store for index operations that failed, with a retry worker.
+ *
+ * Failures are stored as entity references (document type + id), one row per entity,
+ * enforced by a unique key: a concurrent insert for the same entity makes the losing
+ * writer update the existing row instead. Letters are versioned, so the retry worker only
+ * deletes or reschedules a letter that no new failure has touched since it was read.
+ * The retry worker reloads the current row from MySQL, so a retry always indexes the
+ * latest state, or deletes the document if the row is gone. Retries are sent in _bulk
+ * batches with exponential backoff and jitter; after max-attempts a letter is parked
+ * until an admin replays it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class DeadLetterService {
+
+    private static final int MAX_RECORD_ATTEMPTS = 3;
+
+    private final IndexingDeadLetterRepository deadLetterRepository;
+    private final BulkIndexWriter bulkIndexWriter;
+    private final PlatformTransactionManager transactionManager;
+
+    // MySQL Repositories, used to reload entities on retry
+    private final CompanyRepository companyRepository;
+    private final LocationRepository locationRepository;
+    private final ZoneRepository zoneRepository;
+    private final SensorRepository sensorRepository;
+    private final ReportRepository reportRepository;
+    private final DashboardRepository dashboardRepository;
+
+    @Value("${elasticsearch.dead-letter.batch-size:500}")
+    private int batchSize;
+
+    @Value("${elasticsearch.dead-letter.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${elasticsearch.dead-letter.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${elasticsearch.dead-letter.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    /**
+     * Record failed changes. An entity that already has a letter keeps its retry schedule.
+     */
+    public void recordAll(Collection<IndexChange> changes, String error) {
+        try {
+            executeUpsert(() -> {
+                LocalDateTime nextAttemptAt = LocalDateTime.now().plus(initialBackoffMs, ChronoUnit.MILLIS);
+                for (IndexChange change : changes) {
+                    record(change.getDocumentClass(), change.getDocumentId(), operationOf(change), error, nextAttemptAt);
+                }
+            });
+        } catch (Exception e) {
+            // Last resort: the consistency check will still find these rows
+            log.error("Failed to record {} dead letters ({}), changes are lost until the next consistency check",
+                    changes.size(), error, e);
+        }
+    }
+
+    public void record(IndexChange change, String error) {
+        recordAll(List.of(change), error);
+    }
+
+    /**
+     * Record an entity whose document could not even be built or written directly
+     */
+    public void record(Class<? extends VersionedDocument> documentClass, Long entityId, String error) {
+        try {
+            executeUpsert(() -> record(documentClass, entityId,
+                    IndexingDeadLetter.Operation.INDEX, error, LocalDateTime.now().plus(initialBackoffMs, ChronoUnit.MILLIS)));
+        } catch (Exception e) {
+            log.error("Failed to record dead letter for {} {}", documentClass.getSimpleName(), entityId, e);
+        }
+    }
+
+    /**
+     * Store a change that could not be queued, to be picked up by the next retry run
+     */
+    public void spill(IndexChange change) {
+        try {
+            executeUpsert(() -> record(change.getDocumentClass(),
+                    change.getDocumentId(), operationOf(change), "Indexing queue full", LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Failed to spill {} {} to the dead-letter store", change.getOperation(), change.getKey(), e);
+        }
+    }
+
+    private void record(Class<? extends VersionedDocument> documentClass, Long entityId,
+                        IndexingDeadLetter.Operation operation, String error, LocalDateTime nextAttemptAt) {
+        String documentType = documentClass.getSimpleName();
+
+        IndexingDeadLetter letter = deadLetterRepository
+                .findFirstByDocumentTypeAndEntityId(documentType, entityId)
+                .orElseGet(() -> IndexingDeadLetter.builder()
+                        .documentType(documentType)
+                        .entityId(entityId)
+                        .status(IndexingDeadLetter.Status.PENDING)
+                        .attempts(0)
+                        .nextAttemptAt(nextAttemptAt)
+                        .build());
+
+        if (letter.getStatus() == IndexingDeadLetter.Status.PARKED) {
+            // A new failure for a parked entity gets a fresh attempt budget
+            letter.setStatus(IndexingDeadLetter.Status.PENDING);
+            letter.setAttempts(0);
+            letter.setNextAttemptAt(nextAttemptAt);
+        }
+        letter.setOperation(operation);
+        letter.setLastError(truncate(error));
+        deadLetterRepository.save(letter);
+    }
+
+    /**
+     * Run record calls in a new transaction, again when another writer inserted or changed a
+     * letter of the same entity first: the next attempt finds that row and updates it
+     */
+    private void executeUpsert(Runnable records) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate().executeWithoutResult(status -> records.run());
+                return;
+            } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+                if (attempt >= MAX_RECORD_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Concurrent dead-letter write, recording again: {}", e.getMessage());
+            }
+        }
+    }
+
+    private IndexingDeadLetter.Operation operationOf(IndexChange change) {
+        return change.getOperation() == IndexChange.Operation.DELETE
+                ? IndexingDeadLetter.Operation.DELETE
+                : IndexingDeadLetter.Operation.INDEX;
+    }
+
+    // ==================== RETRY WORKER ====================
+
+    @Scheduled(initialDelayString = "${elasticsearch.dead-letter.retry-interval-ms:10000}",
+            fixedDelayString = "${elasticsearch.dead-letter.retry-interval-ms:10000}")
+    public void retryDue() {
+        int retried;
+        do {
+            retried = retryBatch();
+        } while (retried == batchSize);
+    }
+
+    /**
+     * Retry one batch of due letters.
+     *
+     * @return number of letters retried
+     */
+    int retryBatch() {
+        List<IndexingDeadLetter> due = deadLetterRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                IndexingDeadLetter.Status.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<IndexChange> changes;
+        try {
+            changes = transactionTemplate().execute(status -> reload(due));
+        } catch (Exception e) {
+            log.error("Failed to reload {} dead-letter entities", due.size(), e);
+            due.forEach(letter -> scheduleNextAttempt(letter, "Reload failed: " + e.getMessage()));
+            saveRetryOutcome(List.of(), due);
+            return due.size();
+        }
+
+        List<BulkIndexWriter.Outcome> outcomes;
+        try {
+            outcomes = bulkIndexWriter.write(changes);
+        } catch (Exception e) {
+            outcomes = Collections.nCopies(changes.size(), BulkIndexWriter.Outcome.failed(e.getMessage()));
+        }
+
+        List<IndexingDeadLetter> resolved = new ArrayList<>();
+        List<IndexingDeadLetter> stillFailing = new ArrayList<>();
+        for (int i = 0; i < due.size(); i++) {
+            IndexingDeadLetter letter = due.get(i);
+            BulkIndexWriter.Outcome outcome = outcomes.get(i);
+            if (outcome.isSuccess()) {
+                resolved.add(letter);
+            } else {
+                scheduleNextAttempt(letter, outcome.getError());
+                stillFailing.add(letter);
+            }
+        }
+
+        int changed = saveRetryOutcome(resolved, stillFailing);
+
+        log.info("Dead-letter retry: {} resolved, {} still failing, {} failed again meanwhile",
+                resolved.size(), stillFailing.size(), changed);
+        return due.size();
+    }
+
+    /**
+     * Delete the resolved letters and reschedule the failing ones, each only if unchanged
+     * since it was read. A changed letter holds a newer failure and is kept as it is.
+     *
+     * @return number of letters left as they were because they had changed
+     */
+    private int saveRetryOutcome(List<IndexingDeadLetter> resolved, List<IndexingDeadLetter> stillFailing) {
+        Integer changed = transactionTemplate().execute(status -> {
+            int skipped = 0;
+            for (IndexingDeadLetter letter : resolved) {
+                skipped += 1 - deadLetterRepository.deleteIfUnchanged(letter.getId(), letter.getVersion());
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (IndexingDeadLetter letter : stillFailing) {
+                skipped += 1 - deadLetterRepository.rescheduleIfUnchanged(letter.getId(), letter.getVersion(),
+                        letter.getStatus(), letter.getAttempts(), letter.getLastError(), letter.getNextAttemptAt(), now);
+            }
+            return skipped;
+        });
+        return changed != null ? changed : 0;
+    }
+
+    private void scheduleNextAttempt(IndexingDeadLetter letter, String error) {
+        int attempts = letter.getAttempts() + 1;
+        letter.setAttempts(attempts);
+        letter.setLastError(truncate(error));
+
+        if (attempts >= maxAttempts) {
+            letter.setStatus(IndexingDeadLetter.Status.PARKED);
+            log.warn("Parking dead letter {} {} after {} attempts: {}",
+                    letter.getDocumentType(), letter.getEntityId(), attempts, error);
+            return;
+        }
+        letter.setNextAttemptAt(LocalDateTime.now().plus(backoffMillis(attempts), ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Exponential backoff capped at max-backoff-ms, with jitter in [delay/2, delay]
+     * so letters that failed together do not retry together.
+     */
+    long backoffMillis(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 30);
+        if (delay <= 0 || delay > maxBackoffMs) {
+            delay = maxBackoffMs;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Build changes for the current state of each referenced row, in the order of the letters
+     */
+    private List<IndexChange> reload(List<IndexingDeadLetter> letters) {
+        Map<String, List<Long>> idsByType = letters.stream()
+                .collect(Collectors.groupingBy(IndexingDeadLetter::getDocumentType,
+                        Collectors.mapping(IndexingDeadLetter::getEntityId, Collectors.toList())));
+
+        Map<String, Map<Long, VersionedDocument>> documents = new HashMap<>();
+        idsByType.forEach((type, ids) -> documents.put(type, loadDocuments(type, ids)));
+
+        List<IndexChange> changes = new ArrayList<>(letters.size());
+        for (IndexingDeadLetter letter : letters) {
+            VersionedDocument document = documents.get(letter.getDocumentType()).get(letter.getEntityId());
+            changes.add(document != null
+                    ? IndexChange.index(document)
+                    : IndexChange.delete(documentClass(letter.getDocumentType()), letter.getEntityId()));
+        }
+        return changes;
+    }
+
+    private Map<Long, VersionedDocument> loadDocuments(String documentType, List<Long> ids) {
+        return switch (documentType) {
+            case "CompanyDocument" -> toMap(companyRepository.findAllById(ids), CompanyDocument::fromEntity);
+            case "LocationDocument" -> toMap(locationRepository.findAllById(ids), LocationDocument::fromEntity);
+            case "ZoneDocument" -> toMap(zoneRepository.findAllById(ids), ZoneDocument::fromEntity);
+            case "SensorDocument" -> toMap(sensorRepository.findAllById(ids), SensorDocument::fromEntity);
+            case "ReportDocument" -> toMap(reportRepository.findAllById(ids), ReportDocument::fromEntity);
+            case "DashboardDocument" -> toMap(dashboardRepository.findAllById(ids), DashboardDocument::fromEntity);
+            default -> throw new IllegalArgumentException("Unknown document type: " + documentType);
+        };
+    }
+
+    private Class<? extends VersionedDocument> documentClass(String documentType) {
+        return switch (documentType) {
+            case "CompanyDocument" -> CompanyDocument.class;
+            case "LocationDocument" -> LocationDocument.class;
+            case "ZoneDocument" -> ZoneDocument.class;
+            case "SensorDocument" -> SensorDocument.class;
+            case "ReportDocument" -> ReportDocument.class;
+            case "DashboardDocument" -> DashboardDocument.class;
+            default -> throw new IllegalArgumentException("Unknown document type: " + documentType);
+        };
+    }
+
+    private <E> Map<Long, VersionedDocument> toMap(List<E> entities, Function<E, ? extends VersionedDocument> toDocument) {
+        Map<Long, VersionedDocument> documents = new HashMap<>();
+        for (E entity : entities) {
+            VersionedDocument document = toDocument.apply(entity);
+            documents.put(document.getId(), document);
+        }
+        return documents;
+    }
+
+    // ==================== ADMIN ====================
+
+    public Page<IndexingDeadLetter> getDeadLetters(IndexingDeadLetter.Status status, Pageable pageable) {
+        return status != null
+                ? deadLetterRepository.findByStatus(status, pageable)
+                : deadLetterRepository.findAll(pageable);
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (IndexingDeadLetter.Status status : IndexingDeadLetter.Status.values()) {
+            counts.put(status.name(), deadLetterRepository.countByStatus(status));
+        }
+        return counts;
+    }
+
+    /**
+     * Make every letter, including parked ones, due immediately with a fresh attempt budget
+     */
+    public int replayAll() {
+        Integer updated = transactionTemplate().execute(status ->
+                deadLetterRepository.rescheduleAll(IndexingDeadLetter.Status.PENDING, LocalDateTime.now()));
+        log.info("Replaying {} dead letters", updated);
+        retryDue();
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Make a single letter due immediately
+     *
+     * @return false if no letter with this id exists
+     */
+    public boolean replay(Long id) {
+        Optional<IndexingDeadLetter> letter = deadLetterRepository.findById(id);
+        if (letter.isEmpty()) {
+            return false;
+        }
+        letter.get().setStatus(IndexingDeadLetter.Status.PENDING);
+        letter.get().setAttempts(0);
+        letter.get().setNextAttemptAt(LocalDateTime.now());
+        deadLetterRepository.save(letter.get());
+        retryDue();
+        return true;
+    }
+
+    /**
+     * Always a new transaction: callers may be inside an entity flush (JPA listener)
+     */
+    private TransactionTemplate transactionTemplate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 2000 ? error.substring(0, 2000) : error;
+    }
+}
@@ -0,0 +1,78 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.document.VersionedDocument;
+import lombok.Getter;
+
+/**
+ * A single pending write to a search index, queued by the indexing pipeline.
+ *
+ * The document is built on the producer thread (inside the JPA session), so the
+ * consumer only has to serialize it.
+ *
+ * Every change carries an external version: the source row's updatedAt for index
+ * operations, and the time of deletion for deletes. Elasticsearch rejects writes whose
+ * version is lower than the stored one, so changes may arrive in any order.
+ *
+ * committedAtMillis is the time the source transaction committed (set by markCommitted),
+ * the starting point for the commit-to-visibility lag.
+ */
+@Getter
+public class IndexChange {
+
+    public enum Operation {
+        INDEX, DELETE
+    }
+
+    private final Operation operation;
+    private final Class<? extends VersionedDocument> documentClass;
+    private final Long documentId;
+    private final VersionedDocument document;
+    private final Long version;
+    private final long enqueuedAtMillis;
+    private volatile long committedAtMillis;
+
+    private IndexChange(Operation operation, Class<? extends VersionedDocument> documentClass,
+                        Long documentId, VersionedDocument document, Long version) {
+        this.operation = operation;
+        this.documentClass = documentClass;
+        this.documentId = documentId;
+        this.document = document;
+        this.version = version;
+        this.enqueuedAtMillis = System.currentTimeMillis();
+        this.committedAtMillis = enqueuedAtMillis;
+    }
+
+    public static IndexChange index(VersionedDocument document) {
+        return new IndexChange(Operation.INDEX, document.getClass(), document.getId(), document,
+                document.getSyncVersion());
+    }
+
+    public static IndexChange delete(Class<? extends VersionedDocument> documentClass, Long documentId) {
+        return new IndexChange(Operation.DELETE, documentClass, documentId, null, System.currentTimeMillis());
+    }
+
+    /**
+     * Stamp the commit time of the source transaction
+     */
+    public IndexChange markCommitted() {
+        this.committedAtMillis = System.currentTimeMillis();
+        return this;
+    }
+
+    /**
+     * Changes with the same key target the same document, only the newest one needs to be sent
+     */
+    public String getKey() {
+        return documentClass.getSimpleName() + ":" + documentId;
+    }
+
+    /**
+     * Whether this change should win over another change to the same document
+     */
+    public boolean supersedes(IndexChange other) {
+        if (version == null || other.version == null) {
+            return true;
+        }
+        return version >= other.version;
+    }
+}
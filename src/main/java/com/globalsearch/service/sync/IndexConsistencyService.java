@@ -0,0 +1,430 @@
+package com.globalsearch.service.sync;
+
+import co.elastic.clients.elasticsearch._types.Script;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import com.globalsearch.document.*;
+import com.globalsearch.entity.*;
+import com.globalsearch.repository.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Detects and repairs drift between MySQL and Elasticsearch without a full resync.
+ *
+ * Each entity table is split into id ranges. For every range a checksum over
+ * (id, syncVersion) is computed on both sides: from a two-column primary key scan in
+ * MySQL, and from a sum aggregation in Elasticsearch (no documents are fetched).
+ * Only ranges whose checksums differ are split further, and only the leaf ranges that
+ * still differ are compared row by row and repaired.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class IndexConsistencyService {
+
+    private static final String CHECKSUM_AGGREGATION = "checksum";
+    private static final String MAX_ID_AGGREGATION = "maxId";
+
+    // MySQL Repositories
+    private final CompanyRepository companyRepository;
+    private final LocationRepository locationRepository;
+    private final ZoneRepository zoneRepository;
+    private final SensorRepository sensorRepository;
+    private final ReportRepository reportRepository;
+    private final DashboardRepository dashboardRepository;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final BulkIndexWriter bulkIndexWriter;
+    private final DeadLetterService deadLetterService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${elasticsearch.consistency.enabled:true}")
+    private boolean scheduleEnabled;
+
+    @Value("${elasticsearch.consistency.range-size:10000}")
+    private long rangeSize;
+
+    @Value("${elasticsearch.consistency.leaf-size:250}")
+    private long leafSize;
+
+    @Value("${elasticsearch.consistency.fan-out:8}")
+    private int fanOut;
+
+    @Value("${elasticsearch.consistency.repair:true}")
+    private boolean repairEnabled;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong checksRun = new AtomicLong();
+    private final AtomicLong driftedRowsTotal = new AtomicLong();
+    private final AtomicLong repairedRowsTotal = new AtomicLong();
+
+    private volatile DriftReport lastReport;
+
+    /**
+     * Periodic consistency check. Cheap when nothing has drifted, since matching
+     * ranges cost one aggregation and one primary key range scan each.
+     */
+    @Scheduled(initialDelayString = "${elasticsearch.consistency.initial-delay-ms:600000}",
+            fixedDelayString = "${elasticsearch.consistency.interval-ms:3600000}")
+    public void scheduledCheck() {
+        if (!scheduleEnabled) {
+            return;
+        }
+        try {
+            runCheck();
+        } catch (IllegalStateException e) {
+            log.debug("Skipping scheduled consistency check: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run a consistency check over all entity types.
+     *
+     * @throws IllegalStateException if a check is already running
+     */
+    public DriftReport runCheck() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Consistency check already running");
+        }
+
+        long startTime = System.currentTimeMillis();
+        DriftReport report = new DriftReport();
+        report.setStartedAt(Instant.ofEpochMilli(startTime));
+        report.setRepairEnabled(repairEnabled);
+
+        try {
+            log.info("Starting MySQL/Elasticsearch consistency check (range size: {}, leaf size: {})",
+                    rangeSize, leafSize);
+
+            for (EntityBinding<?, ?> binding : bindings()) {
+                report.getEntities().add(checkEntity(binding));
+            }
+
+            report.setDurationMs(System.currentTimeMillis() - startTime);
+            checksRun.incrementAndGet();
+            driftedRowsTotal.addAndGet(report.getDriftedRows());
+            repairedRowsTotal.addAndGet(report.getRepairedRows());
+            lastReport = report;
+
+            if (report.getDriftedRows() > 0) {
+                log.warn("Consistency check found {} drifted rows ({} repaired) in {} ms",
+                        report.getDriftedRows(), report.getRepairedRows(), report.getDurationMs());
+            } else {
+                log.info("✓ Consistency check completed in {} ms, no drift detected", report.getDurationMs());
+            }
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public DriftReport getLastReport() {
+        return lastReport;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Cumulative drift metrics since startup
+     */
+    public Map<String, Object> getDriftMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("checksRun", checksRun.get());
+        metrics.put("driftedRowsTotal", driftedRowsTotal.get());
+        metrics.put("repairedRowsTotal", repairedRowsTotal.get());
+        metrics.put("running", running.get());
+        metrics.put("lastCheckAt", lastReport != null ? lastReport.getStartedAt() : null);
+        metrics.put("lastDriftedRows", lastReport != null ? lastReport.getDriftedRows() : 0);
+        return metrics;
+    }
+
+    // ==================== RANGE CHECKING ====================
+
+    private <E, D extends VersionedDocument> EntityDrift checkEntity(EntityBinding<E, D> binding) {
+        EntityDrift drift = new EntityDrift(binding.entityType);
+        long startTime = System.currentTimeMillis();
+
+        try {
+            long databaseMaxId = Optional.ofNullable(binding.maxId.get()).orElse(0L);
+            long indexMaxId = indexMaxId(binding);
+            long upperBound = Math.max(databaseMaxId, indexMaxId);
+
+            for (long from = 1; from <= upperBound; from += rangeSize) {
+                long to = Math.min(from + rangeSize - 1, upperBound);
+                checkRange(binding, from, to, drift);
+            }
+        } catch (Exception e) {
+            log.error("Consistency check failed for {}", binding.entityType, e);
+            drift.setError(e.getMessage());
+        }
+
+        drift.setDurationMs(System.currentTimeMillis() - startTime);
+        log.info("✓ Checked {}: {} ranges, {} mismatched, {} missing, {} stale, {} orphaned, {} repaired",
+                binding.entityType, drift.getRangesChecked(), drift.getRangesMismatched(),
+                drift.getMissingInIndex(), drift.getStaleInIndex(), drift.getOrphanedInIndex(), drift.getRepaired());
+        return drift;
+    }
+
+    private <E, D extends VersionedDocument> void checkRange(
+            EntityBinding<E, D> binding, long from, long to, EntityDrift drift) {
+        drift.rangesChecked++;
+
+        Map<Long, Long> databaseVersions = databaseVersions(binding, from, to);
+        RangeChecksum databaseChecksum = new RangeChecksum();
+        databaseVersions.forEach(databaseChecksum::add);
+        RangeChecksum indexChecksum = indexChecksum(binding, from, to);
+
+        if (databaseChecksum.matches(indexChecksum)) {
+            return;
+        }
+
+        drift.rangesMismatched++;
+        long span = to - from + 1;
+
+        if (span <= leafSize) {
+            repairLeaf(binding, from, to, databaseVersions, drift);
+            return;
+        }
+
+        // Drill down: only the sub-ranges that still differ are visited further
+        long step = Math.max(leafSize, (span + fanOut - 1) / fanOut);
+        for (long subFrom = from; subFrom <= to; subFrom += step) {
+            checkRange(binding, subFrom, Math.min(subFrom + step - 1, to), drift);
+        }
+    }
+
+    private <E, D extends VersionedDocument> void repairLeaf(
+            EntityBinding<E, D> binding, long from, long to, Map<Long, Long> databaseVersions, EntityDrift drift) {
+        Map<Long, Long> indexVersions = indexVersions(binding, from, to);
+
+        List<Long> toReindex = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : databaseVersions.entrySet()) {
+            if (!indexVersions.containsKey(entry.getKey())) {
+                drift.missingInIndex++;
+                toReindex.add(entry.getKey());
+            } else if (!Objects.equals(indexVersions.get(entry.getKey()), entry.getValue())) {
+                drift.staleInIndex++;
+                toReindex.add(entry.getKey());
+            }
+        }
+
+        List<Long> toDelete = new ArrayList<>();
+        for (Long id : indexVersions.keySet()) {
+            if (!databaseVersions.containsKey(id)) {
+                drift.orphanedInIndex++;
+                toDelete.add(id);
+            }
+        }
+
+        if (!repairEnabled || (toReindex.isEmpty() && toDelete.isEmpty())) {
+            return;
+        }
+
+        List<IndexChange> changes = new ArrayList<>(reindexChanges(binding, toReindex));
+        toDelete.forEach(id -> changes.add(IndexChange.delete(binding.documentClass, id)));
+
+        List<IndexChange> failed = new ArrayList<>();
+        try {
+            List<BulkIndexWriter.Outcome> outcomes = bulkIndexWriter.write(changes);
+            for (int i = 0; i < outcomes.size(); i++) {
+                if (!outcomes.get(i).isSuccess()) {
+                    failed.add(changes.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to repair {} range [{}, {}]", binding.entityType, from, to, e);
+            failed = changes;
+        }
+
+        if (!failed.isEmpty()) {
+            deadLetterService.recordAll(failed, "Consistency repair failed");
+        }
+        drift.repaired += changes.size() - failed.size();
+
+        log.debug("Repaired {} range [{}, {}]: {} reindexed, {} deleted, {} failed",
+                binding.entityType, from, to, toReindex.size(), toDelete.size(), failed.size());
+    }
+
+    private <E, D extends VersionedDocument> List<IndexChange> reindexChanges(EntityBinding<E, D> binding, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Documents read lazy associations (e.g. sensor -> zone -> location -> company)
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> binding.loader.apply(ids).stream()
+                .map(binding.toDocument)
+                .map(IndexChange::index)
+                .toList());
+    }
+
+    // ==================== DATABASE SIDE ====================
+
+    private Map<Long, Long> databaseVersions(EntityBinding<?, ?> binding, long from, long to) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : binding.versions.apply(from, to)) {
+            versions.put((Long) row[0], VersionedDocument.versionOf((LocalDateTime) row[1]));
+        }
+        return versions;
+    }
+
+    // ==================== ELASTICSEARCH SIDE ====================
+
+    private RangeChecksum indexChecksum(EntityBinding<?, ?> binding, long from, long to) {
+        Script script = Script.of(s -> s.inline(i -> i.source(RangeChecksum.PAINLESS_SCRIPT)));
+
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(idRange(from, to))
+                .withAggregation(CHECKSUM_AGGREGATION, Aggregation.of(a -> a.sum(sum -> sum.script(script))))
+                .withTrackTotalHits(true)
+                .withMaxResults(0)
+                .build();
+
+        SearchHits<?> hits = elasticsearchOperations.search(query, binding.documentClass);
+        double sum = aggregate(hits, CHECKSUM_AGGREGATION).sum().value();
+        return new RangeChecksum(hits.getTotalHits(), (long) sum);
+    }
+
+    private <D extends VersionedDocument> Map<Long, Long> indexVersions(
+            EntityBinding<?, D> binding, long from, long to) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(idRange(from, to))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("id", "syncVersion").build())
+                .withPageable(PageRequest.of(0, (int) (to - from + 1)))
+                .build();
+
+        Map<Long, Long> versions = new HashMap<>();
+        for (SearchHit<D> hit : elasticsearchOperations.search(query, binding.documentClass)) {
+            D document = hit.getContent();
+            Long id = document.getId() != null ? document.getId() : Long.valueOf(hit.getId());
+            versions.put(id, document.getSyncVersion());
+        }
+        return versions;
+    }
+
+    private long indexMaxId(EntityBinding<?, ?> binding) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                .withAggregation(MAX_ID_AGGREGATION, Aggregation.of(a -> a.max(max -> max.field("id"))))
+                .withMaxResults(0)
+                .build();
+
+        double max = aggregate(elasticsearchOperations.search(query, binding.documentClass), MAX_ID_AGGREGATION)
+                .max().value();
+        return Double.isNaN(max) || Double.isInfinite(max) ? 0L : (long) max;
+    }
+
+    private Aggregate aggregate(SearchHits<?> hits, String name) {
+        ElasticsearchAggregations aggregations = (ElasticsearchAggregations) hits.getAggregations();
+        if (aggregations == null || !aggregations.aggregationsAsMap().containsKey(name)) {
+            throw new IllegalStateException("Aggregation '" + name + "' missing from search response");
+        }
+        return aggregations.aggregationsAsMap().get(name).aggregation().getAggregate();
+    }
+
+    private Query idRange(long from, long to) {
+        return Query.of(q -> q.range(r -> r.field("id").gte(JsonData.of(from)).lte(JsonData.of(to))));
+    }
+
+    // ==================== ENTITY BINDINGS ====================
+
+    private List<EntityBinding<?, ?>> bindings() {
+        return List.of(
+                new EntityBinding<>("companies", CompanyDocument.class,
+                        companyRepository::findMaxId, companyRepository::findIdAndUpdatedAtByIdBetween,
+                        companyRepository::findAllById, CompanyDocument::fromEntity),
+                new EntityBinding<>("locations", LocationDocument.class,
+                        locationRepository::findMaxId, locationRepository::findIdAndUpdatedAtByIdBetween,
+                        locationRepository::findAllById, LocationDocument::fromEntity),
+                new EntityBinding<>("zones", ZoneDocument.class,
+                        zoneRepository::findMaxId, zoneRepository::findIdAndUpdatedAtByIdBetween,
+                        zoneRepository::findAllById, ZoneDocument::fromEntity),
+                new EntityBinding<>("sensors", SensorDocument.class,
+                        sensorRepository::findMaxId, sensorRepository::findIdAndUpdatedAtByIdBetween,
+                        sensorRepository::findAllById, SensorDocument::fromEntity),
+                new EntityBinding<>("reports", ReportDocument.class,
+                        reportRepository::findMaxId, reportRepository::findIdAndUpdatedAtByIdBetween,
+                        reportRepository::findAllById, ReportDocument::fromEntity),
+                new EntityBinding<>("dashboards", DashboardDocument.class,
+                        dashboardRepository::findMaxId, dashboardRepository::findIdAndUpdatedAtByIdBetween,
+                        dashboardRepository::findAllById, DashboardDocument::fromEntity)
+        );
+    }
+
+    /**
+     * Ties an entity table to its search index
+     */
+    @AllArgsConstructor
+    private static class EntityBinding<E, D extends VersionedDocument> {
+        private final String entityType;
+        private final Class<D> documentClass;
+        private final Supplier<Long> maxId;
+        private final BiFunction<Long, Long, List<Object[]>> versions;
+        private final Function<List<Long>, List<E>> loader;
+        private final Function<E, D> toDocument;
+    }
+
+    // Inner classes for reporting
+
+    @Data
+    public static class DriftReport {
+        private Instant startedAt;
+        private long durationMs;
+        private boolean repairEnabled;
+        private List<EntityDrift> entities = new ArrayList<>();
+
+        public long getDriftedRows() {
+            return entities.stream()
+                    .mapToLong(e -> e.getMissingInIndex() + e.getStaleInIndex() + e.getOrphanedInIndex())
+                    .sum();
+        }
+
+        public long getRepairedRows() {
+            return entities.stream().mapToLong(EntityDrift::getRepaired).sum();
+        }
+    }
+
+    @Data
+    public static class EntityDrift {
+        private final String entityType;
+        private long rangesChecked;
+        private long rangesMismatched;
+        private long missingInIndex;
+        private long staleInIndex;
+        private long orphanedInIndex;
+        private long repaired;
+        private long durationMs;
+        private String error;
+    }
+}
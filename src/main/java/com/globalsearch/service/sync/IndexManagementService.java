@@ -0,0 +1,285 @@
+package com.globalsearch.service.sync;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.elasticsearch.indices.stats.IndicesStats;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalsearch.document.*;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Owns index templates and index-level settings for the search indices.
+ *
+ * At startup the composable templates in classpath:elasticsearch/*.json are installed
+ * (or upgraded when their "version" is higher than the installed one), then missing
+ * indices are created with the annotation mappings and the template settings.
+ * During full rebuilds refresh and replication are switched off and restored afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class IndexManagementService {
+
+    private static final String TEMPLATE_PREFIX = "globalsearch-";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Pattern TIME_VALUE = Pattern.compile("(\\d+)(ms|s|m|h|d)");
+
+    private static final List<ManagedIndex> MANAGED_INDICES = List.of(
+            new ManagedIndex("companies", "elasticsearch/company.json", CompanyDocument.class),
+            new ManagedIndex("locations", "elasticsearch/location.json", LocationDocument.class),
+            new ManagedIndex("zones", "elasticsearch/zone.json", ZoneDocument.class),
+            new ManagedIndex("sensors", "elasticsearch/sensor.json", SensorDocument.class),
+            new ManagedIndex("reports", "elasticsearch/report.json", ReportDocument.class),
+            new ManagedIndex("dashboards", "elasticsearch/dashboard.json", DashboardDocument.class)
+    );
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    @Value("${elasticsearch.index.force-merge-threshold:50000}")
+    private long forceMergeThreshold;
+
+    // Steady-state settings read from each template, restored after a bulk load
+    private final Map<String, TemplateSettings> templateSettings = new ConcurrentHashMap<>();
+
+    private final AtomicInteger bulkLoadDepth = new AtomicInteger();
+
+    @PostConstruct
+    public void initializeIndices() {
+        for (ManagedIndex index : MANAGED_INDICES) {
+            try {
+                applyTemplate(index);
+                ensureIndex(index);
+            } catch (Exception e) {
+                log.error("Failed to initialize index '{}', it will be created on first write with default settings",
+                        index.getName(), e);
+            }
+        }
+    }
+
+    // ==================== TEMPLATES ====================
+
+    private void applyTemplate(ManagedIndex index) throws IOException {
+        byte[] body;
+        try (InputStream in = new ClassPathResource(index.getResource()).getInputStream()) {
+            body = in.readAllBytes();
+        }
+
+        JsonNode template = OBJECT_MAPPER.readTree(body);
+        JsonNode settings = template.path("template").path("settings");
+        templateSettings.put(index.getName(), new TemplateSettings(
+                settings.path("refresh_interval").asText("1s"),
+                settings.path("number_of_replicas").asText("1")));
+
+        String templateName = TEMPLATE_PREFIX + index.getName();
+        long version = template.path("version").asLong(0);
+        Long installedVersion = installedTemplateVersion(templateName);
+
+        if (installedVersion != null && installedVersion >= version) {
+            log.debug("Index template {} is up to date (version {})", templateName, installedVersion);
+            return;
+        }
+
+        elasticsearchClient.indices().putIndexTemplate(r -> r
+                .name(templateName)
+                .withJson(new ByteArrayInputStream(body)));
+        log.info("✓ Installed index template {} (version {} -> {})", templateName, installedVersion, version);
+    }
+
+    private Long installedTemplateVersion(String templateName) throws IOException {
+        if (!elasticsearchClient.indices().existsIndexTemplate(r -> r.name(templateName)).value()) {
+            return null;
+        }
+        return elasticsearchClient.indices().getIndexTemplate(r -> r.name(templateName))
+                .indexTemplates().stream()
+                .findFirst()
+                .map(item -> item.indexTemplate().version())
+                .orElse(null);
+    }
+
+    private void ensureIndex(ManagedIndex index) {
+        IndexOperations indexOps = elasticsearchOperations.indexOps(index.getDocumentClass());
+
+        if (!indexOps.exists()) {
+            // No explicit settings, so the template's shards, replicas and analysis apply
+            indexOps.create(Map.of(), indexOps.createMapping());
+            log.info("✓ Created index '{}' from template", index.getName());
+            return;
+        }
+
+        try {
+            // Adds fields introduced since the index was created
+            indexOps.putMapping(indexOps.createMapping());
+        } catch (Exception e) {
+            log.warn("Mapping of index '{}' is incompatible with {}; recreate the index and run a full sync",
+                    index.getName(), index.getDocumentClass().getSimpleName());
+        }
+    }
+
+    // ==================== BULK LOAD ====================
+
+    /**
+     * Switch all indices to bulk-load settings: no periodic refresh, no replicas.
+     * Calls nest, only the outermost begin/end pair changes settings.
+     */
+    public void beginBulkLoad() {
+        if (bulkLoadDepth.getAndIncrement() > 0) {
+            return;
+        }
+
+        for (ManagedIndex index : MANAGED_INDICES) {
+            updateSettings(index.getName(), "-1", "0");
+        }
+        log.info("Bulk load started: refresh disabled and replicas set to 0 on {} indices", MANAGED_INDICES.size());
+    }
+
+    /**
+     * Restore template settings after a bulk load, refresh, and force-merge
+     * when the rebuild was large enough to leave many small segments behind.
+     *
+     * @param documentsIndexed number of documents written during the bulk load
+     */
+    public void endBulkLoad(long documentsIndexed) {
+        if (bulkLoadDepth.updateAndGet(depth -> Math.max(0, depth - 1)) > 0) {
+            return;
+        }
+
+        boolean forceMerge = documentsIndexed >= forceMergeThreshold;
+
+        for (ManagedIndex index : MANAGED_INDICES) {
+            TemplateSettings settings = templateSettings.getOrDefault(index.getName(), TemplateSettings.DEFAULT);
+            updateSettings(index.getName(), settings.getRefreshInterval(), settings.getReplicas());
+
+            try {
+                elasticsearchClient.indices().refresh(r -> r.index(index.getName()));
+                if (forceMerge) {
+                    // Runs as a background task on the cluster, the caller does not wait for it
+                    elasticsearchClient.indices().forcemerge(r -> r
+                            .index(index.getName())
+                            .maxNumSegments(1L)
+                            .waitForCompletion(false));
+                }
+            } catch (Exception e) {
+                log.error("Failed to refresh/force-merge index '{}' after bulk load", index.getName(), e);
+            }
+        }
+
+        log.info("Bulk load finished: {} documents, settings restored{}",
+                documentsIndexed, forceMerge ? ", force-merge started" : "");
+    }
+
+    public boolean isBulkLoadActive() {
+        return bulkLoadDepth.get() > 0;
+    }
+
+    /**
+     * Steady-state refresh interval of an index from its template, 0 when refresh is disabled
+     */
+    public long getRefreshIntervalMillis(String indexName) {
+        String interval = templateSettings.getOrDefault(indexName, TemplateSettings.DEFAULT).getRefreshInterval();
+        return parseTimeValueMillis(interval, 1000);
+    }
+
+    /**
+     * Parse an Elasticsearch time value such as "500ms", "1s" or "2m"
+     */
+    static long parseTimeValueMillis(String value, long defaultMillis) {
+        String trimmed = value == null ? "" : value.trim();
+        if (trimmed.equals("-1")) {
+            return 0;
+        }
+        Matcher matcher = TIME_VALUE.matcher(trimmed);
+        if (!matcher.matches()) {
+            return defaultMillis;
+        }
+
+        long amount = Long.parseLong(matcher.group(1));
+        return switch (matcher.group(2)) {
+            case "ms" -> amount;
+            case "s" -> TimeUnit.SECONDS.toMillis(amount);
+            case "m" -> TimeUnit.MINUTES.toMillis(amount);
+            case "h" -> TimeUnit.HOURS.toMillis(amount);
+            default -> TimeUnit.DAYS.toMillis(amount);
+        };
+    }
+
+    private void updateSettings(String indexName, String refreshInterval, String replicas) {
+        try {
+            elasticsearchClient.indices().putSettings(r -> r
+                    .index(indexName)
+                    .settings(s -> s
+                            .refreshInterval(t -> t.time(refreshInterval))
+                            .numberOfReplicas(replicas)));
+        } catch (Exception e) {
+            log.error("Failed to update settings of index '{}' (refresh_interval={}, replicas={})",
+                    indexName, refreshInterval, replicas, e);
+        }
+    }
+
+    // ==================== STATUS ====================
+
+    /**
+     * Document and segment counts per index (primaries only)
+     */
+    public Map<String, Object> getIndexStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("bulkLoadActive", isBulkLoadActive());
+
+        for (ManagedIndex index : MANAGED_INDICES) {
+            Map<String, Object> indexStatus = new LinkedHashMap<>();
+            try {
+                IndicesStatsResponse response = elasticsearchClient.indices().stats(r -> r.index(index.getName()));
+                IndicesStats stats = response.indices().get(index.getName());
+                if (stats != null && stats.primaries() != null) {
+                    indexStatus.put("documents", stats.primaries().docs() != null ? stats.primaries().docs().count() : 0);
+                    indexStatus.put("segments", stats.primaries().segments() != null ? stats.primaries().segments().count() : 0);
+                }
+            } catch (Exception e) {
+                indexStatus.put("error", e.getMessage());
+            }
+            status.put(index.getName(), indexStatus);
+        }
+        return status;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ManagedIndex {
+        private final String name;
+        private final String resource;
+        private final Class<?> documentClass;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class TemplateSettings {
+        static final TemplateSettings DEFAULT = new TemplateSettings("1s", "1");
+
+        private final String refreshInterval;
+        private final String replicas;
+    }
+}
@@ -0,0 +1,148 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.util.LatencyHistogram;
+import com.globalsearch.util.RollingLatencySeries;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures how long a database change takes to become searchable.
+ *
+ * The lag of a change runs from the commit of its source transaction until it is searchable.
+ * By default the pipeline's bulk request returns at the ack, and the change becomes searchable
+ * within one refresh interval after that, so the index's configured refresh_interval is added
+ * to the measured time: the recorded lag is an upper bound and never under-reports against a
+ * freshness SLO. With wait-for-refresh enabled the request waits for the next refresh
+ * (refresh=wait_for) and the lag is measured exactly, but every consumer is then held to one
+ * batch per refresh interval; it is off by default so that measuring never throttles indexing.
+ * Changes written while a bulk load has refresh switched off are not measured.
+ *
+ * Meters:
+ * - search.indexing.lag (timer): tag entity_type, SLO buckets from management.metrics.distribution.slo.*
+ * - search.indexing.backlog (gauge): changes waiting in the pipeline queue
+ * - search.indexing.oldest.pending (gauge): age of the oldest queued change in milliseconds
+ *
+ * Rolling 24 hour series per entity type back the p50/p95/p99 report.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class IndexingLagMonitor {
+
+    static final String ALL_ENTITY_TYPES = "all";
+
+    private final MeterRegistry meterRegistry;
+    private final IndexManagementService indexManagementService;
+
+    @Value("${elasticsearch.indexing.lag.wait-for-refresh:false}")
+    private boolean waitForRefresh;
+
+    @Value("${elasticsearch.indexing.lag.slo-ms:5000}")
+    private long sloMs;
+
+    private final Map<String, RollingLatencySeries> lagByEntityType = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final RollingLatencySeries overallLag = new RollingLatencySeries(System::currentTimeMillis);
+
+    private LongSupplier backlog = () -> 0;
+    private LongSupplier oldestPendingAge = () -> 0;
+
+    /**
+     * Called by the pipeline on startup, the queue is owned by the pipeline
+     */
+    void bindBacklog(LongSupplier backlog, LongSupplier oldestPendingAge) {
+        this.backlog = backlog;
+        this.oldestPendingAge = oldestPendingAge;
+
+        Gauge.builder("search.indexing.backlog", this, monitor -> monitor.backlog.getAsLong())
+                .description("Index changes waiting in the indexing pipeline queue")
+                .register(meterRegistry);
+        Gauge.builder("search.indexing.oldest.pending", this, monitor -> monitor.oldestPendingAge.getAsLong())
+                .description("Age of the oldest queued index change")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the next bulk request should wait for a refresh, which is only possible
+     * while refresh is enabled
+     */
+    public boolean shouldWaitForRefresh() {
+        return waitForRefresh && !indexManagementService.isBulkLoadActive();
+    }
+
+    /**
+     * Whether lags can be measured right now; during bulk loads writes are not visible
+     */
+    public boolean isMeasuring() {
+        return !indexManagementService.isBulkLoadActive();
+    }
+
+    /**
+     * Record the lag of a change whose bulk request returned at ackedAtMillis; entityType is the index name
+     */
+    public void record(String entityType, IndexChange change, long ackedAtMillis) {
+        long lagMs = Math.max(0, ackedAtMillis - change.getCommittedAtMillis());
+        if (!waitForRefresh) {
+            // Searchable at the latest one refresh after the ack
+            lagMs += indexManagementService.getRefreshIntervalMillis(entityType);
+        }
+
+        overallLag.record(lagMs);
+        lagByEntityType.computeIfAbsent(entityType, type -> new RollingLatencySeries(System::currentTimeMillis))
+                .record(lagMs);
+        timers.computeIfAbsent(entityType, type -> Timer.builder("search.indexing.lag")
+                        .description("Time from database commit until a change is searchable")
+                        .tag("entity_type", type)
+                        .register(meterRegistry))
+                .record(lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lag percentiles per entity type over a window of up to 24 hours, plus the current backlog
+     */
+    public Map<String, Object> getLagStats(Duration window) {
+        long windowSeconds = window.getSeconds();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowSeconds", windowSeconds);
+        stats.put("measuredUntil", waitForRefresh ? "refresh" : "bulk_ack_plus_refresh_interval");
+        stats.put("sloMs", sloMs);
+        stats.put("backlog", backlog.getAsLong());
+        stats.put("oldestPendingMs", oldestPendingAge.getAsLong());
+        stats.put(ALL_ENTITY_TYPES, summarize(overallLag.snapshot(windowSeconds)));
+
+        Map<String, Object> entityTypes = new TreeMap<>();
+        lagByEntityType.forEach((entityType, series) ->
+                entityTypes.put(entityType, summarize(series.snapshot(windowSeconds))));
+        stats.put("entityTypes", entityTypes);
+        return stats;
+    }
+
+    private Map<String, Object> summarize(LatencyHistogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = histogram.getCount();
+        summary.put("count", count);
+        summary.put("p50Ms", histogram.getPercentile(50));
+        summary.put("p95Ms", histogram.getPercentile(95));
+        summary.put("p99Ms", histogram.getPercentile(99));
+        summary.put("maxMs", histogram.getMax());
+        // Within the histogram's bucket precision of 1/64 (about 1.6%)
+        summary.put("belowSloPercent", count == 0 ? 100.0
+                : Math.round(histogram.countBelow(sloMs) * 10000.0 / count) / 100.0);
+        return summary;
+    }
+}
@@ -0,0 +1,306 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.service.profiling.IndexBatchEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queue of index changes drained by a few dedicated consumer threads.
+ *
+ * Producers (the JPA listener via ElasticsearchSyncService) only enqueue. Consumers
+ * collect up to batch-size changes, waiting at most linger-ms for a batch to fill,
+ * keep only the newest change per document and send them as one _bulk request.
+ * Writes carry external versions, so several consumers may run without ordering
+ * guarantees: an older write that arrives late is rejected and counted as stale.
+ * When the queue is full the overflow policy decides between blocking the producer
+ * (up to block-timeout-ms, then spilling), spilling to the dead-letter store right
+ * away, or dropping the change.
+ * Failed writes always go to the dead-letter store.
+ * Successful writes report their commit-to-visibility lag to the IndexingLagMonitor.
+ * Every bulk request is emitted as an IndexBatchEvent while a JFR recording is running.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class IndexingPipeline {
+
+    public enum OverflowPolicy {
+        /** Wait for space up to block-timeout-ms, then spill */
+        BLOCK,
+        /** Drop immediately */
+        DROP,
+        /** Write to the dead-letter store, picked up by its next retry run */
+        SPILL
+    }
+
+    private final BulkIndexWriter bulkIndexWriter;
+    private final DeadLetterService deadLetterService;
+    private final IndexingLagMonitor lagMonitor;
+
+    @Value("${elasticsearch.indexing.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${elasticsearch.indexing.consumers:2}")
+    private int consumerCount;
+
+    @Value("${elasticsearch.indexing.batch-size:500}")
+    private int batchSize;
+
+    @Value("${elasticsearch.indexing.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${elasticsearch.indexing.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${elasticsearch.indexing.block-timeout-ms:5000}")
+    private long blockTimeoutMs;
+
+    private BlockingQueue<IndexChange> queue;
+    private ExecutorService consumers;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder bulkRequests = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        consumers = Executors.newFixedThreadPool(consumerCount, new CustomizableThreadFactory("es-indexer-"));
+        running = true;
+        lagMonitor.bindBacklog(queue::size, this::getOldestPendingAgeMs);
+
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.execute(this::consumeLoop);
+        }
+
+        log.info("Indexing pipeline started with {} consumers, queue capacity: {}, batch size: {}, overflow policy: {}",
+                consumerCount, queueCapacity, batchSize, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        consumers.shutdown();
+        try {
+            if (!consumers.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Indexing pipeline did not drain in time, {} changes not sent", queue.size());
+                consumers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            consumers.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a change for indexing.
+     *
+     * @return false if the queue was full and the change was spilled or dropped
+     */
+    public boolean submit(IndexChange change) {
+        boolean accepted = false;
+
+        if (running) {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                try {
+                    accepted = queue.offer(change, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                accepted = queue.offer(change);
+            }
+        }
+
+        if (accepted) {
+            enqueued.increment();
+        } else {
+            onOverflow(change);
+        }
+        return accepted;
+    }
+
+    private void onOverflow(IndexChange change) {
+        if (overflowPolicy != OverflowPolicy.DROP) {
+            spilled.increment();
+            deadLetterService.spill(change);
+            return;
+        }
+
+        dropped.increment();
+        long total = dropped.sum();
+        // Log the first drop and then every 1000th, the counter carries the rest
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("Indexing queue full ({} pending), dropped {} {} ({} dropped so far)",
+                    queue.size(), change.getOperation(), change.getKey(), total);
+        }
+    }
+
+    // ==================== CONSUMERS ====================
+
+    private void consumeLoop() {
+        List<IndexChange> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                IndexChange first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Indexing consumer failed to flush {} changes", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<IndexChange> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            IndexChange next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    void flush(List<IndexChange> batch) {
+        // Newest version per document wins, e.g. index followed by delete sends only the delete
+        Map<String, IndexChange> latest = new LinkedHashMap<>();
+        for (IndexChange change : batch) {
+            IndexChange current = latest.get(change.getKey());
+            if (current == null || change.supersedes(current)) {
+                latest.remove(change.getKey());
+                latest.put(change.getKey(), change);
+            }
+        }
+        coalesced.add(batch.size() - latest.size());
+
+        List<IndexChange> changes = new ArrayList<>(latest.values());
+        boolean measureLag = lagMonitor.isMeasuring();
+        boolean waitForRefresh = lagMonitor.shouldWaitForRefresh();
+
+        IndexBatchEvent event = new IndexBatchEvent();
+        event.begin();
+        event.source = IndexBatchEvent.PIPELINE;
+        event.batchSize = batch.size();
+        event.sent = changes.size();
+        event.waitForRefresh = waitForRefresh;
+
+        List<BulkIndexWriter.Outcome> outcomes;
+        long ackedAtMillis;
+        try {
+            outcomes = bulkIndexWriter.write(changes, waitForRefresh);
+            ackedAtMillis = System.currentTimeMillis();
+            bulkRequests.increment();
+        } catch (Exception e) {
+            log.error("Bulk request with {} changes failed, moving them to the dead-letter store", changes.size(), e);
+            failed.add(changes.size());
+            deadLetterService.recordAll(changes, e.getMessage());
+            event.failed = changes.size();
+            event.commit();
+            return;
+        }
+        event.end();
+
+        List<IndexChange> failedChanges = new ArrayList<>();
+        String lastError = null;
+        for (int i = 0; i < outcomes.size(); i++) {
+            BulkIndexWriter.Outcome outcome = outcomes.get(i);
+            IndexChange change = changes.get(i);
+
+            if (outcome.isStale()) {
+                // Elasticsearch already holds a newer version of this document
+                stale.increment();
+            } else if (!outcome.isSuccess()) {
+                log.error("Failed to {} {} in Elasticsearch: {}", change.getOperation(), change.getKey(), outcome.getError());
+                failedChanges.add(change);
+                lastError = outcome.getError();
+            } else {
+                if (change.getOperation() == IndexChange.Operation.DELETE) {
+                    deleted.increment();
+                } else {
+                    indexed.increment();
+                }
+                if (measureLag) {
+                    lagMonitor.record(bulkIndexWriter.indexName(change.getDocumentClass()), change, ackedAtMillis);
+                }
+            }
+        }
+
+        if (!failedChanges.isEmpty()) {
+            failed.add(failedChanges.size());
+            deadLetterService.recordAll(failedChanges, lastError);
+        }
+
+        event.failed = failedChanges.size();
+        event.commit();
+    }
+
+    // ==================== STATS ====================
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Time since the commit of the change at the head of the queue, 0 when the queue is empty
+     */
+    public long getOldestPendingAgeMs() {
+        IndexChange oldest = queue.peek();
+        return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getCommittedAtMillis());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueSize", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("oldestPendingMs", getOldestPendingAgeMs());
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("consumers", consumerCount);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("spilled", spilled.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("indexed", indexed.sum());
+        stats.put("deleted", deleted.sum());
+        stats.put("failed", failed.sum());
+        stats.put("stale", stale.sum());
+        stats.put("bulkRequests", bulkRequests.sum());
+        return stats;
+    }
+}
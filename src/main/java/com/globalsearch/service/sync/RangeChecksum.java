@@ -0,0 +1,55 @@
+package com.globalsearch.service.sync;
+
+import lombok.Getter;
+
+/**
+ * Order-independent checksum over (id, syncVersion) pairs of one id range.
+ *
+ * Each row contributes (id * 31 + version) mod a prime, and contributions are summed.
+ * The same expression is evaluated by a painless script in a sum aggregation on the
+ * Elasticsearch side, so a range can be compared without fetching any documents.
+ * Contributions stay below 2^30, which keeps the aggregated double exact for any
+ * realistic range size.
+ */
+@Getter
+public class RangeChecksum {
+
+    static final long MODULUS = 1_000_000_007L;
+
+    /**
+     * Painless equivalent of {@link #contribution(long, Long)}
+     */
+    static final String PAINLESS_SCRIPT =
+            "long v = doc['syncVersion'].size() == 0 ? 0L : doc['syncVersion'].value; " +
+            "return (doc['id'].value * 31L + v) % " + MODULUS + "L;";
+
+    private long count;
+    private long sum;
+
+    public RangeChecksum() {
+    }
+
+    public RangeChecksum(long count, long sum) {
+        this.count = count;
+        this.sum = sum;
+    }
+
+    public void add(long id, Long version) {
+        count++;
+        sum += contribution(id, version);
+    }
+
+    static long contribution(long id, Long version) {
+        long v = version != null ? version : 0L;
+        return (id * 31L + v) % MODULUS;
+    }
+
+    public boolean matches(RangeChecksum other) {
+        return other != null && count == other.count && sum == other.sum;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeChecksum{count=" + count + ", sum=" + sum + "}";
+    }
+}
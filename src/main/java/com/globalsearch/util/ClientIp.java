@@ -0,0 +1,20 @@
+package com.globalsearch.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Client address of a request, for rate limits, login lockouts and audit logs.
+ *
+ * Forwarded headers are not read here: any client can send them. Addresses forwarded by
+ * trusted proxies are resolved into the remote address by the server
+ * (server.forward-headers-strategy), which ignores the headers from anyone else.
+ */
+public final class ClientIp {
+
+    private ClientIp() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
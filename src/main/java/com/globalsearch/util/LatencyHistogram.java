@@ -0,0 +1,169 @@
+package com.globalsearch.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size log-linear latency histogram (HdrHistogram-style) for millisecond values.
+ *
+ * Values below 128 ms get a bucket each, above that every power of two is split into
+ * 64 buckets, so a value is reported within 1/64 (about 1.6%) of its true value.
+ * 100, 500, 1000 and 2000 ms all fall on bucket boundaries, which keeps the SLA bucket
+ * counts exact. Values above MAX_TRACKABLE_VALUE (about 4.6 hours) land in the last bucket.
+ *
+ * Recording is a few atomic increments and never allocates; percentiles walk the fixed
+ * bucket array, so their cost does not depend on how many values were recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    public static final long MAX_TRACKABLE_VALUE = (1L << 24) - 1;
+    static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final LongAccumulator minValue = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    public void record(long valueMs) {
+        long value = Math.max(0, valueMs);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalSum.add(value);
+        minValue.accumulate(value);
+        maxValue.accumulate(value);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getSum() {
+        return totalSum.sum();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : minValue.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public long getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : getSum() / count;
+    }
+
+    /**
+     * Nearest-rank percentile, reported as the upper bound of the bucket it falls in
+     *
+     * @param percentile 0-100
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Number of recorded values below the given value, exact when it is a bucket boundary
+     */
+    public long countBelow(long valueMs) {
+        int limit = indexOf(Math.max(0, valueMs));
+        long count = 0;
+        for (int i = 0; i < limit; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Add all values of this histogram to another one
+     */
+    public void addTo(LatencyHistogram target) {
+        if (getCount() == 0) {
+            return;
+        }
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                target.addAt(i, count);
+            }
+        }
+        target.addTotals(totalCount.sum(), totalSum.sum(), minValue.get(), maxValue.get());
+    }
+
+    long countAt(int index) {
+        return counts.get(index);
+    }
+
+    void addAt(int index, long count) {
+        counts.addAndGet(index, count);
+    }
+
+    void addTotals(long count, long sum, long min, long max) {
+        totalCount.add(count);
+        totalSum.add(sum);
+        minValue.accumulate(min);
+        maxValue.accumulate(max);
+    }
+
+    /**
+     * Clear all values. Not atomic with respect to concurrent record calls.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalSum.reset();
+        minValue.reset();
+        maxValue.reset();
+    }
+
+    static int indexOf(long value) {
+        long clamped = Math.min(value, MAX_TRACKABLE_VALUE);
+        if (clamped < SUB_BUCKET_COUNT) {
+            return (int) clamped;
+        }
+        // Shift so the top SUB_BUCKET_BITS bits remain, i.e. a sub-bucket in [64, 127]
+        int msb = 63 - Long.numberOfLeadingZeros(clamped);
+        int shift = msb - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT
+                + (int) ((clamped >>> shift) - SUB_BUCKET_HALF_COUNT);
+    }
+
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return subBucket << shift;
+    }
+
+    static long highestValueAt(int index) {
+        return lowestValueAt(index + 1) - 1;
+    }
+}
@@ -0,0 +1,397 @@
+package com.globalsearch.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency time series covering the last 24 hours in bounded memory.
+ *
+ * Values are recorded into a live LatencyHistogram for the current second. Finished
+ * seconds are frozen into compact (sparse) slots; every full minute of second slots is
+ * rolled up into a minute slot, and every full hour of minute slots into an hour slot.
+ * Each tier is a ring (60 seconds, 60 minutes, 24 hours), so memory does not grow with
+ * traffic.
+ *
+ * A window query merges the coarsest slots that fit in the window: windows up to a minute
+ * have one-second resolution, up to an hour one-minute resolution, and one-hour
+ * resolution beyond that. The oldest minute or hour of a window that does not start on a
+ * boundary lies only partly inside it; once the finer ring no longer holds its seconds or
+ * minutes, that slot is counted in proportion to its overlap with the window.
+ */
+public class RollingLatencySeries {
+
+    public static final long MAX_WINDOW_SECONDS = TimeUnit.HOURS.toSeconds(24);
+
+    private static final int SECOND_SLOTS = 60;
+    private static final int MINUTE_SLOTS = 60;
+    private static final int HOUR_SLOTS = 24;
+
+    private final LongSupplier clock;
+
+    private final Slot[] seconds = new Slot[SECOND_SLOTS];
+    private final Slot[] minutes = new Slot[MINUTE_SLOTS];
+    private final Slot[] hours = new Slot[HOUR_SLOTS];
+
+    // The second before the current one stays live for one more second, so a recorder
+    // that picked it up just before the rollover does not lose its value
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private volatile long currentSecond;
+    private LatencyHistogram previous = new LatencyHistogram();
+    private long previousSecond = -1;
+    private final LatencyHistogram scratch = new LatencyHistogram();
+
+    private long frozenThroughSecond;
+    private long lastStoredSecond = Long.MIN_VALUE / 2;
+    private long rolledThroughMinute;
+    private long rolledThroughHour;
+
+    /**
+     * @param clock epoch milliseconds
+     */
+    public RollingLatencySeries(LongSupplier clock) {
+        this.clock = clock;
+        this.currentSecond = nowSecond();
+        this.frozenThroughSecond = currentSecond - 1;
+        this.rolledThroughMinute = Math.floorDiv(currentSecond, 60) - 1;
+        this.rolledThroughHour = Math.floorDiv(currentSecond, 3600) - 1;
+    }
+
+    public void record(long valueMs) {
+        long second = nowSecond();
+        if (second != currentSecond) {
+            advance(second);
+        }
+        current.record(valueMs);
+    }
+
+    /**
+     * Merge the values recorded within the given window (capped at 24 hours) into a new histogram
+     */
+    public LatencyHistogram snapshot(long windowSeconds) {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        visitWindow(windowSeconds, new WindowVisitor() {
+            @Override
+            public void slot(Slot slot, long part, long span) {
+                slot.addTo(snapshot, part, span);
+            }
+
+            @Override
+            public void live(LatencyHistogram histogram) {
+                histogram.addTo(snapshot);
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Count, sum and number of values below thresholdMs within the window, without
+     * allocating a histogram. Exact when thresholdMs is a bucket boundary (see LatencyHistogram).
+     */
+    public WindowSummary summarize(long windowSeconds, long thresholdMs) {
+        WindowSummary summary = new WindowSummary();
+        int limitIndex = LatencyHistogram.indexOf(Math.max(0, thresholdMs));
+        visitWindow(windowSeconds, new WindowVisitor() {
+            @Override
+            public void slot(Slot slot, long part, long span) {
+                summary.add(scale(slot.count, part, span), scale(slot.sum, part, span),
+                        scale(slot.countBelow(limitIndex), part, span));
+            }
+
+            @Override
+            public void live(LatencyHistogram histogram) {
+                summary.add(histogram.getCount(), histogram.getSum(), histogram.countBelow(thresholdMs));
+            }
+        });
+        return summary;
+    }
+
+    private void visitWindow(long windowSeconds, WindowVisitor visitor) {
+        long window = Math.min(Math.max(1, windowSeconds), MAX_WINDOW_SECONDS);
+
+        synchronized (this) {
+            long now = nowSecond();
+            advance(now);
+            long start = now - window + 1;
+            long firstHour = Math.floorDiv(start + 3599, 3600);
+            // Oldest second and minute the rings still hold; older slots left in them are stale
+            long firstSecond = frozenThroughSecond - SECOND_SLOTS + 1;
+            long firstMinute = rolledThroughMinute - MINUTE_SLOTS + 1;
+
+            // Each slot counts once, at the coarsest tier that lies completely inside the window
+            for (Slot slot : hours) {
+                if (slot != null && slot.epoch >= firstHour && slot.epoch <= rolledThroughHour) {
+                    visitor.slot(slot, 1, 1);
+                }
+            }
+            for (Slot slot : minutes) {
+                if (slot != null && slot.epoch * 60 >= start && slot.epoch >= firstMinute
+                        && slot.epoch <= rolledThroughMinute && !inCountedHour(slot.epoch * 60, firstHour)) {
+                    visitor.slot(slot, 1, 1);
+                }
+            }
+            for (Slot slot : seconds) {
+                if (slot != null && slot.epoch >= start && slot.epoch >= firstSecond
+                        && slot.epoch <= frozenThroughSecond
+                        && !inCountedMinute(slot.epoch, start) && !inCountedHour(slot.epoch, firstHour)) {
+                    visitor.slot(slot, 1, 1);
+                }
+            }
+
+            // The partial minute and hour at the start of the window, for the seconds that
+            // no finer slot still covers
+            long edgeMinute = Math.floorDiv(start, 60);
+            if (Math.floorMod(start, 60) != 0 && edgeMinute >= firstMinute) {
+                visitEdge(minutes, edgeMinute, start, Math.min(edgeMinute * 60 + 59, firstSecond - 1), 60, visitor);
+            }
+            long edgeHour = Math.floorDiv(start, 3600);
+            if (Math.floorMod(start, 3600) != 0) {
+                visitEdge(hours, edgeHour, start, Math.min(edgeHour * 3600 + 3599, firstMinute * 60 - 1), 3600, visitor);
+            }
+
+            if (previousSecond >= start) {
+                visitor.live(previous);
+            }
+            visitor.live(current);
+        }
+    }
+
+    private static void visitEdge(Slot[] ring, long epoch, long from, long to, long span, WindowVisitor visitor) {
+        Slot slot = ring[(int) Math.floorMod(epoch, ring.length)];
+        if (to >= from && slot != null && slot.epoch == epoch) {
+            visitor.slot(slot, to - from + 1, span);
+        }
+    }
+
+    /**
+     * value * part / span, rounded
+     */
+    private static long scale(long value, long part, long span) {
+        return part == span ? value : Math.round((double) value * part / span);
+    }
+
+    private boolean inCountedHour(long second, long firstHour) {
+        long hour = Math.floorDiv(second, 3600);
+        return hour >= firstHour && hour <= rolledThroughHour;
+    }
+
+    private boolean inCountedMinute(long second, long start) {
+        long minute = Math.floorDiv(second, 60);
+        return minute * 60 >= start && minute <= rolledThroughMinute;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(seconds, null);
+        Arrays.fill(minutes, null);
+        Arrays.fill(hours, null);
+        current.reset();
+        previous.reset();
+    }
+
+    // ==================== ROLLOVER ====================
+
+    private synchronized void advance(long second) {
+        if (second <= currentSecond) {
+            return;
+        }
+
+        if (previousSecond >= 0) {
+            freeze(previous, previousSecond);
+        }
+        if (second == currentSecond + 1) {
+            LatencyHistogram reused = previous;
+            previous = current;
+            previousSecond = currentSecond;
+            current = reused;
+        } else {
+            // Idle gap, nothing can still be recording into the current second
+            freeze(current, currentSecond);
+            previousSecond = -1;
+        }
+        // Publish the new second only after the histogram for it is in place
+        currentSecond = second;
+        frozenThroughSecond = (previousSecond >= 0 ? previousSecond : second) - 1;
+
+        rollUp();
+    }
+
+    private void freeze(LatencyHistogram histogram, long second) {
+        if (histogram.getCount() > 0) {
+            seconds[(int) Math.floorMod(second, SECOND_SLOTS)] = Slot.of(second, histogram);
+            lastStoredSecond = second;
+        }
+        histogram.reset();
+    }
+
+    private void rollUp() {
+        long lastCompleteMinute = Math.floorDiv(frozenThroughSecond + 1, 60) - 1;
+        // After a long idle gap only the last day can still hold data
+        long fromMinute = Math.max(rolledThroughMinute + 1, lastCompleteMinute - (HOUR_SLOTS + 1) * 60L);
+
+        for (long minute = fromMinute; minute <= lastCompleteMinute; minute++) {
+            // Skip the merge for minutes whose seconds have already left the ring
+            boolean inSecondRing = minute * 60 + 59 > lastStoredSecond - SECOND_SLOTS;
+            if (inSecondRing && merge(seconds, minute * 60, minute * 60 + 59)) {
+                minutes[(int) Math.floorMod(minute, MINUTE_SLOTS)] = Slot.of(minute, scratch);
+            }
+            // Roll the hour before the next hour's minutes overwrite its slots
+            if (Math.floorMod(minute + 1, 60) == 0) {
+                long hour = Math.floorDiv(minute, 60);
+                if (hour > rolledThroughHour && merge(minutes, hour * 60, hour * 60 + 59)) {
+                    hours[(int) Math.floorMod(hour, HOUR_SLOTS)] = Slot.of(hour, scratch);
+                }
+                rolledThroughHour = Math.max(rolledThroughHour, hour);
+            }
+        }
+        rolledThroughMinute = Math.max(rolledThroughMinute, lastCompleteMinute);
+        rolledThroughHour = Math.max(rolledThroughHour, Math.floorDiv(rolledThroughMinute + 1, 60) - 1);
+    }
+
+    /**
+     * Merge the slots with an epoch in [from, to] into the scratch histogram
+     *
+     * @return whether any value was merged
+     */
+    private boolean merge(Slot[] ring, long from, long to) {
+        scratch.reset();
+        addRange(scratch, ring, from, to);
+        return scratch.getCount() > 0;
+    }
+
+    private void addRange(LatencyHistogram target, Slot[] ring, long from, long to) {
+        for (Slot slot : ring) {
+            if (slot != null && slot.epoch >= from && slot.epoch <= to) {
+                slot.addTo(target);
+            }
+        }
+    }
+
+    private long nowSecond() {
+        return Math.floorDiv(clock.getAsLong(), 1000);
+    }
+
+    /**
+     * Immutable sparse copy of a histogram, only non-empty buckets are kept
+     */
+    private static final class Slot {
+
+        private final long epoch;
+        private final int[] indexes;
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        private Slot(long epoch, int[] indexes, long[] counts, LatencyHistogram source) {
+            this.epoch = epoch;
+            this.indexes = indexes;
+            this.counts = counts;
+            this.count = source.getCount();
+            this.sum = source.getSum();
+            this.min = source.getMin();
+            this.max = source.getMax();
+        }
+
+        static Slot of(long epoch, LatencyHistogram source) {
+            int used = 0;
+            for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+                if (source.countAt(i) > 0) {
+                    used++;
+                }
+            }
+
+            int[] indexes = new int[used];
+            long[] counts = new long[used];
+            int next = 0;
+            for (int i = 0; i < LatencyHistogram.BUCKET_COUNT && next < used; i++) {
+                long bucketCount = source.countAt(i);
+                if (bucketCount > 0) {
+                    indexes[next] = i;
+                    counts[next] = bucketCount;
+                    next++;
+                }
+            }
+            return new Slot(epoch, indexes, counts, source);
+        }
+
+        void addTo(LatencyHistogram target) {
+            for (int i = 0; i < indexes.length; i++) {
+                target.addAt(indexes[i], counts[i]);
+            }
+            target.addTotals(count, sum, min, max);
+        }
+
+        /**
+         * Add the share part/span of the values, for a slot partly inside a window
+         */
+        void addTo(LatencyHistogram target, long part, long span) {
+            if (part == span) {
+                addTo(target);
+                return;
+            }
+            long scaledCount = 0;
+            for (int i = 0; i < indexes.length; i++) {
+                long scaled = scale(counts[i], part, span);
+                target.addAt(indexes[i], scaled);
+                scaledCount += scaled;
+            }
+            if (scaledCount > 0) {
+                target.addTotals(scaledCount, scale(sum, part, span), min, max);
+            }
+        }
+
+        long countBelow(int limitIndex) {
+            long below = 0;
+            // Indexes are ascending
+            for (int i = 0; i < indexes.length && indexes[i] < limitIndex; i++) {
+                below += counts[i];
+            }
+            return below;
+        }
+    }
+
+    private interface WindowVisitor {
+        /**
+         * A slot of which the share part/span lies inside the window
+         */
+        void slot(Slot slot, long part, long span);
+
+        void live(LatencyHistogram histogram);
+    }
+
+    /**
+     * Totals of a window, see summarize
+     */
+    public static final class WindowSummary {
+
+        private long count;
+        private long sum;
+        private long below;
+
+        private void add(long count, long sum, long below) {
+            this.count += count;
+            this.sum += sum;
+            this.below += below;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Number of values below the threshold passed to summarize
+         */
+        public long getBelow() {
+            return below;
+        }
+
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+    }
+}
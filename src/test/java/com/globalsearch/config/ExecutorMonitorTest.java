@@ -0,0 +1,111 @@
+package com.globalsearch.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExecutorMonitor
+ */
+class ExecutorMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorMonitor executorMonitor;
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executorMonitor = new ExecutorMonitor(meterRegistry);
+        ReflectionTestUtils.setField(executorMonitor, "saturationThreshold", 0.8);
+        ReflectionTestUtils.setField(executorMonitor, "warnIntervalMs", 60_000L);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(2);
+        executor.setRejectedExecutionHandler(executorMonitor.countRejections(
+                "testExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.setTaskDecorator(executorMonitor.taskDecorator("testExecutor"));
+        executor.initialize();
+        executorMonitor.register("testExecutor", executor.getThreadPoolExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should time waiting and execution of every task")
+    void testTaskTimers() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute(done::countDown);
+        executor.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.getThreadPoolExecutor().shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(2, meterRegistry.get("executor.task.wait").tag("name", "testExecutor").timer().count());
+        Timer execution = meterRegistry.get("executor.task.execution").tag("name", "testExecutor").timer();
+        assertEquals(2, execution.count());
+        assertEquals(1, meterRegistry.find("executor.task.execution").timers().size());
+        assertNotNull(meterRegistry.find("executor.active").tag("name", "testExecutor").gauge());
+    }
+
+    @Test
+    @DisplayName("Should count rejections, report saturation and the queued task types")
+    @SuppressWarnings("unchecked")
+    void testRejectionAndSaturation() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executor.execute(() -> { });
+        executor.execute(() -> { });
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+
+        assertEquals(1, meterRegistry.get("executor.rejected").tag("name", "testExecutor").counter().count());
+
+        Map<String, Object> stats = (Map<String, Object>) executorMonitor.getStats().get("testExecutor");
+        assertEquals(true, stats.get("saturated"));
+        assertEquals(2, stats.get("queued"));
+        // Only tasks that had to wait resolve their type, the first one started right away
+        assertEquals(Map.of("ExecutorMonitorTest.testRejectionAndSaturation", 2L), stats.get("topQueuedTaskTypes"));
+
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should strip packages and CGLIB proxy suffixes from task types")
+    void testSimpleClassName() {
+        assertEquals("AuditLogService",
+                ExecutorMonitor.simpleClassName("com.globalsearch.service.AuditLogService$$SpringCGLIB$$0"));
+        assertEquals("NotificationService", ExecutorMonitor.simpleClassName("com.globalsearch.service.NotificationService"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.globalsearch.controller;
+
+import com.globalsearch.dto.response.UserResponse;
+import com.globalsearch.entity.User;
+import com.globalsearch.service.UserService;
+import com.globalsearch.service.auth.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the forced sign-out of UserController
+ */
+class UserControllerTest {
+
+    private UserService userService;
+    private TokenRevocationService tokenRevocationService;
+    private UserController controller;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        tokenRevocationService = mock(TokenRevocationService.class);
+        controller = new UserController(userService, tokenRevocationService);
+    }
+
+    private static User caller(String tenantId, User.Role role) {
+        return User.builder()
+                .id(100L)
+                .username("caller")
+                .tenantId(tenantId)
+                .roles(Set.of(role))
+                .build();
+    }
+
+    private void target(String tenantId, User.Role role) {
+        when(userService.getUserById(1L)).thenReturn(UserResponse.builder()
+                .id(1L)
+                .username("target")
+                .tenantId(tenantId)
+                .roles(Set.of(role))
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should let a tenant admin sign out a user of its own tenant")
+    void testSignOutSameTenant() {
+        target("TENANT_A", User.Role.VIEWER);
+
+        ResponseEntity<?> response = controller.signOutUser(1L, caller("TENANT_A", User.Role.TENANT_ADMIN));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocationService).revokeUser("target");
+    }
+
+    @Test
+    @DisplayName("Should forbid a tenant admin to sign out a user of another tenant")
+    void testSignOutOtherTenant() {
+        target("TENANT_B", User.Role.VIEWER);
+
+        ResponseEntity<?> response = controller.signOutUser(1L, caller("TENANT_A", User.Role.TENANT_ADMIN));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(tokenRevocationService, never()).revokeUser(anyString());
+    }
+
+    @Test
+    @DisplayName("Should forbid a tenant admin to sign out a super admin")
+    void testSignOutSuperAdmin() {
+        target("TENANT_A", User.Role.SUPER_ADMIN);
+
+        ResponseEntity<?> response = controller.signOutUser(1L, caller("TENANT_A", User.Role.TENANT_ADMIN));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(tokenRevocationService, never()).revokeUser(anyString());
+    }
+
+    @Test
+    @DisplayName("Should let a super admin sign out a user of any tenant")
+    void testSignOutBySuperAdmin() {
+        target("TENANT_B", User.Role.TENANT_ADMIN);
+
+        ResponseEntity<?> response = controller.signOutUser(1L, caller("SYSTEM", User.Role.SUPER_ADMIN));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocationService).revokeUser("target");
+    }
+}
@@ -0,0 +1,132 @@
+package com.globalsearch.controller.auth;
+
+import com.globalsearch.dto.request.LoginRequest;
+import com.globalsearch.repository.CompanyRepository;
+import com.globalsearch.security.JwtTokenProvider;
+import com.globalsearch.service.AuditLogService;
+import com.globalsearch.service.LoginAttemptService;
+import com.globalsearch.service.auth.CustomUserDetailsService;
+import com.globalsearch.service.auth.PasswordAuthenticationService;
+import com.globalsearch.service.auth.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuthController's hand-off of logins to the auth executor
+ */
+class AuthControllerLoginExecutorTest {
+
+    private PasswordAuthenticationService passwordAuthenticationService;
+    private CustomUserDetailsService userDetailsService;
+    private LoginAttemptService loginAttemptService;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() {
+        passwordAuthenticationService = mock(PasswordAuthenticationService.class);
+        userDetailsService = mock(CustomUserDetailsService.class);
+        loginAttemptService = new LoginAttemptService();
+        controller = new AuthController(mock(JwtTokenProvider.class), userDetailsService,
+                mock(CompanyRepository.class), mock(AuditLogService.class), loginAttemptService,
+                mock(TokenRevocationService.class), passwordAuthenticationService);
+        ReflectionTestUtils.setField(controller, "loginRetryAfterSeconds", 2L);
+    }
+
+    private static LoginRequest loginRequest() {
+        return LoginRequest.builder().username("alice").password("secret").build();
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the auth executor is saturated")
+    void testRejectedWhenSaturated() {
+        when(passwordAuthenticationService.authenticate(anyString(), anyString()))
+                .thenThrow(new TaskRejectedException("auth executor queue full"));
+
+        CompletableFuture<ResponseEntity<?>> future = controller.login(loginRequest(), new MockHttpServletRequest());
+
+        assertTrue(future.isDone());
+        ResponseEntity<?> response = future.join();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too many login requests", ((Map<?, ?>) response.getBody()).get("error"));
+    }
+
+    @Test
+    @DisplayName("Should complete the response only when the password check completes")
+    void testCompletesAfterAuthentication() {
+        CompletableFuture<Authentication> authentication = new CompletableFuture<>();
+        when(passwordAuthenticationService.authenticate("alice", "secret")).thenReturn(authentication);
+
+        CompletableFuture<ResponseEntity<?>> future = controller.login(loginRequest(), new MockHttpServletRequest());
+        assertFalse(future.isDone());
+
+        authentication.completeExceptionally(new CompletionException(new BadCredentialsException("Bad credentials")));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, future.join().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should answer 500 when authentication fails unexpectedly")
+    void testUnexpectedFailure() {
+        when(passwordAuthenticationService.authenticate("alice", "secret"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("database down")));
+
+        ResponseEntity<?> response = controller.login(loginRequest(), new MockHttpServletRequest()).join();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("database down", ((Map<?, ?>) response.getBody()).get("message"));
+    }
+
+    @Test
+    @DisplayName("Should reject locked accounts and blocked IPs without checking the password")
+    void testLockoutBeforePasswordCheck() {
+        for (int i = 0; i < 5; i++) {
+            loginAttemptService.loginFailed("alice", "10.0.0.9");
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.login(loginRequest(), request).join().getStatusCode());
+
+        for (int i = 0; i < 45; i++) {
+            loginAttemptService.loginFailed("user" + i, "10.0.0.9");
+        }
+        request.setRemoteAddr("10.0.0.9");
+        ResponseEntity<?> response = controller.login(
+                LoginRequest.builder().username("bob").password("secret").build(), request).join();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(passwordAuthenticationService);
+    }
+
+    @Test
+    @DisplayName("Should record failed passwords against the username and client IP")
+    void testRecordsFailure() {
+        when(passwordAuthenticationService.authenticate("alice", "secret"))
+                .thenReturn(CompletableFuture.failedFuture(new BadCredentialsException("Bad credentials")));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.5");
+
+        controller.login(loginRequest(), request).join();
+
+        assertEquals(1, loginAttemptService.getFailedAttempts("alice"));
+        assertEquals(1, loginAttemptService.getIpFailedAttempts("10.0.0.5"));
+    }
+}
@@ -94,9 +94,7 @@ class AuthControllerTest {
                 .password("password123")
                 .build();
 
-        MvcResult result = mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        MvcResult result = mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").exists())
                 .andExpect(jsonPath("$.refreshToken").exists())
@@ -122,9 +120,7 @@ class AuthControllerTest {
                 .password("wrongpassword")
                 .build();
 
-        mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.error").value("Invalid credentials"));
     }
@@ -136,9 +132,7 @@ class AuthControllerTest {
                 .password("password123")
                 .build();
 
-        mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andExpect(status().isUnauthorized());
     }
 
@@ -150,9 +144,7 @@ class AuthControllerTest {
                 .password("password123")
                 .build();
 
-        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        MvcResult loginResult = mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andReturn();
 
         LoginResponse loginResponse = objectMapper.readValue(
@@ -183,9 +175,7 @@ class AuthControllerTest {
                 .password("password123")
                 .build();
 
-        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        MvcResult loginResult = mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andReturn();
 
         LoginResponse loginResponse = objectMapper.readValue(
@@ -210,9 +200,7 @@ class AuthControllerTest {
                 .password("password123")
                 .build();
 
-        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        MvcResult loginResult = mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andReturn();
 
         LoginResponse loginResponse = objectMapper.readValue(
@@ -226,4 +214,13 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Logged out successfully"));
     }
+
+    private MvcResult login(LoginRequest loginRequest) throws Exception {
+        // Login completes asynchronously; asyncDispatch renders its response
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
 }
@@ -154,9 +154,7 @@ class GlobalSearchControllerTest {
                 .password(password)
                 .build();
 
-        MvcResult result = mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        MvcResult result = mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andReturn();
 
         LoginResponse response = objectMapper.readValue(
@@ -275,4 +273,13 @@ class GlobalSearchControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results").isArray());
     }
+
+    private MvcResult login(LoginRequest loginRequest) throws Exception {
+        // Login completes asynchronously; asyncDispatch renders its response
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
 }
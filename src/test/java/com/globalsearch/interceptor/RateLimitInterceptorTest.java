@@ -0,0 +1,169 @@
+package com.globalsearch.interceptor;
+
+import com.globalsearch.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimitInterceptor
+ */
+class RateLimitInterceptorTest {
+
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new RateLimitInterceptor();
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        ReflectionTestUtils.setField(interceptor, "ipCapacity", 3);
+        ReflectionTestUtils.setField(interceptor, "ipRefillPerMinute", 1);
+        ReflectionTestUtils.setField(interceptor, "userCapacity", 3);
+        ReflectionTestUtils.setField(interceptor, "userRefillPerMinute", 1);
+        ReflectionTestUtils.setField(interceptor, "tenantCapacity", 5);
+        ReflectionTestUtils.setField(interceptor, "tenantRefillPerMinute", 1);
+        ReflectionTestUtils.setField(interceptor, "tenantOverrides", "BIG=100/100");
+        ReflectionTestUtils.setField(interceptor, "userOverrides", "");
+        ReflectionTestUtils.setField(interceptor, "endpointCosts", "/api/search=3, /api/search/suggest=1");
+        ReflectionTestUtils.setField(interceptor, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(interceptor, "idleExpiryMinutes", 10L);
+        interceptor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse call(String uri, String clientIp) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(clientIp);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean allowed = interceptor.preHandle(request, response, null);
+        assertEquals(allowed, response.getStatus() == 200);
+        return response;
+    }
+
+    private static void authenticate(String username, String tenantId) {
+        User user = User.builder().id(1L).username(username).tenantId(tenantId).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+    }
+
+    @Test
+    @DisplayName("Should limit anonymous requests per client IP and answer 429 with Retry-After")
+    void testIpLimit() throws Exception {
+        for (int i = 2; i >= 0; i--) {
+            MockHttpServletResponse response = call("/api/companies", "10.0.0.1");
+            assertEquals("3", response.getHeader("X-RateLimit-Limit"));
+            assertEquals(String.valueOf(i), response.getHeader("X-RateLimit-Remaining"));
+        }
+
+        MockHttpServletResponse rejected = call("/api/companies", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Rate limit exceeded"));
+
+        // Another client has its own bucket
+        assertEquals(200, call("/api/companies", "10.0.0.2").getStatus());
+
+        // A forwarded address sent by the client does not pick another bucket
+        MockHttpServletRequest spoofed = new MockHttpServletRequest("GET", "/api/companies");
+        spoofed.setRemoteAddr("10.0.0.1");
+        spoofed.addHeader("X-Forwarded-For", "10.0.0.9");
+        assertFalse(interceptor.preHandle(spoofed, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    @DisplayName("Should limit authenticated users separately even behind one IP")
+    void testUserLimit() throws Exception {
+        authenticate("alice", "BIG");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("/api/companies", "10.0.0.1").getStatus());
+        }
+        assertEquals(429, call("/api/companies", "10.0.0.1").getStatus());
+
+        authenticate("bob", "BIG");
+        assertEquals(200, call("/api/companies", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should share the tenant's bucket between its users")
+    void testTenantLimit() throws Exception {
+        authenticate("alice", "SMALL");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("/api/companies", "10.0.0.1").getStatus());
+        }
+        authenticate("bob", "SMALL");
+        assertEquals(200, call("/api/companies", "10.0.0.2").getStatus());
+        assertEquals(200, call("/api/companies", "10.0.0.2").getStatus());
+        // Bob has tokens left, the tenant does not
+        assertEquals(429, call("/api/companies", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not charge the user for a request its tenant rejects")
+    void testTenantRejectKeepsUserTokens() throws Exception {
+        authenticate("alice", "SMALL");
+        assertEquals(200, call("/api/companies", "10.0.0.1").getStatus());
+        authenticate("bob", "SMALL");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("/api/companies", "10.0.0.2").getStatus());
+        }
+        authenticate("alice", "SMALL");
+        assertEquals(200, call("/api/companies", "10.0.0.1").getStatus());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(429, call("/api/companies", "10.0.0.1").getStatus());
+        }
+
+        // Alice's own bucket still holds its last token
+        authenticate("alice", "BIG");
+        assertEquals(200, call("/api/companies", "10.0.0.1").getStatus());
+        assertEquals(429, call("/api/companies", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should charge each endpoint by its longest matching prefix")
+    void testEndpointCosts() throws Exception {
+        assertEquals(3, interceptor.costOf("/api/search"));
+        assertEquals(1, interceptor.costOf("/api/search/suggest"));
+        assertEquals(1, interceptor.costOf("/api/companies"));
+
+        assertEquals("0", call("/api/search", "10.0.0.1").getHeader("X-RateLimit-Remaining"));
+        assertEquals(429, call("/api/search/suggest", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should allow every request when disabled")
+    void testDisabled() throws Exception {
+        ReflectionTestUtils.setField(interceptor, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, call("/api/search", "10.0.0.1").getStatus());
+        }
+        assertEquals(0, interceptor.size());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed overrides and endpoint costs")
+    void testInvalidSettings() {
+        ReflectionTestUtils.setField(interceptor, "tenantOverrides", "BIG=100");
+        assertThrows(IllegalArgumentException.class, () -> interceptor.init());
+
+        ReflectionTestUtils.setField(interceptor, "tenantOverrides", "");
+        ReflectionTestUtils.setField(interceptor, "endpointCosts", "/api/search=zero");
+        assertThrows(IllegalArgumentException.class, () -> interceptor.init());
+
+        ReflectionTestUtils.setField(interceptor, "endpointCosts", "/api/search=0");
+        assertThrows(IllegalArgumentException.class, () -> interceptor.init());
+    }
+}
@@ -0,0 +1,146 @@
+package com.globalsearch.interceptor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucketPolicy
+ */
+class TokenBucketPolicyTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("Should allow a burst of the capacity, then deny without changing the state")
+    void testBurst() {
+        TokenBucketPolicy policy = new TokenBucketPolicy(10, 60);
+        AtomicLong state = new AtomicLong(policy.initialState(NOW));
+
+        for (int i = 9; i >= 0; i--) {
+            assertEquals(i, TokenBucketPolicy.tokens(policy.tryConsume(state, 1, NOW)));
+        }
+        long before = state.get();
+        assertTrue(policy.tryConsume(state, 1, NOW) < 0);
+        assertEquals(before, state.get());
+    }
+
+    @Test
+    @DisplayName("Should refill by the rate per minute, up to the capacity")
+    void testRefill() {
+        // One token per second
+        TokenBucketPolicy policy = new TokenBucketPolicy(10, 60);
+        AtomicLong state = new AtomicLong(policy.initialState(NOW));
+        policy.tryConsume(state, 10, NOW);
+
+        long missing = policy.tryConsume(state, 1, NOW + 500);
+        assertEquals(-TokenBucketPolicy.UNITS_PER_TOKEN / 2, missing);
+        assertEquals(500, policy.millisUntilRefilled(-missing));
+
+        assertTrue(policy.tryConsume(state, 1, NOW + 1000) >= 0);
+        assertTrue(policy.tryConsume(state, 1, NOW + 1500) < 0);
+
+        // A long idle period fills the bucket to the capacity, not beyond
+        assertEquals(9, TokenBucketPolicy.tokens(policy.tryConsume(state, 1, NOW + 3_600_000)));
+    }
+
+    @Test
+    @DisplayName("Should not refill for a clock reading earlier than the last update")
+    void testEarlierClock() {
+        TokenBucketPolicy policy = new TokenBucketPolicy(10, 60);
+        AtomicLong state = new AtomicLong(policy.initialState(NOW));
+        policy.tryConsume(state, 10, NOW + 1000);
+
+        assertTrue(policy.tryConsume(state, 1, NOW + 900) < 0);
+        // The later stamp is kept, so the refill counts from it
+        assertTrue(policy.tryConsume(state, 1, NOW + 1900) < 0);
+        assertTrue(policy.tryConsume(state, 1, NOW + 2000) >= 0);
+    }
+
+    @Test
+    @DisplayName("Should refill across a wrap of the stored timestamp")
+    void testTimestampWrap() {
+        TokenBucketPolicy policy = new TokenBucketPolicy(10, 60);
+        long beforeWrap = (1L << 36) * 25 - 10;
+        AtomicLong state = new AtomicLong(policy.initialState(beforeWrap));
+        policy.tryConsume(state, 10, beforeWrap);
+
+        assertTrue(policy.tryConsume(state, 1, beforeWrap + 990) < 0);
+        assertTrue(policy.tryConsume(state, 1, beforeWrap + 1000) >= 0);
+    }
+
+    @Test
+    @DisplayName("Should give refunded tokens back up to the capacity")
+    void testRefund() {
+        TokenBucketPolicy policy = new TokenBucketPolicy(10, 60);
+        AtomicLong state = new AtomicLong(policy.initialState(NOW));
+        policy.tryConsume(state, 10, NOW);
+
+        policy.refund(state, 3);
+        assertEquals(2, TokenBucketPolicy.tokens(policy.tryConsume(state, 1, NOW)));
+
+        policy.refund(state, 50);
+        assertEquals(9, TokenBucketPolicy.tokens(policy.tryConsume(state, 1, NOW)));
+    }
+
+    @Test
+    @DisplayName("Should cap a cost above the capacity at the capacity")
+    void testCostAboveCapacity() {
+        TokenBucketPolicy policy = new TokenBucketPolicy(5, 60);
+        AtomicLong state = new AtomicLong(policy.initialState(NOW));
+
+        assertEquals(0, policy.tryConsume(state, 50, NOW));
+    }
+
+    @Test
+    @DisplayName("Should grant exactly the capacity to concurrent requests")
+    void testConcurrentConsume() throws Exception {
+        TokenBucketPolicy policy = new TokenBucketPolicy(100, 1);
+        AtomicLong state = new AtomicLong(policy.initialState(NOW));
+        AtomicLong granted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (policy.tryConsume(state, 1, NOW) >= 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a capacity or refill rate out of range")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketPolicy(0, 60));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketPolicy(TokenBucketPolicy.MAX_CAPACITY + 1, 60));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketPolicy(10, 0));
+        assertDoesNotThrow(() -> new TokenBucketPolicy(TokenBucketPolicy.MAX_CAPACITY, 60));
+    }
+}
@@ -32,7 +32,9 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -150,9 +152,7 @@ public class ConcurrentSearchLoadTest {
                 .password(password)
                 .build();
 
-        MvcResult result = mockMvc.perform(post("/api/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(loginRequest)))
+        MvcResult result = mockMvc.perform(asyncDispatch(login(loginRequest)))
                 .andReturn();
 
         LoginResponse response = objectMapper.readValue(
@@ -488,4 +488,13 @@ public class ConcurrentSearchLoadTest {
 
         System.out.println("✓ Spike load test PASSED");
     }
+
+    private MvcResult login(LoginRequest loginRequest) throws Exception {
+        // Login completes asynchronously; asyncDispatch renders its response
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
 }
@@ -0,0 +1,374 @@
+package com.globalsearch.performance.harness;
+
+import com.globalsearch.util.SearchUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory stand-in for Elasticsearch behind the *SearchRepository interfaces, so the
+ * application tier can be load tested without a cluster.
+ *
+ * repository(CompanySearchRepository.class) returns a proxy that stores documents per
+ * document class, keyed by id, with a secondary index on tenantId. Derived query methods
+ * are interpreted from their names: findBy followed by properties joined with And, each
+ * compared for equality, with ContainingIgnoreCase as a case-insensitive substring match
+ * and Fuzzy as a fuzzy match with Elasticsearch's AUTO fuzziness. Basic CRUD methods are
+ * supported, anything else throws UnsupportedOperationException.
+ *
+ * Reads (find*, count, exists*) pay the injected latency (base plus uniform jitter) and fail
+ * with the injected failure rate, the way a slow or flaky cluster would surface through
+ * Spring Data. Writes are never delayed so seeding stays fast.
+ */
+public class InMemorySearchBackend {
+
+    private static final String FIND_BY = "findBy";
+    private static final String CONTAINING_IGNORE_CASE = "ContainingIgnoreCase";
+    private static final String FUZZY = "Fuzzy";
+    private static final String TENANT_ID = "tenantId";
+
+    private final Map<Class<?>, DocumentStore> stores = new ConcurrentHashMap<>();
+    private final Map<Method, List<Criterion>> parsedQueries = new ConcurrentHashMap<>();
+
+    private volatile long latencyMicros;
+    private volatile long jitterMicros;
+    private volatile double failureRate;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder injectedFailures = new LongAdder();
+
+    /**
+     * Every read waits latencyMicros plus a uniform random 0..jitterMicros
+     */
+    public void setLatency(long latencyMicros, long jitterMicros) {
+        this.latencyMicros = Math.max(0, latencyMicros);
+        this.jitterMicros = Math.max(0, jitterMicros);
+    }
+
+    /**
+     * Share of reads, 0.0 to 1.0, that throw DataAccessResourceFailureException
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = Math.min(1.0, Math.max(0.0, failureRate));
+    }
+
+    public long getReads() {
+        return reads.sum();
+    }
+
+    public long getInjectedFailures() {
+        return injectedFailures.sum();
+    }
+
+    /**
+     * Documents stored for a document class
+     */
+    public int size(Class<?> documentClass) {
+        DocumentStore store = stores.get(documentClass);
+        return store == null ? 0 : store.byId.size();
+    }
+
+    public void clear() {
+        stores.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R repository(Class<R> repositoryInterface) {
+        Class<?> documentClass = documentClassOf(repositoryInterface);
+        DocumentStore store = stores.computeIfAbsent(documentClass, DocumentStore::new);
+        return (R) Proxy.newProxyInstance(
+                repositoryInterface.getClassLoader(),
+                new Class<?>[]{repositoryInterface},
+                new RepositoryHandler(repositoryInterface, documentClass, store));
+    }
+
+    private static Class<?> documentClassOf(Class<?> repositoryInterface) {
+        for (Type type : repositoryInterface.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType) {
+                Type documentType = ((ParameterizedType) type).getActualTypeArguments()[0];
+                if (documentType instanceof Class) {
+                    return (Class<?>) documentType;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Cannot determine the document type of " + repositoryInterface.getName());
+    }
+
+    private void injectFaults(Method method) {
+        reads.increment();
+        long delay = latencyMicros;
+        if (jitterMicros > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitterMicros + 1);
+        }
+        if (delay > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(delay));
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            injectedFailures.increment();
+            throw new DataAccessResourceFailureException("Injected search backend failure in " + method.getName());
+        }
+    }
+
+    private List<Criterion> parse(Method method, Class<?> documentClass) {
+        String[] parts = method.getName().substring(FIND_BY.length()).split("And(?=[A-Z])");
+        if (parts.length != method.getParameterCount()) {
+            throw new UnsupportedOperationException("Unsupported query method " + method.getName());
+        }
+        List<Criterion> criteria = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            Operator operator = Operator.EQUALS;
+            String property = part;
+            if (part.endsWith(CONTAINING_IGNORE_CASE)) {
+                operator = Operator.CONTAINS_IGNORE_CASE;
+                property = part.substring(0, part.length() - CONTAINING_IGNORE_CASE.length());
+            } else if (part.endsWith(FUZZY)) {
+                operator = Operator.FUZZY;
+                property = part.substring(0, part.length() - FUZZY.length());
+            }
+            String fieldName = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+            criteria.add(new Criterion(fieldName, field(documentClass, fieldName), operator));
+        }
+        return criteria;
+    }
+
+    private static Field field(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // Look in the superclass
+            }
+        }
+        throw new UnsupportedOperationException("No property " + name + " on " + type.getSimpleName());
+    }
+
+    private static Object read(Field field, Object document) {
+        try {
+            return field.get(document);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Elasticsearch's AUTO fuzziness: exact up to 2 characters, 1 edit up to 5, then 2
+     */
+    static int autoFuzziness(String term) {
+        int length = term.length();
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    private enum Operator {
+        EQUALS, CONTAINS_IGNORE_CASE, FUZZY
+    }
+
+    private static class Criterion {
+
+        private final String property;
+        private final Field field;
+        private final Operator operator;
+
+        Criterion(String property, Field field, Operator operator) {
+            this.property = property;
+            this.field = field;
+            this.operator = operator;
+        }
+
+        boolean matches(Object document, Object argument) {
+            Object value = read(field, document);
+            if (value == null || argument == null) {
+                return value == argument;
+            }
+            switch (operator) {
+                case CONTAINS_IGNORE_CASE:
+                    return value.toString().toLowerCase().contains(argument.toString().toLowerCase());
+                case FUZZY:
+                    String term = argument.toString();
+                    return SearchUtils.isFuzzyMatch(value.toString(), term, autoFuzziness(term));
+                default:
+                    return value.equals(argument);
+            }
+        }
+    }
+
+    /**
+     * Documents of one class by id, plus the ids per tenant
+     */
+    private static class DocumentStore {
+
+        private final Field idField;
+        private final Field tenantField;
+        private final ConcurrentSkipListMap<Object, Object> byId = new ConcurrentSkipListMap<>();
+        private final Map<Object, ConcurrentSkipListMap<Object, Object>> byTenant = new ConcurrentHashMap<>();
+
+        DocumentStore(Class<?> documentClass) {
+            this.idField = field(documentClass, "id");
+            Field tenant;
+            try {
+                tenant = field(documentClass, TENANT_ID);
+            } catch (UnsupportedOperationException e) {
+                tenant = null;
+            }
+            this.tenantField = tenant;
+        }
+
+        synchronized Object save(Object document) {
+            Object id = read(idField, document);
+            if (id == null) {
+                throw new IllegalArgumentException("Documents need an id");
+            }
+            remove(id);
+            byId.put(id, document);
+            Object tenantId = tenantOf(document);
+            if (tenantId != null) {
+                byTenant.computeIfAbsent(tenantId, key -> new ConcurrentSkipListMap<>()).put(id, document);
+            }
+            return document;
+        }
+
+        synchronized void remove(Object id) {
+            Object previous = byId.remove(id);
+            Object tenantId = previous == null ? null : tenantOf(previous);
+            if (tenantId != null) {
+                Map<Object, Object> tenantDocuments = byTenant.get(tenantId);
+                if (tenantDocuments != null) {
+                    tenantDocuments.remove(id);
+                }
+            }
+        }
+
+        synchronized void clear() {
+            byId.clear();
+            byTenant.clear();
+        }
+
+        Collection<Object> candidates(List<Criterion> criteria, Object[] args) {
+            // Tenant-scoped queries only scan the tenant's documents
+            for (int i = 0; i < criteria.size(); i++) {
+                Criterion criterion = criteria.get(i);
+                if (tenantField != null && criterion.property.equals(TENANT_ID) && criterion.operator == Operator.EQUALS) {
+                    Map<Object, Object> tenantDocuments = byTenant.get(args[i]);
+                    return tenantDocuments == null ? Collections.emptyList() : tenantDocuments.values();
+                }
+            }
+            return byId.values();
+        }
+
+        private Object tenantOf(Object document) {
+            return tenantField == null ? null : read(tenantField, document);
+        }
+    }
+
+    private class RepositoryHandler implements InvocationHandler {
+
+        private final Class<?> repositoryInterface;
+        private final Class<?> documentClass;
+        private final DocumentStore store;
+
+        RepositoryHandler(Class<?> repositoryInterface, Class<?> documentClass, DocumentStore store) {
+            this.repositoryInterface = repositoryInterface;
+            this.documentClass = documentClass;
+            this.store = store;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            Object[] arguments = args == null ? new Object[0] : args;
+
+            switch (name) {
+                case "toString":
+                    return "InMemory" + repositoryInterface.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == arguments[0];
+                case "save":
+                    return store.save(arguments[0]);
+                case "saveAll":
+                    List<Object> saved = new ArrayList<>();
+                    for (Object document : (Iterable<?>) arguments[0]) {
+                        saved.add(store.save(document));
+                    }
+                    return saved;
+                case "deleteById":
+                    store.remove(arguments[0]);
+                    return null;
+                case "delete":
+                    store.remove(read(store.idField, arguments[0]));
+                    return null;
+                case "deleteAll":
+                    if (arguments.length == 0) {
+                        store.clear();
+                    } else {
+                        for (Object document : (Iterable<?>) arguments[0]) {
+                            store.remove(read(store.idField, document));
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+
+            injectFaults(method);
+            switch (name) {
+                case "findById":
+                    return Optional.ofNullable(store.byId.get(arguments[0]));
+                case "existsById":
+                    return store.byId.containsKey(arguments[0]);
+                case "count":
+                    return (long) store.byId.size();
+                case "findAll":
+                    if (arguments.length == 0) {
+                        return new ArrayList<>(store.byId.values());
+                    }
+                    break;
+                case "findAllById":
+                    List<Object> found = new ArrayList<>();
+                    for (Object id : (Iterable<?>) arguments[0]) {
+                        Object document = store.byId.get(id);
+                        if (document != null) {
+                            found.add(document);
+                        }
+                    }
+                    return found;
+                default:
+                    if (name.startsWith(FIND_BY) && List.class.isAssignableFrom(method.getReturnType())) {
+                        return query(method, arguments);
+                    }
+                    break;
+            }
+            throw new UnsupportedOperationException(
+                    repositoryInterface.getSimpleName() + "." + name + " is not supported by the in-memory backend");
+        }
+
+        private List<Object> query(Method method, Object[] args) {
+            List<Criterion> criteria = parsedQueries.computeIfAbsent(method, key -> parse(key, documentClass));
+            List<Object> results = new ArrayList<>();
+            for (Object document : store.candidates(criteria, args)) {
+                boolean matches = true;
+                for (int i = 0; i < criteria.size() && matches; i++) {
+                    matches = criteria.get(i).matches(document, args[i]);
+                }
+                if (matches) {
+                    results.add(document);
+                }
+            }
+            return results;
+        }
+    }
+}
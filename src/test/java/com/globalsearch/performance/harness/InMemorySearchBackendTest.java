@@ -0,0 +1,122 @@
+package com.globalsearch.performance.harness;
+
+import com.globalsearch.document.CompanyDocument;
+import com.globalsearch.document.DashboardDocument;
+import com.globalsearch.repository.search.CompanySearchRepository;
+import com.globalsearch.repository.search.DashboardSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InMemorySearchBackend
+ */
+class InMemorySearchBackendTest {
+
+    private InMemorySearchBackend backend;
+    private CompanySearchRepository companies;
+
+    @BeforeEach
+    void setUp() {
+        backend = new InMemorySearchBackend();
+        companies = backend.repository(CompanySearchRepository.class);
+        companies.save(company(1L, "TENANT_1", "Acme Logistics"));
+        companies.save(company(2L, "TENANT_1", "Nordic Energy"));
+        companies.save(company(3L, "TENANT_2", "Acme Retail"));
+    }
+
+    @Test
+    @DisplayName("Should interpret derived queries from the method name")
+    void testDerivedQueries() {
+        assertEquals(2, companies.findByTenantId("TENANT_1").size());
+        assertEquals(List.of(1L, 3L), ids(companies.findByNameContainingIgnoreCase("acme")));
+        assertEquals(List.of(1L), ids(companies.findByTenantIdAndNameContainingIgnoreCase("TENANT_1", "ACME")));
+        // AUTO fuzziness allows one edit for a 4-5 character term
+        assertEquals(List.of(3L), ids(companies.findByNameFuzzyAndTenantId("Acne", "TENANT_2")));
+        assertTrue(companies.findByTenantId("TENANT_3").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should support CRUD and keep the tenant index in sync")
+    void testCrud() {
+        companies.save(company(1L, "TENANT_2", "Acme Logistics"));
+
+        assertEquals(1, companies.findByTenantId("TENANT_1").size());
+        assertEquals(2, companies.findByTenantId("TENANT_2").size());
+        assertTrue(companies.findById(1L).isPresent());
+        assertEquals(3, companies.count());
+
+        companies.deleteById(1L);
+        assertFalse(companies.existsById(1L));
+        assertEquals(1, companies.findByTenantId("TENANT_2").size());
+    }
+
+    @Test
+    @DisplayName("Results should be mutable lists, SearchService adds fuzzy hits to them")
+    void testMutableResults() {
+        List<CompanyDocument> results = companies.findByTenantId("TENANT_1");
+        assertDoesNotThrow(() -> results.add(company(9L, "TENANT_1", "Extra")));
+    }
+
+    @Test
+    @DisplayName("Should keep a store per document type")
+    void testSeparateStores() {
+        DashboardSearchRepository dashboards = backend.repository(DashboardSearchRepository.class);
+        dashboards.save(DashboardDocument.builder().id(1L).tenantId("TENANT_1").name("Overview").isShared(true).build());
+
+        assertEquals(1, dashboards.findByTenantIdAndIsShared("TENANT_1", true).size());
+        assertEquals(3, backend.size(CompanyDocument.class));
+        assertEquals(1, backend.size(DashboardDocument.class));
+    }
+
+    @Test
+    @DisplayName("Should inject failures into reads only")
+    void testFailureInjection() {
+        backend.setFailureRate(1.0);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> companies.findByTenantId("TENANT_1"));
+        assertDoesNotThrow(() -> companies.save(company(4L, "TENANT_1", "Written Anyway")));
+        assertEquals(1, backend.getInjectedFailures());
+
+        backend.setFailureRate(0.0);
+        assertEquals(3, companies.findByTenantId("TENANT_1").size());
+    }
+
+    @Test
+    @DisplayName("Should inject latency into reads")
+    void testLatencyInjection() {
+        backend.setLatency(20_000, 0);
+
+        long start = System.nanoTime();
+        companies.findByTenantId("TENANT_1");
+
+        assertTrue(System.nanoTime() - start >= 20_000_000);
+    }
+
+    @Test
+    @DisplayName("Zipf sampling should favour the first ranks")
+    void testZipfDistribution() {
+        ZipfDistribution zipf = new ZipfDistribution(10, 1.0);
+        int[] counts = new int[10];
+        for (int i = 0; i < 100_000; i++) {
+            counts[zipf.sample()]++;
+        }
+
+        assertEquals(zipf.probability(0), counts[0] / 100_000.0, 0.01);
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[9]);
+        assertEquals(0.1, new ZipfDistribution(10, 0).probability(5), 1e-9);
+    }
+
+    private static CompanyDocument company(Long id, String tenantId, String name) {
+        return CompanyDocument.builder().id(id).tenantId(tenantId).name(name).status("ACTIVE").build();
+    }
+
+    private static List<Long> ids(List<CompanyDocument> documents) {
+        return documents.stream().map(CompanyDocument::getId).toList();
+    }
+}
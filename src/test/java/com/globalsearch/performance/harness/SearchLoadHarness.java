@@ -0,0 +1,394 @@
+package com.globalsearch.performance.harness;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalsearch.controller.search.GlobalSearchController;
+import com.globalsearch.document.*;
+import com.globalsearch.dto.request.GlobalSearchRequest;
+import com.globalsearch.entity.Sensor;
+import com.globalsearch.entity.User;
+import com.globalsearch.repository.AuditLogRepository;
+import com.globalsearch.repository.search.*;
+import com.globalsearch.service.AuditLogService;
+import com.globalsearch.service.NotificationService;
+import com.globalsearch.service.PerformanceMetricsService;
+import com.globalsearch.service.auth.CustomUserDetailsService;
+import com.globalsearch.service.search.SearchService;
+import com.globalsearch.service.search.SearchStageMetrics;
+import com.globalsearch.service.search.SlowQueryLog;
+import com.globalsearch.util.LatencyHistogram;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Drives SearchService or GlobalSearchController with concurrent searches against an
+ * InMemorySearchBackend and reports throughput and latency percentiles.
+ *
+ * The service runs with its real metrics, stage timers and slow query log; audit logging
+ * and notifications are mocked. Calls go straight to the service, so the search cache is
+ * bypassed and every request does the full work. The controller target adds MockMvc
+ * request handling and JSON serialization, without the security filter chain.
+ *
+ * Tenants and queries are drawn from Zipf distributions, so a few tenants and queries get
+ * most of the traffic. Settings come from system properties (loadtest.*), see Config.
+ */
+public class SearchLoadHarness {
+
+    public enum Target {
+        SERVICE, CONTROLLER
+    }
+
+    /** Queries by popularity: entity names, name fragments and typos for the fuzzy path */
+    static final String[] QUERIES = {
+            "Sensor", "Zone", "Location", "Company", "Sensor_Zone", "Dashboard", "Report",
+            "Location_Company", "_1", "_2", "_10", "Sensr", "Locaton", "Dashbord", "Zome", "Reprot"
+    };
+
+    private final Config config;
+    private final InMemorySearchBackend backend = new InMemorySearchBackend();
+    private final SearchService searchService;
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<User> users = new ArrayList<>();
+
+    public SearchLoadHarness(Config config) {
+        this.config = config;
+        // Without Spring Boot's logging setup logback would print every DEBUG line
+        ((Logger) LoggerFactory.getLogger("com.globalsearch")).setLevel(Level.WARN);
+
+        PerformanceMetricsService metricsService = new PerformanceMetricsService();
+        ReflectionTestUtils.setField(metricsService, "ringSize", 4096);
+        ReflectionTestUtils.setField(metricsService, "defaultWindowMinutes", 15);
+        metricsService.init();
+
+        SearchStageMetrics stageMetrics = new SearchStageMetrics(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stageMetrics, "maxTenantTags", 100);
+
+        SlowQueryLog slowQueryLog = new SlowQueryLog();
+        ReflectionTestUtils.setField(slowQueryLog, "thresholdMs", 1000L);
+        ReflectionTestUtils.setField(slowQueryLog, "capacity", 200);
+        ReflectionTestUtils.setField(slowQueryLog, "maxShapes", 500);
+        ReflectionTestUtils.setField(slowQueryLog, "profileEnabled", false);
+
+        searchService = new SearchService(
+                backend.repository(CompanySearchRepository.class),
+                backend.repository(LocationSearchRepository.class),
+                backend.repository(ZoneSearchRepository.class),
+                backend.repository(SensorSearchRepository.class),
+                backend.repository(ReportSearchRepository.class),
+                backend.repository(DashboardSearchRepository.class),
+                mock(AuditLogService.class),
+                mock(NotificationService.class),
+                metricsService,
+                stageMetrics,
+                slowQueryLog);
+
+        GlobalSearchController controller = new GlobalSearchController(
+                searchService, mock(CustomUserDetailsService.class), mock(AuditLogRepository.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        seed();
+        backend.setLatency(config.latencyMicros, config.jitterMicros);
+        backend.setFailureRate(config.failureRate);
+    }
+
+    public InMemorySearchBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Warm up, then measure for the configured duration
+     */
+    public LoadReport run() throws InterruptedException {
+        ZipfDistribution tenants = new ZipfDistribution(users.size(), config.tenantSkew);
+        ZipfDistribution queries = new ZipfDistribution(QUERIES.length, config.querySkew);
+
+        runPhase(tenants, queries, config.warmupSeconds, null);
+
+        LoadReport report = new LoadReport(config);
+        long readsBefore = backend.getReads();
+        long failuresBefore = backend.getInjectedFailures();
+        long startNanos = System.nanoTime();
+        runPhase(tenants, queries, config.durationSeconds, report);
+        report.elapsedNanos = System.nanoTime() - startNanos;
+        report.backendReads = backend.getReads() - readsBefore;
+        report.injectedFailures = backend.getInjectedFailures() - failuresBefore;
+        return report;
+    }
+
+    private void runPhase(ZipfDistribution tenants, ZipfDistribution queries, long seconds, LoadReport report)
+            throws InterruptedException {
+        if (seconds <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+        for (int i = 0; i < config.concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    User user = users.get(tenants.sample());
+                    GlobalSearchRequest request = newRequest(QUERIES[queries.sample()]);
+                    long start = System.nanoTime();
+                    boolean success = execute(user, request);
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                    if (report != null) {
+                        report.record(user.getTenantId(), micros, success);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(seconds + 60, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private GlobalSearchRequest newRequest(String query) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return GlobalSearchRequest.builder()
+                .query(query)
+                .enableFuzzySearch(random.nextDouble() < config.fuzzyShare)
+                .enableSynonyms(random.nextBoolean())
+                .enableHighlighting(random.nextDouble() < config.highlightShare)
+                .size(20)
+                .build();
+    }
+
+    private boolean execute(User user, GlobalSearchRequest request) {
+        try {
+            if (config.target == Target.SERVICE) {
+                searchService.globalSearch(request, user, null);
+                return true;
+            }
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(user, null, List.of()));
+            MvcResult result = mockMvc.perform(post("/api/search")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(request)))
+                    .andReturn();
+            return result.getResponse().getStatus() < 400;
+        } catch (Exception e) {
+            return false;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * A hierarchy per tenant shaped like ProductionDataSeeder's, scaled by documentsPerTenant
+     */
+    private void seed() {
+        CompanySearchRepository companies = backend.repository(CompanySearchRepository.class);
+        LocationSearchRepository locations = backend.repository(LocationSearchRepository.class);
+        ZoneSearchRepository zones = backend.repository(ZoneSearchRepository.class);
+        SensorSearchRepository sensors = backend.repository(SensorSearchRepository.class);
+        ReportSearchRepository reports = backend.repository(ReportSearchRepository.class);
+        DashboardSearchRepository dashboards = backend.repository(DashboardSearchRepository.class);
+
+        Random random = new Random(42);
+        Sensor.SensorType[] sensorTypes = Sensor.SensorType.values();
+        // Per tenant: 1 company, and locations, zones and sensors in a 1:2:6 ratio
+        int locationsPerTenant = Math.max(1, config.documentsPerTenant / 9);
+        long id = 0;
+
+        for (int t = 1; t <= config.tenants; t++) {
+            String tenantId = "TENANT_" + t;
+            String company = "Company_" + t;
+            long companyId = ++id;
+            companies.save(CompanyDocument.builder()
+                    .id(companyId).tenantId(tenantId).name(company)
+                    .description("Production-scale test company " + t).status("ACTIVE")
+                    .build());
+
+            for (int l = 1; l <= locationsPerTenant; l++) {
+                String location = "Location_" + company + "_" + l;
+                long locationId = ++id;
+                locations.save(LocationDocument.builder()
+                        .id(locationId).tenantId(tenantId).companyId(companyId).name(location)
+                        .description("Production location for " + company).status("ACTIVE")
+                        .build());
+
+                for (int z = 1; z <= 2; z++) {
+                    String zone = "Zone_" + location + "_" + z;
+                    long zoneId = ++id;
+                    zones.save(ZoneDocument.builder()
+                            .id(zoneId).tenantId(tenantId).locationId(locationId).companyId(companyId).name(zone)
+                            .description("Zone " + z + " in " + location).status("ACTIVE")
+                            .build());
+
+                    for (int s = 1; s <= 3; s++) {
+                        String sensorType = sensorTypes[random.nextInt(sensorTypes.length)].name();
+                        sensors.save(SensorDocument.builder()
+                                .id(++id).tenantId(tenantId).zoneId(zoneId).locationId(locationId).companyId(companyId)
+                                .name("Sensor_" + zone + "_" + s)
+                                .serialNumber("SN-" + id).sensorType(sensorType)
+                                .description(sensorType + " sensor in " + zone).status("ACTIVE")
+                                .build());
+                    }
+                }
+            }
+
+            for (int r = 1; r <= Math.max(1, locationsPerTenant / 2); r++) {
+                reports.save(ReportDocument.builder()
+                        .id(++id).tenantId(tenantId).name("Report_" + company + "_" + r)
+                        .description("Report " + r + " for " + company).reportType("SENSOR_HEALTH")
+                        .build());
+                dashboards.save(DashboardDocument.builder()
+                        .id(++id).tenantId(tenantId).name("Dashboard_" + company + "_" + r)
+                        .description("Dashboard " + r + " for " + company).dashboardType("OPERATIONAL")
+                        .isShared(random.nextBoolean())
+                        .build());
+            }
+
+            users.add(User.builder()
+                    .id((long) t).username("user_" + t).tenantId(tenantId)
+                    .roles(new HashSet<>(Set.of(User.Role.VIEWER)))
+                    .build());
+        }
+    }
+
+    /**
+     * Load settings, read from system properties with the prefix "loadtest."
+     */
+    public static class Config {
+
+        Target target = Target.SERVICE;
+        int concurrency = 16;
+        long warmupSeconds = 5;
+        long durationSeconds = 20;
+        int tenants = 50;
+        int documentsPerTenant = 180;
+        /** Zipf exponents: 0 is uniform, higher concentrates load on the first tenants and queries */
+        double tenantSkew = 1.1;
+        double querySkew = 1.0;
+        double fuzzyShare = 0.2;
+        double highlightShare = 0.5;
+        long latencyMicros = 2000;
+        long jitterMicros = 1000;
+        double failureRate = 0.0;
+
+        public static Config fromSystemProperties() {
+            Config config = new Config();
+            config.target = Target.valueOf(property("target", config.target.name()).toUpperCase());
+            config.concurrency = Integer.parseInt(property("concurrency", String.valueOf(config.concurrency)));
+            config.warmupSeconds = Long.parseLong(property("warmup-seconds", String.valueOf(config.warmupSeconds)));
+            config.durationSeconds = Long.parseLong(property("duration-seconds", String.valueOf(config.durationSeconds)));
+            config.tenants = Integer.parseInt(property("tenants", String.valueOf(config.tenants)));
+            config.documentsPerTenant = Integer.parseInt(property("documents-per-tenant", String.valueOf(config.documentsPerTenant)));
+            config.tenantSkew = Double.parseDouble(property("tenant-skew", String.valueOf(config.tenantSkew)));
+            config.querySkew = Double.parseDouble(property("query-skew", String.valueOf(config.querySkew)));
+            config.fuzzyShare = Double.parseDouble(property("fuzzy-share", String.valueOf(config.fuzzyShare)));
+            config.highlightShare = Double.parseDouble(property("highlight-share", String.valueOf(config.highlightShare)));
+            config.latencyMicros = Long.parseLong(property("backend.latency-micros", String.valueOf(config.latencyMicros)));
+            config.jitterMicros = Long.parseLong(property("backend.jitter-micros", String.valueOf(config.jitterMicros)));
+            config.failureRate = Double.parseDouble(property("backend.failure-rate", String.valueOf(config.failureRate)));
+            return config;
+        }
+
+        public Config target(Target target) {
+            this.target = target;
+            return this;
+        }
+
+        public Config durationSeconds(long warmupSeconds, long durationSeconds) {
+            this.warmupSeconds = warmupSeconds;
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+
+        public Config failureRate(double failureRate) {
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        private static String property(String name, String defaultValue) {
+            return System.getProperty("loadtest." + name, defaultValue);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("target=%s concurrency=%d duration=%ds tenants=%d docs/tenant=%d tenantSkew=%.2f "
+                            + "querySkew=%.2f backend=%dus+%dus failureRate=%.3f",
+                    target, concurrency, durationSeconds, tenants, documentsPerTenant, tenantSkew, querySkew,
+                    latencyMicros, jitterMicros, failureRate);
+        }
+    }
+
+    /**
+     * Outcome of a measured run, latencies recorded in microseconds
+     */
+    public static class LoadReport {
+
+        private final Config config;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> requestsPerTenant = new ConcurrentHashMap<>();
+        long elapsedNanos;
+        long backendReads;
+        long injectedFailures;
+
+        LoadReport(Config config) {
+            this.config = config;
+        }
+
+        void record(String tenantId, long micros, boolean success) {
+            latencies.record(micros);
+            requestsPerTenant.computeIfAbsent(tenantId, key -> new LongAdder()).increment();
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        public long getRequests() {
+            return latencies.getCount();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getInjectedFailures() {
+            return injectedFailures;
+        }
+
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getRequests() * 1e9 / elapsedNanos;
+        }
+
+        public double getPercentileMs(double percentile) {
+            return latencies.getPercentile(percentile) / 1000.0;
+        }
+
+        /**
+         * Share of the requests sent by the busiest tenant
+         */
+        public double getTopTenantShare() {
+            long top = requestsPerTenant.values().stream().mapToLong(LongAdder::sum).max().orElse(0);
+            return getRequests() == 0 ? 0 : (double) top / getRequests();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s%n  requests=%d errors=%d (injected backend failures %d, backend reads %d)%n"
+                            + "  throughput=%.1f req/s p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms top tenant share=%.1f%%",
+                    config, getRequests(), getErrors(), injectedFailures, backendReads,
+                    getThroughput(), getPercentileMs(50), getPercentileMs(95), getPercentileMs(99),
+                    latencies.getMax() / 1000.0, getTopTenantShare() * 100);
+        }
+    }
+}
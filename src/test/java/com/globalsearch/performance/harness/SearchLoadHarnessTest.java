@@ -0,0 +1,56 @@
+package com.globalsearch.performance.harness;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Application-tier load tests against the in-memory search backend.
+ * Excluded from the default build, run with: mvn -Pload-test test
+ * Tune with -Dloadtest.concurrency=64 -Dloadtest.duration-seconds=60 ... (see SearchLoadHarness.Config)
+ */
+@Tag("load-test")
+class SearchLoadHarnessTest {
+
+    @Test
+    @DisplayName("SearchService under concurrent, skewed load")
+    void testServiceLoad() throws InterruptedException {
+        SearchLoadHarness.LoadReport report = new SearchLoadHarness(
+                SearchLoadHarness.Config.fromSystemProperties().target(SearchLoadHarness.Target.SERVICE)).run();
+        System.out.println("[load-test] " + report);
+
+        assertTrue(report.getRequests() > 0);
+        assertTrue(report.getErrors() <= report.getInjectedFailures(),
+                "Only injected backend failures may fail a search");
+    }
+
+    @Test
+    @DisplayName("GlobalSearchController under concurrent, skewed load")
+    void testControllerLoad() throws InterruptedException {
+        SearchLoadHarness.LoadReport report = new SearchLoadHarness(
+                SearchLoadHarness.Config.fromSystemProperties().target(SearchLoadHarness.Target.CONTROLLER)).run();
+        System.out.println("[load-test] " + report);
+
+        assertTrue(report.getRequests() > 0);
+        assertTrue(report.getErrors() <= report.getInjectedFailures(),
+                "Only injected backend failures may fail a search");
+    }
+
+    @Test
+    @DisplayName("Injected backend failures should surface as failed searches")
+    void testInjectedFailures() throws InterruptedException {
+        SearchLoadHarness.LoadReport report = new SearchLoadHarness(
+                SearchLoadHarness.Config.fromSystemProperties()
+                        .target(SearchLoadHarness.Target.SERVICE)
+                        .durationSeconds(1, 5)
+                        .failureRate(0.05)).run();
+        System.out.println("[load-test] " + report);
+
+        assertTrue(report.getInjectedFailures() > 0);
+        assertTrue(report.getErrors() > 0);
+        // A search stops at its first failed read, so every failed search has its own injected failure
+        assertTrue(report.getErrors() <= report.getInjectedFailures());
+    }
+}
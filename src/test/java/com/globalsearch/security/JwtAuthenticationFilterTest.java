@@ -0,0 +1,193 @@
+package com.globalsearch.security;
+
+import com.globalsearch.entity.User;
+import com.globalsearch.repository.UserRepository;
+import com.globalsearch.service.auth.CustomUserDetailsService;
+import com.globalsearch.service.auth.TokenRevocationService;
+import com.globalsearch.service.auth.UserAuthStateCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JwtAuthenticationFilter
+ */
+class JwtAuthenticationFilterTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetailsService userDetailsService;
+    private CustomUserDetailsService customUserDetailsService;
+    private UserRepository userRepository;
+    private UserAuthStateCache userAuthStateCache;
+    private TokenRevocationService tokenRevocationService;
+    private JwtAuthenticationFilter filter;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxSize", 100L);
+
+        userDetailsService = mock(UserDetailsService.class);
+        customUserDetailsService = mock(CustomUserDetailsService.class);
+        userRepository = mock(UserRepository.class);
+        userAuthStateCache = new UserAuthStateCache(userRepository);
+        ReflectionTestUtils.setField(userAuthStateCache, "jwtExpiration", 86400000L);
+        userAuthStateCache.init();
+
+        tokenRevocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(tokenRevocationService, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedRevocations", 1000);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.01);
+        tokenRevocationService.init();
+
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService,
+                customUserDetailsService, userAuthStateCache, tokenRevocationService);
+
+        userDetails = org.springframework.security.core.userdetails.User.builder()
+                .username("alice")
+                .password("password")
+                .authorities(List.of(new SimpleGrantedAuthority("ROLE_MANAGER")))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String accessToken() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", 7L);
+        claims.put("tenantId", "TENANT_001");
+        claims.put("email", "alice@example.com");
+        claims.put("companyId", 3L);
+        return jwtTokenProvider.generateToken(userDetails, claims);
+    }
+
+    private MockHttpServletRequest filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return request;
+    }
+
+    private static Set<String> authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Should build the principal from the token claims without loading the user")
+    void testAuthenticatesFromClaims() throws Exception {
+        MockHttpServletRequest request = filter(accessToken());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        User principal = (User) authentication.getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals("TENANT_001", principal.getTenantId());
+        assertEquals(3L, principal.getCompanyId());
+        assertEquals(EnumSet.of(User.Role.MANAGER), principal.getRoles());
+        assertEquals(Set.of("ROLE_MANAGER"), authorities(authentication));
+        assertEquals("TENANT_001", request.getAttribute("tenantId"));
+        verifyNoInteractions(userDetailsService, customUserDetailsService, userRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens issued before the user was disabled")
+    void testDisabledAfterIssue() throws Exception {
+        String token = accessToken();
+        Thread.sleep(1100);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder()
+                .id(7L).username("alice").tenantId("TENANT_001")
+                .roles(EnumSet.of(User.Role.MANAGER)).enabled(false).build()));
+        userAuthStateCache.refresh(7L);
+
+        filter(token);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should apply roles changed after the token was issued")
+    void testRolesChangedAfterIssue() throws Exception {
+        String token = accessToken();
+        Thread.sleep(1100);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder()
+                .id(7L).username("alice").tenantId("TENANT_001")
+                .roles(EnumSet.of(User.Role.VIEWER)).enabled(true).build()));
+        userAuthStateCache.refresh(7L);
+
+        filter(token);
+
+        assertEquals(Set.of("ROLE_VIEWER"), authorities(SecurityContextHolder.getContext().getAuthentication()));
+    }
+
+    @Test
+    @DisplayName("Should load the user for tokens without identity claims")
+    void testLegacyTokenLoadsUser() throws Exception {
+        User entity = User.builder().id(7L).username("alice").tenantId("TENANT_001").build();
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(userDetails);
+        when(customUserDetailsService.loadUserEntityByUsername("alice")).thenReturn(entity);
+
+        filter(jwtTokenProvider.generateRefreshToken(userDetails));
+
+        assertSame(entity, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userDetailsService).loadUserByUsername(anyString());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should reject a revoked token and accept the user's other tokens")
+    void testRevokedToken() throws Exception {
+        String revoked = accessToken();
+        String other = accessToken();
+        tokenRevocationService.revoke(jwtTokenProvider.verify(revoked));
+
+        filter(revoked);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        filter(other);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should leave invalid tokens unauthenticated")
+    void testInvalidToken() throws Exception {
+        filter("not.a.token");
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+    }
+}
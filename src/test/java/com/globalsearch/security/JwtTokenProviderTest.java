@@ -1,5 +1,6 @@
 package com.globalsearch.security;
 
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -27,6 +28,7 @@ class JwtTokenProviderTest {
                 "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 86400000L); // 24 hours
         ReflectionTestUtils.setField(jwtTokenProvider, "refreshTokenExpiration", 604800000L); // 7 days
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxSize", 100L);
 
         userDetails = User.builder()
                 .username("testuser")
@@ -210,4 +212,78 @@ class JwtTokenProviderTest {
         assertThat(jwtTokenProvider.validateToken(accessToken)).isTrue();
         assertThat(jwtTokenProvider.validateToken(refreshToken)).isTrue();
     }
+
+    @Test
+    void testVerify_CachesVerifiedClaims() {
+        // Arrange
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("tenantId", "TENANT_ABC");
+        String token = jwtTokenProvider.generateToken(userDetails, claims);
+
+        // Act
+        Claims first = jwtTokenProvider.verify(token);
+        Claims second = jwtTokenProvider.verify(token);
+
+        // Assert - the second verification is served from the cache
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+        assertThat(first.getSubject()).isEqualTo("testuser");
+        assertThat(first.get("tenantId", String.class)).isEqualTo("TENANT_ABC");
+    }
+
+    @Test
+    void testVerify_TamperedTokenRejected() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(userDetails);
+        jwtTokenProvider.verify(token);
+        String[] parts = token.split("\\.");
+        String otherPayload = jwtTokenProvider.generateToken(User.builder()
+                .username("admin")
+                .password("password")
+                .authorities(Arrays.asList())
+                .build()).split("\\.")[1];
+        String tampered = parts[0] + "." + otherPayload + "." + parts[2];
+
+        // Act & Assert - a cached signature does not vouch for another payload
+        assertThat(jwtTokenProvider.verify(tampered)).isNull();
+        assertThat(jwtTokenProvider.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void testVerify_ExpiredTokenRejected() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", -1000L);
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        // Act & Assert
+        assertThat(jwtTokenProvider.verify(token)).isNull();
+        assertThat(jwtTokenProvider.isTokenExpired(token)).isTrue();
+    }
+
+    @Test
+    void testVerify_TokenFromOtherKeyRejected() {
+        // Arrange
+        JwtTokenProvider otherProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(otherProvider, "jwtSecret",
+                "5A7134743777217A25432A462D4A614E645267556B58703273357638792F423F");
+        ReflectionTestUtils.setField(otherProvider, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(otherProvider, "verifiedCacheMaxSize", 100L);
+        String foreignToken = otherProvider.generateToken(userDetails);
+
+        // Act & Assert
+        assertThat(jwtTokenProvider.verify(foreignToken)).isNull();
+    }
+
+    @Test
+    void testGenerateToken_UniqueTokenIds() {
+        // Act
+        Claims first = jwtTokenProvider.verify(jwtTokenProvider.generateToken(userDetails));
+        Claims second = jwtTokenProvider.verify(jwtTokenProvider.generateToken(userDetails));
+        Claims refresh = jwtTokenProvider.verify(jwtTokenProvider.generateRefreshToken(userDetails));
+
+        // Assert - each token can be revoked on its own
+        assertThat(first.getId()).isNotNull();
+        assertThat(first.getId()).isNotEqualTo(second.getId());
+        assertThat(refresh.getId()).isNotNull().isNotEqualTo(first.getId());
+    }
 }
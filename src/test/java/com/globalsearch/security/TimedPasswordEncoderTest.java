@@ -0,0 +1,63 @@
+package com.globalsearch.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimedPasswordEncoder
+ */
+class TimedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Lowest BCrypt cost keeps the test fast
+        encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry);
+    }
+
+    private Timer timer(String operation) {
+        return meterRegistry.get("auth.password.hash").tag("operation", operation).timer();
+    }
+
+    @Test
+    @DisplayName("Should delegate hashing and verification")
+    void testDelegates() {
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    @DisplayName("Should time encode and verify separately")
+    void testRecordsTimers() {
+        String hash = encoder.encode("secret");
+        encoder.matches("secret", hash);
+        encoder.matches("wrong", hash);
+
+        assertEquals(1, timer("encode").count());
+        assertEquals(2, timer("verify").count());
+        assertTrue(timer("verify").totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("Should time verifications against a malformed hash")
+    void testRecordsFailures() {
+        assertFalse(encoder.matches("secret", "not-a-bcrypt-hash"));
+
+        assertEquals(1, timer("verify").count());
+    }
+}
@@ -7,10 +7,16 @@ import com.globalsearch.entity.Company;
 import com.globalsearch.entity.Location;
 import com.globalsearch.entity.Sensor;
 import com.globalsearch.repository.*;
-import com.globalsearch.repository.search.*;
+import com.globalsearch.service.sync.BulkIndexWriter;
+import com.globalsearch.service.sync.DeadLetterService;
+import com.globalsearch.service.sync.IndexChange;
+import com.globalsearch.service.sync.IndexManagementService;
+import com.globalsearch.service.sync.IndexingPipeline;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -19,8 +25,13 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -50,22 +61,16 @@ class ElasticsearchSyncServiceTest {
     private DashboardRepository dashboardRepository;
 
     @Mock
-    private CompanySearchRepository companySearchRepository;
+    private BulkIndexWriter bulkIndexWriter;
 
     @Mock
-    private LocationSearchRepository locationSearchRepository;
+    private IndexManagementService indexManagementService;
 
     @Mock
-    private ZoneSearchRepository zoneSearchRepository;
+    private IndexingPipeline indexingPipeline;
 
     @Mock
-    private SensorSearchRepository sensorSearchRepository;
-
-    @Mock
-    private ReportSearchRepository reportSearchRepository;
-
-    @Mock
-    private DashboardSearchRepository dashboardSearchRepository;
+    private DeadLetterService deadLetterService;
 
     @InjectMocks
     private ElasticsearchSyncService syncService;
@@ -106,22 +111,70 @@ class ElasticsearchSyncServiceTest {
                 .build();
     }
 
+    private static BulkIndexWriter.Outcome outcome(boolean success, String error) {
+        BulkIndexWriter.Outcome outcome = mock(BulkIndexWriter.Outcome.class);
+        when(outcome.isSuccess()).thenReturn(success);
+        lenient().when(outcome.getError()).thenReturn(error);
+        return outcome;
+    }
+
+    /**
+     * Every bulk write succeeds
+     */
+    private void stubBulkWrites() throws Exception {
+        BulkIndexWriter.Outcome success = outcome(true, null);
+        when(bulkIndexWriter.write(anyList())).thenAnswer(invocation ->
+                Collections.nCopies(((List<?>) invocation.getArgument(0)).size(), success));
+    }
+
+    /**
+     * Ids of the documents sent to Elasticsearch, in order, over all bulk requests
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> writtenIds(Class<?> documentClass) throws Exception {
+        ArgumentCaptor<List<IndexChange>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkIndexWriter, atLeast(0)).write(captor.capture());
+        return captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .filter(change -> change.getDocumentClass() == documentClass)
+                .map(IndexChange::getDocumentId)
+                .collect(Collectors.toList());
+    }
+
     @Test
-    void testSyncAllCompanies_Success() {
+    void testSyncAllCompanies_Success() throws Exception {
         // Given
         List<Company> companies = Arrays.asList(testCompany);
         when(companyRepository.findAll()).thenReturn(companies);
+        stubBulkWrites();
 
         // When
-        syncService.syncAllCompanies();
+        int indexed = syncService.syncAllCompanies();
 
         // Then
         verify(companyRepository).findAll();
-        verify(companySearchRepository, times(1)).save(any(CompanyDocument.class));
+        assertEquals(1, indexed);
+        assertEquals(List.of(1L), writtenIds(CompanyDocument.class));
     }
 
     @Test
-    void testSyncAllCompanies_MultipleEntities() {
+    void testSyncAllCompanies_UsesExternalVersionFromUpdatedAt() throws Exception {
+        // Given
+        when(companyRepository.findAll()).thenReturn(Arrays.asList(testCompany));
+        stubBulkWrites();
+
+        // When
+        syncService.syncAllCompanies();
+
+        // Then - Same version as the pipeline, so an older full sync cannot overwrite a newer change
+        Long expected = CompanyDocument.fromEntity(testCompany).getSyncVersion();
+        verify(bulkIndexWriter).write(argThat((List<IndexChange> changes) -> changes.size() == 1
+                && changes.get(0).getOperation() == IndexChange.Operation.INDEX
+                && expected != null && expected.equals(changes.get(0).getVersion())));
+    }
+
+    @Test
+    void testSyncAllCompanies_MultipleEntities() throws Exception {
         // Given
         Company company1 = Company.builder()
                 .id(1L)
@@ -140,17 +193,19 @@ class ElasticsearchSyncServiceTest {
                 .build();
 
         when(companyRepository.findAll()).thenReturn(Arrays.asList(company1, company2));
+        stubBulkWrites();
 
         // When
         syncService.syncAllCompanies();
 
-        // Then
+        // Then - Both documents go out in one bulk request
         verify(companyRepository).findAll();
-        verify(companySearchRepository, times(2)).save(any(CompanyDocument.class));
+        verify(bulkIndexWriter, times(1)).write(anyList());
+        assertEquals(List.of(1L, 2L), writtenIds(CompanyDocument.class));
     }
 
     @Test
-    void testSyncAllCompanies_EmptyList() {
+    void testSyncAllCompanies_EmptyList() throws Exception {
         // Given
         when(companyRepository.findAll()).thenReturn(Collections.emptyList());
 
@@ -159,54 +214,69 @@ class ElasticsearchSyncServiceTest {
 
         // Then
         verify(companyRepository).findAll();
-        verify(companySearchRepository, never()).save(any(CompanyDocument.class));
+        verify(bulkIndexWriter, never()).write(anyList());
     }
 
     @Test
-    void testSyncAllCompanies_HandlesSyncError() {
+    void testSyncAllCompanies_HandlesSyncError() throws Exception {
         // Given
         when(companyRepository.findAll()).thenReturn(Arrays.asList(testCompany));
-        doThrow(new RuntimeException("Elasticsearch connection failed"))
-                .when(companySearchRepository).save(any(CompanyDocument.class));
+        when(bulkIndexWriter.write(anyList())).thenThrow(new java.io.IOException("Elasticsearch connection failed"));
 
         // When
-        syncService.syncAllCompanies();
+        int indexed = syncService.syncAllCompanies();
 
         // Then - Should not throw exception, just log error
         verify(companyRepository).findAll();
-        verify(companySearchRepository).save(any(CompanyDocument.class));
+        assertEquals(0, indexed);
+    }
+
+    @Test
+    void testSyncAllCompanies_RecordsFailedDocumentAsDeadLetter() throws Exception {
+        // Given
+        when(companyRepository.findAll()).thenReturn(Arrays.asList(testCompany));
+        when(bulkIndexWriter.write(anyList())).thenThrow(new java.io.IOException("Elasticsearch connection failed"));
+
+        // When
+        syncService.syncAllCompanies();
+
+        // Then - The failure is kept for retry instead of being dropped
+        verify(deadLetterService).recordAll(argThat(changes -> changes.size() == 1
+                && "CompanyDocument:1".equals(changes.iterator().next().getKey())), eq("Elasticsearch connection failed"));
     }
 
     @Test
-    void testSyncAllLocations_Success() {
+    void testSyncAllLocations_Success() throws Exception {
         // Given
         List<Location> locations = Arrays.asList(testLocation);
         when(locationRepository.findAll()).thenReturn(locations);
+        stubBulkWrites();
 
         // When
         syncService.syncAllLocations();
 
         // Then
         verify(locationRepository).findAll();
-        verify(locationSearchRepository, times(1)).save(any(LocationDocument.class));
+        assertEquals(List.of(2L), writtenIds(LocationDocument.class));
     }
 
     @Test
-    void testSyncAllSensors_Success() {
+    void testSyncAllSensors_Success() throws Exception {
         // Given
         List<Sensor> sensors = Arrays.asList(testSensor);
         when(sensorRepository.findAll()).thenReturn(sensors);
+        stubBulkWrites();
 
         // When
         syncService.syncAllSensors();
 
         // Then
         verify(sensorRepository).findAll();
-        verify(sensorSearchRepository, times(1)).save(any(SensorDocument.class));
+        assertEquals(List.of(3L), writtenIds(SensorDocument.class));
     }
 
     @Test
-    void testSyncAllDataOnStartup_SyncsAllEntities() {
+    void testSyncAllDataOnStartup_SyncsAllEntities() throws Exception {
         // Given
         when(companyRepository.findAll()).thenReturn(Arrays.asList(testCompany));
         when(locationRepository.findAll()).thenReturn(Arrays.asList(testLocation));
@@ -214,6 +284,7 @@ class ElasticsearchSyncServiceTest {
         when(sensorRepository.findAll()).thenReturn(Arrays.asList(testSensor));
         when(reportRepository.findAll()).thenReturn(Collections.emptyList());
         when(dashboardRepository.findAll()).thenReturn(Collections.emptyList());
+        stubBulkWrites();
 
         // When
         syncService.syncAllDataOnStartup();
@@ -226,9 +297,30 @@ class ElasticsearchSyncServiceTest {
         verify(reportRepository).findAll();
         verify(dashboardRepository).findAll();
 
-        verify(companySearchRepository, times(1)).save(any(CompanyDocument.class));
-        verify(locationSearchRepository, times(1)).save(any(LocationDocument.class));
-        verify(sensorSearchRepository, times(1)).save(any(SensorDocument.class));
+        assertEquals(List.of(1L), writtenIds(CompanyDocument.class));
+        assertEquals(List.of(2L), writtenIds(LocationDocument.class));
+        assertEquals(List.of(3L), writtenIds(SensorDocument.class));
+    }
+
+    @Test
+    void testSyncAllDataOnStartup_WrapsFullSyncInBulkLoad() throws Exception {
+        // Given
+        when(companyRepository.findAll()).thenReturn(Arrays.asList(testCompany));
+        when(locationRepository.findAll()).thenReturn(Arrays.asList(testLocation));
+        when(zoneRepository.findAll()).thenReturn(Collections.emptyList());
+        when(sensorRepository.findAll()).thenReturn(Arrays.asList(testSensor));
+        when(reportRepository.findAll()).thenReturn(Collections.emptyList());
+        when(dashboardRepository.findAll()).thenReturn(Collections.emptyList());
+        stubBulkWrites();
+
+        // When
+        syncService.syncAllDataOnStartup();
+
+        // Then - Bulk-load settings are applied before indexing and restored with the document count
+        InOrder inOrder = inOrder(indexManagementService, bulkIndexWriter);
+        inOrder.verify(indexManagementService).beginBulkLoad();
+        inOrder.verify(bulkIndexWriter, times(3)).write(anyList());
+        inOrder.verify(indexManagementService).endBulkLoad(3L);
     }
 
     @Test
@@ -250,10 +342,10 @@ class ElasticsearchSyncServiceTest {
     }
 
     @Test
-    void testSyncAllSensors_BulkSync_HandlesLargeDataset() {
-        // Given - Simulate large dataset (100 sensors)
+    void testSyncAllSensors_BulkSync_HandlesLargeDataset() throws Exception {
+        // Given - Simulate large dataset (1200 sensors)
         List<Sensor> sensors = new java.util.ArrayList<>();
-        for (int i = 1; i <= 100; i++) {
+        for (int i = 1; i <= 1200; i++) {
             sensors.add(Sensor.builder()
                     .id((long) i)
                     .name("Sensor " + i)
@@ -265,30 +357,34 @@ class ElasticsearchSyncServiceTest {
         }
 
         when(sensorRepository.findAll()).thenReturn(sensors);
+        stubBulkWrites();
 
         // When
-        syncService.syncAllSensors();
+        int indexed = syncService.syncAllSensors();
 
-        // Then
+        // Then - Sent in bulk requests of at most 500 documents
         verify(sensorRepository).findAll();
-        verify(sensorSearchRepository, times(100)).save(any(SensorDocument.class));
+        assertEquals(1200, indexed);
+        verify(bulkIndexWriter, times(3)).write(argThat((List<IndexChange> changes) -> changes.size() <= 500));
+        assertEquals(1200, writtenIds(SensorDocument.class).size());
     }
 
     @Test
-    void testSyncAllCompanies_VerifiesTransactionalBehavior() {
+    void testSyncAllCompanies_VerifiesTransactionalBehavior() throws Exception {
         // Given
         when(companyRepository.findAll()).thenReturn(Arrays.asList(testCompany));
+        stubBulkWrites();
 
         // When
         syncService.syncAllCompanies();
 
         // Then - Verify readonly transaction is used (implicit in @Transactional)
         verify(companyRepository).findAll();
-        verify(companySearchRepository).save(any(CompanyDocument.class));
+        verify(bulkIndexWriter).write(anyList());
     }
 
     @Test
-    void testSyncAllLocations_EmptyList_NoIndexingOccurs() {
+    void testSyncAllLocations_EmptyList_NoIndexingOccurs() throws Exception {
         // Given
         when(locationRepository.findAll()).thenReturn(Collections.emptyList());
 
@@ -297,11 +393,11 @@ class ElasticsearchSyncServiceTest {
 
         // Then
         verify(locationRepository).findAll();
-        verify(locationSearchRepository, never()).save(any(LocationDocument.class));
+        verify(bulkIndexWriter, never()).write(anyList());
     }
 
     @Test
-    void testSyncAllSensors_PartialFailure_ContinuesProcessing() {
+    void testSyncAllSensors_PartialFailure_ContinuesProcessing() throws Exception {
         // Given - First sensor succeeds, second fails, third succeeds
         Sensor sensor1 = Sensor.builder()
                 .id(1L)
@@ -332,21 +428,49 @@ class ElasticsearchSyncServiceTest {
 
         when(sensorRepository.findAll()).thenReturn(Arrays.asList(sensor1, sensor2, sensor3));
 
-        // Make second save throw exception using a counter approach
-        final int[] callCount = {0};
-        when(sensorSearchRepository.save(any(SensorDocument.class))).thenAnswer(invocation -> {
-            callCount[0]++;
-            if (callCount[0] == 2) {
-                throw new RuntimeException("Indexing failed");
-            }
-            return invocation.getArgument(0);
-        });
+        // The second document of the bulk request fails
+        BulkIndexWriter.Outcome success = outcome(true, null);
+        BulkIndexWriter.Outcome failure = outcome(false, "mapper_parsing_exception: Indexing failed");
+        when(bulkIndexWriter.write(anyList())).thenReturn(List.of(success, failure, success));
 
         // When
-        syncService.syncAllSensors();
+        int indexed = syncService.syncAllSensors();
 
-        // Then - Should process all 3 despite failure on sensor 2
+        // Then - Should process all 3 despite failure on sensor 2, which is kept for retry
         verify(sensorRepository).findAll();
-        verify(sensorSearchRepository, times(3)).save(any(SensorDocument.class));
+        assertEquals(2, indexed);
+        assertEquals(List.of(1L, 2L, 3L), writtenIds(SensorDocument.class));
+        verify(deadLetterService).record(argThat((IndexChange change) -> "SensorDocument:2".equals(change.getKey())),
+                eq("mapper_parsing_exception: Indexing failed"));
+    }
+
+    @Test
+    void testSyncSensor_QueuesDocumentInsteadOfWritingDirectly() {
+        // When
+        syncService.syncSensor(testSensor);
+
+        // Then - The document is built on the caller thread and handed to the pipeline
+        ArgumentCaptor<IndexChange> captor = ArgumentCaptor.forClass(IndexChange.class);
+        verify(indexingPipeline).submit(captor.capture());
+        verify(bulkIndexWriter, never()).write(anyList());
+
+        IndexChange change = captor.getValue();
+        assertEquals(IndexChange.Operation.INDEX, change.getOperation());
+        assertEquals(SensorDocument.class, change.getDocumentClass());
+        assertEquals(testSensor.getId(), change.getDocumentId());
+    }
+
+    @Test
+    void testDeleteCompany_QueuesDelete() {
+        // When
+        syncService.deleteCompany(1L);
+
+        // Then
+        ArgumentCaptor<IndexChange> captor = ArgumentCaptor.forClass(IndexChange.class);
+        verify(indexingPipeline).submit(captor.capture());
+        verifyNoInteractions(bulkIndexWriter);
+
+        assertEquals(IndexChange.Operation.DELETE, captor.getValue().getOperation());
+        assertEquals("CompanyDocument:1", captor.getValue().getKey());
     }
 }
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -200,4 +204,60 @@ class LoginAttemptServiceTest {
         assertDoesNotThrow(() -> loginAttemptService.loginFailed(username));
         assertDoesNotThrow(() -> loginAttemptService.loginSucceeded(username));
     }
+
+    @Test
+    @DisplayName("Should count every concurrent failed attempt")
+    void testConcurrentFailures() throws Exception {
+        String username = "testuser";
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    loginAttemptService.loginFailed(username, "10.0.0.1");
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(4000, loginAttemptService.getFailedAttempts(username));
+        assertEquals(4000, loginAttemptService.getIpFailedAttempts("10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("Should block a client IP spraying many usernames")
+    void testIpBlockedAcrossUsernames() {
+        String clientIp = "203.0.113.7";
+
+        for (int i = 0; i < 49; i++) {
+            loginAttemptService.loginFailed("user" + i, clientIp);
+        }
+        assertFalse(loginAttemptService.isIpBlocked(clientIp));
+
+        loginAttemptService.loginFailed("user49", clientIp);
+
+        assertTrue(loginAttemptService.isIpBlocked(clientIp));
+        assertFalse(loginAttemptService.isIpBlocked("203.0.113.8"));
+        // No single account reached its limit
+        assertFalse(loginAttemptService.isBlocked("user0"));
+        assertTrue(loginAttemptService.getIpBlockSeconds() > 0);
+    }
+
+    @Test
+    @DisplayName("Should not block with empty client IP")
+    void testEmptyClientIp() {
+        assertDoesNotThrow(() -> loginAttemptService.loginFailed("testuser", null));
+        assertDoesNotThrow(() -> loginAttemptService.loginFailed("testuser", ""));
+
+        assertFalse(loginAttemptService.isIpBlocked(null));
+        assertFalse(loginAttemptService.isIpBlocked(""));
+        assertEquals(0, loginAttemptService.getIpFailedAttempts(null));
+        assertEquals(2, loginAttemptService.getFailedAttempts("testuser"));
+    }
 }
@@ -0,0 +1,127 @@
+package com.globalsearch.service;
+
+import com.globalsearch.service.SloEvaluator.BurnRule;
+import com.globalsearch.service.SloEvaluator.Objective;
+import com.globalsearch.service.SloEvaluator.ObjectiveStatus;
+import com.globalsearch.service.SloEvaluator.SloStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SloEvaluator
+ */
+class SloEvaluatorTest {
+
+    private PerformanceMetricsService metricsService;
+    private NotificationService notificationService;
+    private SloEvaluator sloEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new PerformanceMetricsService();
+        ReflectionTestUtils.setField(metricsService, "ringSize", 64);
+        ReflectionTestUtils.setField(metricsService, "defaultWindowMinutes", 15);
+        metricsService.init();
+
+        notificationService = mock(NotificationService.class);
+        sloEvaluator = new SloEvaluator(metricsService, notificationService);
+        ReflectionTestUtils.setField(sloEvaluator, "enabled", true);
+        ReflectionTestUtils.setField(sloEvaluator, "latencyThresholdMs", 1000L);
+        ReflectionTestUtils.setField(sloEvaluator, "latencyObjective", 0.99);
+        ReflectionTestUtils.setField(sloEvaluator, "averageTargetMs", 500L);
+        ReflectionTestUtils.setField(sloEvaluator, "latencyFastBurnRate", 14.4);
+        ReflectionTestUtils.setField(sloEvaluator, "latencySlowBurnRate", 6.0);
+        ReflectionTestUtils.setField(sloEvaluator, "averageFastBurnRate", 2.0);
+        ReflectionTestUtils.setField(sloEvaluator, "averageSlowBurnRate", 1.2);
+        ReflectionTestUtils.setField(sloEvaluator, "minRequests", 20L);
+    }
+
+    @Test
+    @DisplayName("Should report full budgets and send no alerts for fast queries")
+    void testHealthy() {
+        record("tenant-a", 100, 100);
+
+        sloEvaluator.evaluate();
+
+        SloStatus status = sloEvaluator.getStatuses().get("tenant-a");
+        assertNotNull(status);
+        assertEquals(100, status.getQueriesLast24h());
+        assertEquals(1.0, status.getObjectives().get(Objective.LATENCY).getBudgetRemaining());
+        assertEquals(0.8, status.getObjectives().get(Objective.AVERAGE).getBudgetRemaining());
+        assertTrue(status.getObjectives().get(Objective.LATENCY).getFiring().isEmpty());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Should fire the slow burn alert once per scope when 10% of queries exceed 1s")
+    void testSlowBurnAlert() {
+        record("tenant-a", 90, 100);
+        record("tenant-a", 10, 2000);
+
+        sloEvaluator.evaluate();
+        sloEvaluator.evaluate();
+
+        ObjectiveStatus latency = sloEvaluator.getStatuses().get("tenant-a").getObjectives().get(Objective.LATENCY);
+        // 10% slow against a 1% budget
+        assertEquals(10.0, latency.getBurnRates().get("5m"));
+        assertEquals(-9.0, latency.getBudgetRemaining());
+        assertEquals(1, latency.getFiring().size());
+        assertTrue(latency.getFiring().contains(BurnRule.SLOW));
+        assertTrue(sloEvaluator.getStatuses().get(SloEvaluator.GLOBAL_SCOPE)
+                .getObjectives().get(Objective.AVERAGE).getFiring().isEmpty());
+
+        verify(notificationService, times(1)).sendAlert(eq("tenant-a"), contains("p99 < 1000ms"), eq("WARNING"));
+        verify(notificationService, times(1)).sendSystemAlert(contains("all tenants"), eq("WARNING"));
+    }
+
+    @Test
+    @DisplayName("Should resolve firing alerts once the metrics are gone")
+    void testResolve() {
+        record("tenant-a", 50, 2000);
+        sloEvaluator.evaluate();
+        verify(notificationService, times(2)).sendAlert(eq("tenant-a"), anyString(), eq("ERROR"));
+
+        metricsService.clearMetrics();
+        sloEvaluator.evaluate();
+
+        verify(notificationService, times(4)).sendAlert(eq("tenant-a"), contains("back to normal"), eq("SUCCESS"));
+        verify(notificationService, times(4)).sendSystemAlert(contains("back to normal"), eq("SUCCESS"));
+        assertTrue(sloEvaluator.getStatuses().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not fire below the minimum number of requests")
+    void testMinRequests() {
+        record("tenant-a", 5, 3000);
+
+        sloEvaluator.evaluate();
+
+        assertTrue(sloEvaluator.getStatuses().get("tenant-a").getObjectives().get(Objective.LATENCY).getFiring().isEmpty());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Average burn rate should be the mean latency divided by the target")
+    void testAverageBurnRate() {
+        record("tenant-a", 10, 750);
+
+        double burnRate = sloEvaluator.burnRate(Objective.AVERAGE,
+                metricsService.summarize(Duration.ofMinutes(5), "tenant-a", 1000));
+
+        assertEquals(1.5, burnRate, 0.01);
+    }
+
+    private void record(String tenantId, int count, long executionTimeMs) {
+        for (int i = 0; i < count; i++) {
+            metricsService.recordQueryExecution(tenantId, "global_search", executionTimeMs);
+        }
+    }
+}
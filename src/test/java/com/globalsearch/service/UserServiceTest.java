@@ -5,12 +5,14 @@ import com.globalsearch.dto.request.UpdateUserRequest;
 import com.globalsearch.dto.response.UserResponse;
 import com.globalsearch.entity.User;
 import com.globalsearch.repository.UserRepository;
+import com.globalsearch.service.auth.UserAuthChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
@@ -21,6 +23,7 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +35,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -159,6 +165,63 @@ class UserServiceTest {
         // Then
         assertNotNull(response);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher, never()).publishEvent(any(UserAuthChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateUser_DisablePublishesAuthChange() {
+        // Given
+        UpdateUserRequest updateRequest = UpdateUserRequest.builder()
+                .enabled(false)
+                .build();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        // When
+        userService.updateUser(1L, updateRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof UserAuthChangedEvent && ((UserAuthChangedEvent) event).getUserId().equals(1L)
+                        && "testuser".equals(((UserAuthChangedEvent) event).getUsername())
+                        && ((UserAuthChangedEvent) event).isRevokeTokens()));
+    }
+
+    @Test
+    void testUpdateUser_AddedRoleDoesNotRevokeTokens() {
+        // Given
+        UpdateUserRequest updateRequest = UpdateUserRequest.builder()
+                .roles(new HashSet<>(Set.of(User.Role.VIEWER, User.Role.MANAGER)))
+                .build();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        // When
+        userService.updateUser(1L, updateRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof UserAuthChangedEvent && !((UserAuthChangedEvent) event).isRevokeTokens()));
+    }
+
+    @Test
+    void testUpdateUser_LostRoleRevokesTokens() {
+        // Given
+        UpdateUserRequest updateRequest = UpdateUserRequest.builder()
+                .roles(new HashSet<>(Set.of(User.Role.OPERATOR)))
+                .build();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        // When
+        userService.updateUser(1L, updateRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof UserAuthChangedEvent && ((UserAuthChangedEvent) event).isRevokeTokens()));
     }
 
     @Test
@@ -180,7 +243,7 @@ class UserServiceTest {
     @Test
     void testDeleteUser_Success() {
         // Given
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         doNothing().when(userRepository).deleteById(1L);
 
         // When
@@ -188,12 +251,15 @@ class UserServiceTest {
 
         // Then
         verify(userRepository, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof UserAuthChangedEvent && "testuser".equals(((UserAuthChangedEvent) event).getUsername())
+                        && ((UserAuthChangedEvent) event).isRevokeTokens()));
     }
 
     @Test
     void testDeleteUser_NotFound() {
         // Given
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(IllegalArgumentException.class, () -> {
@@ -0,0 +1,66 @@
+package com.globalsearch.service.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CountMinSketch
+ */
+class CountMinSketchTest {
+
+    private static final long WINDOW = 60_000;
+    private static final long NOW = 1_000 * WINDOW;
+
+    @Test
+    @DisplayName("Should count repeated keys exactly when they do not collide")
+    void testCounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024, WINDOW);
+
+        for (int i = 0; i < 10; i++) {
+            sketch.add("10.0.0.1", NOW);
+        }
+        sketch.add("10.0.0.2", NOW);
+
+        assertEquals(10, sketch.estimate("10.0.0.1", NOW));
+        assertEquals(1, sketch.estimate("10.0.0.2", NOW));
+        assertEquals(0, sketch.estimate("10.0.0.3", NOW));
+    }
+
+    @Test
+    @DisplayName("Should never undercount and keep the overcount small when full")
+    void testOvercountBounded() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024, WINDOW);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.add("spray-" + i, NOW);
+        }
+        for (int i = 0; i < 50; i++) {
+            sketch.add("attacker", NOW);
+        }
+
+        long attacker = sketch.estimate("attacker", NOW);
+        assertTrue(attacker >= 50);
+        assertTrue(attacker < 100, "Estimate " + attacker);
+    }
+
+    @Test
+    @DisplayName("Should count the previous window and forget older ones")
+    void testSlidingWindows() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024, WINDOW);
+        sketch.add("10.0.0.1", NOW);
+        sketch.add("10.0.0.1", NOW + WINDOW);
+
+        assertEquals(2, sketch.estimate("10.0.0.1", NOW + WINDOW));
+        assertEquals(1, sketch.add("10.0.0.1", NOW + 3 * WINDOW));
+        assertEquals(0, sketch.estimate("10.0.0.1", NOW + 5 * WINDOW));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 1024, WINDOW));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 0, WINDOW));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 1024, 0));
+    }
+}
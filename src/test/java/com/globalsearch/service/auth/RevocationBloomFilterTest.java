@@ -0,0 +1,63 @@
+package com.globalsearch.service.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RevocationBloomFilter
+ */
+class RevocationBloomFilterTest {
+
+    @Test
+    @DisplayName("Should contain every key that was put")
+    void testNoFalseNegatives() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(1000, 0.01);
+        String[] keys = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.put(keys[i]);
+        }
+
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate at capacity")
+    void testFalsePositiveRate() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("live-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "False positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should report nothing for an empty filter")
+    void testEmpty() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain(UUID.randomUUID().toString()));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new RevocationBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new RevocationBloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RevocationBloomFilter(100, 1));
+    }
+}
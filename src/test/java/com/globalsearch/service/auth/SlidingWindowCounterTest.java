@@ -0,0 +1,63 @@
+package com.globalsearch.service.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SlidingWindowCounter
+ */
+class SlidingWindowCounterTest {
+
+    @Test
+    @DisplayName("Should count events within the window")
+    void testCountsWithinWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(6, 1000);
+
+        assertEquals(1, counter.increment(10_000));
+        assertEquals(2, counter.increment(10_500));
+        assertEquals(3, counter.increment(12_000));
+        assertEquals(3, counter.sum(15_999));
+    }
+
+    @Test
+    @DisplayName("Should drop buckets as they leave the window")
+    void testSlides() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(6, 1000);
+        counter.increment(10_000);
+        counter.increment(12_000);
+
+        // The window ending in bucket 16 starts at bucket 11
+        assertEquals(1, counter.sum(16_000));
+        assertEquals(0, counter.sum(18_000));
+    }
+
+    @Test
+    @DisplayName("Should reuse a slot for a new period")
+    void testReusesSlot() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(2, 1000);
+        counter.increment(10_000);
+        counter.increment(10_100);
+
+        // Bucket 12 takes the slot of bucket 10
+        assertEquals(1, counter.increment(12_000));
+        assertEquals(1, counter.sum(12_500));
+    }
+
+    @Test
+    @DisplayName("Should ignore buckets from the future")
+    void testClockGoingBack() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(6, 1000);
+        counter.increment(20_000);
+
+        assertEquals(0, counter.sum(10_000));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(6, 0));
+    }
+}
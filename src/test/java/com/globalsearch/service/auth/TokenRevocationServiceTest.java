@@ -0,0 +1,153 @@
+package com.globalsearch.service.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenRevocationService
+ */
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService();
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(service, "expectedRevocations", 1000);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        service.init();
+    }
+
+    private static Claims claims(String tokenId, String username, long issuedAt, long expiresAt) {
+        return Jwts.claims()
+                .id(tokenId)
+                .subject(username)
+                .issuedAt(new Date(issuedAt))
+                .expiration(new Date(expiresAt))
+                .build();
+    }
+
+    private static Claims token(String username) {
+        long now = System.currentTimeMillis();
+        return claims(UUID.randomUUID().toString(), username, now - 1000, now + 60000);
+    }
+
+    @Test
+    @DisplayName("Should revoke only the logged-out token")
+    void testRevokeToken() {
+        Claims revoked = token("alice");
+        Claims other = token("alice");
+
+        service.revoke(revoked);
+
+        assertTrue(service.isRevoked(revoked));
+        assertFalse(service.isRevoked(other));
+    }
+
+    @Test
+    @DisplayName("Should revoke every token of a user issued before the sign-out")
+    void testRevokeUser() throws Exception {
+        Claims before = token("alice");
+        Claims otherUser = token("bob");
+
+        service.revokeUser("alice");
+        Thread.sleep(5);
+        Claims after = claims(UUID.randomUUID().toString(), "alice",
+                System.currentTimeMillis() + 1000, System.currentTimeMillis() + 60000);
+
+        assertTrue(service.isRevoked(before));
+        assertFalse(service.isRevoked(otherUser));
+        assertFalse(service.isRevoked(after));
+    }
+
+    @Test
+    @DisplayName("Should revoke the user of a token without an id")
+    void testRevokeTokenWithoutId() {
+        long now = System.currentTimeMillis();
+        Claims legacy = claims(null, "alice", now - 1000, now + 60000);
+
+        service.revoke(legacy);
+
+        assertTrue(service.isRevoked(legacy));
+        assertTrue(service.isRevoked(token("alice")));
+    }
+
+    @Test
+    @DisplayName("Should ignore revocations of expired tokens")
+    void testExpiredToken() {
+        long now = System.currentTimeMillis();
+        String tokenId = UUID.randomUUID().toString();
+
+        service.applyRevokedToken(tokenId, now - 1);
+
+        assertFalse(service.isRevoked(claims(tokenId, "alice", now - 2000, now + 60000)));
+    }
+
+    @Test
+    @DisplayName("Should keep revocations across a filter rebuild")
+    void testRebuildFilters() {
+        Claims revoked = token("alice");
+        service.revoke(revoked);
+        service.revokeUser("bob");
+        Claims bobToken = claims(UUID.randomUUID().toString(), "bob",
+                System.currentTimeMillis() - 5000, System.currentTimeMillis() + 60000);
+
+        service.rebuildFilters();
+
+        assertTrue(service.isRevoked(revoked));
+        assertTrue(service.isRevoked(bobToken));
+        assertFalse(service.isRevoked(token("carol")));
+    }
+
+    @Test
+    @DisplayName("Should propagate local revocations but not applied remote ones")
+    void testPropagation() {
+        TokenRevocationPropagator propagator = mock(TokenRevocationPropagator.class);
+        doThrow(new IllegalStateException("broker down")).when(propagator).userSignedOut(anyString(), anyLong());
+        service.setPropagators(List.of(propagator));
+        Claims revoked = token("alice");
+
+        service.revoke(revoked);
+        service.revokeUser("bob");
+        service.applyRevokedToken(UUID.randomUUID().toString(), System.currentTimeMillis() + 60000);
+        service.applyUserNotBefore("carol", System.currentTimeMillis());
+
+        verify(propagator).tokenRevoked(eq(revoked.getId()), eq(revoked.getExpiration().getTime()));
+        verify(propagator).userSignedOut(eq("bob"), anyLong());
+        verifyNoMoreInteractions(propagator);
+        // A failed propagation still revokes locally
+        assertTrue(service.isRevoked(claims(UUID.randomUUID().toString(), "bob",
+                System.currentTimeMillis() - 5000, System.currentTimeMillis() + 60000)));
+    }
+
+    @Test
+    @DisplayName("Should sign out and propagate users whose access was taken away")
+    void testUserAuthChanged() {
+        TokenRevocationPropagator propagator = mock(TokenRevocationPropagator.class);
+        service.setPropagators(List.of(propagator));
+        Claims disabled = token("alice");
+        Claims promoted = token("bob");
+
+        service.onUserAuthChanged(new UserAuthChangedEvent(1L, "alice", true));
+        service.onUserAuthChanged(new UserAuthChangedEvent(2L, "bob", false));
+        service.onUserAuthChanged(new UserAuthChangedEvent(3L));
+
+        assertTrue(service.isRevoked(disabled));
+        assertFalse(service.isRevoked(promoted));
+        verify(propagator).userSignedOut(eq("alice"), anyLong());
+        verifyNoMoreInteractions(propagator);
+    }
+}
@@ -0,0 +1,84 @@
+package com.globalsearch.service.auth;
+
+import com.globalsearch.entity.User;
+import com.globalsearch.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserAuthStateCache
+ */
+class UserAuthStateCacheTest {
+
+    private UserRepository userRepository;
+    private UserAuthStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        cache = new UserAuthStateCache(userRepository);
+        ReflectionTestUtils.setField(cache, "jwtExpiration", 60000L);
+        cache.init();
+    }
+
+    private static User user(boolean enabled, User.Role... roles) {
+        return User.builder()
+                .id(1L)
+                .username("alice")
+                .tenantId("TENANT_001")
+                .roles(EnumSet.of(roles[0], roles))
+                .enabled(enabled)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should not override tokens of users without a change")
+    void testNoEntry() {
+        assertNull(cache.getIfChangedSince(1L, new Date()));
+        assertEquals(0, cache.size());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should override only tokens issued before the change")
+    void testOverridesOlderTokens() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(true, User.Role.VIEWER)));
+        Date before = new Date(System.currentTimeMillis() - 5000);
+
+        cache.onUserAuthChanged(new UserAuthChangedEvent(1L));
+
+        UserAuthStateCache.AuthState state = cache.getIfChangedSince(1L, before);
+        assertNotNull(state);
+        assertTrue(state.isEnabled());
+        assertEquals(EnumSet.of(User.Role.VIEWER), state.getRoles());
+        assertEquals("TENANT_001", state.getTenantId());
+
+        Date after = new Date(System.currentTimeMillis() + 1000);
+        assertNull(cache.getIfChangedSince(1L, after));
+    }
+
+    @Test
+    @DisplayName("Should record disabled and deleted users as disabled")
+    void testDisabledAndDeleted() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(false, User.Role.MANAGER)));
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        Date issuedAt = new Date(System.currentTimeMillis() - 5000);
+
+        cache.refresh(1L);
+        cache.refresh(2L);
+
+        assertFalse(cache.getIfChangedSince(1L, issuedAt).isEnabled());
+        assertFalse(cache.getIfChangedSince(2L, issuedAt).isEnabled());
+        assertTrue(cache.getIfChangedSince(2L, issuedAt).getRoles().isEmpty());
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.globalsearch.service.fault;
+
+import com.globalsearch.entity.Company;
+import com.globalsearch.entity.Sensor;
+import com.globalsearch.repository.CompanyRepository;
+import com.globalsearch.repository.SensorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FaultInjectionPostProcessor
+ */
+class FaultInjectionPostProcessorTest {
+
+    private FaultInjector faultInjector;
+    private FaultInjectionPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp() {
+        faultInjector = new FaultInjector();
+        postProcessor = new FaultInjectionPostProcessor(faultInjector);
+    }
+
+    @Test
+    @DisplayName("Should route repository calls through the fault of their entity type")
+    void testRepositoryProxy() {
+        CompanyRepository companyRepository = mock(CompanyRepository.class);
+        SensorRepository sensorRepository = mock(SensorRepository.class);
+        when(companyRepository.findAll()).thenReturn(List.of(new Company()));
+        when(sensorRepository.findAll()).thenReturn(List.of(new Sensor()));
+
+        CompanyRepository companies = (CompanyRepository)
+                postProcessor.postProcessAfterInitialization(companyRepository, "companyRepository");
+        SensorRepository sensors = (SensorRepository)
+                postProcessor.postProcessAfterInitialization(sensorRepository, "sensorRepository");
+
+        assertEquals(1, companies.findAll().size());
+
+        faultInjector.setFault(FaultInjector.JPA, "company", FaultSpec.builder().errorRate(1.0).build());
+
+        assertThrows(DataAccessResourceFailureException.class, companies::findAll);
+        assertEquals(1, sensors.findAll().size());
+        verify(companyRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should leave other beans alone")
+    void testOtherBeans() {
+        Object bean = new Object();
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "other"));
+    }
+}
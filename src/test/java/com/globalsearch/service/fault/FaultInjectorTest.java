@@ -0,0 +1,172 @@
+package com.globalsearch.service.fault;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FaultInjector
+ */
+class FaultInjectorTest {
+
+    private FaultInjector faultInjector;
+
+    @BeforeEach
+    void setUp() {
+        faultInjector = new FaultInjector();
+    }
+
+    @Test
+    @DisplayName("Should pass calls through when no fault is set")
+    void testNoFault() throws Throwable {
+        assertEquals("ok", faultInjector.invoke(FaultInjector.SEARCH, "sensor", () -> "ok"));
+        assertTrue(faultInjector.getStats().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should fail calls at the error rate, only for the configured entity type")
+    void testErrorRate() throws Throwable {
+        faultInjector.setFault(FaultInjector.SEARCH, "sensor", FaultSpec.builder().errorRate(1.0).build());
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> faultInjector.invoke(FaultInjector.SEARCH, "sensor", () -> "ok"));
+        assertEquals("ok", faultInjector.invoke(FaultInjector.SEARCH, "company", () -> "ok"));
+        assertEquals("ok", faultInjector.invoke(FaultInjector.JPA, "sensor", () -> "ok"));
+
+        Map<String, Long> stats = faultInjector.getStats().get("search:sensor");
+        assertEquals(1L, stats.get("calls"));
+        assertEquals(1L, stats.get("errors"));
+    }
+
+    @Test
+    @DisplayName("Should apply a layer-wide fault unless the entity type has its own")
+    void testLayerWideFault() throws Throwable {
+        faultInjector.setFault(FaultInjector.CLIENT, FaultInjector.ANY, FaultSpec.builder().errorRate(1.0).build());
+        faultInjector.setFault(FaultInjector.CLIENT, "companies", FaultSpec.builder().build());
+
+        assertEquals("client:*", faultInjector.resolve(FaultInjector.CLIENT, "sensor"));
+        assertEquals("client:company", faultInjector.resolve(FaultInjector.CLIENT, "company"));
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> faultInjector.invoke(FaultInjector.CLIENT, "sensor", () -> "ok"));
+        assertEquals("ok", faultInjector.invoke(FaultInjector.CLIENT, "company", () -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Should add fixed latency")
+    void testFixedLatency() throws Throwable {
+        faultInjector.setFault(FaultInjector.JPA, "sensor", FaultSpec.builder()
+                .distribution(FaultSpec.LatencyDistribution.FIXED)
+                .latencyMs(50)
+                .build());
+
+        long start = System.nanoTime();
+        faultInjector.invoke(FaultInjector.JPA, "sensor", () -> "ok");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 50, "Expected at least 50ms, was " + elapsedMs);
+        assertEquals(1L, faultInjector.getStats().get("jpa:sensor").get("delayed"));
+    }
+
+    @Test
+    @DisplayName("Should sample a heavy tail from the Pareto distribution, capped at maxLatencyMs")
+    void testParetoLatency() {
+        FaultSpec spec = FaultSpec.builder()
+                .distribution(FaultSpec.LatencyDistribution.PARETO)
+                .latencyMs(10)
+                .paretoShape(1.2)
+                .maxLatencyMs(5000)
+                .build();
+
+        List<Long> samples = IntStream.range(0, 20000)
+                .mapToObj(i -> FaultInjector.sampleLatencyMs(spec))
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertTrue(samples.get(0) >= 10);
+        assertTrue(samples.get(samples.size() - 1) <= 5000);
+        long p50 = samples.get(samples.size() / 2);
+        long p99 = samples.get(samples.size() * 99 / 100);
+        // Median 10 * 2^(1/1.2) ~ 17ms, p99 10 * 100^(1/1.2) ~ 464ms
+        assertTrue(p50 < 30, "p50 was " + p50);
+        assertTrue(p99 > 10 * p50, "p99 " + p99 + " should be far above p50 " + p50);
+    }
+
+    @Test
+    @DisplayName("Should hang and then time out at the hang rate")
+    void testHang() {
+        faultInjector.setFault(FaultInjector.SEARCH, "zone", FaultSpec.builder().hangRate(1.0).hangMs(20).build());
+
+        assertThrows(QueryTimeoutException.class,
+                () -> faultInjector.invoke(FaultInjector.SEARCH, "zone", () -> "ok"));
+        assertEquals(1L, faultInjector.getStats().get("search:zone").get("hangs"));
+    }
+
+    @Test
+    @DisplayName("Should drop elements from list and page results")
+    void testDropRate() throws Throwable {
+        faultInjector.setFault(FaultInjector.SEARCH, "sensor", FaultSpec.builder().dropRate(0.5).build());
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            hits.add(i);
+        }
+
+        List<?> partial = (List<?>) faultInjector.invoke(FaultInjector.SEARCH, "sensor", () -> hits);
+        assertTrue(partial.size() > 350 && partial.size() < 650, "Kept " + partial.size());
+
+        Page<Integer> page = new PageImpl<>(hits, PageRequest.of(0, 1000), 5000);
+        Page<?> partialPage = (Page<?>) faultInjector.invoke(FaultInjector.SEARCH, "sensor", () -> page);
+        assertTrue(partialPage.getContent().size() < 1000);
+        assertEquals(5000, partialPage.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown layers and out-of-range settings")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> faultInjector.setFault("cache", "sensor", FaultSpec.builder().build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> faultInjector.setFault(FaultInjector.SEARCH, "sensor", FaultSpec.builder().errorRate(1.5).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> faultInjector.setFault(FaultInjector.SEARCH, "sensor", FaultSpec.builder().paretoShape(0).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> faultInjector.setFault(FaultInjector.SEARCH, " ", FaultSpec.builder().build()));
+    }
+
+    @Test
+    @DisplayName("Should clear faults")
+    void testClear() throws Throwable {
+        faultInjector.setFault(FaultInjector.SEARCH, "sensor", FaultSpec.builder().errorRate(1.0).build());
+        faultInjector.setFault(FaultInjector.JPA, "sensor", FaultSpec.builder().errorRate(1.0).build());
+
+        assertTrue(faultInjector.clearFault(FaultInjector.SEARCH, "sensor"));
+        assertFalse(faultInjector.clearFault(FaultInjector.SEARCH, "sensor"));
+        assertEquals("ok", faultInjector.invoke(FaultInjector.SEARCH, "sensor", () -> "ok"));
+
+        faultInjector.clearAll();
+        assertTrue(faultInjector.getFaults().isEmpty());
+        assertEquals("ok", faultInjector.invoke(FaultInjector.JPA, "sensor", () -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Should derive entity types from repository, document and index names")
+    void testEntityTypeOf() {
+        assertEquals("sensor", FaultInjector.entityTypeOf("SensorSearchRepository"));
+        assertEquals("sensor", FaultInjector.entityTypeOf("SensorRepository"));
+        assertEquals("company", FaultInjector.entityTypeOf("CompanyDocument"));
+        assertEquals("company", FaultInjector.entityTypeOf("companies"));
+        assertEquals("auditlog", FaultInjector.entityTypeOf("AuditLogRepository"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.globalsearch.service.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FlightRecorderService
+ */
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FlightRecorderService flightRecorderService;
+
+    @BeforeEach
+    void setUp() {
+        flightRecorderService = new FlightRecorderService();
+        ReflectionTestUtils.setField(flightRecorderService, "enabled", true);
+        ReflectionTestUtils.setField(flightRecorderService, "maxDurationSeconds", 60L);
+        ReflectionTestUtils.setField(flightRecorderService, "maxSizeMb", 10L);
+        ReflectionTestUtils.setField(flightRecorderService, "directory", tempDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecorderService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should record custom events and return the .jfr file on stop")
+    void testRecordCustomEvents() throws Exception {
+        Map<String, Object> started = flightRecorderService.start(Duration.ofMinutes(10), "default");
+        assertEquals("RUNNING", started.get("state"));
+        // Capped by max-duration-seconds
+        assertEquals("PT1M", started.get("duration"));
+
+        SearchStageEvent event = new SearchStageEvent();
+        event.stage = "elasticsearch";
+        event.tenantId = "tenant-a";
+        event.entityType = "sensors";
+        event.stageDuration = 1_500_000;
+        event.commit();
+
+        Path file = flightRecorderService.stop();
+        assertTrue(Files.size(file) > 0);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent stage = events.stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.globalsearch.SearchStage"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("tenant-a", stage.getString("tenantId"));
+        assertEquals("sensors", stage.getString("entityType"));
+        assertEquals(Duration.ofNanos(1_500_000), stage.getDuration("stageDuration"));
+    }
+
+    @Test
+    @DisplayName("Should allow only one recording at a time")
+    void testSingleRecording() {
+        flightRecorderService.start(Duration.ofSeconds(30), "default");
+
+        assertThrows(IllegalStateException.class, () -> flightRecorderService.start(Duration.ofSeconds(30), "default"));
+        assertNotNull(flightRecorderService.getStatus().get("recording"));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid settings, durations and stopping without a recording")
+    void testInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> flightRecorderService.start(Duration.ofSeconds(30), "verbose"));
+        assertThrows(IllegalArgumentException.class, () -> flightRecorderService.start(Duration.ZERO, "default"));
+        assertThrows(IllegalStateException.class, () -> flightRecorderService.stop());
+    }
+
+    @Test
+    @DisplayName("Should not start when profiling is disabled")
+    void testDisabled() {
+        ReflectionTestUtils.setField(flightRecorderService, "enabled", false);
+
+        assertThrows(IllegalStateException.class, () -> flightRecorderService.start(Duration.ofSeconds(30), "default"));
+    }
+}
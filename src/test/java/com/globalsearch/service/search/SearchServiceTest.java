@@ -61,6 +61,12 @@ class SearchServiceTest {
     @Mock
     private PerformanceMetricsService performanceMetricsService;
 
+    @Mock
+    private SearchStageMetrics stageMetrics;
+
+    @Mock
+    private SlowQueryLog slowQueryLog;
+
     @Mock
     private HttpServletRequest httpRequest;
 
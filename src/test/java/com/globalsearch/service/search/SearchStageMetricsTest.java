@@ -0,0 +1,109 @@
+package com.globalsearch.service.search;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchStageMetrics
+ */
+class SearchStageMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchStageMetrics stageMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stageMetrics = new SearchStageMetrics(meterRegistry);
+        ReflectionTestUtils.setField(stageMetrics, "maxTenantTags", 2);
+    }
+
+    @Test
+    @DisplayName("Should record stage timings tagged by stage, tenant and entity type")
+    void testRecordStage() {
+        stageMetrics.record(SearchStageMetrics.Stage.ELASTICSEARCH, "TENANT_A", "companies",
+                TimeUnit.MILLISECONDS.toNanos(12));
+        stageMetrics.recordHits("TENANT_A", "companies", 7);
+
+        Timer timer = meterRegistry.get("search.stage.duration")
+                .tag("stage", "elasticsearch")
+                .tag("tenant", "TENANT_A")
+                .tag("entity_type", "companies")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(12, timer.totalTime(TimeUnit.MILLISECONDS), 0.01);
+        assertEquals(7, meterRegistry.get("search.stage.hits").summary().totalAmount(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Should fold tenants beyond the tag limit into 'other'")
+    void testTenantTagLimit() {
+        assertEquals("TENANT_A", stageMetrics.tenantTag("TENANT_A"));
+        assertEquals("TENANT_B", stageMetrics.tenantTag("TENANT_B"));
+        assertEquals(SearchStageMetrics.OTHER_TENANT, stageMetrics.tenantTag("TENANT_C"));
+        assertEquals("TENANT_A", stageMetrics.tenantTag("TENANT_A"));
+        assertEquals(SearchStageMetrics.UNKNOWN_TENANT, stageMetrics.tenantTag(null));
+    }
+
+    @Test
+    @DisplayName("Should register each meter once and reuse it")
+    void testMeterReuse() {
+        for (int i = 0; i < 3; i++) {
+            stageMetrics.record(SearchStageMetrics.Stage.CONVERSION, "TENANT_A", "sensors", 1000);
+            stageMetrics.record(SearchStageMetrics.Stage.CONVERSION, "TENANT_A", "zones", 1000);
+            stageMetrics.recordHits("TENANT_A", "sensors", 1);
+        }
+
+        assertEquals(2, meterRegistry.find("search.stage.duration").timers().size());
+        assertEquals(3, meterRegistry.get("search.stage.duration").tag("entity_type", "sensors").timer().count());
+        assertEquals(1, meterRegistry.find("search.stage.hits").summaries().size());
+        assertEquals(3, meterRegistry.get("search.stage.hits").summary().count());
+    }
+
+    @Test
+    @DisplayName("Should not exceed the tenant tag limit under concurrent new tenants")
+    void testTenantTagLimitConcurrent() throws Exception {
+        ReflectionTestUtils.setField(stageMetrics, "maxTenantTags", 10);
+        Set<String> tags = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        tags.add(stageMetrics.tenantTag("TENANT_" + thread + "_" + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        tags.remove(SearchStageMetrics.OTHER_TENANT);
+        assertEquals(10, tags.size());
+    }
+}
@@ -0,0 +1,74 @@
+package com.globalsearch.service.search;
+
+import com.globalsearch.service.search.SearchStageMetrics.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchTrace
+ */
+class SearchTraceTest {
+
+    @AfterEach
+    void tearDown() {
+        SearchTrace.end();
+    }
+
+    @Test
+    @DisplayName("Should report a cache hit when no stage was recorded")
+    void testCacheHit() {
+        SearchTrace trace = SearchTrace.start(false);
+
+        assertTrue(trace.isCacheHit());
+        String header = trace.toServerTiming();
+        assertTrue(header.startsWith("cache;desc=hit, total;dur="), header);
+    }
+
+    @Test
+    @DisplayName("Should add recorded stages to the Server-Timing header")
+    void testServerTiming() {
+        SearchTrace trace = SearchTrace.start(false);
+        trace.record(Stage.ELASTICSEARCH, "companies", TimeUnit.MILLISECONDS.toNanos(12));
+        trace.record(Stage.ELASTICSEARCH, "sensors", TimeUnit.MILLISECONDS.toNanos(3));
+        trace.record(Stage.SORT_MERGE, SearchStageMetrics.ALL_ENTITY_TYPES, TimeUnit.MICROSECONDS.toNanos(250));
+
+        String header = trace.toServerTiming();
+
+        assertFalse(trace.isCacheHit());
+        assertTrue(header.startsWith("elasticsearch;dur=15.0, sort_merge;dur=0.25, cache;desc=miss"), header);
+    }
+
+    @Test
+    @DisplayName("Should collect per entity type timings and hits")
+    @SuppressWarnings("unchecked")
+    void testDetailedTimings() {
+        SearchTrace trace = SearchTrace.start(true);
+        trace.record(Stage.ELASTICSEARCH, "companies", TimeUnit.MILLISECONDS.toNanos(8));
+        trace.recordHits("companies", 4);
+        trace.record(Stage.CONVERSION, "companies", TimeUnit.MILLISECONDS.toNanos(1));
+
+        Map<String, Object> timings = trace.toTimingMap();
+
+        assertEquals("miss", timings.get("cache"));
+        Map<String, Object> companies = (Map<String, Object>) ((Map<String, Object>) timings.get("entityTypes")).get("companies");
+        assertEquals(8.0, companies.get("elasticsearchMs"));
+        assertEquals(4, companies.get("hits"));
+        assertEquals(1.0, companies.get("conversionMs"));
+
+        // A plain trace keeps only the stage totals and the hits
+        SearchTrace plain = SearchTrace.start(false);
+        plain.recordHits("sensors", 2);
+        plain.recordHits("zones", 0);
+        plain.record(Stage.ELASTICSEARCH, "sensors", TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(Map.of("zones", Map.of("hits", 0), "sensors", Map.of("hits", 2)), plain.getEntityBreakdown());
+        assertNull(ReflectionTestUtils.getField(plain, "entityTimings"));
+        assertEquals(Map.of("elasticsearch", 1.0), plain.getStageMillis());
+    }
+}
@@ -0,0 +1,149 @@
+package com.globalsearch.service.search;
+
+import com.globalsearch.dto.request.GlobalSearchRequest;
+import com.globalsearch.service.search.SearchStageMetrics.Stage;
+import com.globalsearch.service.search.SlowQueryLog.ProfileStatus;
+import com.globalsearch.service.search.SlowQueryLog.ShapeStats;
+import com.globalsearch.service.search.SlowQueryLog.SlowQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SlowQueryLog
+ */
+class SlowQueryLogTest {
+
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() {
+        slowQueryLog = new SlowQueryLog();
+        ReflectionTestUtils.setField(slowQueryLog, "thresholdMs", 1000L);
+        ReflectionTestUtils.setField(slowQueryLog, "capacity", 3);
+        ReflectionTestUtils.setField(slowQueryLog, "maxShapes", 2);
+        ReflectionTestUtils.setField(slowQueryLog, "profileEnabled", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SearchTrace.end();
+    }
+
+    @Test
+    @DisplayName("Should ignore queries at or below the threshold")
+    void testBelowThreshold() {
+        slowQueryLog.capture(request("pump"), "tenant-a", "global_search", 1000);
+
+        assertTrue(slowQueryLog.getRecent(10, null).isEmpty());
+        assertTrue(slowQueryLog.getShapes(10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should capture the request shape, hits per index and stage timings")
+    void testCapture() {
+        SearchTrace trace = SearchTrace.start(false);
+        trace.record(Stage.ELASTICSEARCH, "sensors", TimeUnit.MILLISECONDS.toNanos(1200));
+        trace.recordHits("sensors", 42);
+
+        GlobalSearchRequest request = GlobalSearchRequest.builder()
+                .query("temperature  sensor")
+                .entityTypes(List.of("sensors", "companies"))
+                .city("Aarhus")
+                .page(3)
+                .enableFuzzySearch(true)
+                .enableHighlighting(true)
+                .build();
+        slowQueryLog.capture(request, "tenant-a", "global_search", 1500);
+
+        SlowQuery slowQuery = slowQueryLog.getRecent(10, null).get(0);
+        assertEquals(1500, slowQuery.getDurationMs());
+        assertEquals("tenant-a", slowQuery.getTenantId());
+        assertEquals("global_search|companies,sensors|terms=2|fuzzy=1|highlighting|filters=city|size=20",
+                slowQuery.getShape().getKey());
+        assertEquals(42, slowQuery.getEntityTypes().get("sensors").get("hits"));
+        assertEquals(1200.0, slowQuery.getStageTimingsMs().get("elasticsearch"));
+        assertEquals(ProfileStatus.NOT_PROFILED, slowQuery.getProfileStatus());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent entries and bound the number of shapes")
+    void testBounded() {
+        slowQueryLog.capture(request("a"), "tenant-a", "global_search", 1100);
+        slowQueryLog.capture(request("b"), "tenant-a", "global_search", 1200);
+        slowQueryLog.capture(request("c d"), "tenant-a", "global_search", 1300);
+        slowQueryLog.capture(request("e f g"), "tenant-a", "global_search", 1400);
+
+        List<SlowQuery> recent = slowQueryLog.getRecent(10, null);
+        assertEquals(3, recent.size());
+        assertEquals(1400, recent.get(0).getDurationMs());
+        assertEquals(1200, recent.get(2).getDurationMs());
+
+        List<ShapeStats> shapes = slowQueryLog.getShapes(10);
+        assertEquals(3, shapes.size());
+        ShapeStats oneTerm = shapes.stream()
+                .filter(stats -> stats.getKey().contains("terms=1")).findFirst().orElseThrow();
+        assertEquals(2, oneTerm.getCount());
+        assertEquals(1200, oneTerm.getMaxMs());
+        assertEquals(1150, oneTerm.getAverageMs());
+        assertTrue(shapes.stream().anyMatch(stats -> SlowQueryLog.OTHER_SHAPE.equals(stats.getKey())));
+    }
+
+    @Test
+    @DisplayName("Should filter recent entries by shape key")
+    void testFilterByShape() {
+        slowQueryLog.capture(request("a"), "tenant-a", "global_search", 1100);
+        slowQueryLog.capture(request("a b"), "tenant-a", "global_search", 1200);
+
+        String key = slowQueryLog.getRecent(10, null).get(0).getShape().getKey();
+
+        List<SlowQuery> filtered = slowQueryLog.getRecent(10, key);
+        assertEquals(1, filtered.size());
+        assertEquals(1200, filtered.get(0).getDurationMs());
+    }
+
+    @Test
+    @DisplayName("Should profile automatically when enabled and mark rejected profiles as failed")
+    void testAutomaticProfile() {
+        SearchProfiler profiler = mock(SearchProfiler.class);
+        slowQueryLog.setSearchProfiler(profiler);
+        ReflectionTestUtils.setField(slowQueryLog, "profileEnabled", true);
+
+        slowQueryLog.capture(request("pump"), "tenant-a", "global_search", 2000);
+
+        SlowQuery slowQuery = slowQueryLog.getRecent(1, null).get(0);
+        verify(profiler).profile(slowQuery);
+        assertEquals(ProfileStatus.PENDING, slowQuery.getProfileStatus());
+
+        doThrow(new TaskRejectedException("full")).when(profiler).profile(any());
+        slowQueryLog.capture(request("valve"), null, "admin_cross_tenant_search", 2000);
+
+        SlowQuery rejected = slowQueryLog.getRecent(1, null).get(0);
+        assertTrue(rejected.isCrossTenant());
+        assertEquals(ProfileStatus.FAILED, rejected.getProfileStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject profile requests for unknown entries or without Elasticsearch")
+    void testRequestProfileErrors() {
+        slowQueryLog.capture(request("pump"), "tenant-a", "global_search", 2000);
+        long id = slowQueryLog.getRecent(1, null).get(0).getId();
+
+        assertThrows(IllegalArgumentException.class, () -> slowQueryLog.requestProfile(id + 1));
+        assertThrows(IllegalStateException.class, () -> slowQueryLog.requestProfile(id));
+    }
+
+    private GlobalSearchRequest request(String query) {
+        return GlobalSearchRequest.builder().query(query).build();
+    }
+}
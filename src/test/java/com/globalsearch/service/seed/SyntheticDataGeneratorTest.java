@@ -0,0 +1,258 @@
+package com.globalsearch.service.seed;
+
+import com.globalsearch.service.sync.BulkIndexWriter;
+import com.globalsearch.service.sync.IndexChange;
+import com.globalsearch.service.sync.IndexManagementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SyntheticDataGenerator
+ */
+class SyntheticDataGeneratorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SyntheticDataGenerator generator;
+    private List<Object[]> statements;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        generator = new SyntheticDataGenerator(jdbcTemplate);
+        statements = Collections.synchronizedList(new ArrayList<>());
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(), any())).thenReturn(0);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> rows = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                statements.add(new Object[]{sql, row.clone()});
+            }
+            return new int[rows.size()];
+        });
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            statements.add(new Object[]{arguments[0], Arrays.copyOfRange(arguments, 1, arguments.length)});
+            return 1;
+        });
+    }
+
+    private static SyntheticDataOptions.SyntheticDataOptionsBuilder small() {
+        return SyntheticDataOptions.builder()
+                .tenants(5)
+                .locations(40)
+                .zonesPerLocation(2)
+                .sensorsPerZone(3)
+                .readingsPerSensor(4)
+                .batchSize(7)
+                .threads(2);
+    }
+
+    private List<Object[]> rows(String sql) {
+        synchronized (statements) {
+            return statements.stream()
+                    .filter(statement -> sql.equals(statement[0]))
+                    .map(statement -> (Object[]) statement[1])
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should spread locations over tenants by the Zipf skew")
+    void testTenantSizes() {
+        assertArrayEquals(new int[]{10, 10, 10, 10}, SyntheticDataGenerator.tenantSizes(4, 40, 0));
+
+        int[] skewed = SyntheticDataGenerator.tenantSizes(100, 10000, 1.0);
+        assertEquals(10000, Arrays.stream(skewed).sum());
+        for (int i = 1; i < skewed.length; i++) {
+            assertTrue(skewed[i] <= skewed[i - 1]);
+            assertTrue(skewed[i] >= 1);
+        }
+        // Harmonic number H(100) ~ 5.19, so the largest tenant holds about a fifth
+        assertTrue(skewed[0] > 1900 && skewed[0] < 2100, "Largest tenant has " + skewed[0]);
+    }
+
+    @Test
+    @DisplayName("Should give every tenant contiguous, non-overlapping id ranges")
+    void testPlanIdRanges() {
+        SyntheticDataOptions options = small().build();
+        List<SyntheticDataGenerator.TenantPlan> plans = SyntheticDataGenerator.plan(options, 10, 20, 30, 40);
+
+        assertEquals("SYN_00001", plans.get(0).tenantId);
+        assertEquals(11, plans.get(0).companyId);
+        assertEquals(21, plans.get(0).firstLocationId);
+        assertEquals(31, plans.get(0).firstZoneId);
+        assertEquals(41, plans.get(0).firstSensorId);
+        for (int i = 1; i < plans.size(); i++) {
+            SyntheticDataGenerator.TenantPlan previous = plans.get(i - 1);
+            SyntheticDataGenerator.TenantPlan plan = plans.get(i);
+            assertEquals(previous.firstLocationId + previous.locations, plan.firstLocationId);
+            assertEquals(previous.firstZoneId + previous.locations * 2L, plan.firstZoneId);
+            assertEquals(previous.firstSensorId + previous.locations * 6L, plan.firstSensorId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write every row once with parents before the rows that reference them")
+    void testGenerate() {
+        Map<String, Object> status = generator.generate(small().build());
+
+        assertEquals(false, status.get("running"));
+        assertNull(status.get("error"));
+        assertEquals(5, rows(SyntheticDataGenerator.INSERT_COMPANY).size());
+        assertEquals(40, rows(SyntheticDataGenerator.INSERT_LOCATION).size());
+        assertEquals(80, rows(SyntheticDataGenerator.INSERT_ZONE).size());
+        assertEquals(240, rows(SyntheticDataGenerator.INSERT_SENSOR).size());
+        assertEquals(960, rows(SyntheticDataGenerator.INSERT_SENSOR_DATA).size());
+        assertEquals(960L, status.get("sensorReadings"));
+
+        // Ids start after the existing maximum
+        Set<Object> sensorIds = rows(SyntheticDataGenerator.INSERT_SENSOR).stream()
+                .map(row -> row[0]).collect(Collectors.toSet());
+        assertEquals(240, sensorIds.size());
+        assertTrue(sensorIds.contains(101L));
+        assertTrue(sensorIds.contains(340L));
+
+        // Replay the statements in order: a referenced id must already be written
+        Set<Object> companies = new HashSet<>();
+        Set<Object> locations = new HashSet<>();
+        Set<Object> zones = new HashSet<>();
+        Set<Object> sensors = new HashSet<>();
+        synchronized (statements) {
+            for (Object[] statement : statements) {
+                Object[] row = (Object[]) statement[1];
+                if (SyntheticDataGenerator.INSERT_COMPANY.equals(statement[0])) {
+                    companies.add(row[0]);
+                } else if (SyntheticDataGenerator.INSERT_LOCATION.equals(statement[0])) {
+                    assertTrue(companies.contains(row[12]));
+                    locations.add(row[0]);
+                } else if (SyntheticDataGenerator.INSERT_ZONE.equals(statement[0])) {
+                    assertTrue(locations.contains(row[6]));
+                    zones.add(row[0]);
+                } else if (SyntheticDataGenerator.INSERT_SENSOR.equals(statement[0])) {
+                    assertTrue(zones.contains(row[7]));
+                    sensors.add(row[0]);
+                } else {
+                    assertTrue(sensors.contains(row[0]));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should generate the same data for the same seed, whatever the thread count")
+    void testDeterministic() {
+        generator.generate(small().threads(1).build());
+        List<String> first = contents(SyntheticDataGenerator.INSERT_SENSOR);
+        statements.clear();
+
+        generator.generate(small().threads(4).build());
+        List<String> second = contents(SyntheticDataGenerator.INSERT_SENSOR);
+        statements.clear();
+
+        generator.generate(small().seed(7).build());
+        List<String> otherSeed = contents(SyntheticDataGenerator.INSERT_SENSOR);
+
+        assertEquals(first, second);
+        assertNotEquals(first, otherSeed);
+    }
+
+    private List<String> contents(String sql) {
+        // Timestamps are relative to the start of the run
+        return rows(sql).stream()
+                .map(row -> Arrays.stream(row)
+                        .filter(value -> !(value instanceof Timestamp))
+                        .map(String::valueOf)
+                        .collect(Collectors.joining("|")))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should bulk-index companies, locations, zones and sensors in bulk-load mode")
+    void testIndexing() throws Exception {
+        BulkIndexWriter bulkIndexWriter = mock(BulkIndexWriter.class);
+        IndexManagementService indexManagementService = mock(IndexManagementService.class);
+        BulkIndexWriter.Outcome success = mock(BulkIndexWriter.Outcome.class);
+        when(success.isSuccess()).thenReturn(true);
+        when(bulkIndexWriter.write(anyList())).thenAnswer(invocation -> {
+            List<IndexChange> changes = invocation.getArgument(0);
+            return Collections.nCopies(changes.size(), success);
+        });
+        generator.setBulkIndexWriter(bulkIndexWriter);
+        generator.setIndexManagementService(indexManagementService);
+
+        Map<String, Object> status = generator.generate(small().build());
+
+        assertEquals(5L + 40 + 80 + 240, status.get("documentsIndexed"));
+        assertEquals(0L, status.get("indexFailures"));
+        verify(indexManagementService).beginBulkLoad();
+        verify(indexManagementService).endBulkLoad(365L);
+    }
+
+    @Test
+    @DisplayName("Should reserve id ranges past AUTO_INCREMENT and reserve again after a concurrent insert")
+    void testReserveIds() {
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM companies", Long.class))
+                .thenReturn(100L, 102L);
+        when(jdbcTemplate.queryForObject(eq("SELECT COUNT(*) FROM companies WHERE id > ? AND id <= ?"),
+                eq(Integer.class), any(), any()))
+                .thenReturn(2, 0);
+
+        generator.generate(small().build());
+
+        verify(jdbcTemplate).execute("ALTER TABLE companies AUTO_INCREMENT = 106");
+        verify(jdbcTemplate).execute("ALTER TABLE companies AUTO_INCREMENT = 108");
+        verify(jdbcTemplate).execute("ALTER TABLE locations AUTO_INCREMENT = 141");
+        verify(jdbcTemplate).execute("ALTER TABLE zones AUTO_INCREMENT = 181");
+        verify(jdbcTemplate).execute("ALTER TABLE sensors AUTO_INCREMENT = 341");
+        Set<Object> companyIds = rows(SyntheticDataGenerator.INSERT_COMPANY).stream()
+                .map(row -> row[0]).collect(Collectors.toSet());
+        assertEquals(Set.of(103L, 104L, 105L, 106L, 107L), companyIds);
+    }
+
+    @Test
+    @DisplayName("Should give up when the id ranges keep being taken")
+    void testReserveIdsGivesUp() {
+        when(jdbcTemplate.queryForObject(eq("SELECT COUNT(*) FROM companies WHERE id > ? AND id <= ?"),
+                eq(Integer.class), any(), any()))
+                .thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> generator.generate(small().build()));
+        verify(jdbcTemplate, never()).update(eq(SyntheticDataGenerator.INSERT_COMPANY), any(Object[].class));
+        assertEquals(false, generator.getStatus().get("running"));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid options and an existing tenant prefix")
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.generate(small().tenantPrefix("syn-lower").build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.generate(small().tenants(10).locations(5).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.generate(small().tenantSkew(-1).build()));
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(), any())).thenReturn(3);
+        assertThrows(IllegalStateException.class, () -> generator.generate(small().build()));
+        // A rejected run does not block the next one
+        assertEquals(false, generator.getStatus().get("running"));
+    }
+}
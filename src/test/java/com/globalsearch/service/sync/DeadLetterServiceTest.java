@@ -0,0 +1,195 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.document.CompanyDocument;
+import com.globalsearch.entity.Company;
+import com.globalsearch.entity.IndexingDeadLetter;
+import com.globalsearch.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeadLetterService retry scheduling
+ */
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    @Mock
+    private IndexingDeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private BulkIndexWriter bulkIndexWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private ZoneRepository zoneRepository;
+
+    @Mock
+    private SensorRepository sensorRepository;
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private DashboardRepository dashboardRepository;
+
+    @InjectMocks
+    private DeadLetterService deadLetterService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(deadLetterService, "batchSize", 500);
+        ReflectionTestUtils.setField(deadLetterService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(deadLetterService, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(deadLetterService, "maxBackoffMs", 60000L);
+    }
+
+    @Test
+    @DisplayName("Backoff should grow exponentially with jitter and stay under the cap")
+    void testBackoffBounds() {
+        for (int i = 0; i < 100; i++) {
+            long first = deadLetterService.backoffMillis(1);
+            assertTrue(first >= 500 && first <= 1000, "first attempt: " + first);
+
+            long third = deadLetterService.backoffMillis(3);
+            assertTrue(third >= 2000 && third <= 4000, "third attempt: " + third);
+
+            long capped = deadLetterService.backoffMillis(40);
+            assertTrue(capped >= 30000 && capped <= 60000, "capped: " + capped);
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete resolved letters and reschedule failed ones")
+    void testRetryBatch() throws IOException {
+        IndexingDeadLetter resolved = letter(1L);
+        IndexingDeadLetter failing = letter(2L);
+        when(deadLetterRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                eq(IndexingDeadLetter.Status.PENDING), any(LocalDateTime.class), any()))
+                .thenReturn(List.of(resolved, failing));
+        when(companyRepository.findAllById(anyList())).thenReturn(List.of(company(1L), company(2L)));
+        when(bulkIndexWriter.write(anyList())).thenReturn(List.of(
+                BulkIndexWriter.Outcome.SUCCESS,
+                BulkIndexWriter.Outcome.failed("es_rejected_execution_exception: queue full")));
+        when(deadLetterRepository.deleteIfUnchanged(1L, 0L)).thenReturn(1);
+        when(deadLetterRepository.rescheduleIfUnchanged(eq(2L), eq(0L), any(), anyInt(), any(), any(), any()))
+                .thenReturn(1);
+
+        int retried = deadLetterService.retryBatch();
+
+        assertEquals(2, retried);
+        verify(deadLetterRepository).deleteIfUnchanged(1L, 0L);
+        verify(deadLetterRepository).rescheduleIfUnchanged(eq(2L), eq(0L), eq(IndexingDeadLetter.Status.PENDING), eq(1),
+                eq("es_rejected_execution_exception: queue full"), eq(failing.getNextAttemptAt()), any());
+        verify(deadLetterRepository, never()).deleteAll(anyIterable());
+        verify(deadLetterRepository, never()).saveAll(anyIterable());
+        assertEquals(1, failing.getAttempts());
+        assertEquals(IndexingDeadLetter.Status.PENDING, failing.getStatus());
+        assertTrue(failing.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should delete the document when the entity no longer exists")
+    void testRetryBatch_MissingEntityBecomesDelete() throws IOException {
+        when(deadLetterRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                eq(IndexingDeadLetter.Status.PENDING), any(LocalDateTime.class), any()))
+                .thenReturn(List.of(letter(7L)));
+        when(companyRepository.findAllById(anyList())).thenReturn(List.of());
+        when(bulkIndexWriter.write(anyList())).thenReturn(List.of(BulkIndexWriter.Outcome.SUCCESS));
+
+        deadLetterService.retryBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<IndexChange>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkIndexWriter).write(captor.capture());
+        assertEquals(IndexChange.Operation.DELETE, captor.getValue().get(0).getOperation());
+        assertEquals(7L, captor.getValue().get(0).getDocumentId());
+    }
+
+    @Test
+    @DisplayName("Should park a letter after max attempts")
+    void testRetryBatch_ParksAfterMaxAttempts() throws IOException {
+        IndexingDeadLetter letter = letter(1L);
+        letter.setAttempts(2);
+        when(deadLetterRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                eq(IndexingDeadLetter.Status.PENDING), any(LocalDateTime.class), any()))
+                .thenReturn(List.of(letter));
+        when(companyRepository.findAllById(anyList())).thenReturn(List.of(company(1L)));
+        when(bulkIndexWriter.write(anyList())).thenThrow(new IOException("Connection refused"));
+
+        deadLetterService.retryBatch();
+
+        assertEquals(3, letter.getAttempts());
+        assertEquals(IndexingDeadLetter.Status.PARKED, letter.getStatus());
+        assertEquals("Connection refused", letter.getLastError());
+    }
+
+    @Test
+    @DisplayName("Should update the existing letter when a concurrent failure inserted it first")
+    void testRecord_UpsertOnConflict() {
+        IndexingDeadLetter existing = letter(3L);
+        existing.setVersion(4L);
+        when(deadLetterRepository.findFirstByDocumentTypeAndEntityId("CompanyDocument", 3L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(existing));
+        when(deadLetterRepository.save(any(IndexingDeadLetter.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'CompanyDocument-3'"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        deadLetterService.record(CompanyDocument.class, 3L, "mapper_parsing_exception");
+
+        ArgumentCaptor<IndexingDeadLetter> captor = ArgumentCaptor.forClass(IndexingDeadLetter.class);
+        verify(deadLetterRepository, times(2)).save(captor.capture());
+        assertNull(captor.getAllValues().get(0).getId());
+        assertSame(existing, captor.getAllValues().get(1));
+        assertEquals("mapper_parsing_exception", existing.getLastError());
+    }
+
+    private IndexingDeadLetter letter(Long entityId) {
+        return IndexingDeadLetter.builder()
+                .id(entityId)
+                .documentType("CompanyDocument")
+                .entityId(entityId)
+                .operation(IndexingDeadLetter.Operation.INDEX)
+                .status(IndexingDeadLetter.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    private Company company(Long id) {
+        return Company.builder()
+                .id(id)
+                .name("Company " + id)
+                .tenantId("TENANT_" + id)
+                .status(Company.CompanyStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.document.SensorDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IndexChange versioning
+ */
+class IndexChangeTest {
+
+    @Test
+    @DisplayName("Index change should carry the document's sync version")
+    void testIndexVersion() {
+        IndexChange change = IndexChange.index(sensor(1L, 1_700_000_000_000L));
+
+        assertEquals(IndexChange.Operation.INDEX, change.getOperation());
+        assertEquals(1_700_000_000_000L, change.getVersion());
+        assertEquals("SensorDocument:1", change.getKey());
+    }
+
+    @Test
+    @DisplayName("Newer change should supersede an older one, not the other way round")
+    void testSupersedes() {
+        IndexChange older = IndexChange.index(sensor(1L, 1_000L));
+        IndexChange newer = IndexChange.index(sensor(1L, 2_000L));
+
+        assertTrue(newer.supersedes(older));
+        assertFalse(older.supersedes(newer));
+    }
+
+    @Test
+    @DisplayName("Delete should supersede an index change of an earlier update")
+    void testDeleteSupersedesEarlierUpdate() {
+        IndexChange update = IndexChange.index(sensor(1L, System.currentTimeMillis() - 1_000L));
+        IndexChange delete = IndexChange.delete(SensorDocument.class, 1L);
+
+        assertTrue(delete.supersedes(update));
+        assertFalse(update.supersedes(delete));
+    }
+
+    @Test
+    @DisplayName("Unversioned changes should fall back to arrival order")
+    void testUnversioned() {
+        IndexChange versioned = IndexChange.index(sensor(1L, 5_000L));
+        IndexChange unversioned = IndexChange.index(sensor(1L, null));
+
+        assertNull(unversioned.getVersion());
+        assertTrue(unversioned.supersedes(versioned));
+    }
+
+    private SensorDocument sensor(Long id, Long syncVersion) {
+        return SensorDocument.builder()
+                .id(id)
+                .name("Sensor " + id)
+                .syncVersion(syncVersion)
+                .build();
+    }
+}
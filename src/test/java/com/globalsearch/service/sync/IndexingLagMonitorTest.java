@@ -0,0 +1,104 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.document.SensorDocument;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IndexingLagMonitor
+ */
+class IndexingLagMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IndexManagementService indexManagementService;
+    private IndexingLagMonitor lagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        indexManagementService = mock(IndexManagementService.class);
+        lagMonitor = new IndexingLagMonitor(meterRegistry, indexManagementService);
+        ReflectionTestUtils.setField(lagMonitor, "waitForRefresh", true);
+        ReflectionTestUtils.setField(lagMonitor, "sloMs", 1000L);
+    }
+
+    @Test
+    @DisplayName("Should record lag from commit to visibility per entity type")
+    @SuppressWarnings("unchecked")
+    void testRecordLag() {
+        for (int i = 1; i <= 100; i++) {
+            IndexChange change = IndexChange.delete(SensorDocument.class, (long) i);
+            lagMonitor.record("sensors", change, change.getCommittedAtMillis() + i * 20L);
+        }
+
+        Timer timer = meterRegistry.get("search.indexing.lag").tag("entity_type", "sensors").timer();
+        assertEquals(100, timer.count());
+        assertEquals(2000, timer.max(TimeUnit.MILLISECONDS), 0.01);
+
+        Map<String, Object> stats = lagMonitor.getLagStats(Duration.ofMinutes(15));
+        Map<String, Object> sensors = (Map<String, Object>) ((Map<String, Object>) stats.get("entityTypes")).get("sensors");
+        assertEquals(100L, sensors.get("count"));
+        assertEquals(1000L, (long) sensors.get("p50Ms"), 10);
+        assertEquals(1900L, (long) sensors.get("p95Ms"), 20);
+        assertEquals(2000L, sensors.get("maxMs"));
+        assertEquals(49.0, sensors.get("belowSloPercent"));
+        assertEquals(100L, ((Map<String, Object>) stats.get("all")).get("count"));
+    }
+
+    @Test
+    @DisplayName("Should add the index refresh interval when not waiting for refresh")
+    void testRefreshIntervalAdded() {
+        ReflectionTestUtils.setField(lagMonitor, "waitForRefresh", false);
+        when(indexManagementService.getRefreshIntervalMillis("sensors")).thenReturn(5000L);
+
+        IndexChange change = IndexChange.delete(SensorDocument.class, 1L).markCommitted();
+        lagMonitor.record("sensors", change, change.getCommittedAtMillis() + 200);
+
+        Timer timer = meterRegistry.get("search.indexing.lag").tag("entity_type", "sensors").timer();
+        assertEquals(5200, timer.totalTime(TimeUnit.MILLISECONDS), 0.01);
+        assertEquals("bulk_ack_plus_refresh_interval", lagMonitor.getLagStats(Duration.ofMinutes(1)).get("measuredUntil"));
+    }
+
+    @Test
+    @DisplayName("Should expose the pipeline backlog as gauges")
+    void testBacklogGauges() {
+        lagMonitor.bindBacklog(() -> 42, () -> 1500);
+
+        assertEquals(42, meterRegistry.get("search.indexing.backlog").gauge().value(), 0.01);
+        assertEquals(1500, meterRegistry.get("search.indexing.oldest.pending").gauge().value(), 0.01);
+        assertEquals(42L, lagMonitor.getLagStats(Duration.ofMinutes(1)).get("backlog"));
+    }
+
+    @Test
+    @DisplayName("Should not wait for refresh or measure while a bulk load is active")
+    void testBulkLoad() {
+        assertTrue(lagMonitor.shouldWaitForRefresh());
+        assertTrue(lagMonitor.isMeasuring());
+
+        when(indexManagementService.isBulkLoadActive()).thenReturn(true);
+
+        assertFalse(lagMonitor.shouldWaitForRefresh());
+        assertFalse(lagMonitor.isMeasuring());
+    }
+
+    @Test
+    @DisplayName("Lag should never be negative")
+    void testNegativeLagClamped() {
+        IndexChange change = IndexChange.delete(SensorDocument.class, 1L).markCommitted();
+        lagMonitor.record("sensors", change, change.getCommittedAtMillis() - 500);
+
+        Timer timer = meterRegistry.get("search.indexing.lag").timer();
+        assertEquals(0, timer.totalTime(TimeUnit.MILLISECONDS), 0.01);
+    }
+}
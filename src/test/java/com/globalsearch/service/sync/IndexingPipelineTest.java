@@ -0,0 +1,238 @@
+package com.globalsearch.service.sync;
+
+import com.globalsearch.document.SensorDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IndexingPipeline
+ */
+class IndexingPipelineTest {
+
+    private BulkIndexWriter bulkIndexWriter;
+    private DeadLetterService deadLetterService;
+    private IndexingLagMonitor lagMonitor;
+    private IndexingPipeline pipeline;
+
+    private List<List<IndexChange>> batches;
+    private CountDownLatch writeEntered;
+    private CountDownLatch releaseWrites;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bulkIndexWriter = mock(BulkIndexWriter.class);
+        deadLetterService = mock(DeadLetterService.class);
+        lagMonitor = mock(IndexingLagMonitor.class);
+        pipeline = new IndexingPipeline(bulkIndexWriter, deadLetterService, lagMonitor);
+
+        batches = Collections.synchronizedList(new ArrayList<>());
+        writeEntered = new CountDownLatch(1);
+        releaseWrites = new CountDownLatch(0);
+        when(lagMonitor.isMeasuring()).thenReturn(true);
+        when(bulkIndexWriter.indexName(any())).thenReturn("sensors");
+        when(bulkIndexWriter.write(anyList(), anyBoolean())).thenAnswer(invocation -> {
+            List<IndexChange> changes = invocation.getArgument(0);
+            batches.add(new ArrayList<>(changes));
+            writeEntered.countDown();
+            releaseWrites.await(10, TimeUnit.SECONDS);
+            return Collections.nCopies(changes.size(), BulkIndexWriter.Outcome.SUCCESS);
+        });
+
+        configure(10, 1, 500, 50, IndexingPipeline.OverflowPolicy.BLOCK, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWrites.countDown();
+        if (ReflectionTestUtils.getField(pipeline, "consumers") != null) {
+            pipeline.stop();
+        }
+    }
+
+    private void configure(int queueCapacity, int consumers, int batchSize, long lingerMs,
+                           IndexingPipeline.OverflowPolicy overflowPolicy, long blockTimeoutMs) {
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(pipeline, "consumerCount", consumers);
+        ReflectionTestUtils.setField(pipeline, "batchSize", batchSize);
+        ReflectionTestUtils.setField(pipeline, "lingerMs", lingerMs);
+        ReflectionTestUtils.setField(pipeline, "overflowPolicy", overflowPolicy);
+        ReflectionTestUtils.setField(pipeline, "blockTimeoutMs", blockTimeoutMs);
+    }
+
+    /**
+     * One consumer, one change per batch, a queue of one and writes that block until released,
+     * so that the queue can be filled on purpose
+     */
+    private void startStalled(IndexingPipeline.OverflowPolicy overflowPolicy, long blockTimeoutMs) throws Exception {
+        configure(1, 1, 1, 0, overflowPolicy, blockTimeoutMs);
+        releaseWrites = new CountDownLatch(1);
+        pipeline.start();
+
+        assertTrue(pipeline.submit(change(1L, 1_000L)));
+        assertTrue(writeEntered.await(5, TimeUnit.SECONDS));
+        // The consumer is stuck in the write, this change fills the queue
+        assertTrue(pipeline.submit(change(2L, 1_000L)));
+    }
+
+    private static IndexChange change(Long id, Long syncVersion) {
+        return IndexChange.index(SensorDocument.builder()
+                .id(id)
+                .name("Sensor " + id)
+                .syncVersion(syncVersion)
+                .build());
+    }
+
+    private int written() {
+        synchronized (batches) {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    @Test
+    @DisplayName("Should send full batches without waiting for the linger time")
+    void testBatchSize() throws Exception {
+        configure(100, 1, 3, 5000, IndexingPipeline.OverflowPolicy.BLOCK, 5000);
+        pipeline.start();
+
+        for (long id = 1; id <= 6; id++) {
+            assertTrue(pipeline.submit(change(id, 1_000L)));
+        }
+
+        verify(bulkIndexWriter, timeout(2000).times(2)).write(argThat(changes -> changes.size() == 3), anyBoolean());
+        assertEquals(6, written());
+    }
+
+    @Test
+    @DisplayName("Should send a partial batch once the linger time has passed")
+    void testLinger() throws Exception {
+        configure(100, 1, 500, 100, IndexingPipeline.OverflowPolicy.BLOCK, 5000);
+        pipeline.start();
+
+        pipeline.submit(change(1L, 1_000L));
+        pipeline.submit(change(2L, 1_000L));
+
+        verify(bulkIndexWriter, timeout(2000)).write(argThat(changes -> changes.size() == 2), anyBoolean());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    @DisplayName("Should send only the newest change per document of a batch")
+    void testCoalescing() throws Exception {
+        pipeline.start();
+        IndexChange older = change(1L, 1_000L);
+        IndexChange newer = change(1L, 2_000L);
+        IndexChange other = change(2L, 1_000L);
+
+        pipeline.flush(List.of(newer, other, older));
+
+        assertEquals(List.of(List.of(newer, other)), batches);
+        assertEquals(1L, pipeline.getStats().get("coalesced"));
+        assertEquals(2L, pipeline.getStats().get("indexed"));
+        verify(lagMonitor).record(eq("sensors"), same(newer), anyLong());
+        verify(lagMonitor).record(eq("sensors"), same(other), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should move failed changes and failed requests to the dead-letter store")
+    void testFailures() throws Exception {
+        pipeline.start();
+        IndexChange failing = change(1L, 1_000L);
+        IndexChange stale = change(2L, 1_000L);
+        IndexChange ok = change(3L, 1_000L);
+        when(bulkIndexWriter.write(anyList(), anyBoolean())).thenReturn(List.of(
+                BulkIndexWriter.Outcome.failed("mapper_parsing_exception: bad field"),
+                BulkIndexWriter.Outcome.STALE,
+                BulkIndexWriter.Outcome.SUCCESS));
+
+        pipeline.flush(List.of(failing, stale, ok));
+
+        verify(deadLetterService).recordAll(List.of(failing), "mapper_parsing_exception: bad field");
+        verify(lagMonitor).record(eq("sensors"), same(ok), anyLong());
+        verify(lagMonitor, never()).record(any(), same(stale), anyLong());
+        assertEquals(1L, pipeline.getStats().get("failed"));
+        assertEquals(1L, pipeline.getStats().get("stale"));
+
+        when(bulkIndexWriter.write(anyList(), anyBoolean())).thenThrow(new IOException("Connection refused"));
+        pipeline.flush(List.of(ok));
+
+        verify(deadLetterService).recordAll(List.of(ok), "Connection refused");
+        assertEquals(2L, pipeline.getStats().get("failed"));
+    }
+
+    @Test
+    @DisplayName("Should drop changes on a full queue with the DROP policy")
+    void testOverflowDrop() throws Exception {
+        startStalled(IndexingPipeline.OverflowPolicy.DROP, 0);
+
+        assertFalse(pipeline.submit(change(3L, 1_000L)));
+
+        assertEquals(1L, pipeline.getStats().get("dropped"));
+        verify(deadLetterService, never()).spill(any());
+    }
+
+    @Test
+    @DisplayName("Should spill changes on a full queue with the SPILL policy")
+    void testOverflowSpill() throws Exception {
+        startStalled(IndexingPipeline.OverflowPolicy.SPILL, 0);
+        IndexChange overflow = change(3L, 1_000L);
+
+        assertFalse(pipeline.submit(overflow));
+
+        assertEquals(1L, pipeline.getStats().get("spilled"));
+        verify(deadLetterService).spill(overflow);
+    }
+
+    @Test
+    @DisplayName("Should block on a full queue with the BLOCK policy, then spill after the timeout")
+    void testOverflowBlock() throws Exception {
+        startStalled(IndexingPipeline.OverflowPolicy.BLOCK, 100);
+        IndexChange overflow = change(3L, 1_000L);
+
+        long start = System.nanoTime();
+        assertFalse(pipeline.submit(overflow));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        verify(deadLetterService).spill(overflow);
+
+        // Space freed while the producer waits lets the change in
+        ReflectionTestUtils.setField(pipeline, "blockTimeoutMs", 5000L);
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> pipeline.submit(change(4L, 1_000L)));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        releaseWrites.countDown();
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should send every queued change before stopping and spill later submissions")
+    void testDrainOnStop() throws Exception {
+        configure(100, 2, 2, 50, IndexingPipeline.OverflowPolicy.BLOCK, 5000);
+        pipeline.start();
+
+        for (long id = 1; id <= 25; id++) {
+            assertTrue(pipeline.submit(change(id, 1_000L)));
+        }
+        pipeline.stop();
+
+        assertEquals(25, written());
+        assertEquals(0, pipeline.getQueueSize());
+
+        IndexChange late = change(26L, 1_000L);
+        assertFalse(pipeline.submit(late));
+        verify(deadLetterService).spill(late);
+    }
+}
@@ -0,0 +1,84 @@
+package com.globalsearch.service.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RangeChecksum
+ */
+class RangeChecksumTest {
+
+    @Test
+    @DisplayName("Should match regardless of row order")
+    void testOrderIndependent() {
+        RangeChecksum first = new RangeChecksum();
+        first.add(1L, 100L);
+        first.add(2L, 200L);
+        first.add(3L, 300L);
+
+        RangeChecksum second = new RangeChecksum();
+        second.add(3L, 300L);
+        second.add(1L, 100L);
+        second.add(2L, 200L);
+
+        assertTrue(first.matches(second));
+        assertEquals(3, first.getCount());
+    }
+
+    @Test
+    @DisplayName("Should detect a stale version")
+    void testStaleVersion() {
+        RangeChecksum database = new RangeChecksum();
+        database.add(1L, 1_700_000_000_500L);
+        database.add(2L, 1_700_000_000_000L);
+
+        RangeChecksum index = new RangeChecksum();
+        index.add(1L, 1_700_000_000_000L);
+        index.add(2L, 1_700_000_000_000L);
+
+        assertFalse(database.matches(index));
+    }
+
+    @Test
+    @DisplayName("Should detect a missing row")
+    void testMissingRow() {
+        RangeChecksum database = new RangeChecksum();
+        database.add(1L, 10L);
+        database.add(2L, 20L);
+
+        RangeChecksum index = new RangeChecksum();
+        index.add(1L, 10L);
+
+        assertFalse(database.matches(index));
+    }
+
+    @Test
+    @DisplayName("Should treat null version as zero, like the painless script")
+    void testNullVersion() {
+        assertEquals(RangeChecksum.contribution(42L, 0L), RangeChecksum.contribution(42L, null));
+    }
+
+    @Test
+    @DisplayName("Should keep contributions below the modulus")
+    void testContributionBounded() {
+        long contribution = RangeChecksum.contribution(Long.MAX_VALUE / 64, 1_900_000_000_000L);
+
+        assertTrue(contribution >= 0);
+        assertTrue(contribution < RangeChecksum.MODULUS);
+    }
+
+    @Test
+    @DisplayName("Should match a checksum rebuilt from aggregated count and sum")
+    void testMatchesAggregatedResult() {
+        RangeChecksum database = new RangeChecksum();
+        database.add(7L, 123L);
+        database.add(8L, null);
+
+        long sum = RangeChecksum.contribution(7L, 123L) + RangeChecksum.contribution(8L, null);
+
+        assertTrue(database.matches(new RangeChecksum(2, sum)));
+        assertFalse(database.matches(null));
+    }
+}
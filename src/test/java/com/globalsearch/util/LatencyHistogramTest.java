@@ -0,0 +1,111 @@
+package com.globalsearch.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyHistogram
+ */
+class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    @DisplayName("Bucket indexes should be contiguous and round-trip within 1/64")
+    void testBucketLayout() {
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT - 1; i++) {
+            assertEquals(LatencyHistogram.lowestValueAt(i + 1), LatencyHistogram.highestValueAt(i) + 1);
+        }
+        for (long value = 0; value < 5_000_000; value += 997) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.lowestValueAt(index) <= value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+            assertTrue(LatencyHistogram.highestValueAt(index) - LatencyHistogram.lowestValueAt(index) <= value / 64);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report count, min, max, mean and nearest-rank percentiles")
+    void testPercentiles() {
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.getMean());
+        assertEquals(100, histogram.getPercentile(10));
+        assertEquals(500, histogram.getPercentile(50), 5);
+        assertEquals(990, histogram.getPercentile(99), 10);
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    @DisplayName("SLA thresholds should be exact bucket boundaries")
+    void testCountBelowThresholds() {
+        histogram.record(99);
+        histogram.record(100);
+        histogram.record(499);
+        histogram.record(500);
+        histogram.record(999);
+        histogram.record(1000);
+        histogram.record(1999);
+        histogram.record(2000);
+
+        assertEquals(1, histogram.countBelow(100));
+        assertEquals(3, histogram.countBelow(500));
+        assertEquals(5, histogram.countBelow(1000));
+        assertEquals(7, histogram.countBelow(2000));
+    }
+
+    @Test
+    @DisplayName("Should merge histograms and clear on reset")
+    void testAddToAndReset() {
+        LatencyHistogram other = new LatencyHistogram();
+        histogram.record(10);
+        other.record(3000);
+
+        histogram.addTo(other);
+
+        assertEquals(2, other.getCount());
+        assertEquals(10, other.getMin());
+        assertEquals(3000, other.getMax());
+
+        other.reset();
+
+        assertEquals(0, other.getCount());
+        assertEquals(0, other.getMin());
+        assertEquals(0, other.getPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Should not lose values under concurrent recording")
+    void testConcurrentRecording() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 2000);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(80_000, histogram.countBelow(LatencyHistogram.MAX_TRACKABLE_VALUE));
+    }
+}
@@ -0,0 +1,95 @@
+package com.globalsearch.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RollingLatencySeries
+ */
+class RollingLatencySeriesTest {
+
+    // Hour-aligned start, so minute and hour rollups fall on predictable seconds
+    private static final long START_MILLIS = TimeUnit.HOURS.toMillis(480_000);
+
+    private AtomicLong clock;
+    private RollingLatencySeries series;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(START_MILLIS);
+        series = new RollingLatencySeries(clock::get);
+    }
+
+    @Test
+    @DisplayName("Should answer windows from seconds up to a day across rollups")
+    void testWindowsAcrossTiers() {
+        recordOnePerSecond(3 * 3600, 10);
+
+        assertEquals(60, series.snapshot(60).getCount());
+        assertEquals(600, series.snapshot(600).getCount());
+        assertEquals(3600, series.snapshot(3600).getCount());
+        assertEquals(7200, series.snapshot(7200).getCount());
+        assertEquals(3 * 3600, series.snapshot(RollingLatencySeries.MAX_WINDOW_SECONDS).getCount());
+    }
+
+    @Test
+    @DisplayName("Should count the partial minute and hour at the start of an unaligned window")
+    void testUnalignedWindows() {
+        // Ends 30.5 minutes past an hour, so no window below starts on a minute or hour boundary
+        recordOnePerSecond(7 * 3600 + 1831, 10);
+
+        assertEquals(90, series.snapshot(90).getCount());
+        assertEquals(300, series.summarize(300, 1000).getCount());
+        assertEquals(300, series.summarize(300, 1000).getBelow());
+        assertEquals(5400, series.snapshot(5400).getCount());
+        assertEquals(21600, series.summarize(21600, 1000).getCount());
+        assertEquals(21600 * 10, series.summarize(21600, 1000).getSum());
+
+        LatencyHistogram sixHours = series.snapshot(21600);
+        assertEquals(21600, sixHours.getCount());
+        assertEquals(10, sixHours.getPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Should keep percentiles when values are rolled up")
+    void testPercentilesSurviveRollup() {
+        for (int i = 0; i < 2 * 3600; i++) {
+            clock.set(START_MILLIS + i * 1000L + 500);
+            series.record(i % 100 == 0 ? 1500 : 20);
+        }
+
+        LatencyHistogram day = series.snapshot(RollingLatencySeries.MAX_WINDOW_SECONDS);
+        assertEquals(72, day.getCount() - day.countBelow(1000));
+        assertEquals(20, day.getPercentile(50));
+        assertEquals(1500, day.getMax());
+    }
+
+    @Test
+    @DisplayName("Should drop data older than the window and after an idle gap")
+    void testExpiry() {
+        recordOnePerSecond(120, 10);
+
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(30));
+        assertEquals(0, series.snapshot(60).getCount());
+        assertEquals(120, series.snapshot(3600).getCount());
+
+        clock.addAndGet(TimeUnit.HOURS.toMillis(25));
+        assertEquals(0, series.snapshot(RollingLatencySeries.MAX_WINDOW_SECONDS).getCount());
+
+        series.record(5);
+        assertEquals(1, series.snapshot(60).getCount());
+    }
+
+    private void recordOnePerSecond(int seconds, long valueMs) {
+        for (int i = 0; i < seconds; i++) {
+            clock.set(START_MILLIS + i * 1000L + 500);
+            series.record(valueMs);
+        }
+    }
+}